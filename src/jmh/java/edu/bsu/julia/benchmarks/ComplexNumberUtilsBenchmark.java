@@ -0,0 +1,80 @@
+package edu.bsu.julia.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math.complex.Complex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.bsu.julia.ComplexNumberUtils;
+
+/**
+ * formatting and parsing the text representation of the points used by the
+ * temp files and saved sessions
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComplexNumberUtilsBenchmark {
+	private static final int SIZE = 1024;
+
+	private Complex[] points;
+	private String[] exported;
+	private String[] displayed;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		points = new Complex[SIZE];
+		exported = new String[SIZE];
+		displayed = new String[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			points[i] = new Complex(random.nextGaussian(), random
+					.nextGaussian());
+			exported[i] = ComplexNumberUtils.exportString(points[i]);
+			displayed[i] = ComplexNumberUtils.complexToString(points[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public void exportString(Blackhole blackhole) {
+		for (Complex point : points)
+			blackhole.consume(ComplexNumberUtils.exportString(point));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public void complexToString(Blackhole blackhole) {
+		for (Complex point : points)
+			blackhole.consume(ComplexNumberUtils.complexToString(point));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public void parseExported(Blackhole blackhole) {
+		for (String s : exported)
+			blackhole.consume(ComplexNumberUtils.parseComplexNumber(s));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public void parseDisplayed(Blackhole blackhole) {
+		for (String s : displayed)
+			blackhole.consume(ComplexNumberUtils.parseComplexNumber(s));
+	}
+}
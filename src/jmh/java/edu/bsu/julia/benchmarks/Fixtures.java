@@ -0,0 +1,143 @@
+package edu.bsu.julia.benchmarks;
+
+import java.awt.EventQueue;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.generators.DummyOutputSetGenerator;
+
+import edu.bsu.julia.gui.ErrorSink;
+import edu.bsu.julia.gui.JuliaError;
+import edu.bsu.julia.input.BinomialInputFunction;
+import edu.bsu.julia.input.CubicInputFunction;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.input.LinearInputFunction;
+import edu.bsu.julia.input.MobiusInputFunction;
+import edu.bsu.julia.input.QuadraticInputFunction;
+import edu.bsu.julia.input.RealAffineLinearInputFunction;
+import edu.bsu.julia.input.TempInputFunction;
+import edu.bsu.julia.output.OutputSet;
+
+/**
+ * the functions and settings shared by the benchmarks
+ */
+final class Fixtures {
+	/**
+	 * an {@link ErrorSink} that fails the benchmark instead of showing a
+	 * dialog
+	 */
+	static final ErrorSink FAIL = new ErrorSink() {
+		@Override
+		public void reportError(JuliaError error) {
+			throw new IllegalStateException(error.getTitle() + ": "
+					+ error.getMessage());
+		}
+	};
+
+	static final Complex SEED = new Complex(0.3, 0.2);
+
+	static final OutputSet.Info INFO = new OutputSet.Info() {
+		@Override
+		public Integer iterations() {
+			return 0;
+		}
+
+		@Override
+		public Complex seed() {
+			return SEED;
+		}
+
+		@Override
+		public Integer skips() {
+			return 0;
+		}
+	};
+
+	private static final ActionListener NULL_LISTENER = new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+		}
+	};
+
+	/**
+	 * private constructor so that this class can only be used staticly
+	 */
+	private Fixtures() {
+
+	}
+
+	/**
+	 * @param name
+	 *            the lower case name of an {@link InputFunction} type
+	 * @return an {@link InputFunction} of that type with m = 1 and
+	 *         coefficients that give a bounded set
+	 */
+	static InputFunction createFunction(String name) {
+		InputFunction function;
+		if (name.equals("linear"))
+			function = new LinearInputFunction(1, new Complex(0.5, 0),
+					new Complex(0.5, 0));
+		else if (name.equals("cubic"))
+			function = new CubicInputFunction(1, new Complex(1, 0),
+					new Complex(0.3, 0.1));
+		else if (name.equals("quadratic"))
+			function = new QuadraticInputFunction(1, new Complex(1, 0),
+					new Complex(0, 0), new Complex(-1, 0));
+		else if (name.equals("binomial"))
+			function = new BinomialInputFunction(1, new Complex(1, 0), 3,
+					new Complex(0.2, 0.1));
+		else if (name.equals("mobius"))
+			function = new MobiusInputFunction(1, new Complex(1, 0),
+					new Complex(0.1, 0), new Complex(0.1, 0), new Complex(2, 0));
+		else if (name.equals("matrix"))
+			function = new RealAffineLinearInputFunction(1,
+					new Complex(0.5, 0), new Complex(0, 0), new Complex(0, 0),
+					new Complex(0.5, 0), new Complex(0.25, 0), new Complex(0,
+							0));
+		else if (name.equals("temp"))
+			function = new TempInputFunction(1, new Complex(1, 0), 2,
+					new Complex(0.1, 0));
+		else
+			throw new IllegalArgumentException("unknown function " + name);
+		function.setSubscript(1);
+		return function;
+	}
+
+	/**
+	 * create a basic {@link OutputSet} holding the points and wait until its
+	 * points are stored and written to its temp file
+	 */
+	static OutputSet createSet(Complex[] points) {
+		OutputSet set = new OutputSet(INFO, new InputFunction[] {},
+				OutputSet.Type.BASIC, new DummyOutputSetGenerator(points),
+				NULL_LISTENER);
+		awaitPointsFile(set);
+		return set;
+	}
+
+	/**
+	 * wait until the points of the set are loaded and written to its temp
+	 * file. Both are done on the event dispatch thread so they are checked
+	 * there.
+	 */
+	static void awaitPointsFile(final OutputSet set) {
+		final boolean[] ready = new boolean[1];
+		Runnable check = new Runnable() {
+			public void run() {
+				ready[0] = set.isLoaded() && set.hasPointsFile();
+			}
+		};
+		try {
+			set.getPoints(true);
+			EventQueue.invokeAndWait(check);
+			while (!ready[0]) {
+				Thread.sleep(1);
+				EventQueue.invokeAndWait(check);
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package edu.bsu.julia.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math.complex.Complex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.bsu.julia.generators.FullBackwardsOutputSetGenerator;
+import edu.bsu.julia.generators.FullForwardsOutputSetGenerator;
+import edu.bsu.julia.generators.OutputSetGenerator;
+import edu.bsu.julia.generators.PostCriticalOutputSetGenerator;
+import edu.bsu.julia.generators.RandomBackwardsOutputSetGenerator;
+import edu.bsu.julia.generators.RandomForwardsOutputSetGenerator;
+import edu.bsu.julia.generators.RecursiveOutputSetGenerator;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.output.OutputSet;
+
+/**
+ * every {@link OutputSetGenerator} at several sizes. The generators are run
+ * with {@link OutputSetGenerator#doInBackground()} on the benchmark thread so
+ * the {@link edu.bsu.julia.output.OutputSetCache} is never used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+	@Param( { "1000", "10000", "100000" })
+	public int points;
+
+	private InputFunction[] functions;
+	private OutputSet[] sources;
+
+	@Setup
+	public void setup() {
+		// two functions so the composite sets branch
+		functions = new InputFunction[] { Fixtures.createFunction("quadratic"),
+				Fixtures.createFunction("cubic") };
+
+		// the source set for the recursive generators
+		Complex[] sourcePoints = new RandomBackwardsOutputSetGenerator(
+				Fixtures.FAIL, points, 20, Fixtures.SEED, functions)
+				.doInBackground();
+		sources = new OutputSet[] { Fixtures.createSet(sourcePoints) };
+	}
+
+	@Benchmark
+	public Complex[] fullBackwards() {
+		return new FullBackwardsOutputSetGenerator(Fixtures.FAIL, points,
+				Fixtures.SEED, functions).doInBackground();
+	}
+
+	@Benchmark
+	public Complex[] randomBackwards() {
+		return new RandomBackwardsOutputSetGenerator(Fixtures.FAIL, points, 20,
+				Fixtures.SEED, functions).doInBackground();
+	}
+
+	@Benchmark
+	public Complex[] fullForwards() {
+		return new FullForwardsOutputSetGenerator(Fixtures.FAIL, points,
+				new Complex[] { Fixtures.SEED }, functions,
+				FullForwardsOutputSetGenerator.Mode.DEFAULT).doInBackground();
+	}
+
+	@Benchmark
+	public Complex[] randomForwards() {
+		return new RandomForwardsOutputSetGenerator(Fixtures.FAIL, points, 20,
+				Fixtures.SEED, functions).doInBackground();
+	}
+
+	@Benchmark
+	public Complex[] fullInverseImage() {
+		return new RecursiveOutputSetGenerator(Fixtures.FAIL, functions[0],
+				sources, RecursiveOutputSetGenerator.Type.FULL)
+				.doInBackground();
+	}
+
+	@Benchmark
+	public Complex[] randomInverseImage() {
+		return new RecursiveOutputSetGenerator(Fixtures.FAIL, functions[0],
+				sources, RecursiveOutputSetGenerator.Type.RANDOM)
+				.doInBackground();
+	}
+
+	@Benchmark
+	public Complex[] postCritical() {
+		// every level doubles the points with two functions, so use the t
+		// value that gives about the same number of points
+		int t = (int) (Math.log(points) / Math.log(2));
+		return new PostCriticalOutputSetGenerator(Fixtures.FAIL, t, null,
+				functions, PostCriticalOutputSetGenerator.DEFAULT_TOLERANCE)
+				.doInBackground();
+	}
+}
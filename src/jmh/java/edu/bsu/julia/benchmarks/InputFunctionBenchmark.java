@@ -0,0 +1,57 @@
+package edu.bsu.julia.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math.complex.Complex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.bsu.julia.input.InputFunction;
+
+/**
+ * the evaluate methods of every {@link InputFunction} type on a single point
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputFunctionBenchmark {
+	@Param( { "linear", "cubic", "quadratic", "binomial", "mobius", "matrix",
+			"temp" })
+	public String function;
+
+	private InputFunction inputFunction;
+	private Complex seed;
+
+	@Setup
+	public void setup() {
+		inputFunction = Fixtures.createFunction(function);
+		seed = Fixtures.SEED;
+	}
+
+	@Benchmark
+	public Complex evaluateForwards() {
+		return inputFunction.evaluateForwards(seed);
+	}
+
+	@Benchmark
+	public Complex evaluateBackwardsRandom() {
+		return inputFunction.evaluateBackwardsRandom(seed);
+	}
+
+	@Benchmark
+	public Complex[] evaluateBackwardsFull() {
+		return inputFunction.evaluateBackwardsFull(seed);
+	}
+}
@@ -0,0 +1,84 @@
+package edu.bsu.julia.benchmarks;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math.complex.Complex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.bsu.julia.output.OutputSet;
+
+/**
+ * writing the points of an {@link OutputSet} to its temp file and reading them
+ * back after it is unloaded. The times include handing the results to the
+ * event dispatch thread, like in the program.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputSetFileBenchmark {
+	@Param( { "10000", "100000", "1000000" })
+	public int points;
+
+	private Complex[] data;
+	private OutputSet readSet;
+	private OutputSet writtenSet;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(42);
+		data = new Complex[points];
+		for (int i = 0; i < points; i++)
+			data[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+		readSet = Fixtures.createSet(data);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		deleteFiles(readSet);
+	}
+
+	@TearDown(Level.Invocation)
+	public void deleteWrittenSet() {
+		// don't fill the disk with the temp files of every invocation
+		if (writtenSet != null)
+			deleteFiles(writtenSet);
+		writtenSet = null;
+	}
+
+	@Benchmark
+	public OutputSet write() {
+		writtenSet = Fixtures.createSet(data);
+		return writtenSet;
+	}
+
+	@Benchmark
+	public Complex[] read() {
+		readSet.unload();
+		Fixtures.awaitPointsFile(readSet);
+		return readSet.getPoints();
+	}
+
+	private static void deleteFiles(OutputSet set) {
+		File[] files = set.getFiles();
+		if (files != null)
+			for (File file : files)
+				file.delete();
+	}
+}
@@ -0,0 +1,150 @@
+package edu.bsu.julia.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math.complex.Complex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.bsu.julia.generators.GeneratorFactory;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.session.LegacyFileImporter;
+import edu.bsu.julia.session.SessionFileExporter;
+import edu.bsu.julia.session.SessionFileImporter;
+
+/**
+ * saving and loading sessions made from the files in the samples directory.
+ * Each sample is loaded with the {@link LegacyFileImporter}, a random Julia or
+ * attractor set is generated from its functions and the session is written
+ * with the {@link SessionFileExporter} and read back with the
+ * {@link SessionFileImporter}. The samples directory can be changed with the
+ * julia.samples system property.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionFileBenchmark {
+	@Param( { "BarnsleyFern.julia", "SierpTriangleJulia-Mobius.julia",
+			"AppolonianGasketJulia.julia" })
+	public String sample;
+
+	@Param( { "100000" })
+	public int points;
+
+	private LegacyFileImporter importer;
+	private List<InputFunction> functions;
+	private List<OutputSet> sets;
+	private File sessionFile;
+	private File exportFile;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		File file = new File(System.getProperty("julia.samples", "samples"),
+				sample);
+		importer = new LegacyFileImporter(file);
+		importer.run();
+		if (!Boolean.TRUE.equals(importer.get()))
+			throw new IOException("could not load " + file);
+
+		functions = new ArrayList<InputFunction>(importer
+				.provideInputFunctions());
+		InputFunction[] functionArray = functions
+				.toArray(new InputFunction[] {});
+		OutputSet.Info info = new OutputSet.Info() {
+			@Override
+			public Integer iterations() {
+				return points;
+			}
+
+			@Override
+			public Complex seed() {
+				return importer.provideSeedValue();
+			}
+
+			@Override
+			public Integer skips() {
+				return importer.provideSkips();
+			}
+		};
+		// legacy files don't save the type, the sample names tell it
+		OutputSet.Type type = sample.contains("Julia") ? OutputSet.Type.RANDOM_JULIA
+				: OutputSet.Type.RANDOM_ATTR;
+		sets = new ArrayList<OutputSet>();
+		sets.add(Fixtures.createSet(GeneratorFactory.createGenerator(
+				Fixtures.FAIL, type, info, functionArray).doInBackground()));
+
+		sessionFile = File.createTempFile("benchmark", ".julia.zip");
+		sessionFile.deleteOnExit();
+		export(sessionFile);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		sessionFile.delete();
+	}
+
+	@TearDown(Level.Invocation)
+	public void deleteExport() {
+		if (exportFile != null)
+			exportFile.delete();
+		exportFile = null;
+	}
+
+	@Benchmark
+	public File exportSession() throws Exception {
+		exportFile = File.createTempFile("benchmark", ".julia.zip");
+		export(exportFile);
+		return exportFile;
+	}
+
+	@Benchmark
+	public List<OutputSet> importSession() throws Exception {
+		SessionFileImporter sessionImporter = new SessionFileImporter(
+				sessionFile);
+		sessionImporter.run();
+		if (!Boolean.TRUE.equals(sessionImporter.get()))
+			throw new IOException("could not load " + sessionFile);
+
+		// the points are read by the sets, wait for them too
+		List<OutputSet> result = new ArrayList<OutputSet>(sessionImporter
+				.provideOutputSets());
+		for (OutputSet set : result)
+			Fixtures.awaitPointsFile(set);
+		return result;
+	}
+
+	private void export(File file) throws Exception {
+		SessionFileExporter exporter = new SessionFileExporter(file);
+		exporter.addInputFunctions(functions);
+		exporter.addIterations(importer.provideIterations());
+		exporter.addSkips(importer.provideSkips());
+		exporter.addSeedValue(importer.provideSeedValue());
+		exporter.addOutputSets(sets);
+		exporter.addSelectedMethod("random");
+		exporter.addSelectedType("julia");
+		exporter.addSelectedInputIndices(importer.provideSelectedInputIndices());
+		exporter.addSelectedOutputIndices(new int[] { 0 });
+		exporter.run();
+		if (!Boolean.TRUE.equals(exporter.get()))
+			throw new IOException("could not write " + file);
+	}
+}
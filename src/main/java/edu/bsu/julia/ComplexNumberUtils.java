@@ -1,7 +1,11 @@
 package edu.bsu.julia;
 
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
 
 import org.apache.commons.math.complex.Complex;
 
@@ -22,6 +26,42 @@ import org.apache.commons.math.complex.Complex;
  * </p>
  */
 public final class ComplexNumberUtils {
+	/**
+	 * room for any double formatted by
+	 * {@link #formatDouble(double, byte[], int)}, even one from
+	 * {@link DecimalFormat} in a locale with digits that take several bytes
+	 */
+	public static final int MAX_DOUBLE_BYTES = 96;
+
+	private static final byte[] EXPONENT = "*10^".getBytes();
+	private static final double[] POWERS = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5,
+			1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+	// the exponents past which the powers of ten aren't accurate enough to
+	// round the numbers directly
+	private static final int MAX_EXPONENT = 290;
+	// the part of a number within which a rounding is left to DecimalFormat
+	private static final double TIE_MARGIN = 1e-15;
+	// the fast paths only write the symbols DecimalFormat uses in English
+	private static final boolean PLAIN_SYMBOLS;
+	static {
+		DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale
+				.getDefault(Locale.Category.FORMAT));
+		PLAIN_SYMBOLS = symbols.getDecimalSeparator() == '.'
+				&& symbols.getMinusSign() == '-'
+				&& symbols.getZeroDigit() == '0'
+				&& "E".equals(symbols.getExponentSeparator());
+	}
+	private static final ThreadLocal<DecimalFormat[]> FORMATS = new ThreadLocal<DecimalFormat[]>() {
+		@Override
+		protected DecimalFormat[] initialValue() {
+			DecimalFormat scientific = new DecimalFormat("0.#####E0");
+			DecimalFormat fixed = new DecimalFormat("###.#####");
+			scientific.setRoundingMode(RoundingMode.HALF_UP);
+			fixed.setRoundingMode(RoundingMode.HALF_UP);
+			return new DecimalFormat[] { scientific, fixed };
+		}
+	};
 
 	/**
 	 * private constructor so that this class can only be used staticly
@@ -41,9 +81,8 @@ public final class ComplexNumberUtils {
 	 *         {@link ComplexNumberUtils}
 	 */
 	public static String complexToString(Complex complex) {
-		return ("{" + formatDouble(complex.getReal()) + ", "
-				+ formatDouble(complex.getImaginary()) + "}").replace("E",
-				"*10^");
+		return "{" + formatDouble(complex.getReal()) + ", "
+				+ formatDouble(complex.getImaginary()) + "}";
 	}
 
 	/**
@@ -54,28 +93,174 @@ public final class ComplexNumberUtils {
 	 * @return a {@link String} representing the {@link ComplexNumberUtils}.
 	 */
 	public static String exportString(Complex complex) {
-		return (formatDouble(complex.getReal()) + " " + formatDouble(complex
-				.getImaginary())).replace("E", "*10^");
+		return formatDouble(complex.getReal()) + " "
+				+ formatDouble(complex.getImaginary());
 	}
 
 	/**
-	 * used by {@link #toString()} and {@link #exportString()}
+	 * used by {@link #toString()} and {@link #exportString()}, see
+	 * {@link #formatDouble(double, byte[], int)}
 	 * 
 	 * @param number
 	 *            the double to format
-	 * @return the formatted string
+	 * @return the formatted string with the standard scientific notation
 	 */
 	private static String formatDouble(double number) {
-		DecimalFormat df;
-		if (number < 0.00001d || number > 99999d) {
-			df = new DecimalFormat("0.#####E0");
-		} else {
-			df = new DecimalFormat("###.#####");
+		byte[] buffer = new byte[MAX_DOUBLE_BYTES];
+		return new String(buffer, 0, formatDouble(number, buffer, 0), Charset
+				.defaultCharset());
+	}
+
+	/**
+	 * format a number the way {@link #exportString(Complex)} does, straight
+	 * to bytes without making a string: fixed point with at most 5 decimals between 0.00001 and 99999,
+	 * otherwise 6 significant digits like 1.23457*10^8
+	 *
+	 * @param number
+	 *            the double to format
+	 * @param buffer
+	 *            the array to put the text in, with room for 96 bytes
+	 * @param position
+	 *            where to put the text
+	 * @return the position after the text
+	 */
+	public static int formatDouble(double number, byte[] buffer, int position) {
+		if (!PLAIN_SYMBOLS || Double.isNaN(number)
+				|| Double.isInfinite(number))
+			return formatSlowly(number, buffer, position);
+		if (number < 0.00001d || number > 99999d)
+			return formatScientific(number, buffer, position);
+		return formatFixed(number, buffer, position);
+	}
+
+	private static int formatFixed(double number, byte[] buffer, int position) {
+		double scaled = number * 1e5;
+		long rounded = round(scaled);
+		if (rounded < 0)
+			return formatSlowly(number, buffer, position);
+		position = formatDigits(rounded / 100000, buffer, position);
+		return formatFraction((int) (rounded % 100000), buffer, position);
+	}
+
+	private static int formatScientific(double number, byte[] buffer,
+			int position) {
+		// -0.0 is negative too
+		boolean negative = number < 0 || 1 / number < 0;
+		double magnitude = Math.abs(number);
+		if (magnitude != 0
+				&& (magnitude < Double.MIN_NORMAL || magnitude > Math.pow(10,
+						MAX_EXPONENT)))
+			return formatSlowly(number, buffer, position);
+
+		int exponent = 0;
+		long rounded = 0;
+		if (magnitude != 0) {
+			exponent = (int) Math.floor(Math.log10(magnitude));
+			if (exponent < -MAX_EXPONENT)
+				return formatSlowly(number, buffer, position);
+			double scaled = scale(magnitude, 5 - exponent);
+			// log10 can be off by one near a power of ten
+			if (scaled < 1e5) {
+				exponent--;
+				scaled = scale(magnitude, 5 - exponent);
+			} else if (scaled >= 1e6) {
+				exponent++;
+				scaled = scale(magnitude, 5 - exponent);
+			}
+			rounded = round(scaled);
+			if (rounded < 0)
+				return formatSlowly(number, buffer, position);
+			if (rounded == 1000000) {
+				rounded = 100000;
+				exponent++;
+			}
 		}
 
-		df.setRoundingMode(RoundingMode.HALF_UP);
+		if (negative)
+			buffer[position++] = '-';
+		buffer[position++] = (byte) ('0' + rounded / 100000);
+		position = formatFraction((int) (rounded % 100000), buffer, position);
+		System.arraycopy(EXPONENT, 0, buffer, position, EXPONENT.length);
+		position += EXPONENT.length;
+		if (exponent < 0) {
+			buffer[position++] = '-';
+			exponent = -exponent;
+		}
+		return formatDigits(exponent, buffer, position);
+	}
 
-		return df.format(number);
+	/**
+	 * @return the number times 10 to a power, within a few units in the last
+	 *         place
+	 */
+	private static double scale(double number, int power) {
+		if (power >= 0)
+			return number
+					* ((power < POWERS.length) ? POWERS[power] : Math.pow(10,
+							power));
+		power = -power;
+		return number
+				/ ((power < POWERS.length) ? POWERS[power] : Math.pow(10,
+						power));
+	}
+
+	/**
+	 * round half up
+	 *
+	 * @return the rounded number or -1 if it is too close to halfway to tell
+	 *         which way the exact number rounds
+	 */
+	private static long round(double scaled) {
+		long floor = (long) scaled;
+		double fraction = scaled - floor;
+		if (Math.abs(fraction - 0.5) <= scaled * TIE_MARGIN)
+			return -1;
+		return (fraction > 0.5) ? floor + 1 : floor;
+	}
+
+	private static int formatDigits(long value, byte[] buffer, int position) {
+		int digits = 1;
+		for (long v = value / 10; v > 0; v /= 10)
+			digits++;
+		for (int i = position + digits - 1; i >= position; i--) {
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		return position + digits;
+	}
+
+	/**
+	 * put the 5 decimals of a fraction without the zeros at the end, or
+	 * nothing if it is 0
+	 */
+	private static int formatFraction(int fraction, byte[] buffer,
+			int position) {
+		if (fraction == 0)
+			return position;
+		int digits = 5;
+		while (fraction % 10 == 0) {
+			fraction /= 10;
+			digits--;
+		}
+		buffer[position++] = '.';
+		for (int i = position + digits - 1; i >= position; i--) {
+			buffer[i] = (byte) ('0' + fraction % 10);
+			fraction /= 10;
+		}
+		return position + digits;
+	}
+
+	/**
+	 * format with {@link DecimalFormat}, for the numbers the fast paths
+	 * can't round for certain and for other locales
+	 */
+	private static int formatSlowly(double number, byte[] buffer, int position) {
+		DecimalFormat[] formats = FORMATS.get();
+		DecimalFormat format = (number < 0.00001d || number > 99999d) ? formats[0]
+				: formats[1];
+		byte[] text = format.format(number).replace("E", "*10^").getBytes();
+		System.arraycopy(text, 0, buffer, position, text.length);
+		return position + text.length;
 	}
 
 	/**
@@ -108,4 +293,93 @@ public final class ComplexNumberUtils {
 			return null;
 		}
 	}
+
+	/**
+	 * parse a decimal number with an exponent of E or *10^ straight from
+	 * bytes. Only numbers that can be made exactly from a long and a power of
+	 * ten are parsed, so the value is the same as from
+	 * {@link Double#parseDouble(String)}. Anything else is left to
+	 * {@link #parseComplexNumber(String)}.
+	 *
+	 * @param buffer
+	 *            the bytes of the text
+	 * @param p
+	 *            where the number starts
+	 * @param end
+	 *            the end of the text
+	 * @param value
+	 *            the array to put the number in, at index 0
+	 * @return the position after the number, or -1 if there isn't a number
+	 *         that can be parsed this way
+	 */
+	public static int parseDouble(ByteBuffer buffer, int p, int end,
+			double[] value) {
+		boolean negative = false;
+		if (p < end && (buffer.get(p) == '-' || buffer.get(p) == '+'))
+			negative = buffer.get(p++) == '-';
+		long mantissa = 0;
+		int significant = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean point = false;
+		for (; p < end; p++) {
+			byte b = buffer.get(p);
+			if (b == '.' && !point) {
+				point = true;
+				continue;
+			}
+			if (b < '0' || b > '9')
+				break;
+			digits++;
+			if (mantissa != 0 || b != '0')
+				significant++;
+			mantissa = mantissa * 10 + (b - '0');
+			if (point)
+				exponent--;
+			if (significant > 15)
+				return -1;
+		}
+		if (digits == 0)
+			return -1;
+
+		if (p < end && (buffer.get(p) == 'E' || buffer.get(p) == 'e')) {
+			p++;
+		} else if (p + EXPONENT.length <= end && buffer.get(p) == '*') {
+			for (int i = 0; i < EXPONENT.length; i++)
+				if (buffer.get(p + i) != EXPONENT[i])
+					return -1;
+			p += EXPONENT.length;
+		} else {
+			return finish(negative, mantissa, exponent, p, value);
+		}
+		boolean negativeExponent = false;
+		if (p < end && (buffer.get(p) == '-' || buffer.get(p) == '+'))
+			negativeExponent = buffer.get(p++) == '-';
+		int power = 0;
+		int powerDigits = 0;
+		for (; p < end && buffer.get(p) >= '0' && buffer.get(p) <= '9'; p++) {
+			power = power * 10 + (buffer.get(p) - '0');
+			if (++powerDigits > 4)
+				return -1;
+		}
+		if (powerDigits == 0)
+			return -1;
+		return finish(negative, mantissa, exponent
+				+ (negativeExponent ? -power : power), p, value);
+	}
+
+	private static int finish(boolean negative, long mantissa, int exponent,
+			int p, double[] value) {
+		double v;
+		if (mantissa == 0)
+			v = 0;
+		else if (exponent >= 0 && exponent < POWERS.length)
+			v = mantissa * POWERS[exponent];
+		else if (exponent < 0 && -exponent < POWERS.length)
+			v = mantissa / POWERS[-exponent];
+		else
+			return -1;
+		value[0] = negative ? -v : v;
+		return p;
+	}
 }
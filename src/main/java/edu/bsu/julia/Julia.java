@@ -9,6 +9,7 @@ import java.awt.event.WindowEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.swing.JFrame;
@@ -16,6 +17,8 @@ import javax.swing.JList;
 import javax.swing.JSplitPane;
 import javax.swing.SwingUtilities;
 
+import edu.bsu.julia.batch.JuliaBatch;
+import edu.bsu.julia.generators.CoverageMonitor;
 import edu.bsu.julia.gui.GLListener;
 import edu.bsu.julia.gui.GraphScrollPane;
 import edu.bsu.julia.gui.GraphTabbedPane;
@@ -25,6 +28,8 @@ import edu.bsu.julia.gui.MainToolBar;
 import edu.bsu.julia.gui.OutputPanel;
 import edu.bsu.julia.gui.SaveSessionDialog;
 import edu.bsu.julia.gui.StatusBar;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.precision.ExtendedPrecision;
 import edu.bsu.julia.session.EmptySessionImporter;
 import edu.bsu.julia.session.Session;
 import edu.bsu.julia.session.Session.InvalidSessionParametersException;
@@ -43,6 +48,12 @@ public class Julia extends JFrame {
 	private boolean axisTrigger;
 	private boolean grilTrigger;
 	private boolean polarTrigger;
+	private boolean warmStartTrigger;
+	private boolean convergenceTrigger;
+	private boolean statsTrigger;
+	private boolean compressTrigger = true;
+	private ExtendedPrecision.Mode precisionMode = ExtendedPrecision.Mode.AUTOMATIC;
+	private double convergenceTolerance = CoverageMonitor.DEFAULT_TOLERANCE;
 	private String filePath = "";
 	// for serializable interface: do not use
 	public static final long serialVersionUID = 0;
@@ -67,6 +78,7 @@ public class Julia extends JFrame {
 		dotSize = 1;
 		axisTrigger = true;
 		grilTrigger = false;
+		warmStartTrigger = true;
 	}
 
 	/**
@@ -90,6 +102,13 @@ public class Julia extends JFrame {
 	}
 
 	public static void main(String[] args) {
+		// run without a display if asked to
+		if (Arrays.asList(args).contains("--batch")) {
+			System.setProperty("java.awt.headless", "true");
+			JuliaBatch.main(args);
+			return;
+		}
+
 		// create the instance of Julia
 		final Julia application = new Julia();
 		application.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
@@ -168,6 +187,93 @@ public class Julia extends JFrame {
 		support.firePropertyChange("polarTrigger", null, polarTrigger);
 	}
 
+	public boolean getWarmStartTrigger() {
+		return warmStartTrigger;
+	}
+
+	public void setWarmStartTrigger(boolean a) {
+		warmStartTrigger = a;
+		support.firePropertyChange("warmStartTrigger", null, warmStartTrigger);
+	}
+
+	public boolean getConvergenceTrigger() {
+		return convergenceTrigger;
+	}
+
+	public void setConvergenceTrigger(boolean a) {
+		convergenceTrigger = a;
+		support.firePropertyChange("convergenceTrigger", null,
+				convergenceTrigger);
+	}
+
+	public double getConvergenceTolerance() {
+		return convergenceTolerance;
+	}
+
+	public void setConvergenceTolerance(double t) {
+		convergenceTolerance = t;
+		support.firePropertyChange("convergenceTolerance", null,
+				convergenceTolerance);
+	}
+
+	public boolean getStatsTrigger() {
+		return statsTrigger;
+	}
+
+	public void setStatsTrigger(boolean a) {
+		statsTrigger = a;
+		support.firePropertyChange("statsTrigger", null, statsTrigger);
+	}
+
+	public boolean getCompressTrigger() {
+		return compressTrigger;
+	}
+
+	public void setCompressTrigger(boolean a) {
+		compressTrigger = a;
+		support.firePropertyChange("compressTrigger", null, compressTrigger);
+	}
+
+	public ExtendedPrecision.Mode getPrecisionMode() {
+		return precisionMode;
+	}
+
+	public void setPrecisionMode(ExtendedPrecision.Mode mode) {
+		precisionMode = mode;
+		support.firePropertyChange("precisionMode", null, precisionMode);
+	}
+
+	/**
+	 * @param functions
+	 *            the functions of a new random set
+	 * @return true if the set should be made in extended precision: always
+	 *         in that mode, never in double mode and otherwise only when the
+	 *         graph is zoomed in past the precision of a double. Only
+	 *         polynomial functions can be evaluated in extended precision.
+	 */
+	public boolean useExtendedPrecision(InputFunction[] functions) {
+		if (precisionMode == ExtendedPrecision.Mode.DOUBLE
+				|| !ExtendedPrecision.isSupported(functions))
+			return false;
+		if (precisionMode == ExtendedPrecision.Mode.EXTENDED)
+			return true;
+		if (tabbedPane == null || tabbedPane.getActivePane() == null)
+			return false;
+		GLListener view = tabbedPane.getActivePane().getGLListener();
+		return ExtendedPrecision.isNeeded(view.getX(), view.getY(), view
+				.getWidth(), view.getHeight(), view.getPaneWidth());
+	}
+
+	/**
+	 * @return a new {@link CoverageMonitor} for a random set if the option to
+	 *         stop when a set converges is on, otherwise null
+	 */
+	public CoverageMonitor createCoverageMonitor() {
+		if (!convergenceTrigger)
+			return null;
+		return new CoverageMonitor(convergenceTolerance);
+	}
+
 	public String getFilePath() {
 		return filePath;
 	}
@@ -0,0 +1,429 @@
+package edu.bsu.julia.analysis;
+
+import java.util.Arrays;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.generators.WorkerPool;
+import edu.bsu.julia.output.OutputSet;
+
+/**
+ * estimates the box-counting dimension of the points of an {@link OutputSet}.
+ * A square around the points is split into 2^level boxes on a side for every
+ * level from 0 to {@link #MAX_LEVEL} and the boxes with a point in them are
+ * counted. The dimension is the slope of a least squares line through
+ * log(count) against log(2^level) over the levels that have enough points per
+ * box. A line through a few levels fits almost perfectly whatever the set, so
+ * at least {@link #MIN_LEVELS} levels are needed and the estimate is reported
+ * with the standard error of the slope and the levels it was fitted over.
+ *
+ * <p>
+ * The boxes of the finest level are found once by hashing every point on the
+ * {@link WorkerPool}, each coarser level is found from the boxes of the level
+ * below it so only the first level looks at every point.
+ * </p>
+ */
+public class BoxCountingDimension {
+	/**
+	 * the finest level, the square is split into 2^15 boxes on a side
+	 */
+	public static final int MAX_LEVEL = 15;
+
+	/**
+	 * the coarsest level used by the fit when no range is given. Levels 0 and
+	 * 1 are too coarse to tell anything about the set.
+	 */
+	public static final int DEFAULT_FIRST_LEVEL = 2;
+
+	/**
+	 * the fewest points per box on average for a level to be in the fit when
+	 * no range is given. Finer levels don't have enough points to find every
+	 * box so their counts are too low.
+	 */
+	public static final double MIN_POINTS_PER_BOX = 4;
+
+	/**
+	 * the fewest levels in a fit
+	 */
+	public static final int MIN_LEVELS = 5;
+
+	// the number of points or keys looked at by one task
+	private static final int CHUNK = 1 << 16;
+	// the keys are split into 2^PARTITION_BITS parts by hash
+	private static final int PARTITION_BITS = 6;
+	private static final int EMPTY = -1;
+
+	private final int numOfPoints;
+	private final double size;
+	private final int[] counts;
+	private final int firstLevel;
+	private final int lastLevel;
+	private double dimension;
+	private double standardError;
+
+	private BoxCountingDimension(int points, double s, int[] c, int first,
+			int last) {
+		numOfPoints = points;
+		size = s;
+		counts = c;
+		firstLevel = first;
+		lastLevel = last;
+		fit();
+	}
+
+	/**
+	 * estimate the dimension, fitting from {@link #DEFAULT_FIRST_LEVEL} to
+	 * the finest level with {@link #MIN_POINTS_PER_BOX}
+	 *
+	 * @param points
+	 *            the points of the set, null and infinite points are left out
+	 * @return the estimate
+	 * @throws IllegalArgumentException
+	 *             if there are less than 2 different finite points or too few
+	 *             points for a fit over {@link #MIN_LEVELS} levels
+	 */
+	public static BoxCountingDimension estimate(Complex[] points)
+			throws IllegalArgumentException {
+		return estimate(points, -1, -1);
+	}
+
+	/**
+	 * estimate the dimension
+	 *
+	 * @param points
+	 *            the points of the set, null and infinite points are left out
+	 * @param first
+	 *            the coarsest level of the fit or -1 for the default
+	 * @param last
+	 *            the finest level of the fit or -1 for the default
+	 * @return the estimate
+	 * @throws IllegalArgumentException
+	 *             if there are less than 2 different finite points or the
+	 *             levels don't leave at least {@link #MIN_LEVELS} for the fit
+	 */
+	public static BoxCountingDimension estimate(final Complex[] points,
+			int first, int last) throws IllegalArgumentException {
+		final int n = points.length;
+		final int chunks = (n + CHUNK - 1) / CHUNK;
+
+		// the bounds of each chunk, then of all the points
+		final double[][] bounds = new double[chunks][];
+		WorkerPool.forEachChunk(chunks, 1, new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int start, int end) {
+				for (int c = start; c < end; c++)
+					bounds[c] = bounds(points, c * CHUNK, Math.min(n, (c + 1)
+							* CHUNK));
+			}
+		});
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (double[] b : bounds) {
+			minX = Math.min(minX, b[0]);
+			minY = Math.min(minY, b[1]);
+			maxX = Math.max(maxX, b[2]);
+			maxY = Math.max(maxY, b[3]);
+		}
+		final double side = Math.max(maxX - minX, maxY - minY);
+		if (!(side > 0))
+			throw new IllegalArgumentException(
+					"a dimension needs at least 2 different points");
+		final double left = minX;
+		final double bottom = minY;
+
+		// the box of every point at the finest level
+		final int[] keys = new int[n];
+		final int[] finite = new int[chunks];
+		WorkerPool.forEachChunk(chunks, 1, new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int start, int end) {
+				int boxes = 1 << MAX_LEVEL;
+				double scale = boxes / side;
+				for (int c = start; c < end; c++) {
+					for (int i = c * CHUNK; i < Math.min(n, (c + 1) * CHUNK); i++) {
+						Complex point = points[i];
+						if (point == null || point.isNaN()
+								|| point.isInfinite()) {
+							keys[i] = EMPTY;
+							continue;
+						}
+						int column = Math.min(boxes - 1, (int) ((point
+								.getReal() - left) * scale));
+						int row = Math.min(boxes - 1, (int) ((point
+								.getImaginary() - bottom) * scale));
+						keys[i] = (column << MAX_LEVEL) | row;
+						finite[c]++;
+					}
+				}
+			}
+		});
+		int numOfPoints = 0;
+		for (int f : finite)
+			numOfPoints += f;
+
+		// count the boxes of every level from the boxes of the level below it
+		int[] counts = new int[MAX_LEVEL + 1];
+		int[] boxes = distinct(keys, n);
+		counts[MAX_LEVEL] = boxes.length;
+		for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+			for (int i = 0; i < boxes.length; i++) {
+				int column = boxes[i] >>> (level + 2);
+				int row = (boxes[i] & ((1 << (level + 1)) - 1)) >>> 1;
+				boxes[i] = (column << level) | row;
+			}
+			boxes = distinct(boxes, boxes.length);
+			counts[level] = boxes.length;
+		}
+
+		// the default range
+		if (first < 0)
+			first = DEFAULT_FIRST_LEVEL;
+		if (last < 0) {
+			last = first - 1;
+			for (int level = first; level <= MAX_LEVEL; level++)
+				if (numOfPoints >= MIN_POINTS_PER_BOX * counts[level])
+					last = level;
+			if (last - first + 1 < MIN_LEVELS)
+				throw new IllegalArgumentException(numOfPoints
+						+ " points are too few for a fit over " + MIN_LEVELS
+						+ " levels with " + (int) MIN_POINTS_PER_BOX
+						+ " points per box");
+		}
+		if (first > MAX_LEVEL || last > MAX_LEVEL
+				|| last - first + 1 < MIN_LEVELS)
+			throw new IllegalArgumentException("the fit needs at least "
+					+ MIN_LEVELS + " levels from 0 to " + MAX_LEVEL);
+
+		return new BoxCountingDimension(numOfPoints, side, counts, first, last);
+	}
+
+	/**
+	 * @return {minX, minY, maxX, maxY} of the finite points from start to end
+	 */
+	private static double[] bounds(Complex[] points, int start, int end) {
+		double[] b = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+				Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+		for (int i = start; i < end; i++) {
+			Complex point = points[i];
+			if (point == null || point.isNaN() || point.isInfinite())
+				continue;
+			b[0] = Math.min(b[0], point.getReal());
+			b[1] = Math.min(b[1], point.getImaginary());
+			b[2] = Math.max(b[2], point.getReal());
+			b[3] = Math.max(b[3], point.getImaginary());
+		}
+		return b;
+	}
+
+	/**
+	 * find the different keys. The keys are split into parts by their hash
+	 * so each part can be put in its own hash set on the {@link WorkerPool}.
+	 *
+	 * @param keys
+	 *            the keys, {@link #EMPTY} keys are left out
+	 * @param n
+	 *            the number of keys to look at
+	 * @return a new array with every key once
+	 */
+	private static int[] distinct(final int[] keys, final int n) {
+		final int parts = 1 << PARTITION_BITS;
+		final int chunks = (n + CHUNK - 1) / CHUNK;
+
+		// how many keys of each chunk go in each part
+		final int[][] sizes = new int[chunks][parts];
+		WorkerPool.forEachChunk(chunks, 1, new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int start, int end) {
+				for (int c = start; c < end; c++)
+					for (int i = c * CHUNK; i < Math.min(n, (c + 1) * CHUNK); i++)
+						if (keys[i] != EMPTY)
+							sizes[c][part(keys[i])]++;
+			}
+		});
+
+		// where each chunk writes its keys of each part
+		final int[] partStarts = new int[parts + 1];
+		final int[][] offsets = new int[chunks][parts];
+		int position = 0;
+		for (int p = 0; p < parts; p++) {
+			partStarts[p] = position;
+			for (int c = 0; c < chunks; c++) {
+				offsets[c][p] = position;
+				position += sizes[c][p];
+			}
+		}
+		partStarts[parts] = position;
+
+		final int[] sorted = new int[position];
+		WorkerPool.forEachChunk(chunks, 1, new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int start, int end) {
+				for (int c = start; c < end; c++) {
+					int[] next = offsets[c].clone();
+					for (int i = c * CHUNK; i < Math.min(n, (c + 1) * CHUNK); i++)
+						if (keys[i] != EMPTY)
+							sorted[next[part(keys[i])]++] = keys[i];
+				}
+			}
+		});
+
+		// remove the repeated keys of each part, moving the different ones to
+		// the start of the part
+		final int[] unique = new int[parts];
+		WorkerPool.forEachChunk(parts, 1, new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int start, int end) {
+				for (int p = start; p < end; p++)
+					unique[p] = removeRepeats(sorted, partStarts[p],
+							partStarts[p + 1]);
+			}
+		});
+
+		int total = 0;
+		for (int count : unique)
+			total += count;
+		int[] result = new int[total];
+		position = 0;
+		for (int p = 0; p < parts; p++) {
+			System.arraycopy(sorted, partStarts[p], result, position, unique[p]);
+			position += unique[p];
+		}
+		return result;
+	}
+
+	/**
+	 * @return the part of a key, from the top bits of its hash
+	 */
+	private static int part(int key) {
+		return (key * 0x9E3779B9) >>> (32 - PARTITION_BITS);
+	}
+
+	/**
+	 * put the keys from start to end in an open addressing hash set and write
+	 * each different key once starting at start
+	 *
+	 * @return the number of different keys
+	 */
+	private static int removeRepeats(int[] keys, int start, int end) {
+		int length = end - start;
+		if (length == 0)
+			return 0;
+		int capacity = Integer.highestOneBit(Math.max(length, 1) * 2 - 1) << 1;
+		int mask = capacity - 1;
+		int[] table = new int[capacity];
+		Arrays.fill(table, EMPTY);
+
+		int count = 0;
+		for (int i = start; i < end; i++) {
+			int key = keys[i];
+			int hash = key * 0x85EBCA6B;
+			int slot = (hash ^ (hash >>> 15)) & mask;
+			while (table[slot] != EMPTY && table[slot] != key)
+				slot = (slot + 1) & mask;
+			if (table[slot] == EMPTY) {
+				table[slot] = key;
+				// never past i, so keys not read yet aren't written over
+				keys[start + count++] = key;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * least squares fit of log(count) against log(2^level)
+	 */
+	private void fit() {
+		int n = lastLevel - firstLevel + 1;
+		double sumX = 0;
+		double sumY = 0;
+		for (int level = firstLevel; level <= lastLevel; level++) {
+			sumX += level * Math.log(2);
+			sumY += Math.log(counts[level]);
+		}
+		double meanX = sumX / n;
+		double meanY = sumY / n;
+
+		double sxx = 0;
+		double sxy = 0;
+		double syy = 0;
+		for (int level = firstLevel; level <= lastLevel; level++) {
+			double dx = level * Math.log(2) - meanX;
+			double dy = Math.log(counts[level]) - meanY;
+			sxx += dx * dx;
+			sxy += dx * dy;
+			syy += dy * dy;
+		}
+		dimension = sxy / sxx;
+		double residual = Math.max(0, syy - dimension * sxy);
+		standardError = Math.sqrt(residual / (n - 2) / sxx);
+	}
+
+	/**
+	 * @return the estimated dimension, the slope of the fit
+	 */
+	public double getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * @return the standard error of the slope
+	 */
+	public double getStandardError() {
+		return standardError;
+	}
+
+	public int getFirstLevel() {
+		return firstLevel;
+	}
+
+	public int getLastLevel() {
+		return lastLevel;
+	}
+
+	/**
+	 * @return the number of finite points counted
+	 */
+	public int getNumOfPoints() {
+		return numOfPoints;
+	}
+
+	/**
+	 * @return the number of boxes with a point in them at the level
+	 */
+	public int getCount(int level) {
+		return counts[level];
+	}
+
+	/**
+	 * @return the side of a box at the level
+	 */
+	public double getBoxSize(int level) {
+		return size / (1 << level);
+	}
+
+	/**
+	 * @return a one line summary of the estimate
+	 */
+	public String toString() {
+		return String.format("dimension %.4f +/- %.4f (standard error of the "
+				+ "slope, levels %d to %d with boxes of %.4g to %.4g, %d "
+				+ "points)", dimension, standardError, firstLevel, lastLevel,
+				getBoxSize(firstLevel), getBoxSize(lastLevel), numOfPoints);
+	}
+
+	/**
+	 * @return the box size and count of every level, a * marks the levels of
+	 *         the fit
+	 */
+	public String table() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("level  box size       boxes\n");
+		for (int level = 0; level <= MAX_LEVEL; level++)
+			builder.append(String.format("%s%-5d  %-13.6g  %d\n",
+					(level >= firstLevel && level <= lastLevel) ? "*" : " ",
+					level, getBoxSize(level), counts[level]));
+		return builder.toString();
+	}
+}
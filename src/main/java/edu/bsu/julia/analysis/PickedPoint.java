@@ -0,0 +1,187 @@
+package edu.bsu.julia.analysis;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.output.OutputSet;
+
+/**
+ * the point of a group of {@link OutputSet}s nearest to a place on the graph,
+ * found with the {@link PointTree} of each set. The input function that
+ * produced the point is found from the point before it in the set, and for a
+ * set made with inverses the branch of the inverse the point is on is found
+ * by applying the function and taking the inverses of the result.
+ */
+public class PickedPoint {
+	// the most inverse values worked out to find the branch
+	private static final long MAX_BRANCHES = 4096;
+	// how close f(z) must be to the point before it, relative to its size
+	private static final double TOLERANCE = 1e-6;
+
+	private final OutputSet set;
+	private final int index;
+	private final Complex point;
+	private final double distance;
+	private InputFunction function;
+	private int branch;
+	private long branchCount;
+
+	private PickedPoint(OutputSet s, int i, Complex p, double d) {
+		set = s;
+		index = i;
+		point = p;
+		distance = d;
+		findFunction();
+	}
+
+	/**
+	 * find the point nearest to a place in any of the sets. Sets that aren't
+	 * loaded or whose tree hasn't been built yet are left out.
+	 *
+	 * @param sets
+	 *            the sets to look in, may hold null
+	 * @param x
+	 *            the real value of the place
+	 * @param y
+	 *            the imaginary value of the place
+	 * @param maxDistance
+	 *            the farthest the point can be from the place
+	 * @return the nearest point or null if there isn't one that close
+	 */
+	public static PickedPoint pick(OutputSet[] sets, double x, double y,
+			double maxDistance) {
+		if (sets == null)
+			return null;
+		OutputSet bestSet = null;
+		int bestIndex = -1;
+		Complex bestPoint = null;
+		double best = maxDistance;
+		for (OutputSet set : sets) {
+			PointTree tree = (set == null) ? null : set.getIndex();
+			if (tree == null)
+				continue;
+			int i = tree.nearest(x, y, best);
+			Complex[] points = set.getPoints();
+			if (i < 0 || i >= points.length)
+				continue;
+			double d = Math.hypot(points[i].getReal() - x, points[i]
+					.getImaginary()
+					- y);
+			if (bestSet == null || d < best) {
+				bestSet = set;
+				bestIndex = i;
+				bestPoint = points[i];
+				best = d;
+			}
+		}
+		if (bestSet == null)
+			return null;
+		return new PickedPoint(bestSet, bestIndex, bestPoint, best);
+	}
+
+	/**
+	 * find which input function maps the point to the point before it (or
+	 * the point before it to the point for a forwards set) and the branch of
+	 * its inverse the point is on
+	 */
+	private void findFunction() {
+		InputFunction[] functions = set.getInputFunctions();
+		Complex[] points = set.getPoints();
+		Complex previous = (index > 0) ? points[index - 1] : null;
+		boolean backwards = set.getType().isBackwards();
+
+		try {
+			if (previous != null) {
+				for (InputFunction f : functions) {
+					Complex from = backwards ? point : previous;
+					Complex to = backwards ? previous : point;
+					Complex image = f.evaluateForwards(from);
+					if (image.subtract(to).abs() <= TOLERANCE
+							* Math.max(1, to.abs())) {
+						function = f;
+						break;
+					}
+				}
+			}
+			// the point before may be from another orbit, with only one
+			// function it still has to be this one
+			if (function == null && functions.length == 1)
+				function = functions[0];
+
+			if (function != null && backwards
+					&& function.getBranchCount() <= MAX_BRANCHES) {
+				Complex[] inverses = function.evaluateBackwardsFull(function
+						.evaluateForwards(point));
+				double nearest = Double.POSITIVE_INFINITY;
+				for (int b = 0; b < inverses.length; b++) {
+					double d = inverses[b].subtract(point).abs();
+					if (d < nearest) {
+						nearest = d;
+						branch = b + 1;
+					}
+				}
+				branchCount = inverses.length;
+			}
+		} catch (ArithmeticException e) {
+			// leave the function or branch unknown
+		}
+	}
+
+	public OutputSet getSet() {
+		return set;
+	}
+
+	/**
+	 * @return the index of the point in {@link OutputSet#getPoints()}
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public Complex getPoint() {
+		return point;
+	}
+
+	/**
+	 * @return the distance from the place to the point
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * @return the input function that produced the point or null if it isn't
+	 *         known
+	 */
+	public InputFunction getFunction() {
+		return function;
+	}
+
+	/**
+	 * @return the branch of the inverse of {@link #getFunction()} the point is
+	 *         on counting from 1, or 0 if it isn't known
+	 */
+	public int getBranch() {
+		return branch;
+	}
+
+	/**
+	 * @return the number of branches of the inverse
+	 */
+	public long getBranchCount() {
+		return branchCount;
+	}
+
+	/**
+	 * @return a description of the point for the status bar
+	 */
+	public String toString() {
+		String s = "o" + set.getSubscript() + " point " + index + ": "
+				+ point.getReal() + " + " + point.getImaginary() + "i";
+		if (function != null)
+			s += ", f" + function.getSubscript();
+		if (branch > 0)
+			s += " branch " + branch + " of " + branchCount;
+		return s;
+	}
+}
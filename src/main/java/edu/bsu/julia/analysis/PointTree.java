@@ -0,0 +1,335 @@
+package edu.bsu.julia.analysis;
+
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.generators.WorkerPool;
+
+/**
+ * a k-d tree over a set of points for finding the point nearest to any place
+ * in the plane without looking at every point. The tree is kept in three
+ * arrays: every range of the arrays is split at its middle point on the axis
+ * the range is widest along, with the smaller points before the middle and
+ * the larger after it. The box around the points of every range is kept so a
+ * search can skip any range whose box is farther away than the closest point
+ * found so far. Unlike a grid it needs no cell size, so it works as well for
+ * the thin curves of a Julia set as for filled in sets, and places far from
+ * the set are as quick to search as places on it.
+ */
+public class PointTree {
+	// the number of points looked at by one task while collecting them
+	private static final int CHUNK = 1 << 16;
+	// ranges this small are not split and are searched point by point
+	private static final int LEAF_SIZE = 8;
+	// ranges larger than this are split on separate threads
+	private static final int PARALLEL_SIZE = 1 << 15;
+
+	private final double[] xs;
+	private final double[] ys;
+	private final int[] indices;
+	// true where the range with its middle here was split on the real axis
+	private final boolean[] splitOnReal;
+	// the boxes around the ranges that are split, numbered like a heap: the
+	// whole range is 1 and the halves of range i are 2i and 2i + 1
+	private final double[] minXs;
+	private final double[] minYs;
+	private final double[] maxXs;
+	private final double[] maxYs;
+
+	/**
+	 * build a tree on the {@link WorkerPool}
+	 *
+	 * @param points
+	 *            the points, null and infinite points are left out
+	 */
+	public PointTree(final Complex[] points) {
+		final int n = points.length;
+		final int chunks = (n + CHUNK - 1) / CHUNK;
+
+		// count the finite points of each chunk so they can be copied in
+		// parallel
+		final int[] finite = new int[chunks];
+		WorkerPool.forEachChunk(chunks, 1, new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int start, int end) {
+				for (int c = start; c < end; c++)
+					for (int i = c * CHUNK; i < Math.min(n, (c + 1) * CHUNK); i++)
+						if (isFinite(points[i]))
+							finite[c]++;
+			}
+		});
+		final int[] offsets = new int[chunks];
+		int count = 0;
+		for (int c = 0; c < chunks; c++) {
+			offsets[c] = count;
+			count += finite[c];
+		}
+
+		xs = new double[count];
+		ys = new double[count];
+		indices = new int[count];
+		splitOnReal = new boolean[count];
+		WorkerPool.forEachChunk(chunks, 1, new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int start, int end) {
+				for (int c = start; c < end; c++) {
+					int next = offsets[c];
+					for (int i = c * CHUNK; i < Math.min(n, (c + 1) * CHUNK); i++) {
+						if (!isFinite(points[i]))
+							continue;
+						xs[next] = points[i].getReal();
+						ys[next] = points[i].getImaginary();
+						indices[next] = i;
+						next++;
+					}
+				}
+			}
+		});
+
+		// the larger half of a range of size s has s / 2 points
+		int depth = 0;
+		for (int size = count; size > LEAF_SIZE; size /= 2)
+			depth++;
+		minXs = new double[1 << depth];
+		minYs = new double[1 << depth];
+		maxXs = new double[1 << depth];
+		maxYs = new double[1 << depth];
+		WorkerPool.getPool().invoke(new BuildAction(1, 0, count));
+	}
+
+	private static boolean isFinite(Complex point) {
+		return point != null && !point.isNaN() && !point.isInfinite();
+	}
+
+	/**
+	 * splits a range at its middle and then splits both halves, on separate
+	 * threads while the range is large
+	 */
+	private class BuildAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int node;
+		private final int low;
+		private final int high;
+
+		public BuildAction(int n, int l, int h) {
+			node = n;
+			low = l;
+			high = h;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low > PARALLEL_SIZE) {
+				int middle = split(node, low, high);
+				invokeAll(new BuildAction(2 * node, low, middle),
+						new BuildAction(2 * node + 1, middle + 1, high));
+			} else {
+				build(node, low, high);
+			}
+		}
+	}
+
+	private void build(int node, int low, int high) {
+		if (high - low <= LEAF_SIZE)
+			return;
+		int middle = split(node, low, high);
+		build(2 * node, low, middle);
+		build(2 * node + 1, middle + 1, high);
+	}
+
+	/**
+	 * keep the box around a range and put its middle point in place along the
+	 * axis the range is widest along
+	 *
+	 * @return the index of the middle
+	 */
+	private int split(int node, int low, int high) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = low; i < high; i++) {
+			minX = Math.min(minX, xs[i]);
+			maxX = Math.max(maxX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		minXs[node] = minX;
+		minYs[node] = minY;
+		maxXs[node] = maxX;
+		maxYs[node] = maxY;
+		boolean real = maxX - minX >= maxY - minY;
+		int middle = (low + high) >>> 1;
+		select(low, high - 1, middle, real ? xs : ys);
+		splitOnReal[middle] = real;
+		return middle;
+	}
+
+	/**
+	 * quickselect: reorder the points from left to right so the point at k is
+	 * where it would be if they were sorted by the values
+	 */
+	private void select(int left, int right, int k, double[] values) {
+		while (right > left) {
+			// the median of three as the pivot
+			int middle = (left + right) >>> 1;
+			if (values[middle] < values[left])
+				swap(middle, left);
+			if (values[right] < values[left])
+				swap(right, left);
+			if (values[right] < values[middle])
+				swap(right, middle);
+			double pivot = values[middle];
+
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (values[i] < pivot)
+					i++;
+				while (values[j] > pivot)
+					j--;
+				if (i <= j) {
+					swap(i, j);
+					i++;
+					j--;
+				}
+			}
+			if (k <= j)
+				right = j;
+			else if (k >= i)
+				left = i;
+			else
+				return;
+		}
+	}
+
+	private void swap(int i, int j) {
+		double x = xs[i];
+		xs[i] = xs[j];
+		xs[j] = x;
+		double y = ys[i];
+		ys[i] = ys[j];
+		ys[j] = y;
+		int index = indices[i];
+		indices[i] = indices[j];
+		indices[j] = index;
+	}
+
+	/**
+	 * @return the number of finite points in the tree
+	 */
+	public int size() {
+		return xs.length;
+	}
+
+	/**
+	 * @return the real value of the point at a position of the tree. Going
+	 *         through the positions in order goes through the points a part
+	 *         of the plane at a time.
+	 */
+	double getReal(int position) {
+		return xs[position];
+	}
+
+	/**
+	 * @return the imaginary value of the point at a position of the tree
+	 */
+	double getImaginary(int position) {
+		return ys[position];
+	}
+
+	/**
+	 * find the point nearest to a place
+	 *
+	 * @param x
+	 *            the real value of the place
+	 * @param y
+	 *            the imaginary value of the place
+	 * @return the index in the array the tree was built from of the nearest
+	 *         point, or -1 if the tree is empty
+	 */
+	public int nearest(double x, double y) {
+		return nearest(x, y, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * find the point nearest to a place that is within a distance
+	 *
+	 * @param x
+	 *            the real value of the place
+	 * @param y
+	 *            the imaginary value of the place
+	 * @param maxDistance
+	 *            the farthest a point can be
+	 * @return the index in the array the tree was built from of the nearest
+	 *         point, or -1 if there is no point that close
+	 */
+	public int nearest(double x, double y, double maxDistance) {
+		Search search = new Search(x, y, maxDistance);
+		search.search(1, 0, xs.length);
+		return (search.position < 0) ? -1 : indices[search.position];
+	}
+
+	/**
+	 * @return the distance from a place to the nearest point, infinity if the
+	 *         tree is empty
+	 */
+	public double nearestDistance(double x, double y) {
+		Search search = new Search(x, y, Double.POSITIVE_INFINITY);
+		search.search(1, 0, xs.length);
+		return (search.position < 0) ? Double.POSITIVE_INFINITY : Math
+				.sqrt(search.best);
+	}
+
+	/**
+	 * the state of one search, so searches can run on many threads at once
+	 */
+	private class Search {
+		private final double x;
+		private final double y;
+		private double best;
+		private int position = -1;
+
+		public Search(double px, double py, double maxDistance) {
+			x = px;
+			y = py;
+			best = maxDistance * maxDistance;
+		}
+
+		private void search(int node, int low, int high) {
+			if (high - low <= LEAF_SIZE) {
+				for (int i = low; i < high; i++)
+					check(i);
+				return;
+			}
+			double dx = Math.max(0, Math.max(minXs[node] - x, x - maxXs[node]));
+			double dy = Math.max(0, Math.max(minYs[node] - y, y - maxYs[node]));
+			if (dx * dx + dy * dy > best)
+				return;
+
+			int middle = (low + high) >>> 1;
+			check(middle);
+			// the side the place is on first
+			double difference = splitOnReal[middle] ? x - xs[middle] : y
+					- ys[middle];
+			if (difference < 0) {
+				search(2 * node, low, middle);
+				search(2 * node + 1, middle + 1, high);
+			} else {
+				search(2 * node + 1, middle + 1, high);
+				search(2 * node, low, middle);
+			}
+		}
+
+		private void check(int i) {
+			double dx = xs[i] - x;
+			double dy = ys[i] - y;
+			double d = dx * dx + dy * dy;
+			if (d < best || (d == best && position < 0)) {
+				best = d;
+				position = i;
+			}
+		}
+	}
+}
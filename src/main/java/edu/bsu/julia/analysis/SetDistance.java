@@ -0,0 +1,196 @@
+package edu.bsu.julia.analysis;
+
+import java.util.Arrays;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.generators.WorkerPool;
+import edu.bsu.julia.output.OutputSet;
+
+/**
+ * measures how far apart the points of two {@link OutputSet}s are. For every
+ * point of each set the distance to the nearest point of the other set is
+ * found with a {@link PointTree}, so a comparison of two sets of n points
+ * takes about n log(n) steps rather than n^2 distances. The
+ * Hausdorff distance is the largest of these nearest neighbour distances in
+ * either direction.
+ */
+public class SetDistance {
+	// the number of points looked at by one task
+	private static final int CHUNK = 1 << 14;
+
+	private final Directed firstToSecond;
+	private final Directed secondToFirst;
+
+	private SetDistance(Directed forward, Directed backward) {
+		firstToSecond = forward;
+		secondToFirst = backward;
+	}
+
+	/**
+	 * compare two sets of points on the {@link WorkerPool}
+	 *
+	 * @param first
+	 *            the points of the first set, null and infinite points are
+	 *            left out
+	 * @param second
+	 *            the points of the second set
+	 * @return the distances between the sets
+	 * @throws IllegalArgumentException
+	 *             if either set has no finite points
+	 */
+	public static SetDistance compare(Complex[] first, Complex[] second)
+			throws IllegalArgumentException {
+		PointTree firstTree = new PointTree(first);
+		PointTree secondTree = new PointTree(second);
+		if (firstTree.size() == 0 || secondTree.size() == 0)
+			throw new IllegalArgumentException("Both sets need at least one "
+					+ "finite point.");
+		return new SetDistance(new Directed(firstTree, secondTree),
+				new Directed(secondTree, firstTree));
+	}
+
+	/**
+	 * @return the Hausdorff distance, the farthest any point of either set is
+	 *         from the other set
+	 */
+	public double getHausdorffDistance() {
+		return Math.max(firstToSecond.getMax(), secondToFirst.getMax());
+	}
+
+	/**
+	 * @return the distances from the points of the first set to the second
+	 */
+	public Directed getFirstToSecond() {
+		return firstToSecond;
+	}
+
+	/**
+	 * @return the distances from the points of the second set to the first
+	 */
+	public Directed getSecondToFirst() {
+		return secondToFirst;
+	}
+
+	/**
+	 * @return a one line summary of the comparison
+	 */
+	public String toString() {
+		return String.format("Hausdorff distance %.6g", getHausdorffDistance());
+	}
+
+	/**
+	 * @return the nearest neighbour statistics of both directions
+	 */
+	public String table() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("           points      mean         rms          "
+				+ "median       95%          max\n");
+		builder.append("1st->2nd   " + firstToSecond.row() + "\n");
+		builder.append("2nd->1st   " + secondToFirst.row() + "\n");
+		return builder.toString();
+	}
+
+	/**
+	 * the distances from every point of one set to the nearest point of the
+	 * other set
+	 */
+	public static class Directed {
+		private final int count;
+		private final double mean;
+		private final double rms;
+		private final double median;
+		private final double percentile95;
+		private final double max;
+
+		private Directed(final PointTree from, final PointTree to) {
+			final int n = from.size();
+			final int chunks = (n + CHUNK - 1) / CHUNK;
+			final double[] distances = new double[n];
+			final double[] sums = new double[chunks];
+			final double[] squares = new double[chunks];
+			// the points are measured in the order of their tree so nearby
+			// points are searched for one after another
+			WorkerPool.forEachChunk(chunks, 1, new WorkerPool.ChunkTask() {
+				@Override
+				public void run(int start, int end) {
+					for (int c = start; c < end; c++) {
+						for (int i = c * CHUNK; i < Math.min(n, (c + 1) * CHUNK); i++) {
+							double d = to.nearestDistance(from.getReal(i), from
+									.getImaginary(i));
+							distances[i] = d;
+							sums[c] += d;
+							squares[c] += d * d;
+						}
+					}
+				}
+			});
+
+			double sum = 0;
+			double sumOfSquares = 0;
+			for (int c = 0; c < chunks; c++) {
+				sum += sums[c];
+				sumOfSquares += squares[c];
+			}
+			Arrays.parallelSort(distances);
+
+			count = n;
+			mean = (n == 0) ? 0 : sum / n;
+			rms = (n == 0) ? 0 : Math.sqrt(sumOfSquares / n);
+			median = quantile(distances, 0.5);
+			percentile95 = quantile(distances, 0.95);
+			max = (n == 0) ? 0 : distances[n - 1];
+		}
+
+		/**
+		 * @return the nearest rank quantile of the sorted values
+		 */
+		private static double quantile(double[] sorted, double q) {
+			if (sorted.length == 0)
+				return 0;
+			int rank = (int) Math.ceil(q * sorted.length) - 1;
+			return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+		}
+
+		/**
+		 * @return the number of finite points measured
+		 */
+		public int getCount() {
+			return count;
+		}
+
+		public double getMean() {
+			return mean;
+		}
+
+		/**
+		 * @return the root mean square of the distances
+		 */
+		public double getRms() {
+			return rms;
+		}
+
+		public double getMedian() {
+			return median;
+		}
+
+		/**
+		 * @return the distance that 95% of the points are within
+		 */
+		public double getPercentile95() {
+			return percentile95;
+		}
+
+		/**
+		 * @return the largest distance, the directed Hausdorff distance
+		 */
+		public double getMax() {
+			return max;
+		}
+
+		private String row() {
+			return String.format("%-10d  %-11.5g  %-11.5g  %-11.5g  %-11.5g  "
+					+ "%.5g", count, mean, rms, median, percentile95, max);
+		}
+	}
+}
@@ -0,0 +1,276 @@
+package edu.bsu.julia.batch;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.generators.WarmStart;
+import edu.bsu.julia.generators.WorkerPool;
+import edu.bsu.julia.gui.ErrorSink;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.OutputSetRenderer;
+
+/**
+ * writes the frames of an animation of a set changing as one coefficient of
+ * an {@link InputFunction} moves along a path. The path goes in straight
+ * lines through a list of values and every frame is drawn with the same view
+ * into a numbered png file (frame-0001.png, frame-0002.png, ...) that can be
+ * put together into a video with other tools.
+ *
+ * <p>
+ * The frames are split into one run of consecutive frames per thread. Inside
+ * a run the random orbits of every frame after the first start from a
+ * {@link WarmStart} of the frame before it, which is already close to the new
+ * set, so fewer skips are needed.
+ * </p>
+ */
+public class AnimationExporter {
+	/**
+	 * told about every frame when it is written, called from the worker
+	 * threads
+	 */
+	public interface Listener {
+		public void frameDone(int frame, InputFunction function, int points,
+				int done, int total);
+	}
+
+	private static final Color FRAME_COLOR = Color.BLUE;
+	// the part of the plane shown by a new graph
+	private static final double[] DEFAULT_VIEW = { -2, -2, 4, 4 };
+
+	private final ErrorSink errorSink;
+	private final InputFunction[] functions;
+	private final int template;
+	private final int coefficient;
+	private final Complex[] path;
+	private final int frames;
+	private final OutputSet.Type type;
+	private final OutputSet.Info info;
+	private final OutputSetRenderer renderer;
+	private int tValue = 10;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private boolean warmStart = true;
+	private int warmSkips = WarmStart.DEFAULT_SKIPS;
+	private Double stopTolerance;
+	private Listener listener;
+
+	/**
+	 * constructor for {@link AnimationExporter}
+	 *
+	 * @param sink
+	 *            the {@link ErrorSink} the generators report errors to
+	 * @param inFunc
+	 *            the functions of every frame
+	 * @param t
+	 *            the index in inFunc of the function whose coefficient moves
+	 * @param c
+	 *            the index of the coefficient that moves
+	 * @param values
+	 *            the values the coefficient moves through, at least two
+	 * @param n
+	 *            the number of frames, at least two
+	 * @param setType
+	 *            the type of set drawn in each frame, individual types only
+	 *            draw the moving function
+	 * @param setInfo
+	 *            the iterations, skips and seed of the first frame
+	 * @param r
+	 *            the {@link OutputSetRenderer} used for the frames. if it
+	 *            has no view the default view of the graph is used so every
+	 *            frame is the same part of the plane
+	 * @throws IllegalArgumentException
+	 *             if the path or the number of frames isn't valid
+	 */
+	public AnimationExporter(ErrorSink sink, InputFunction[] inFunc, int t,
+			int c, Complex[] values, int n, OutputSet.Type setType,
+			OutputSet.Info setInfo, OutputSetRenderer r)
+			throws IllegalArgumentException {
+		if (values.length < 2)
+			throw new IllegalArgumentException("a path needs at least 2 values");
+		if (n < 2)
+			throw new IllegalArgumentException(
+					"an animation needs at least 2 frames");
+		if (c < 0 || c >= inFunc[t].getCoefficients().length)
+			throw new IllegalArgumentException(inFunc[t] + " has no "
+					+ "coefficient " + (c + 1));
+		if (setType != OutputSet.Type.POST_CRITICAL)
+			// fail now instead of on every frame
+			ParameterSweep.createGenerator(sink, setType, setInfo, tValue,
+					inFunc, null, null);
+
+		errorSink = sink;
+		functions = inFunc;
+		template = t;
+		coefficient = c;
+		path = values;
+		frames = n;
+		type = setType;
+		info = setInfo;
+		renderer = r;
+		if (!r.hasView())
+			r.setView(DEFAULT_VIEW[0], DEFAULT_VIEW[1], DEFAULT_VIEW[2],
+					DEFAULT_VIEW[3]);
+	}
+
+	/**
+	 * @param t
+	 *            the t value used for post critical sets
+	 */
+	public void setTValue(int t) {
+		tValue = t;
+	}
+
+	/**
+	 * @param n
+	 *            the number of runs of frames generated at the same time,
+	 *            defaults to the number of processors. each run starts from
+	 *            the session seed.
+	 */
+	public void setThreads(int n) {
+		threads = Math.max(1, n);
+	}
+
+	/**
+	 * @param enabled
+	 *            false to start every frame from the session seed and skips
+	 */
+	public void setWarmStart(boolean enabled) {
+		warmStart = enabled;
+	}
+
+	/**
+	 * @param skips
+	 *            the skips used by a frame seeded from the frame before it,
+	 *            never more than the skips of the session
+	 */
+	public void setWarmSkips(int skips) {
+		warmSkips = Math.max(0, skips);
+	}
+
+	/**
+	 * @param tolerance
+	 *            stop each random frame when a window of points fills less
+	 *            than this fraction of new cells, or null to make every point
+	 */
+	public void setStopTolerance(Double tolerance) {
+		stopTolerance = tolerance;
+	}
+
+	public void setListener(Listener l) {
+		listener = l;
+	}
+
+	/**
+	 * @return the value of the coefficient in the frame
+	 */
+	public Complex value(int frame) {
+		// where the frame is along the path, in segments
+		double position = (double) frame * (path.length - 1) / (frames - 1);
+		int segment = Math.min((int) position, path.length - 2);
+		double fraction = position - segment;
+		return path[segment].add(path[segment + 1].subtract(path[segment])
+				.multiply(fraction));
+	}
+
+	/**
+	 * generate and write every frame. Blocks until every frame is written.
+	 *
+	 * @param directory
+	 *            the directory to write to
+	 * @return the number of frames without points
+	 * @throws IOException
+	 *             if the images can't be written
+	 */
+	public int run(final File directory) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("can't create " + directory);
+
+		final String format = "frame-%0"
+				+ Math.max(4, String.valueOf(frames).length()) + "d.png";
+		final AtomicInteger done = new AtomicInteger();
+		final AtomicInteger empty = new AtomicInteger();
+		final IOException[] failure = new IOException[1];
+		int run = (frames + threads - 1) / threads;
+
+		WorkerPool.forEachChunk(frames, run, new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int start, int end) {
+				WarmStart warm = null;
+				for (int i = start; i < end; i++) {
+					InputFunction function = createFunction(i);
+					Complex[] points = (function == null) ? null : generate(
+							function, warm);
+					if (points == null || points.length == 0) {
+						empty.incrementAndGet();
+						points = new Complex[0];
+					}
+					if (warmStart && type != OutputSet.Type.POST_CRITICAL)
+						warm = WarmStart.fromPoints(points,
+								WarmStart.DEFAULT_ORBITS, Math.min(info.skips(),
+										warmSkips));
+
+					File file = new File(directory, String.format(format,
+							i + 1));
+					try {
+						ImageIO.write(renderer.render(
+								new Complex[][] { points },
+								new Color[] { FRAME_COLOR }), "png", file);
+					} catch (IOException e) {
+						synchronized (failure) {
+							failure[0] = e;
+						}
+					}
+
+					if (listener != null)
+						listener.frameDone(i, function, points.length, done
+								.incrementAndGet(), frames);
+				}
+			}
+		});
+
+		if (failure[0] != null)
+			throw failure[0];
+		return empty.get();
+	}
+
+	/**
+	 * @return the moving function with the coefficient of the frame, or null if
+	 *         the coefficient isn't valid for it
+	 */
+	private InputFunction createFunction(int frame) {
+		Complex[] coefficients = functions[template].getCoefficients().clone();
+		coefficients[coefficient] = value(frame);
+		try {
+			InputFunction function = functions[template].newInstance(
+					functions[template].getM(), coefficients);
+			function.setSubscript(template + 1);
+			return function;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * run the generator for the frame on this thread
+	 *
+	 * @param warm
+	 *            seeds from the frame before or null to use the session seed
+	 */
+	private Complex[] generate(InputFunction function, WarmStart warm) {
+		InputFunction[] inFunc;
+		if (type.name().startsWith("IND_")) {
+			inFunc = new InputFunction[] { function };
+		} else {
+			inFunc = functions.clone();
+			inFunc[template] = function;
+		}
+		return ParameterSweep.createGenerator(errorSink, type, info, tValue,
+				inFunc, warm, stopTolerance).doInBackground();
+	}
+}
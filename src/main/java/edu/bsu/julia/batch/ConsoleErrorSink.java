@@ -0,0 +1,33 @@
+package edu.bsu.julia.batch;
+
+import java.io.PrintStream;
+
+import edu.bsu.julia.gui.ErrorSink;
+import edu.bsu.julia.gui.JuliaError;
+
+/**
+ * an {@link ErrorSink} that prints errors instead of showing a dialog, for use
+ * without a display
+ * 
+ */
+public class ConsoleErrorSink implements ErrorSink {
+	private final PrintStream out;
+	private volatile int errorCount = 0;
+
+	public ConsoleErrorSink(PrintStream o) {
+		out = o;
+	}
+
+	@Override
+	public synchronized void reportError(JuliaError error) {
+		errorCount++;
+		out.println(error.getTitle() + ": " + error.getMessage());
+	}
+
+	/**
+	 * @return the number of errors reported so far
+	 */
+	public int getErrorCount() {
+		return errorCount;
+	}
+}
@@ -0,0 +1,663 @@
+package edu.bsu.julia.batch;
+
+import java.awt.EventQueue;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+import javax.swing.SwingWorker;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.ComplexNumberUtils;
+import edu.bsu.julia.analysis.BoxCountingDimension;
+import edu.bsu.julia.generators.CoverageMonitor;
+import edu.bsu.julia.generators.GeneratorFactory;
+import edu.bsu.julia.generators.GeneratorMetrics;
+import edu.bsu.julia.generators.OutputSetGenerator;
+import edu.bsu.julia.generators.PostCriticalOutputSetGenerator;
+import edu.bsu.julia.gui.actions.SaveSessionAction;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.OutputSetCache;
+import edu.bsu.julia.output.OutputSetRenderer;
+import edu.bsu.julia.output.PointFileCodec;
+import edu.bsu.julia.output.PostCriticalOutputSet;
+import edu.bsu.julia.session.LegacyFileImporter;
+import edu.bsu.julia.session.ParameterFileImporter;
+import edu.bsu.julia.session.Session.Importer;
+import edu.bsu.julia.session.SessionFileExporter;
+import edu.bsu.julia.session.SessionFileImporter;
+
+/**
+ * runs Julia without a display. The input functions and settings are loaded
+ * from a saved session or a parameter file (see
+ * {@link ParameterFileImporter}), the requested sets are generated with the
+ * same generators the GUI uses and the points, images and a session file are
+ * written to an output directory. Started with
+ * <code>java -jar julia.jar --batch [options]</code>, run with
+ * <code>--help</code> for the options.
+ */
+public class JuliaBatch {
+	private static final String USAGE = "usage: julia --batch "
+			+ "(--session FILE | --params FILE) [options]\n"
+			+ "  --session FILE       a saved session (.julia.zip) or legacy session file\n"
+			+ "  --params FILE        a parameter file\n"
+			+ "  --type TYPE          a set to generate, can be given more than once:\n"
+			+ "                       FULL_JULIA, RANDOM_JULIA, FULL_ATTR, RANDOM_ATTR,\n"
+			+ "                       the IND_ versions of those or POST_CRITICAL.\n"
+			+ "                       defaults to the selected method and type of the session\n"
+			+ "  --functions 1,2,...  the input functions to use, defaults to the selected ones\n"
+			+ "  --t N                the t value for POST_CRITICAL sets (default 10)\n"
+			+ "  --iterations N       override the minimum number of points\n"
+			+ "  --skips N            override the number of skips\n"
+			+ "  --seed {x, y}        override the seed value\n"
+			+ "  --output DIR         the directory to write to (default .)\n"
+			+ "  --width N            the image width (default 800)\n"
+			+ "  --height N           the image height (default 800)\n"
+			+ "  --dot-size N         the size of each point in pixels (default 1)\n"
+			+ "  --view X,Y,W,H       the part of the plane to draw, defaults to fit the points\n"
+			+ "  --no-axes            don't draw the axes\n"
+			+ "  --no-images          don't write the images\n"
+			+ "  --no-points          don't write the point files\n"
+			+ "  --no-session         don't write the session file\n"
+			+ "  --store-points       don't compress the points in the session file\n"
+			+ "  --disk-cache MB      keep sets that aren't random in a cache of MB\n"
+			+ "                       megabytes in the temp directory between runs\n"
+			+ "  --dimension          print the box-counting dimension of each set\n"
+			+ "  --converge TOL       stop random sets when a window of points fills less\n"
+			+ "                       than the fraction TOL of new cells (like 0.001).\n"
+			+ "                       --iterations is then the most points made\n"
+			+ "parameter sweeps:\n"
+			+ "  --sweep C:X,Y:X,Y:N  change coefficient C of the sweep function from X+Yi\n"
+			+ "                       to X+Yi in N steps. give it twice for a grid, if both\n"
+			+ "                       change the same coefficient their values are added\n"
+			+ "  --sweep-function N   the function to change (default the first one used)\n"
+			+ "  --threads N          the largest number of sets generated at once\n"
+			+ "                       (1 also compresses the session on one thread)\n"
+			+ "  --thumbnail-size N   the size of the thumbnails (default 256)\n"
+			+ "  --thumbnails-only    don't write the points of each set\n"
+			+ "  --no-thumbnails      don't draw the thumbnails\n"
+			+ "animations:\n"
+			+ "  --animate C:X,Y:X,Y[:X,Y...]:N\n"
+			+ "                       write N frames of the sweep function as coefficient C\n"
+			+ "                       moves in straight lines through the values X+Yi.\n"
+			+ "                       uses --width, --height, --view (default -2,-2,4,4)\n"
+			+ "  --warm-skips N       the skips of a frame seeded from the frame before\n"
+			+ "                       it (default 10)\n"
+			+ "  --no-warm-start      start every frame from the seed and skips";
+
+	private final ConsoleErrorSink errorSink = new ConsoleErrorSink(System.err);
+	private final List<OutputSet.Type> types = new ArrayList<OutputSet.Type>();
+	private File sessionFile;
+	private File paramsFile;
+	private int[] functionIndices;
+	private int tValue = 10;
+	private Integer iterations;
+	private Integer skips;
+	private Complex seed;
+	private File outputDir = new File(".");
+	private int width = 800;
+	private int height = 800;
+	private int dotSize = 1;
+	private double[] view;
+	private boolean axes = true;
+	private boolean writeImages = true;
+	private boolean writePoints = true;
+	private boolean writeSession = true;
+	private boolean compressPoints = true;
+	private Long diskCacheBytes;
+	private Double stopTolerance;
+	private boolean dimension;
+	private final List<ParameterSweep.Axis> sweepAxes = new ArrayList<ParameterSweep.Axis>();
+	private int sweepFunction = 0;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int thumbnailSize = 256;
+	private boolean writeThumbnails = true;
+	private int animateCoefficient = -1;
+	private Complex[] animatePath;
+	private int animateFrames;
+	private boolean warmStart = true;
+	private int warmSkips = 10;
+
+	private final ActionListener nullListener = new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+		}
+	};
+
+	public static void main(String[] args) {
+		JuliaBatch batch = new JuliaBatch();
+		try {
+			if (!batch.parseArguments(args)) {
+				System.out.println(USAGE);
+				return;
+			}
+			int status = batch.run();
+			System.out.println(GeneratorMetrics.getInstance());
+			System.exit(status);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		} catch (Exception e) {
+			System.err.println("batch failed: " + e);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @return false if the usage should be printed
+	 * @throws IllegalArgumentException
+	 *             if the arguments are wrong
+	 */
+	private boolean parseArguments(String[] args)
+			throws IllegalArgumentException {
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.equals("--batch")) {
+				continue;
+			} else if (arg.equals("--help") || arg.equals("-h")) {
+				return false;
+			} else if (arg.equals("--no-axes")) {
+				axes = false;
+			} else if (arg.equals("--no-images")) {
+				writeImages = false;
+			} else if (arg.equals("--no-points")) {
+				writePoints = false;
+			} else if (arg.equals("--no-session")) {
+				writeSession = false;
+			} else if (arg.equals("--store-points")) {
+				compressPoints = false;
+			} else if (arg.equals("--dimension")) {
+				dimension = true;
+			} else if (arg.equals("--thumbnails-only")) {
+				writePoints = false;
+			} else if (arg.equals("--no-thumbnails")) {
+				writeThumbnails = false;
+			} else if (arg.equals("--no-warm-start")) {
+				warmStart = false;
+			} else {
+				if (i + 1 >= args.length)
+					throw new IllegalArgumentException("missing value for "
+							+ arg);
+				String value = args[++i];
+				try {
+					if (arg.equals("--session")) {
+						sessionFile = new File(value);
+					} else if (arg.equals("--params")) {
+						paramsFile = new File(value);
+					} else if (arg.equals("--type")) {
+						types.add(parseType(value));
+					} else if (arg.equals("--functions")) {
+						String[] parts = value.split(",");
+						functionIndices = new int[parts.length];
+						for (int j = 0; j < parts.length; j++)
+							functionIndices[j] = Integer.parseInt(parts[j]
+									.trim()) - 1;
+					} else if (arg.equals("--sweep")) {
+						sweepAxes.add(parseAxis(value));
+					} else if (arg.equals("--animate")) {
+						parseAnimation(value);
+					} else if (arg.equals("--converge")) {
+						stopTolerance = Double.parseDouble(value);
+						if (stopTolerance < 0)
+							throw new IllegalArgumentException(
+									"--converge needs a tolerance of 0 or more");
+					} else if (arg.equals("--warm-skips")) {
+						warmSkips = Integer.parseInt(value);
+					} else if (arg.equals("--sweep-function")) {
+						sweepFunction = Integer.parseInt(value) - 1;
+					} else if (arg.equals("--threads")) {
+						threads = Integer.parseInt(value);
+					} else if (arg.equals("--disk-cache")) {
+						diskCacheBytes = Long.parseLong(value) * 1024 * 1024;
+						if (diskCacheBytes < 0)
+							throw new IllegalArgumentException(
+									"--disk-cache needs a size of 0 or more");
+					} else if (arg.equals("--thumbnail-size")) {
+						thumbnailSize = Integer.parseInt(value);
+					} else if (arg.equals("--t")) {
+						tValue = Integer.parseInt(value);
+					} else if (arg.equals("--iterations")) {
+						iterations = Integer.parseInt(value);
+					} else if (arg.equals("--skips")) {
+						skips = Integer.parseInt(value);
+					} else if (arg.equals("--seed")) {
+						seed = ComplexNumberUtils.parseComplexNumber(value);
+						if (seed == null)
+							throw new IllegalArgumentException(
+									"not a complex number: " + value);
+					} else if (arg.equals("--output")) {
+						outputDir = new File(value);
+					} else if (arg.equals("--width")) {
+						width = Integer.parseInt(value);
+					} else if (arg.equals("--height")) {
+						height = Integer.parseInt(value);
+					} else if (arg.equals("--dot-size")) {
+						dotSize = Integer.parseInt(value);
+					} else if (arg.equals("--view")) {
+						String[] parts = value.split(",");
+						if (parts.length != 4)
+							throw new IllegalArgumentException(
+									"--view needs X,Y,W,H");
+						view = new double[4];
+						for (int j = 0; j < 4; j++)
+							view[j] = Double.parseDouble(parts[j].trim());
+					} else {
+						throw new IllegalArgumentException("unknown option "
+								+ arg);
+					}
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("bad value for " + arg
+							+ ": " + value);
+				}
+			}
+		}
+
+		if ((sessionFile == null) == (paramsFile == null))
+			throw new IllegalArgumentException(
+					"give exactly one of --session or --params");
+		if (sweepAxes.size() > 2)
+			throw new IllegalArgumentException("a sweep has one or two axes");
+		if (!sweepAxes.isEmpty() && types.size() > 1)
+			throw new IllegalArgumentException("a sweep has only one type");
+		if (animatePath != null && (types.size() > 1 || !sweepAxes.isEmpty()))
+			throw new IllegalArgumentException(
+					"an animation has only one type and no sweep");
+		return true;
+	}
+
+	/**
+	 * parse an animation path in the form C:X,Y:X,Y[:X,Y...]:N
+	 */
+	private void parseAnimation(String value) throws IllegalArgumentException {
+		String[] parts = value.split(":");
+		if (parts.length < 4)
+			throw new IllegalArgumentException(
+					"--animate needs C:X,Y:X,Y[:X,Y...]:N");
+		animateCoefficient = Integer.parseInt(parts[0].trim()) - 1;
+		animatePath = new Complex[parts.length - 2];
+		for (int i = 0; i < animatePath.length; i++)
+			animatePath[i] = parsePoint(parts[i + 1]);
+		animateFrames = Integer.parseInt(parts[parts.length - 1].trim());
+	}
+
+	/**
+	 * parse a sweep axis in the form C:X,Y:X,Y:N
+	 */
+	private ParameterSweep.Axis parseAxis(String value)
+			throws IllegalArgumentException {
+		String[] parts = value.split(":");
+		if (parts.length != 4)
+			throw new IllegalArgumentException("--sweep needs C:X,Y:X,Y:N");
+		return new ParameterSweep.Axis(Integer.parseInt(parts[0].trim()) - 1,
+				parsePoint(parts[1]), parsePoint(parts[2]), Integer
+						.parseInt(parts[3].trim()));
+	}
+
+	private Complex parsePoint(String value) throws IllegalArgumentException {
+		String[] parts = value.split(",");
+		if (parts.length != 2)
+			throw new IllegalArgumentException("not a complex number: "
+					+ value);
+		return new Complex(Double.parseDouble(parts[0].trim()), Double
+				.parseDouble(parts[1].trim()));
+	}
+
+	private OutputSet.Type parseType(String value)
+			throws IllegalArgumentException {
+		OutputSet.Type type = OutputSet.Type.valueOf(value.toUpperCase());
+		switch (type) {
+		case BASIC:
+		case FORWARD_IMAGE:
+		case RANDOM_INVERSE_IMAGE:
+		case FULL_INVERSE_IMAGE:
+			throw new IllegalArgumentException(type.description()
+					+ "s can't be created in batch mode");
+		default:
+			return type;
+		}
+	}
+
+	/**
+	 * load the session, generate the sets and write the files
+	 *
+	 * @return the exit status
+	 */
+	private int run() throws Exception {
+		if (!outputDir.isDirectory() && !outputDir.mkdirs())
+			throw new IOException("can't create " + outputDir);
+		if (diskCacheBytes != null) {
+			OutputSetCache.getInstance().setMaxDiskBytes(diskCacheBytes);
+			OutputSetCache.getInstance().setDiskEnabled(true);
+		}
+
+		// load the session. the importers are run on this thread
+		Importer importer;
+		SwingWorker<Boolean, Void> worker;
+		if (paramsFile != null) {
+			ParameterFileImporter params = new ParameterFileImporter(paramsFile);
+			importer = params;
+			worker = params;
+		} else if (sessionFile.getName().endsWith(".zip")) {
+			SessionFileImporter session = new SessionFileImporter(sessionFile);
+			importer = session;
+			worker = session;
+		} else {
+			LegacyFileImporter legacy = new LegacyFileImporter(sessionFile);
+			importer = legacy;
+			worker = legacy;
+		}
+		worker.run();
+		if (!Boolean.TRUE.equals(worker.get()))
+			throw new IOException("could not load the session");
+
+		final Integer iter = (iterations != null) ? iterations : importer
+				.provideIterations();
+		final Integer sk = (skips != null) ? skips : importer.provideSkips();
+		final Complex sd = (seed != null) ? seed : importer
+				.provideSeedValue();
+		OutputSet.Info info = new OutputSet.Info() {
+			@Override
+			public Integer iterations() {
+				return iter;
+			}
+
+			@Override
+			public Complex seed() {
+				return sd;
+			}
+
+			@Override
+			public Integer skips() {
+				return sk;
+			}
+		};
+
+		List<InputFunction> allFunctions = new ArrayList<InputFunction>(
+				importer.provideInputFunctions());
+		int[] indices = (functionIndices != null) ? functionIndices : importer
+				.provideSelectedInputIndices();
+		InputFunction[] functions = new InputFunction[indices.length];
+		for (int i = 0; i < indices.length; i++) {
+			if (indices[i] < 0 || indices[i] >= allFunctions.size())
+				throw new IllegalArgumentException("there is no function "
+						+ (indices[i] + 1));
+			functions[i] = allFunctions.get(indices[i]);
+		}
+
+		// legacy files don't save the selections, use the defaults of the GUI
+		String selectedMethod = importer.provideSelectedMethod();
+		String selectedType = importer.provideSelectedType();
+		if (selectedMethod == null || selectedMethod.length() == 0)
+			selectedMethod = "random";
+		if (selectedType == null || selectedType.length() == 0)
+			selectedType = "julia";
+		if (types.isEmpty())
+			types.add(parseType(selectedMethod + "_" + selectedType));
+
+		if (!sweepAxes.isEmpty())
+			return runSweep(info, functions, types.get(0));
+		if (animatePath != null)
+			return runAnimation(info, functions, types.get(0));
+
+		// the sets already in the session are kept
+		List<OutputSet> sets = new ArrayList<OutputSet>(importer
+				.provideOutputSets());
+		int subscript = importer.provideOutputSubscript();
+		for (OutputSet.Type type : types)
+			sets.addAll(createSets(type, info, functions));
+		for (OutputSet set : sets)
+			if (set.getSubscript().equals("?"))
+				set.setSubscript(++subscript);
+
+		// wait for every set and drop the ones that failed
+		List<OutputSet> done = new ArrayList<OutputSet>();
+		for (OutputSet set : sets) {
+			long start = System.currentTimeMillis();
+			if (waitFor(set)) {
+				done.add(set);
+				System.out.println(set + ": " + set.getNumOfPoints()
+						+ " points in "
+						+ (System.currentTimeMillis() - start) + " ms");
+				System.out.println("  generator: " + set.getGeneratorStats());
+				if (set.getCoverage() != null)
+					System.out.println("  coverage: " + set.getCoverage());
+				if (dimension)
+					printDimension(set);
+			} else {
+				System.err.println(set + ": no points were generated");
+			}
+		}
+
+		write(done, importer, allFunctions, selectedMethod,
+				selectedType);
+		return (done.size() == sets.size() && errorSink.getErrorCount() == 0) ? 0
+				: 1;
+	}
+
+	/**
+	 * print the box-counting dimension of a set that has its points
+	 */
+	private void printDimension(OutputSet set) {
+		try {
+			System.out.println("  "
+					+ BoxCountingDimension.estimate(set.getPoints(true)));
+		} catch (IllegalArgumentException e) {
+			System.err.println(set + ": no dimension, " + e.getMessage());
+		}
+	}
+
+	/**
+	 * run a {@link ParameterSweep} instead of creating sets
+	 *
+	 * @return the exit status
+	 */
+	private int runSweep(OutputSet.Info info, InputFunction[] functions,
+			OutputSet.Type type) throws Exception {
+		if (sweepFunction < 0 || sweepFunction >= functions.length)
+			throw new IllegalArgumentException("there is no sweep function "
+					+ (sweepFunction + 1));
+
+		ParameterSweep sweep = new ParameterSweep(errorSink, functions,
+				sweepFunction, type, info, sweepAxes
+						.toArray(new ParameterSweep.Axis[] {}));
+		sweep.setTValue(tValue);
+		sweep.setMaxConcurrent(threads);
+		sweep.setWritePoints(writePoints);
+		sweep.setStopTolerance(stopTolerance);
+		if (writeThumbnails) {
+			OutputSetRenderer renderer = new OutputSetRenderer(thumbnailSize,
+					thumbnailSize);
+			renderer.setDotSize(dotSize);
+			renderer.setAxesEnabled(axes);
+			if (view != null)
+				renderer.setView(view[0], view[1], view[2], view[3]);
+			sweep.setThumbnailRenderer(renderer);
+		}
+		sweep.setListener(new ParameterSweep.Listener() {
+			@Override
+			public void cellDone(ParameterSweep.Cell cell, int done, int total) {
+				System.out.println(done + "/" + total + " "
+						+ ((cell.getFunction() == null) ? "invalid coefficients"
+								: cell.getFunction().toString()) + ": "
+						+ cell.getNumOfPoints() + " points");
+			}
+		});
+
+		long start = System.currentTimeMillis();
+		List<ParameterSweep.Cell> cells = sweep.run(outputDir);
+		int failed = 0;
+		for (ParameterSweep.Cell cell : cells)
+			if (cell.getNumOfPoints() == 0)
+				failed++;
+		System.out.println(cells.size() + " sets in "
+				+ (System.currentTimeMillis() - start) + " ms, " + failed
+				+ " without points");
+		return (failed == 0) ? 0 : 1;
+	}
+
+	/**
+	 * write the frames of an animation instead of creating sets
+	 *
+	 * @return the exit status
+	 */
+	private int runAnimation(OutputSet.Info info, InputFunction[] functions,
+			OutputSet.Type type) throws Exception {
+		if (sweepFunction < 0 || sweepFunction >= functions.length)
+			throw new IllegalArgumentException("there is no sweep function "
+					+ (sweepFunction + 1));
+
+		OutputSetRenderer renderer = new OutputSetRenderer(width, height);
+		renderer.setDotSize(dotSize);
+		renderer.setAxesEnabled(axes);
+		if (view != null)
+			renderer.setView(view[0], view[1], view[2], view[3]);
+
+		AnimationExporter exporter = new AnimationExporter(errorSink,
+				functions, sweepFunction, animateCoefficient, animatePath,
+				animateFrames, type, info, renderer);
+		exporter.setTValue(tValue);
+		exporter.setThreads(threads);
+		exporter.setWarmStart(warmStart);
+		exporter.setWarmSkips(warmSkips);
+		exporter.setStopTolerance(stopTolerance);
+		exporter.setListener(new AnimationExporter.Listener() {
+			@Override
+			public void frameDone(int frame, InputFunction function,
+					int points, int done, int total) {
+				System.out.println(done + "/" + total + " frame " + (frame + 1)
+						+ " "
+						+ ((function == null) ? "invalid coefficients"
+								: function.toString()) + ": " + points
+						+ " points");
+			}
+		});
+
+		long start = System.currentTimeMillis();
+		int empty = exporter.run(outputDir);
+		System.out.println(animateFrames + " frames in "
+				+ (System.currentTimeMillis() - start) + " ms, " + empty
+				+ " without points");
+		return (empty == 0) ? 0 : 1;
+	}
+
+	/**
+	 * create the sets for one type, one set for composite types and one per
+	 * function for individual types
+	 */
+	private List<OutputSet> createSets(OutputSet.Type type,
+			OutputSet.Info info, InputFunction[] functions) {
+		List<OutputSet> result = new ArrayList<OutputSet>();
+		if (type == OutputSet.Type.POST_CRITICAL) {
+			OutputSetGenerator generator = OutputSetCache.getInstance().find(
+					OutputSetCache.createKey(type, info, functions, null,
+							tValue));
+			if (generator == null)
+				generator = new PostCriticalOutputSetGenerator(errorSink,
+						tValue, null, functions,
+						PostCriticalOutputSetGenerator.DEFAULT_TOLERANCE);
+			result.add(new PostCriticalOutputSet(info, functions, type, tValue,
+					generator, nullListener));
+		} else if (type.name().startsWith("IND_")) {
+			for (InputFunction function : functions)
+				result.add(createSet(type, info,
+						new InputFunction[] { function }));
+		} else {
+			result.add(createSet(type, info, functions));
+		}
+		return result;
+	}
+
+	private OutputSet createSet(OutputSet.Type type, OutputSet.Info info,
+			InputFunction[] functions) {
+		OutputSetGenerator generator = OutputSetCache.getInstance().find(
+				OutputSetCache.createKey(type, info, functions, null, null));
+		if (generator == null)
+			generator = GeneratorFactory.createGenerator(errorSink, type, info,
+					functions, null, (stopTolerance == null) ? null
+							: new CoverageMonitor(stopTolerance));
+		return new OutputSet(info, functions, type, generator, nullListener);
+	}
+
+	/**
+	 * wait until the set is generated and its temp file is written
+	 *
+	 * @return false if the set has no points
+	 */
+	private boolean waitFor(final OutputSet set) throws Exception {
+		if (set.getPoints(true).length == 0)
+			return false;
+
+		// the points and temp file are stored on the event dispatch thread,
+		// check them there until both are ready
+		final boolean[] ready = new boolean[1];
+		Runnable check = new Runnable() {
+			public void run() {
+				ready[0] = set.isLoaded() && set.hasPointsFile();
+			}
+		};
+		EventQueue.invokeAndWait(check);
+		while (!ready[0]) {
+			Thread.sleep(10);
+			EventQueue.invokeAndWait(check);
+		}
+		return true;
+	}
+
+	private void write(List<OutputSet> sets, Importer importer,
+			Collection<InputFunction> functions, String method, String type)
+			throws Exception {
+		OutputSetRenderer renderer = new OutputSetRenderer(width, height);
+		renderer.setDotSize(dotSize);
+		renderer.setAxesEnabled(axes);
+		if (view != null)
+			renderer.setView(view[0], view[1], view[2], view[3]);
+
+		for (OutputSet set : sets) {
+			String name = "o" + set.getSubscript();
+			if (writePoints)
+				PointFileCodec.write(set.getPoints(true), new File(outputDir,
+						name + ".dat"));
+			if (writeImages)
+				ImageIO.write(renderer.render(Arrays.asList(set)), "png",
+						new File(outputDir, name + ".png"));
+		}
+		if (writeImages && sets.size() > 1)
+			ImageIO.write(renderer.render(sets), "png", new File(outputDir,
+					"all.png"));
+
+		if (writeSession) {
+			SessionFileExporter exporter = new SessionFileExporter(new File(
+					outputDir, "session" + SaveSessionAction.FILE_EXTENSION));
+			exporter.addInputFunctions(functions);
+			exporter.addIterations(iterations != null ? iterations : importer
+					.provideIterations());
+			exporter.addSkips(skips != null ? skips : importer.provideSkips());
+			exporter.addSeedValue(seed != null ? seed : importer
+					.provideSeedValue());
+			exporter.addOutputSets(sets);
+			exporter.addSelectedMethod(method);
+			exporter.addSelectedType(type);
+			exporter.addSelectedInputIndices(importer
+					.provideSelectedInputIndices());
+			// select all the sets, like the GUI does after they are created
+			int[] selected = new int[sets.size()];
+			for (int i = 0; i < selected.length; i++)
+				selected[i] = i;
+			exporter.addSelectedOutputIndices(selected);
+			exporter.setCompressPoints(compressPoints);
+			exporter.setParallelCompression(threads > 1);
+			exporter.run();
+			if (!Boolean.TRUE.equals(exporter.get()))
+				throw new IOException("could not write the session");
+		}
+	}
+}
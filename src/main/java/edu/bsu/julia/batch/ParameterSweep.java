@@ -0,0 +1,520 @@
+package edu.bsu.julia.batch;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.ComplexNumberUtils;
+import edu.bsu.julia.generators.CoverageMonitor;
+import edu.bsu.julia.generators.GeneratorFactory;
+import edu.bsu.julia.generators.OutputSetGenerator;
+import edu.bsu.julia.generators.PostCriticalOutputSetGenerator;
+import edu.bsu.julia.generators.WarmStart;
+import edu.bsu.julia.generators.WorkerPool;
+import edu.bsu.julia.gui.ErrorSink;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.output.BinaryPointFile;
+import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.OutputSetRenderer;
+
+/**
+ * generates one set for every point of a grid of coefficient values. One
+ * {@link InputFunction} is used as a template and one or two of its
+ * coefficients are changed along each {@link Axis}, the other functions are
+ * used as they are. The sets are generated with the same generators as the
+ * GUI, several at a time on threads of their own while the generators split
+ * their work on the {@link WorkerPool}, and each one is written to
+ * the output directory as soon as it is done so only the sets being generated
+ * are kept in memory.
+ *
+ * <p>
+ * The output directory gets a cell-i-j.pts {@link BinaryPointFile} and/or a
+ * cell-i-j.png thumbnail for every cell and a sweep.txt index that lists the
+ * coefficients and number of points of each cell.
+ * </p>
+ */
+public class ParameterSweep {
+	/**
+	 * the values of one coefficient along one side of the grid. If both axes
+	 * change the same coefficient their values are added, so a grid over the
+	 * complex plane is made with one real and one imaginary axis.
+	 */
+	public static class Axis {
+		private final int coefficient;
+		private final Complex from;
+		private final Complex to;
+		private final int steps;
+
+		/**
+		 * @param c
+		 *            the index of the coefficient, starting at 0
+		 * @param f
+		 *            the first value
+		 * @param t
+		 *            the last value
+		 * @param s
+		 *            the number of values
+		 * @throws IllegalArgumentException
+		 *             if there are no steps
+		 */
+		public Axis(int c, Complex f, Complex t, int s)
+				throws IllegalArgumentException {
+			if (c < 0)
+				throw new IllegalArgumentException("negative coefficient index");
+			if (s < 1)
+				throw new IllegalArgumentException("a sweep needs at least 1 step");
+			coefficient = c;
+			from = f;
+			to = t;
+			steps = s;
+		}
+
+		public int getCoefficient() {
+			return coefficient;
+		}
+
+		public int getSteps() {
+			return steps;
+		}
+
+		/**
+		 * @return the value of the coefficient at the step
+		 */
+		public Complex value(int step) {
+			if (steps == 1)
+				return from;
+			return from.add(to.subtract(from).multiply(
+					(double) step / (steps - 1)));
+		}
+	}
+
+	/**
+	 * the result of one point of the grid
+	 */
+	public static class Cell {
+		private final int row;
+		private final int column;
+		private final InputFunction function;
+		private int points;
+		private File pointsFile;
+		private File thumbnail;
+
+		private Cell(int r, int c, InputFunction f) {
+			row = r;
+			column = c;
+			function = f;
+		}
+
+		/**
+		 * @return the step along the first axis
+		 */
+		public int getRow() {
+			return row;
+		}
+
+		/**
+		 * @return the step along the second axis, 0 if there is only one
+		 */
+		public int getColumn() {
+			return column;
+		}
+
+		/**
+		 * @return the template function with the coefficients of this cell, or
+		 *         null if the coefficients weren't valid for it
+		 */
+		public InputFunction getFunction() {
+			return function;
+		}
+
+		/**
+		 * @return the number of points generated, 0 if the generator failed
+		 */
+		public int getNumOfPoints() {
+			return points;
+		}
+
+		/**
+		 * @return the file the points were written to or null
+		 */
+		public File getPointsFile() {
+			return pointsFile;
+		}
+
+		/**
+		 * @return the thumbnail image file or null
+		 */
+		public File getThumbnail() {
+			return thumbnail;
+		}
+	}
+
+	/**
+	 * told about every cell when it is finished, called from the worker
+	 * threads
+	 */
+	public interface Listener {
+		public void cellDone(Cell cell, int done, int total);
+	}
+
+	private static final String INDEX_FILE = "sweep.txt";
+	private static final Color THUMBNAIL_COLOR = Color.BLUE;
+
+	private final ErrorSink errorSink;
+	private final InputFunction[] functions;
+	private final int template;
+	private final OutputSet.Type type;
+	private final OutputSet.Info info;
+	private final Axis[] axes;
+	private int tValue = 10;
+	private int maxConcurrent = Runtime.getRuntime().availableProcessors();
+	private boolean writePoints = true;
+	private Double stopTolerance;
+	private OutputSetRenderer renderer;
+	private Listener listener;
+
+	/**
+	 * constructor for {@link ParameterSweep}
+	 *
+	 * @param sink
+	 *            the {@link ErrorSink} the generators report errors to
+	 * @param inFunc
+	 *            the functions of every set
+	 * @param t
+	 *            the index in inFunc of the function whose coefficients are
+	 *            changed
+	 * @param setType
+	 *            a composite or individual type or
+	 *            {@link OutputSet.Type#POST_CRITICAL}. individual types only
+	 *            generate the set of the template function
+	 * @param setInfo
+	 *            the iterations, skips and seed of every set
+	 * @param sweepAxes
+	 *            one or two {@link Axis}
+	 * @throws IllegalArgumentException
+	 *             if the axes or type aren't valid
+	 */
+	public ParameterSweep(ErrorSink sink, InputFunction[] inFunc, int t,
+			OutputSet.Type setType, OutputSet.Info setInfo, Axis... sweepAxes)
+			throws IllegalArgumentException {
+		if (sweepAxes.length < 1 || sweepAxes.length > 2)
+			throw new IllegalArgumentException("a sweep has one or two axes");
+		for (Axis axis : sweepAxes)
+			if (axis.getCoefficient() >= inFunc[t].getCoefficients().length)
+				throw new IllegalArgumentException(inFunc[t] + " has no "
+						+ "coefficient " + (axis.getCoefficient() + 1));
+		if (setType != OutputSet.Type.POST_CRITICAL)
+			// fail now instead of on every cell
+			GeneratorFactory.createGenerator(sink, setType, setInfo, inFunc);
+
+		errorSink = sink;
+		functions = inFunc;
+		template = t;
+		type = setType;
+		info = setInfo;
+		axes = sweepAxes;
+	}
+
+	/**
+	 * @param t
+	 *            the t value used for post critical sets
+	 */
+	public void setTValue(int t) {
+		tValue = t;
+	}
+
+	/**
+	 * @param max
+	 *            the largest number of sets generated at the same time,
+	 *            defaults to the number of processors
+	 */
+	public void setMaxConcurrent(int max) {
+		maxConcurrent = Math.max(1, max);
+	}
+
+	/**
+	 * @param tolerance
+	 *            stop each random set when a window of points fills less than
+	 *            this fraction of new cells, or null to make every point. see
+	 *            {@link CoverageMonitor}
+	 */
+	public void setStopTolerance(Double tolerance) {
+		stopTolerance = tolerance;
+	}
+
+	/**
+	 * @param write
+	 *            false to only write thumbnails
+	 */
+	public void setWritePoints(boolean write) {
+		writePoints = write;
+	}
+
+	/**
+	 * @param r
+	 *            the {@link OutputSetRenderer} for the thumbnails, or null for
+	 *            no thumbnails
+	 */
+	public void setThumbnailRenderer(OutputSetRenderer r) {
+		renderer = r;
+	}
+
+	public void setListener(Listener l) {
+		listener = l;
+	}
+
+	/**
+	 * @return the number of sets in the sweep
+	 */
+	public int size() {
+		return axes[0].getSteps() * ((axes.length > 1) ? axes[1].getSteps() : 1);
+	}
+
+	/**
+	 * generate every set of the sweep and write them to the directory. Blocks
+	 * until every set is written.
+	 *
+	 * @param directory
+	 *            the directory to write to
+	 * @return the {@link Cell}s in row order
+	 * @throws IOException
+	 *             if the files can't be written
+	 */
+	public List<Cell> run(final File directory) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("can't create " + directory);
+
+		final int columns = (axes.length > 1) ? axes[1].getSteps() : 1;
+		final Cell[] cells = new Cell[size()];
+		final AtomicInteger done = new AtomicInteger();
+
+		// the cells run on threads of their own, at most maxConcurrent at
+		// once. A cell waiting for its turn on a thread of the WorkerPool
+		// would hold a thread the generators of the running cells need
+		final AtomicInteger threads = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+				maxConcurrent, Math.max(1, cells.length)), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "julia-sweep-"
+						+ threads.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			List<Future<Cell>> futures = new ArrayList<Future<Cell>>();
+			for (int i = 0; i < cells.length; i++) {
+				final int row = i / columns;
+				final int column = i % columns;
+				futures.add(executor.submit(new Callable<Cell>() {
+					@Override
+					public Cell call() throws IOException {
+						Cell cell = runCell(row, column, directory);
+						if (listener != null)
+							listener.cellDone(cell, done.incrementAndGet(),
+									cells.length);
+						return cell;
+					}
+				}));
+			}
+
+			IOException failure = null;
+			for (int i = 0; i < cells.length; i++) {
+				try {
+					cells[i] = getUninterruptibly(futures.get(i));
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException)
+						failure = (IOException) e.getCause();
+					else if (e.getCause() instanceof RuntimeException)
+						throw (RuntimeException) e.getCause();
+					else
+						throw (Error) e.getCause();
+				}
+			}
+			if (failure != null)
+				throw failure;
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<Cell> result = Arrays.asList(cells);
+		writeIndex(new File(directory, INDEX_FILE), result);
+		return result;
+	}
+
+	/**
+	 * wait for the future of a cell, remembering an interrupt while waiting
+	 * and restoring it once the cell is done
+	 */
+	private static Cell getUninterruptibly(Future<Cell> future)
+			throws ExecutionException {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return future.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	private Cell runCell(int row, int column, File directory)
+			throws IOException {
+		// build the coefficients of this cell
+		Complex[] coefficients = functions[template].getCoefficients().clone();
+		boolean[] changed = new boolean[coefficients.length];
+		int[] steps = { row, column };
+		for (int a = 0; a < axes.length; a++) {
+			int index = axes[a].getCoefficient();
+			Complex value = axes[a].value(steps[a]);
+			coefficients[index] = changed[index] ? coefficients[index]
+					.add(value) : value;
+			changed[index] = true;
+		}
+
+		InputFunction function;
+		try {
+			function = functions[template].newInstance(functions[template]
+					.getM(), coefficients);
+			function.setSubscript(template + 1);
+		} catch (IllegalArgumentException e) {
+			// like a zero coefficient that has to be nonzero, skip the cell
+			return new Cell(row, column, null);
+		}
+		Cell cell = new Cell(row, column, function);
+
+		Complex[] points = generate(function);
+		if (points == null || points.length == 0)
+			return cell;
+		cell.points = points.length;
+
+		String name = "cell-" + row + "-" + column;
+		if (writePoints) {
+			cell.pointsFile = new File(directory, name + ".pts");
+			BinaryPointFile.write(cell.pointsFile, function.toString(), points);
+		}
+		if (renderer != null) {
+			cell.thumbnail = new File(directory, name + ".png");
+			ImageIO.write(renderer.render(new Complex[][] { points },
+					new Color[] { THUMBNAIL_COLOR }), "png", cell.thumbnail);
+		}
+		return cell;
+	}
+
+	/**
+	 * run the generator for the cell on this thread
+	 */
+	private Complex[] generate(InputFunction function) {
+		InputFunction[] inFunc;
+		if (type.name().startsWith("IND_")) {
+			inFunc = new InputFunction[] { function };
+		} else {
+			inFunc = functions.clone();
+			inFunc[template] = function;
+		}
+
+		return createGenerator(errorSink, type, info, tValue, inFunc, null,
+				stopTolerance).doInBackground();
+	}
+
+	/**
+	 * create the generator of a set made without the GUI
+	 *
+	 * @param sink
+	 *            the {@link ErrorSink} the generator reports errors to
+	 * @param type
+	 *            a composite or individual type or
+	 *            {@link OutputSet.Type#POST_CRITICAL}
+	 * @param info
+	 *            the iterations, skips and seed of the set
+	 * @param t
+	 *            the t value used for post critical sets
+	 * @param inFunc
+	 *            the functions of the set
+	 * @param warm
+	 *            the {@link WarmStart} of a random set or null
+	 * @param stopTolerance
+	 *            the tolerance of the {@link CoverageMonitor} of a random set
+	 *            or null to make every point
+	 * @return a generator that can be run on the calling thread with
+	 *         {@link OutputSetGenerator#doInBackground()}
+	 */
+	static OutputSetGenerator createGenerator(ErrorSink sink,
+			OutputSet.Type type, OutputSet.Info info, int t,
+			InputFunction[] inFunc, WarmStart warm, Double stopTolerance) {
+		if (type == OutputSet.Type.POST_CRITICAL)
+			return new PostCriticalOutputSetGenerator(sink, t, null, inFunc,
+					PostCriticalOutputSetGenerator.DEFAULT_TOLERANCE);
+		return GeneratorFactory.createGenerator(sink, type, info, inFunc, warm,
+				(stopTolerance == null) ? null : new CoverageMonitor(
+						stopTolerance));
+	}
+
+	/**
+	 * write the index of the cells in the same line format as the session
+	 * files
+	 */
+	private void writeIndex(File file, List<Cell> cells) throws IOException {
+		PrintStream out = new PrintStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		out.println("type: " + type);
+		if (type == OutputSet.Type.POST_CRITICAL) {
+			out.println("t_value: " + tValue);
+		} else {
+			out.println("min_points: " + info.iterations());
+			out.println("skips: " + info.skips());
+			out.println("seed: " + ComplexNumberUtils.exportString(info.seed()));
+		}
+		out.println("template: " + (template + 1));
+		for (Axis axis : axes) {
+			out.println("begin_axis");
+			out.println("\tcoefficient_index: " + (axis.getCoefficient() + 1));
+			out.println("\tfrom: " + ComplexNumberUtils.exportString(axis.value(0)));
+			out.println("\tto: "
+					+ ComplexNumberUtils.exportString(axis.value(axis
+							.getSteps() - 1)));
+			out.println("\tsteps: " + axis.getSteps());
+			out.println("end_axis");
+		}
+
+		for (Cell cell : cells) {
+			out.println("begin_cell");
+			out.println("\tcell: " + cell.getRow() + " " + cell.getColumn());
+			if (cell.getFunction() != null)
+				for (String s : cell.getFunction().historyInfo())
+					out.println("\t" + s);
+			out.println("\tpoints: " + cell.getNumOfPoints());
+			if (cell.getPointsFile() != null)
+				out.println("\tpoints_file: " + cell.getPointsFile().getName());
+			if (cell.getThumbnail() != null)
+				out.println("\tthumbnail: " + cell.getThumbnail().getName());
+			out.println("end_cell");
+		}
+		out.close();
+		if (out.checkError())
+			throw new IOException("could not write " + file);
+	}
+}
@@ -0,0 +1,38 @@
+package edu.bsu.julia.generators;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.output.BinaryPointFile;
+import edu.bsu.julia.output.OutputSetCache;
+
+/**
+ * An {@link OutputSetGenerator} that reads the points of a set from the disk
+ * tier of the {@link OutputSetCache} instead of generating them
+ */
+public class CachedOutputSetGenerator extends OutputSetGenerator {
+	private final OutputSetCache cache;
+	private final String key;
+	private final File file;
+
+	public CachedOutputSetGenerator(OutputSetCache c, String k, File f) {
+		cache = c;
+		key = k;
+		file = f;
+	}
+
+	protected Complex[] generate() {
+		try {
+			Complex[] points = BinaryPointFile.read(file);
+			if (points.length == 0)
+				return null;
+			cache.putInMemory(key, points);
+			return points;
+		} catch (IOException e) {
+			file.delete();
+			return null;
+		}
+	}
+}
@@ -0,0 +1,282 @@
+package edu.bsu.julia.generators;
+
+import java.util.BitSet;
+
+import org.apache.commons.math.complex.Complex;
+
+/**
+ * watches how much of the plane the points of a random set cover so the
+ * generator can stop once new points stop showing anything new. The points are
+ * dropped into a coarse grid over the part of the plane the first window of
+ * points covers. After every window the number of cells that were filled for
+ * the first time is compared to the number of filled cells and when it is no
+ * more than the tolerance the set has converged.
+ *
+ * <p>
+ * A set that is still spreading out puts points outside the grid. The grid
+ * then doubles its size towards them, merging its cells in pairs, so the
+ * cells they fill count as new. Once the grid has grown as far as it may,
+ * every point outside it counts as a new cell.
+ * </p>
+ */
+public class CoverageMonitor {
+	/**
+	 * stop when a window fills less than 0.1% new cells
+	 */
+	public static final double DEFAULT_TOLERANCE = 0.001;
+
+	/**
+	 * the number of points between checks
+	 */
+	public static final int DEFAULT_WINDOW = 10000;
+
+	// the number of cells along each side of the grid
+	private static final int GRID_SIZE = 256;
+	// fraction of the first window's bounds added on each side
+	private static final double MARGIN = 0.1;
+	// the most times the grid doubles along each side
+	private static final int MAX_GROWTH = 16;
+
+	private final double tolerance;
+	private final int window;
+	private final BitSet cells = new BitSet(GRID_SIZE * GRID_SIZE);
+	private double left;
+	private double bottom;
+	private double cellWidth;
+	private double cellHeight;
+	private boolean hasGrid;
+	private int growthX;
+	private int growthY;
+	private int occupied;
+	private int windows;
+	private int points;
+	private double lastGrowth = 1;
+	private boolean converged;
+
+	/**
+	 * constructor for {@link CoverageMonitor} with the
+	 * {@link #DEFAULT_WINDOW}
+	 *
+	 * @param tol
+	 *            the fraction of new cells in a window below which the set has
+	 *            converged
+	 */
+	public CoverageMonitor(double tol) {
+		this(tol, DEFAULT_WINDOW);
+	}
+
+	/**
+	 * constructor for {@link CoverageMonitor}
+	 *
+	 * @param tol
+	 *            the fraction of new cells in a window below which the set has
+	 *            converged
+	 * @param w
+	 *            the number of points between checks
+	 * @throws IllegalArgumentException
+	 *             if the tolerance is negative or the window isn't positive
+	 */
+	public CoverageMonitor(double tol, int w) throws IllegalArgumentException {
+		if (tol < 0 || Double.isNaN(tol))
+			throw new IllegalArgumentException("negative tolerance");
+		if (w <= 0)
+			throw new IllegalArgumentException("the window must be positive");
+		tolerance = tol;
+		window = w;
+	}
+
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * add a window of points
+	 *
+	 * @param set
+	 *            the array holding the points
+	 * @param start
+	 *            the index of the first point of the window
+	 * @param end
+	 *            one past the index of the last point of the window
+	 * @return true if the set has converged
+	 */
+	public boolean addPoints(Complex[] set, int start, int end) {
+		if (!hasGrid)
+			hasGrid = createGrid(set, start, end);
+		else
+			fitGrid(set, start, end);
+
+		int before = occupied;
+		int outside = 0;
+		if (hasGrid) {
+			for (int i = start; i < end; i++) {
+				Complex point = set[i];
+				if (point == null)
+					continue;
+				double column = (point.getReal() - left) / cellWidth;
+				double row = (point.getImaginary() - bottom) / cellHeight;
+				// also false for NaN
+				if (!(column >= 0 && column < GRID_SIZE && row >= 0 && row < GRID_SIZE)) {
+					if (!point.isNaN() && !point.isInfinite())
+						outside++;
+					continue;
+				}
+				int cell = (int) row * GRID_SIZE + (int) column;
+				if (!cells.get(cell)) {
+					cells.set(cell);
+					occupied++;
+				}
+			}
+		}
+		points += end - start;
+		windows++;
+
+		lastGrowth = (occupied == 0) ? 1 : (double) (occupied - before
+				+ outside) / occupied;
+		// the first window fills the grid so it can't be compared
+		converged = windows > 1 && occupied > 0 && lastGrowth <= tolerance;
+		return converged;
+	}
+
+	/**
+	 * place the grid over the finite points of the first window
+	 *
+	 * @return false if there were no finite points
+	 */
+	private boolean createGrid(Complex[] set, int start, int end) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = start; i < end; i++) {
+			Complex point = set[i];
+			if (point == null || point.isNaN() || point.isInfinite())
+				continue;
+			minX = Math.min(minX, point.getReal());
+			maxX = Math.max(maxX, point.getReal());
+			minY = Math.min(minY, point.getImaginary());
+			maxY = Math.max(maxY, point.getImaginary());
+		}
+		if (minX > maxX)
+			return false;
+
+		double w = Math.max(maxX - minX, 1e-12);
+		double h = Math.max(maxY - minY, 1e-12);
+		left = minX - w * MARGIN;
+		bottom = minY - h * MARGIN;
+		cellWidth = w * (1 + 2 * MARGIN) / GRID_SIZE;
+		cellHeight = h * (1 + 2 * MARGIN) / GRID_SIZE;
+		return true;
+	}
+
+	/**
+	 * grow the grid until it holds the finite points of a window, or until it
+	 * has grown as far as it may
+	 */
+	private void fitGrid(Complex[] set, int start, int end) {
+		for (int i = start; i < end; i++) {
+			Complex point = set[i];
+			if (point == null || point.isNaN() || point.isInfinite())
+				continue;
+			double column = (point.getReal() - left) / cellWidth;
+			while ((column < 0 || column >= GRID_SIZE) && growthX < MAX_GROWTH) {
+				grow(true, column < 0);
+				column = (point.getReal() - left) / cellWidth;
+			}
+			double row = (point.getImaginary() - bottom) / cellHeight;
+			while ((row < 0 || row >= GRID_SIZE) && growthY < MAX_GROWTH) {
+				grow(false, row < 0);
+				row = (point.getImaginary() - bottom) / cellHeight;
+			}
+		}
+	}
+
+	/**
+	 * double the size of the grid along one side, merging the cells in pairs
+	 *
+	 * @param horizontal
+	 *            true to grow the width, false the height
+	 * @param low
+	 *            true to grow to the left or bottom, false to the right or
+	 *            top
+	 */
+	private void grow(boolean horizontal, boolean low) {
+		// growing towards the low side puts the old grid in the upper half
+		int offset = low ? GRID_SIZE : 0;
+		BitSet old = (BitSet) cells.clone();
+		cells.clear();
+		occupied = 0;
+		for (int cell = old.nextSetBit(0); cell >= 0; cell = old
+				.nextSetBit(cell + 1)) {
+			int row = cell / GRID_SIZE;
+			int column = cell % GRID_SIZE;
+			if (horizontal)
+				column = (column + offset) / 2;
+			else
+				row = (row + offset) / 2;
+			int merged = row * GRID_SIZE + column;
+			if (!cells.get(merged)) {
+				cells.set(merged);
+				occupied++;
+			}
+		}
+
+		if (horizontal) {
+			if (low)
+				left -= cellWidth * GRID_SIZE;
+			cellWidth *= 2;
+			growthX++;
+		} else {
+			if (low)
+				bottom -= cellHeight * GRID_SIZE;
+			cellHeight *= 2;
+			growthY++;
+		}
+	}
+
+	/**
+	 * @return true if the last window filled few enough new cells
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	/**
+	 * @return the number of points added
+	 */
+	public int getNumOfPoints() {
+		return points;
+	}
+
+	/**
+	 * @return the number of cells of the grid with a point in them
+	 */
+	public int getOccupiedCells() {
+		return occupied;
+	}
+
+	/**
+	 * @return the fraction of the grid with a point in it
+	 */
+	public double getCoverage() {
+		return (double) occupied / (GRID_SIZE * GRID_SIZE);
+	}
+
+	/**
+	 * @return the new cells of the last window as a fraction of the filled
+	 *         cells
+	 */
+	public double getLastGrowth() {
+		return lastGrowth;
+	}
+
+	/**
+	 * @return a description of the coverage for the user
+	 */
+	public String toString() {
+		return String.format("%d of %d cells (%.1f%%), the last %d points "
+				+ "filled %.3f%% more%s", occupied, GRID_SIZE * GRID_SIZE,
+				getCoverage() * 100, window, lastGrowth * 100,
+				converged ? "" : ", not converged");
+	}
+}
@@ -15,7 +15,7 @@ public class DummyOutputSetGenerator extends OutputSetGenerator {
 		points = (p.length > 0) ? p : null;
 	}
 
-	public Complex[] doInBackground() {
+	protected Complex[] generate() {
 		return points;
 	}
 }
@@ -8,6 +8,8 @@ import javax.swing.JFrame;
 
 import org.apache.commons.math.complex.Complex;
 
+import edu.bsu.julia.gui.DialogErrorSink;
+import edu.bsu.julia.gui.ErrorSink;
 import edu.bsu.julia.gui.JuliaError;
 import edu.bsu.julia.input.InputFunction;
 
@@ -18,7 +20,7 @@ import edu.bsu.julia.input.InputFunction;
  * @author Ben Dean
  */
 public class FullBackwardsOutputSetGenerator extends OutputSetGenerator {
-	private final JFrame parentFrame;
+	private final ErrorSink errorSink;
 	private final int iterations;
 	private final Complex seed;
 	private final InputFunction[] inputFunctions;
@@ -37,24 +39,46 @@ public class FullBackwardsOutputSetGenerator extends OutputSetGenerator {
 	 */
 	public FullBackwardsOutputSetGenerator(JFrame parent, int iter,
 			Complex sd, InputFunction[] inFunc) {
-		parentFrame = parent;
+		this(new DialogErrorSink(parent), iter, sd, inFunc);
+	}
+
+	/**
+	 * constructor for {@link FullBackwardsOutputSetGenerator}
+	 * 
+	 * @param sink
+	 *            the {@link ErrorSink} to report errors to
+	 * @param iter
+	 *            the number of iterations as an int
+	 * @param sd
+	 *            the {@link Complex} seed
+	 * @param inFunc
+	 *            an array of {@link InputFunction}
+	 */
+	public FullBackwardsOutputSetGenerator(ErrorSink sink, int iter,
+			Complex sd, InputFunction[] inFunc) {
+		errorSink = sink;
 		iterations = iter;
 		seed = sd;
 		inputFunctions = inFunc;
 	}
 
 	/**
-	 * @see OutputSetGenerator#doInBackground()
+	 * @see OutputSetGenerator#generate()
 	 */
-	public Complex[] doInBackground() {
+	protected Complex[] generate() {
 		try {
 			// check that there are input functions
 			if (inputFunctions.length == 0) {
 				return null;
 			}
 
-			int progress = 0;
-			int maxProgress = iterations;
+			// every level has the total branching factor of the functions
+			// times the points of the level before it
+			double branching = 0;
+			for (InputFunction function : inputFunctions)
+				branching += function.getBranchCount();
+			setTotalWork(fullMethodWork(branching, inputFunctions.length,
+					iterations, iterations));
 
 			int iterationCounter = 0;
 			boolean isDone = false;
@@ -62,46 +86,47 @@ public class FullBackwardsOutputSetGenerator extends OutputSetGenerator {
 			List<Complex> currentIteration = new ArrayList<Complex>();
 			currentIteration.add(seed);
 			List<Complex> tempList = new ArrayList<Complex>();
+			GeneratorStats.Clock clock = new GeneratorStats.Clock();
 			do {
 				// iterate each point by each of the input functions
 				tempList.clear();
+				stats.recordFrontier(currentIteration.size());
 				for (Complex point : currentIteration) {
 					for (InputFunction function : inputFunctions) {
 						// evaluate backwards with the current function
+						clock.start();
 						Complex[] temp = function
 								.evaluateBackwardsFull(point);
+						clock.stop();
 						if (temp == null) {
-							JuliaError.ZERO_DETERMINANT.showDialog(parentFrame);
+							errorSink.reportError(JuliaError.ZERO_DETERMINANT);
 							return null;
 						}
 
 						// add all the points from the backwards evaluation
 						tempList.addAll(Arrays.asList(temp));
 					}
+					advance(inputFunctions.length);
 				}
 
 				// the current iteration is a copy of the temp list of points
 				currentIteration = new ArrayList<Complex>(tempList);
 				iterationCounter += 1;
+				stats.setPoints(currentIteration.size());
 
-				// update the progress and isDone condition
-				progress = (iterationCounter > currentIteration.size()) ? iterationCounter
-						: currentIteration.size();
+				// update the isDone condition
 				isDone = iterationCounter >= iterations
 						|| currentIteration.size() >= iterations;
-
-				// set the progress for the SwingWorker
-				setProgress(Math.min((int) ((progress * 100f) / maxProgress),
-						100));
 			} while (!isDone);
+			stats.add(clock);
 
 			// iteration complete, the output set is the most recent iteration
 			return currentIteration.toArray(new Complex[] {});
 		} catch (OutOfMemoryError e) {
-			JuliaError.OUT_OF_MEMORY.showDialog(parentFrame);
+			errorSink.reportError(JuliaError.OUT_OF_MEMORY);
 			return null;
 		} catch (ArithmeticException e) {
-			JuliaError.DIV_BY_ZERO.showDialog(parentFrame);
+			errorSink.reportError(JuliaError.DIV_BY_ZERO);
 			return null;
 		}
 	}
@@ -8,6 +8,8 @@ import javax.swing.JFrame;
 
 import org.apache.commons.math.complex.Complex;
 
+import edu.bsu.julia.gui.DialogErrorSink;
+import edu.bsu.julia.gui.ErrorSink;
 import edu.bsu.julia.gui.JuliaError;
 import edu.bsu.julia.input.InputFunction;
 
@@ -33,7 +35,7 @@ public class FullForwardsOutputSetGenerator extends OutputSetGenerator {
 	private final Complex[] seedList;
 	private final InputFunction[] inputFunctions;
 	private final Mode mode;
-	private final JFrame parentFrame;
+	private final ErrorSink errorSink;
 
 	/**
 	 * constructor for {@link FullForwardsOutputSetGenerator}
@@ -52,7 +54,27 @@ public class FullForwardsOutputSetGenerator extends OutputSetGenerator {
 	 */
 	public FullForwardsOutputSetGenerator(JFrame parent, int iter,
 			Complex[] seed, InputFunction[] inFunc, Mode opt) {
-		parentFrame = parent;
+		this(new DialogErrorSink(parent), iter, seed, inFunc, opt);
+	}
+
+	/**
+	 * constructor for {@link FullForwardsOutputSetGenerator}
+	 * 
+	 * @param sink
+	 *            the {@link ErrorSink} to report errors to
+	 * @param iter
+	 *            the number of iterations
+	 * @param seed
+	 *            a {@link List} of {@link Complex} to use as the seed
+	 * @param inFunc
+	 *            an array of {@link InputFunction}
+	 * @param opt
+	 *            {@link Mode} describing whether or not to keep the
+	 *            intermediate points at each iteration
+	 */
+	public FullForwardsOutputSetGenerator(ErrorSink sink, int iter,
+			Complex[] seed, InputFunction[] inFunc, Mode opt) {
+		errorSink = sink;
 		iterations = iter;
 		seedList = seed;
 		inputFunctions = inFunc;
@@ -60,17 +82,21 @@ public class FullForwardsOutputSetGenerator extends OutputSetGenerator {
 	}
 
 	/**
-	 * @see OutputSetGenerator#doInBackground()
+	 * @see OutputSetGenerator#generate()
 	 */
-	public Complex[] doInBackground() {
+	protected Complex[] generate() {
 		try {
 			// check that there are input functions
 			if (inputFunctions.length == 0) {
 				return null;
 			}
 
-			int progress = 0;
-			int maxProgress = iterations;
+			// every point gives one point for each function. a post critical
+			// set always makes every level
+			setTotalWork(fullMethodWork(inputFunctions.length,
+					inputFunctions.length, iterations,
+					(mode == Mode.POST_CRITICAL) ? Double.POSITIVE_INFINITY
+							: iterations));
 
 			int iterationCounter = 0;
 			boolean isDone = false;
@@ -87,47 +113,47 @@ public class FullForwardsOutputSetGenerator extends OutputSetGenerator {
 				return currentIteration.toArray(new Complex[] {});
 			}
 
+			GeneratorStats.Clock clock = new GeneratorStats.Clock();
 			do {
 				if (mode == Mode.POST_CRITICAL)										/* HERE! */
 					outputSet.addAll(currentIteration);
 
 				// iterate each point by each function
+				stats.recordFrontier(currentIteration.size());
 				tempList = new ArrayList<Complex>(currentIteration.size()
 						* inputFunctions.length);
 				for (Complex point : currentIteration) {
 					for (InputFunction function : inputFunctions) {
-						tempList.add(function.evaluateForwards(point));
+						clock.start();
+						Complex image = function.evaluateForwards(point);
+						clock.stop();
+						tempList.add(image);
 					}
+					advance(inputFunctions.length);
 				}
 
 				// the currentIteration is now the tempList
 				currentIteration = tempList;
 				iterationCounter += 1;
+				stats.setPoints(outputSet.size() + currentIteration.size());
 
-				// update the progress and isDone condition
+				// update the isDone condition
 				if (mode == Mode.POST_CRITICAL) {
-					progress = iterationCounter;
 					isDone = iterationCounter >= iterations;
 				} else {
-					progress = (iterationCounter > currentIteration.size()) ? iterationCounter
-							: currentIteration.size();
 					isDone = iterationCounter >= iterations
 							|| currentIteration.size() >= iterations;
 				}
-
-				// set the progress for the SwingWorker
-				setProgress(Math.min((int) ((progress * 100f) / maxProgress),
-						100));
-
 			} while (!isDone);
+			stats.add(clock);
 
 			outputSet.addAll(currentIteration);
 			return outputSet.toArray(new Complex[] {});
 		} catch (OutOfMemoryError e) {
-			JuliaError.OUT_OF_MEMORY.showDialog(parentFrame);
+			errorSink.reportError(JuliaError.OUT_OF_MEMORY);
 			return null;
 		} catch (ArithmeticException e) {
-			JuliaError.DIV_BY_ZERO.showDialog(parentFrame);
+			errorSink.reportError(JuliaError.DIV_BY_ZERO);
 			return null;
 		}
 	}
@@ -0,0 +1,134 @@
+package edu.bsu.julia.generators;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.gui.ErrorSink;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.precision.ExtendedPrecision;
+
+/**
+ * utility class to create the {@link OutputSetGenerator} for a composite or
+ * individual {@link OutputSet.Type}. Used by the GUI actions and the batch
+ * mode so both generate the same sets for the same parameters.
+ * 
+ */
+public final class GeneratorFactory {
+	/**
+	 * private constructor so that this class can only be used staticly
+	 */
+	private GeneratorFactory() {
+
+	}
+
+	/**
+	 * create a generator for a Julia or attractor set
+	 * 
+	 * @param sink
+	 *            the {@link ErrorSink} the generator reports errors to
+	 * @param type
+	 *            one of the composite or individual {@link OutputSet.Type}s
+	 * @param info
+	 *            the {@link OutputSet.Info} with the iterations, skips and
+	 *            seed
+	 * @param functions
+	 *            the array of {@link InputFunction} to use
+	 * @return a new {@link OutputSetGenerator} that hasn't been executed
+	 * @throws IllegalArgumentException
+	 *             if the type isn't a composite or individual set type
+	 */
+	public static OutputSetGenerator createGenerator(ErrorSink sink,
+			OutputSet.Type type, OutputSet.Info info, InputFunction[] functions)
+			throws IllegalArgumentException {
+		return createGenerator(sink, type, info, functions, null, null);
+	}
+
+	/**
+	 * create a generator for a Julia or attractor set. the random generators
+	 * start from the seeds of the {@link WarmStart} and stop when the
+	 * {@link CoverageMonitor} says so, the full generators ignore both.
+	 * 
+	 * @param sink
+	 *            the {@link ErrorSink} the generator reports errors to
+	 * @param type
+	 *            one of the composite or individual {@link OutputSet.Type}s
+	 * @param info
+	 *            the {@link OutputSet.Info} with the iterations, skips and
+	 *            seed
+	 * @param functions
+	 *            the array of {@link InputFunction} to use
+	 * @param warm
+	 *            the {@link WarmStart} or null to start from the seed
+	 * @param monitor
+	 *            the {@link CoverageMonitor} that stops a random generator
+	 *            once the set has converged or null to make every point
+	 * @return a new {@link OutputSetGenerator} that hasn't been executed
+	 * @throws IllegalArgumentException
+	 *             if the type isn't a composite or individual set type
+	 */
+	public static OutputSetGenerator createGenerator(ErrorSink sink,
+			OutputSet.Type type, OutputSet.Info info,
+			InputFunction[] functions, WarmStart warm, CoverageMonitor monitor)
+			throws IllegalArgumentException {
+		return createGenerator(sink, type, info, functions, warm, monitor,
+				false);
+	}
+
+	/**
+	 * create a generator for a Julia or attractor set that can follow the
+	 * orbits of the random method in extended precision
+	 * 
+	 * @param sink
+	 *            the {@link ErrorSink} the generator reports errors to
+	 * @param type
+	 *            one of the composite or individual {@link OutputSet.Type}s
+	 * @param info
+	 *            the {@link OutputSet.Info} with the iterations, skips and
+	 *            seed
+	 * @param functions
+	 *            the array of {@link InputFunction} to use
+	 * @param warm
+	 *            the {@link WarmStart} or null to start from the seed
+	 * @param monitor
+	 *            the {@link CoverageMonitor} that stops a random generator
+	 *            once the set has converged or null to make every point
+	 * @param extended
+	 *            true to make a random set in extended precision if
+	 *            {@link ExtendedPrecision} supports the functions, the full
+	 *            methods are always double precision
+	 * @return a new {@link OutputSetGenerator} that hasn't been executed
+	 * @throws IllegalArgumentException
+	 *             if the type isn't a composite or individual set type
+	 */
+	public static OutputSetGenerator createGenerator(ErrorSink sink,
+			OutputSet.Type type, OutputSet.Info info,
+			InputFunction[] functions, WarmStart warm,
+			CoverageMonitor monitor, boolean extended)
+			throws IllegalArgumentException {
+		extended = extended && ExtendedPrecision.isSupported(functions);
+		switch (type) {
+		case RANDOM_JULIA:
+		case IND_RANDOM_JULIA:
+			return new RandomBackwardsOutputSetGenerator(sink, info
+					.iterations(), info.skips(), info.seed(), functions, warm,
+					monitor, extended);
+		case FULL_JULIA:
+		case IND_FULL_JULIA:
+			return new FullBackwardsOutputSetGenerator(sink, info.iterations(),
+					info.seed(), functions);
+		case RANDOM_ATTR:
+		case IND_RANDOM_ATTR:
+			return new RandomForwardsOutputSetGenerator(sink, info
+					.iterations(), info.skips(), info.seed(), functions, warm,
+					monitor, extended);
+		case FULL_ATTR:
+		case IND_FULL_ATTR:
+			return new FullForwardsOutputSetGenerator(sink, info.iterations(),
+					new Complex[] { info.seed() }, functions,
+					FullForwardsOutputSetGenerator.Mode.DEFAULT);
+		default:
+			throw new IllegalArgumentException("no generator for "
+					+ type.description());
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package edu.bsu.julia.generators;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * keeps the {@link GeneratorStats} of the generators running now and the
+ * totals of the ones that have ended. There is one for the whole program,
+ * registered with the platform MBean server as
+ * edu.bsu.julia:type=GeneratorMetrics when the first generator starts.
+ */
+public final class GeneratorMetrics implements GeneratorMetricsMXBean {
+	private static GeneratorMetrics instance;
+
+	private final List<GeneratorStats> running = new ArrayList<GeneratorStats>();
+	private long started;
+	private long completed;
+	private long cancelled;
+	private long failed;
+	private long totalPoints;
+	private long totalMillis;
+
+	/**
+	 * private constructor so there is only the one instance
+	 */
+	private GeneratorMetrics() {
+
+	}
+
+	/**
+	 * @return the metrics of the program
+	 */
+	public static synchronized GeneratorMetrics getInstance() {
+		if (instance == null) {
+			instance = new GeneratorMetrics();
+			try {
+				ObjectName name = new ObjectName(
+						"edu.bsu.julia:type=GeneratorMetrics");
+				MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+				if (!server.isRegistered(name))
+					server.registerMBean(instance, name);
+			} catch (JMException e) {
+				System.err.println("GeneratorMetrics.getInstance(): "
+						+ e.getMessage());
+			}
+		}
+		return instance;
+	}
+
+	synchronized void started(GeneratorStats stats) {
+		running.add(stats);
+		started++;
+	}
+
+	synchronized void finished(GeneratorStats stats) {
+		running.remove(stats);
+		switch (stats.getRunState()) {
+		case DONE:
+			completed++;
+			totalPoints += stats.getPointsMade();
+			totalMillis += stats.getElapsedMillis();
+			break;
+		case CANCELLED:
+			cancelled++;
+			break;
+		default:
+			failed++;
+			break;
+		}
+	}
+
+	/**
+	 * @return the stats of the generators running now
+	 */
+	public synchronized List<GeneratorStats> getRunning() {
+		return new ArrayList<GeneratorStats>(running);
+	}
+
+	public synchronized long getJobsStarted() {
+		return started;
+	}
+
+	public synchronized long getJobsCompleted() {
+		return completed;
+	}
+
+	public synchronized long getJobsCancelled() {
+		return cancelled;
+	}
+
+	public synchronized long getJobsFailed() {
+		return failed;
+	}
+
+	public synchronized String[] getRunningJobs() {
+		String[] names = new String[running.size()];
+		for (int i = 0; i < names.length; i++)
+			names[i] = running.get(i).getName();
+		return names;
+	}
+
+	public double getRunningPointsPerSecond() {
+		double total = 0;
+		for (GeneratorStats stats : getRunning())
+			total += stats.getPointsPerSecond();
+		return total;
+	}
+
+	public synchronized long getTotalPoints() {
+		return totalPoints;
+	}
+
+	public synchronized long getTotalMillis() {
+		return totalMillis;
+	}
+
+	/**
+	 * @return a one line summary for the batch mode
+	 */
+	public synchronized String toString() {
+		return String.format("generators: %d completed, %d cancelled, "
+				+ "%d failed, %d points in %d ms", completed, cancelled,
+				failed, totalPoints, totalMillis);
+	}
+}
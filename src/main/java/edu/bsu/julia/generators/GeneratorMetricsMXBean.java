@@ -0,0 +1,38 @@
+package edu.bsu.julia.generators;
+
+/**
+ * the management interface of {@link GeneratorMetrics}, the totals of every
+ * {@link OutputSetGenerator} run since the program started
+ */
+public interface GeneratorMetricsMXBean {
+	public long getJobsStarted();
+
+	public long getJobsCompleted();
+
+	public long getJobsCancelled();
+
+	/**
+	 * @return the number of jobs that ended with an error and no points
+	 */
+	public long getJobsFailed();
+
+	/**
+	 * @return the names of the jobs running now
+	 */
+	public String[] getRunningJobs();
+
+	/**
+	 * @return the points made per second by all the running jobs together
+	 */
+	public double getRunningPointsPerSecond();
+
+	/**
+	 * @return the points made by all the jobs that completed
+	 */
+	public long getTotalPoints();
+
+	/**
+	 * @return the time taken by all the jobs that completed
+	 */
+	public long getTotalMillis();
+}
@@ -0,0 +1,348 @@
+package edu.bsu.julia.generators;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * the measurements of one run of an {@link OutputSetGenerator}: how many
+ * points it made and how fast, how much memory its threads allocated for it,
+ * the largest frontier of a full method and how the time of the generating
+ * threads was split between evaluating the input functions and everything
+ * else. It is registered with the platform MBean server as
+ * edu.bsu.julia:type=Generator,name=jobN while the generator runs and added to
+ * the totals of {@link GeneratorMetrics} when it ends.
+ */
+public class GeneratorStats implements GeneratorStatsMXBean {
+	/**
+	 * the state of a run
+	 */
+	public static enum State {
+		WAITING, RUNNING, DONE, CANCELLED, FAILED;
+	}
+
+	/**
+	 * times the input function calls of one thread. Only one call in
+	 * {@link #SAMPLE} is timed and counted {@link #SAMPLE} times, since
+	 * reading the clock takes about as long as evaluating a simple function.
+	 * It also measures the bytes the thread allocates while it has the clock.
+	 * Give it to {@link GeneratorStats#add(Clock)} from the same thread when
+	 * the thread is done.
+	 */
+	public static class Clock {
+		private static final int SAMPLE = 64;
+		private final long created = System.nanoTime();
+		private final long thread = Thread.currentThread().getId();
+		private final long allocated = allocatedBytes(thread);
+		private int calls;
+		private long start;
+		private boolean timing;
+		private long nanos;
+
+		/**
+		 * call before evaluating an input function
+		 */
+		public void start() {
+			timing = (calls++ % SAMPLE) == 0;
+			if (timing)
+				start = System.nanoTime();
+		}
+
+		/**
+		 * call after evaluating an input function
+		 */
+		public void stop() {
+			if (timing)
+				nanos += System.nanoTime() - start;
+		}
+	}
+
+	private static final double NANOS_PER_MILLI = 1e6;
+	// the number of jobs started, to give each a name
+	private static final AtomicLong jobs = new AtomicLong();
+
+	private final String generator;
+	private String name;
+	private ObjectName objectName;
+	private volatile State state = State.WAITING;
+	private long startNanos;
+	private long endNanos;
+	// the generator's own thread, its allocations are measured from start
+	// to finish and the ones of the worker threads by their clocks
+	private long generatorThread;
+	private long startAllocated;
+	private long endAllocated;
+	private final AtomicLong workerAllocated = new AtomicLong();
+	private final AtomicLong points = new AtomicLong();
+	private final AtomicLong peakFrontier = new AtomicLong();
+	private final AtomicLong functionNanos = new AtomicLong();
+	private final AtomicLong workNanos = new AtomicLong();
+	private volatile long totalWork;
+	private final AtomicLong workDone = new AtomicLong();
+	private final AtomicInteger percentDone = new AtomicInteger();
+
+	/**
+	 * @param gen
+	 *            the name of the generator class
+	 */
+	public GeneratorStats(String gen) {
+		generator = gen;
+	}
+
+	/**
+	 * called by the generator as it starts on its background thread
+	 */
+	synchronized void start() {
+		name = "job" + jobs.incrementAndGet();
+		startNanos = System.nanoTime();
+		generatorThread = Thread.currentThread().getId();
+		startAllocated = allocatedBytes(generatorThread);
+		state = State.RUNNING;
+		try {
+			ObjectName n = new ObjectName("edu.bsu.julia:type=Generator,name="
+					+ name);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (!server.isRegistered(n))
+				server.registerMBean(this, n);
+			objectName = n;
+		} catch (JMException e) {
+			System.err.println("GeneratorStats.start(): " + e.getMessage());
+		}
+		GeneratorMetrics.getInstance().started(this);
+	}
+
+	/**
+	 * called by the generator when it ends
+	 *
+	 * @param result
+	 *            the points made or null if there was an error
+	 * @param cancelled
+	 *            true if the generator was cancelled
+	 */
+	synchronized void finish(Object[] result, boolean cancelled) {
+		endNanos = System.nanoTime();
+		endAllocated = allocatedBytes(generatorThread);
+		if (result != null)
+			points.set(result.length);
+		if (cancelled)
+			state = State.CANCELLED;
+		else if (result == null)
+			state = State.FAILED;
+		else
+			state = State.DONE;
+		if (objectName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(
+						objectName);
+			} catch (JMException e) {
+				System.err.println("GeneratorStats.finish(): "
+						+ e.getMessage());
+			}
+			objectName = null;
+		}
+		GeneratorMetrics.getInstance().finished(this);
+	}
+
+	/**
+	 * @return the bytes allocated by a live thread since it started, or -1
+	 *         if the JVM can't tell
+	 */
+	private static long allocatedBytes(long thread) {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean))
+			return -1;
+		com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+		if (!allocation.isThreadAllocatedMemorySupported()
+				|| !allocation.isThreadAllocatedMemoryEnabled())
+			return -1;
+		return allocation.getThreadAllocatedBytes(thread);
+	}
+
+	/**
+	 * set the number of points made so far
+	 */
+	public void setPoints(long count) {
+		points.set(count);
+	}
+
+	/**
+	 * add to the number of points made so far, from any thread
+	 */
+	public void addPoints(long count) {
+		points.addAndGet(count);
+	}
+
+	/**
+	 * record the number of points waiting to be expanded by a full method
+	 */
+	public void recordFrontier(long size) {
+		long peak = peakFrontier.get();
+		while (size > peak && !peakFrontier.compareAndSet(peak, size))
+			peak = peakFrontier.get();
+	}
+
+	/**
+	 * add the times and allocations of a thread that has finished its share
+	 * of the work, called from that thread
+	 */
+	public void add(Clock clock) {
+		long work = System.nanoTime() - clock.created;
+		workNanos.addAndGet(work);
+		functionNanos.addAndGet(Math.min(work, clock.nanos * Clock.SAMPLE));
+		// the generator's own thread is measured as a whole
+		if (clock.thread != generatorThread && clock.allocated >= 0) {
+			long bytes = allocatedBytes(clock.thread);
+			if (bytes >= clock.allocated)
+				workerAllocated.addAndGet(bytes - clock.allocated);
+		}
+	}
+
+	/**
+	 * set the amount of work the generator expects to do, in whatever units
+	 * it counts with {@link #advance(long)}
+	 */
+	void setTotalWork(long work) {
+		totalWork = work;
+	}
+
+	/**
+	 * add to the work done, from any thread
+	 *
+	 * @return the whole percent done if this took it past the last percent
+	 *         returned, or -1
+	 */
+	int advance(long units) {
+		long done = workDone.addAndGet(units);
+		long total = totalWork;
+		if (total <= 0)
+			return -1;
+		int percent = (int) Math.min(100, done * 100.0 / total);
+		int last = percentDone.get();
+		while (percent > last) {
+			if (percentDone.compareAndSet(last, percent))
+				return percent;
+			last = percentDone.get();
+		}
+		return -1;
+	}
+
+	public State getRunState() {
+		return state;
+	}
+
+	public synchronized String getName() {
+		return (name == null) ? "not started" : name;
+	}
+
+	public String getGenerator() {
+		return generator;
+	}
+
+	public String getState() {
+		return state.toString();
+	}
+
+	public synchronized long getElapsedMillis() {
+		if (state == State.WAITING)
+			return 0;
+		long end = (state == State.RUNNING) ? System.nanoTime() : endNanos;
+		return (long) ((end - startNanos) / NANOS_PER_MILLI);
+	}
+
+	public long getPointsMade() {
+		return points.get();
+	}
+
+	public double getPointsPerSecond() {
+		long millis = getElapsedMillis();
+		return (millis == 0) ? 0 : points.get() * 1000.0 / millis;
+	}
+
+	public synchronized long getAllocatedBytes() {
+		if (state == State.WAITING || startAllocated < 0)
+			return -1;
+		long end = (state == State.RUNNING) ? allocatedBytes(generatorThread)
+				: endAllocated;
+		return Math.max(0, end - startAllocated) + workerAllocated.get();
+	}
+
+	public double getAllocationRate() {
+		long bytes = getAllocatedBytes();
+		long millis = getElapsedMillis();
+		if (bytes < 0)
+			return -1;
+		return (millis == 0) ? 0 : bytes * 1000.0 / millis;
+	}
+
+	public long getTotalWork() {
+		return totalWork;
+	}
+
+	public long getWorkDone() {
+		return workDone.get();
+	}
+
+	public double getWorkPerSecond() {
+		long millis = getElapsedMillis();
+		return (millis == 0) ? 0 : workDone.get() * 1000.0 / millis;
+	}
+
+	public double getSecondsLeft() {
+		long done = workDone.get();
+		long total = totalWork;
+		if (state != State.RUNNING || total <= 0 || done == 0)
+			return -1;
+		return Math.max(0, getElapsedMillis() / 1000.0 * (total - done)
+				/ done);
+	}
+
+	/**
+	 * @return the estimate of {@link #getSecondsLeft()} in words like "about
+	 *         40 s left", or null if there isn't one
+	 */
+	public String describeTimeLeft() {
+		double seconds = getSecondsLeft();
+		if (seconds < 0)
+			return null;
+		if (seconds < 60)
+			return String.format("about %.0f s left", Math.ceil(seconds));
+		if (seconds < 3600)
+			return String.format("about %.0f min left", Math.ceil(seconds / 60));
+		return String.format("about %.1f h left", seconds / 3600);
+	}
+
+	public long getPeakFrontier() {
+		return peakFrontier.get();
+	}
+
+	public double getFunctionMillis() {
+		return functionNanos.get() / NANOS_PER_MILLI;
+	}
+
+	public double getBookkeepingMillis() {
+		return (workNanos.get() - functionNanos.get()) / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * @return a one line summary for the batch mode
+	 */
+	public String toString() {
+		String s = String.format("%s %s, %d points in %d ms (%.0f points/s)",
+				generator, state.toString().toLowerCase(), getPointsMade(),
+				getElapsedMillis(), getPointsPerSecond());
+		if (workNanos.get() > 0)
+			s += String.format(", functions %.0f ms, bookkeeping %.0f ms",
+					getFunctionMillis(), getBookkeepingMillis());
+		if (peakFrontier.get() > 0)
+			s += ", peak frontier " + peakFrontier.get();
+		long bytes = getAllocatedBytes();
+		if (bytes >= 0)
+			s += String.format(", %.1f MB allocated", bytes / 1048576.0);
+		return s;
+	}
+}
@@ -0,0 +1,80 @@
+package edu.bsu.julia.generators;
+
+/**
+ * the management interface of {@link GeneratorStats}, registered with the
+ * platform MBean server for every {@link OutputSetGenerator} while it runs
+ */
+public interface GeneratorStatsMXBean {
+	/**
+	 * @return the name of the job, jobN
+	 */
+	public String getName();
+
+	/**
+	 * @return the class of the generator
+	 */
+	public String getGenerator();
+
+	/**
+	 * @return RUNNING, DONE, CANCELLED or FAILED
+	 */
+	public String getState();
+
+	public long getElapsedMillis();
+
+	/**
+	 * @return the number of points made so far
+	 */
+	public long getPointsMade();
+
+	public double getPointsPerSecond();
+
+	/**
+	 * @return the bytes allocated for the job since it started: by its own
+	 *         thread and by the worker threads while they worked on it, or -1
+	 *         if the JVM can't measure it
+	 */
+	public long getAllocatedBytes();
+
+	/**
+	 * @return the bytes allocated per second since the job started, or -1
+	 */
+	public double getAllocationRate();
+
+	/**
+	 * @return the work the generator expects to do, in units of its own like
+	 *         function evaluations or orbit steps, or 0 if it doesn't know
+	 */
+	public long getTotalWork();
+
+	/**
+	 * @return the work done so far in the units of {@link #getTotalWork()}
+	 */
+	public long getWorkDone();
+
+	public double getWorkPerSecond();
+
+	/**
+	 * @return an estimate of the seconds until the generator is done from the
+	 *         rate of the work so far, or -1 if there isn't one
+	 */
+	public double getSecondsLeft();
+
+	/**
+	 * @return the most points waiting to be expanded at one time by a full
+	 *         method, 0 for the other methods
+	 */
+	public long getPeakFrontier();
+
+	/**
+	 * @return the time spent evaluating the input functions, summed over the
+	 *         threads doing it
+	 */
+	public double getFunctionMillis();
+
+	/**
+	 * @return the rest of the time the generating threads spent, storing and
+	 *         copying the points
+	 */
+	public double getBookkeepingMillis();
+}
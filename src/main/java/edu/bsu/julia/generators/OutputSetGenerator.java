@@ -9,19 +9,100 @@ import edu.bsu.julia.output.OutputSet;
 /**
  * This abstract class defines the algorithms to be run when creating an
  * {@link OutputSet}. It extends {@link SwingWorker} and returns an array of
- * {@link Complex} after the worker has finished
+ * {@link Complex} after the worker has finished. Every run is measured by a
+ * {@link GeneratorStats}.
  * 
  * @author Ben Dean
  */
 public abstract class OutputSetGenerator extends
 		SwingWorker<Complex[], Void> {
+	protected final GeneratorStats stats = new GeneratorStats(getClass()
+			.getSimpleName());
+
+	/**
+	 * run {@link #generate()} and record how it went in the
+	 * {@link GeneratorStats}
+	 *
+	 * @see SwingWorker#doInBackground()
+	 */
+	public final Complex[] doInBackground() {
+		stats.start();
+		Complex[] points = null;
+		try {
+			points = generate();
+			if (points != null)
+				setProgress(100);
+			return points;
+		} finally {
+			stats.finish(points, isCancelled());
+		}
+	}
 
 	/**
 	 * the method that runs on a background thread to generate an array of
 	 * {@link Complex}
+	 *
+	 * @return the array of {@link Complex} that was generated or null if there
+	 *         was an error
+	 */
+	protected abstract Complex[] generate();
+
+	/**
+	 * set the amount of work {@link #advance(long)} counts up to 100% of
 	 * 
-	 * @return the array of {@link Complex} that was generated
-	 * @see SwingWorker#doInBackground()
+	 * @param work
+	 *            the expected work in any units, like function evaluations
+	 */
+	protected void setTotalWork(long work) {
+		stats.setTotalWork(work);
+	}
+
+	/**
+	 * add to the work done. The progress is only set when it reaches the next
+	 * whole percent, so this can be called from tight loops on any thread.
+	 * 
+	 * @param units
+	 *            the work done since the last call, in the units of
+	 *            {@link #setTotalWork(long)}
+	 */
+	protected void advance(long units) {
+		int percent = stats.advance(units);
+		if (percent >= 0)
+			setProgress(percent);
+	}
+
+	/**
+	 * the function evaluations of a full method. Every level evaluates every
+	 * point of the level before it with every function and the method stops
+	 * after a number of levels or once a level has enough points.
+	 * 
+	 * @param branching
+	 *            the points of a level for each point of the level before it
+	 * @param functions
+	 *            the number of functions evaluated for each point
+	 * @param levels
+	 *            the most levels
+	 * @param enough
+	 *            the number of points that ends the method early
+	 * @return the expected number of evaluations
+	 */
+	protected static long fullMethodWork(double branching, int functions,
+			int levels, double enough) {
+		double work = 0;
+		double level = 1;
+		int count = 0;
+		do {
+			work += level * functions;
+			level *= branching;
+			count++;
+		} while (count < levels && level < enough);
+		return (long) Math.min(work, Long.MAX_VALUE / 128);
+	}
+
+	/**
+	 * @return the measurements of this generator's run
 	 */
-	public abstract Complex[] doInBackground();
+	public GeneratorStats getStats() {
+		return stats;
+	}
 }
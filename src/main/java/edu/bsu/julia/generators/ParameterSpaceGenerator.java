@@ -0,0 +1,1070 @@
+package edu.bsu.julia.generators;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingWorker;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.input.InputFunction;
+
+/**
+ * computes a map of parameter space for a family of polynomial
+ * {@link InputFunction}s where one coefficient of one function is free. For
+ * every pixel the free coefficient is set to the pixel's value and the orbits
+ * of the critical points are followed, like drawing the Mandelbrot set for z^2
+ * + c. The result has one value per pixel, row by row from the top: the level
+ * at which a critical orbit escaped or the maximum number of iterations if
+ * none did.
+ *
+ * <p>
+ * With more than one function the orbits are followed under the whole
+ * semigroup: every level applies every function to every point of the level
+ * before it, starting from the critical values of all the functions (see
+ * {@link InputFunction#getCriticalValues()}). The levels grow quickly so they
+ * are only followed until a level would have more than the point budget.
+ * </p>
+ *
+ * <p>
+ * The pixels are computed in tiles of rows on the {@link WorkerPool} with
+ * doubles instead of {@link Complex} so that no objects are made per pixel.
+ * </p>
+ *
+ * <p>
+ * When the free coefficient is the constant term the map can be computed by
+ * perturbation for zooms past the precision of a double: the orbits of one
+ * reference pixel are followed with {@link BigDecimal}s, with enough digits to
+ * tell the pixels apart, and every other pixel only follows its difference
+ * from them in double precision. A pixel whose orbit comes too close to 0 next
+ * to the reference loses the digits of that difference, so it is glitched and
+ * computed again from a new reference point taken from the glitched pixels.
+ * Pixels that no reference point fixes are {@link #UNRESOLVED}.
+ * </p>
+ */
+public class ParameterSpaceGenerator extends SwingWorker<int[], Void> {
+	/**
+	 * the value of a pixel where the family isn't defined or its critical
+	 * points can't be found, like when the leading coefficient is 0
+	 */
+	public static final int UNDEFINED = -1;
+
+	/**
+	 * the value of a pixel of a perturbed map that couldn't be computed from
+	 * any of the reference points
+	 */
+	public static final int UNRESOLVED = -2;
+
+	/**
+	 * the default largest number of points followed in one level
+	 */
+	public static final int DEFAULT_POINT_BUDGET = 4096;
+
+	// number of rows in a tile
+	private static final int TILE_ROWS = 4;
+	// number of glitched pixels in a chunk when computing them again
+	private static final int GLITCH_CHUNK = 256;
+	// a point of an orbit this much closer to 0 than the reference point it
+	// follows has lost the digits of its difference
+	private static final double GLITCH_RATIO = 1e-3;
+	// the most reference points used for one map, glitched pixels left after
+	// that are unresolved
+	private static final int MAX_REFERENCES = 32;
+	// the value of a pixel that must be computed from another reference point
+	private static final int GLITCHED = UNRESOLVED;
+	// the digits a reference orbit has beyond the ones that tell the pixels
+	// apart, for its steps to lose
+	private static final int EXTRA_DIGITS = 20;
+
+	private final double[][] coefficientsRe;
+	private final double[][] coefficientsIm;
+	private final int[] mValues;
+	private final int template;
+	private final int freePower;
+	private final double[] fixedRadius;
+	// the escape radius of the function with the free coefficient for every
+	// parameter of the map, infinite if there isn't one
+	private final double viewRadius;
+	private final double[][] fixedCriticalRe;
+	private final double[][] fixedCriticalIm;
+	private final double x;
+	private final double y;
+	private final BigDecimal left;
+	private final BigDecimal top;
+	private final boolean perturbed;
+	private final double pixelSize;
+	private final int width;
+	private final int height;
+	private final int maxIterations;
+	private final int pointBudget;
+
+	/**
+	 * constructor for {@link ParameterSpaceGenerator}
+	 *
+	 * @param inFunc
+	 *            the functions of the family, all of them must be polynomials
+	 *            (see {@link #isSupported(InputFunction[], int, int)})
+	 * @param t
+	 *            the index in inFunc of the function with the free coefficient
+	 * @param coefficient
+	 *            the index of the free coefficient
+	 * @param left
+	 *            the real value of the left edge of the map
+	 * @param top
+	 *            the imaginary value of the top edge of the map
+	 * @param size
+	 *            the width and height of a pixel in the parameter plane
+	 * @param w
+	 *            the width of the map in pixels
+	 * @param h
+	 *            the height of the map in pixels
+	 * @param iterations
+	 *            the largest number of levels to follow
+	 * @param budget
+	 *            the largest number of points in a level
+	 * @throws IllegalArgumentException
+	 *             if the family isn't supported
+	 */
+	public ParameterSpaceGenerator(InputFunction[] inFunc, int t,
+			int coefficient, double left, double top, double size, int w,
+			int h, int iterations, int budget) throws IllegalArgumentException {
+		this(inFunc, t, coefficient, new BigDecimal(left), new BigDecimal(
+				top), size, w, h, iterations, budget, false);
+	}
+
+	/**
+	 * constructor for {@link ParameterSpaceGenerator} with the edges of the
+	 * map in arbitrary precision
+	 *
+	 * @param inFunc
+	 *            the functions of the family, all of them must be polynomials
+	 *            (see {@link #isSupported(InputFunction[], int, int)})
+	 * @param t
+	 *            the index in inFunc of the function with the free coefficient
+	 * @param coefficient
+	 *            the index of the free coefficient
+	 * @param l
+	 *            the real value of the left edge of the map
+	 * @param tp
+	 *            the imaginary value of the top edge of the map
+	 * @param size
+	 *            the width and height of a pixel in the parameter plane
+	 * @param w
+	 *            the width of the map in pixels
+	 * @param h
+	 *            the height of the map in pixels
+	 * @param iterations
+	 *            the largest number of levels to follow
+	 * @param budget
+	 *            the largest number of points in a level
+	 * @param perturb
+	 *            true to compute the map by perturbation if
+	 *            {@link #supportsPerturbation(InputFunction[], int, int)}
+	 * @throws IllegalArgumentException
+	 *             if the family isn't supported
+	 */
+	public ParameterSpaceGenerator(InputFunction[] inFunc, int t,
+			int coefficient, BigDecimal l, BigDecimal tp, double size,
+			int w, int h, int iterations, int budget, boolean perturb)
+			throws IllegalArgumentException {
+		String problem = checkSupported(inFunc, t, coefficient);
+		if (problem != null)
+			throw new IllegalArgumentException(problem);
+
+		int n = inFunc.length;
+		coefficientsRe = new double[n][];
+		coefficientsIm = new double[n][];
+		mValues = new int[n];
+		fixedRadius = new double[n];
+		fixedCriticalRe = new double[n][];
+		fixedCriticalIm = new double[n][];
+		for (int i = 0; i < n; i++) {
+			int[] powers = inFunc[i].getPolynomialPowers();
+			Complex[] coefficients = inFunc[i].getCoefficients();
+			int degree = 0;
+			for (int power : powers)
+				degree = Math.max(degree, power);
+			coefficientsRe[i] = new double[degree + 1];
+			coefficientsIm[i] = new double[degree + 1];
+			for (int j = 0; j < powers.length; j++) {
+				if (powers[j] < 0 || (i == t && j == coefficient))
+					continue;
+				coefficientsRe[i][powers[j]] += coefficients[j].getReal();
+				coefficientsIm[i][powers[j]] += coefficients[j].getImaginary();
+			}
+			mValues[i] = inFunc[i].getM();
+
+			// the other functions don't change so do their work once
+			if (i != t) {
+				double[] re = new double[2];
+				double[] im = new double[2];
+				int count = criticalPoints(coefficientsRe[i],
+						coefficientsIm[i], re, im);
+				fixedCriticalRe[i] = new double[count];
+				fixedCriticalIm[i] = new double[count];
+				System.arraycopy(re, 0, fixedCriticalRe[i], 0, count);
+				System.arraycopy(im, 0, fixedCriticalIm[i], 0, count);
+				fixedRadius[i] = escapeRadius(coefficientsRe[i],
+						coefficientsIm[i]);
+			}
+		}
+
+		template = t;
+		freePower = inFunc[t].getPolynomialPowers()[coefficient];
+		left = l;
+		top = tp;
+		x = l.doubleValue();
+		y = tp.doubleValue();
+		// the critical points and degree don't depend on the constant term,
+		// only the orbits do
+		perturbed = perturb && freePower == 0;
+		pixelSize = size;
+		width = w;
+		height = h;
+		viewRadius = viewRadius(coefficientsRe[t], coefficientsIm[t],
+				freePower, x, x + w * size, y - h * size, y);
+		maxIterations = iterations;
+		pointBudget = Math.max(budget, 1);
+	}
+
+	/**
+	 * @return true if a parameter map can be drawn for the family
+	 */
+	public static boolean isSupported(InputFunction[] inFunc, int t,
+			int coefficient) {
+		return checkSupported(inFunc, t, coefficient) == null;
+	}
+
+	/**
+	 * @return a message saying why the family isn't supported or null if it
+	 *         is
+	 */
+	public static String checkSupported(InputFunction[] inFunc, int t,
+			int coefficient) {
+		if (t < 0 || t >= inFunc.length)
+			return "there is no function with the free coefficient";
+		for (int i = 0; i < inFunc.length; i++) {
+			int[] powers = inFunc[i].getPolynomialPowers();
+			if (powers == null)
+				return inFunc[i] + " is not a polynomial";
+			if (i == t
+					&& (coefficient < 0 || coefficient >= powers.length || powers[coefficient] < 0))
+				return "that coefficient is not a term of " + inFunc[i];
+
+			// the fixed functions must escape to infinity
+			if (i != t) {
+				int degree = 0;
+				for (int j = 0; j < powers.length; j++)
+					if (powers[j] >= 0
+							&& !inFunc[i].getCoefficients()[j]
+									.equals(Complex.ZERO))
+						degree = Math.max(degree, powers[j]);
+				if (degree < 2)
+					return inFunc[i] + " has degree less than 2";
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if the map can be computed by perturbation, which needs
+	 *         the free coefficient to be the constant term
+	 */
+	public static boolean supportsPerturbation(InputFunction[] inFunc, int t,
+			int coefficient) {
+		return isSupported(inFunc, t, coefficient)
+				&& inFunc[t].getPolynomialPowers()[coefficient] == 0;
+	}
+
+	/**
+	 * @return true if the map is computed by perturbation
+	 */
+	public boolean isPerturbed() {
+		return perturbed;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	@Override
+	public int[] doInBackground() {
+		final int[] result = new int[width * height];
+		final AtomicInteger rowsDone = new AtomicInteger();
+		final Reference reference = perturbed ? new Reference(height / 2,
+				width / 2) : null;
+
+		WorkerPool.forEachChunk(height, TILE_ROWS, new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int start, int end) {
+				Tile tile = new Tile();
+				PerturbedTile perturbedTile = perturbed ? new PerturbedTile(
+						reference) : null;
+				for (int row = start; row < end; row++) {
+					if (isCancelled())
+						return;
+					double im = y - (row + 0.5) * pixelSize;
+					int index = row * width;
+					for (int column = 0; column < width; column++) {
+						if (perturbedTile != null) {
+							result[index + column] = perturbedTile.compute(
+									row, column);
+						} else {
+							double re = x + (column + 0.5) * pixelSize;
+							result[index + column] = tile.compute(re, im);
+						}
+					}
+					setProgress(rowsDone.incrementAndGet() * 100 / height);
+				}
+			}
+		});
+
+		if (perturbed)
+			fixGlitches(result);
+		return isCancelled() ? null : result;
+	}
+
+	/**
+	 * compute the glitched pixels again, each time from a reference point
+	 * taken from the middle of the glitched pixels. The ones left after
+	 * {@link #MAX_REFERENCES} stay {@link #UNRESOLVED}, in double precision
+	 * they would all collapse onto the same few parameters.
+	 */
+	private void fixGlitches(final int[] result) {
+		for (int r = 1; r < MAX_REFERENCES; r++) {
+			final int[] glitched = findGlitches(result);
+			if (glitched.length == 0 || isCancelled())
+				return;
+			// the reference pixel itself can't be glitched so every round
+			// fixes at least one pixel
+			int pixel = glitched[glitched.length / 2];
+			final Reference reference = new Reference(pixel / width, pixel
+					% width);
+			WorkerPool.forEachChunk(glitched.length, GLITCH_CHUNK,
+					new WorkerPool.ChunkTask() {
+						@Override
+						public void run(int start, int end) {
+							PerturbedTile tile = new PerturbedTile(reference);
+							for (int i = start; i < end && !isCancelled(); i++) {
+								int p = glitched[i];
+								result[p] = tile.compute(p / width, p % width);
+							}
+						}
+					});
+		}
+	}
+
+	/**
+	 * @return the indices of the glitched pixels
+	 */
+	private static int[] findGlitches(int[] result) {
+		int count = 0;
+		for (int value : result)
+			if (value == GLITCHED)
+				count++;
+		int[] glitched = new int[count];
+		count = 0;
+		for (int i = 0; i < result.length; i++)
+			if (result[i] == GLITCHED)
+				glitched[count++] = i;
+		return glitched;
+	}
+
+	/**
+	 * the orbits of the critical points for the parameter of one pixel,
+	 * followed with {@link BigDecimal}s and kept in double precision for the
+	 * pixels around it. Level 0 holds every step from the critical values in
+	 * the order {@link Tile#compute(double, double)} makes them, every later
+	 * level holds the m steps of every function from every point of the level
+	 * before it. The orbits stop after the first point that escapes, a pixel
+	 * that needs more is glitched.
+	 */
+	private class Reference {
+		private final int row;
+		private final int column;
+		private final boolean undefined;
+		private final double radiusSquared;
+		private final double[][] criticalRe;
+		private final double[][] criticalIm;
+		private final Level[] levels;
+		// the Taylor coefficients kept for each step
+		private final int degree;
+		// the steps of each function for one point of a level
+		private final int stepsPerPoint;
+		private final int[] firstStep;
+		// the digits the orbits are followed with, the parameter and the
+		// coefficients of every function
+		private final MathContext context;
+		private final BigDecimal parameterRe;
+		private final BigDecimal parameterIm;
+		private final BigDecimal[][] exactRe;
+		private final BigDecimal[][] exactIm;
+
+		public Reference(int r, int c) {
+			row = r;
+			column = c;
+			parameterRe = left.add(new BigDecimal((c + 0.5) * pixelSize));
+			parameterIm = top.subtract(new BigDecimal((r + 0.5) * pixelSize));
+			double pRe = parameterRe.doubleValue();
+			double pIm = parameterIm.doubleValue();
+			// enough digits for the difference of two pixels
+			double span = Math.max(1, Math.max(Math.abs(pRe), Math.abs(pIm)))
+					/ pixelSize;
+			context = new MathContext(EXTRA_DIGITS
+					+ (int) Math.ceil(Math.log10(Math.max(span, 1))));
+			int n = mValues.length;
+			firstStep = new int[n];
+			exactRe = new BigDecimal[n][];
+			exactIm = new BigDecimal[n][];
+			int total = 0;
+			int d = 1;
+			for (int i = 0; i < n; i++) {
+				firstStep[i] = total;
+				total += mValues[i];
+				d = Math.max(d, coefficientsRe[i].length - 1);
+				exactRe[i] = new BigDecimal[coefficientsRe[i].length];
+				exactIm[i] = new BigDecimal[coefficientsIm[i].length];
+				for (int j = 0; j < exactRe[i].length; j++) {
+					exactRe[i][j] = new BigDecimal(coefficientsRe[i][j]);
+					exactIm[i][j] = new BigDecimal(coefficientsIm[i][j]);
+				}
+			}
+			stepsPerPoint = total;
+			degree = d;
+
+			double[] re = coefficientsRe[template].clone();
+			double[] im = coefficientsIm[template].clone();
+			re[0] += pRe;
+			im[0] += pIm;
+			criticalRe = new double[n][];
+			criticalIm = new double[n][];
+			double[] cRe = new double[2];
+			double[] cIm = new double[2];
+			int templateCritical = (degree(re, im) < 2) ? -1 : criticalPoints(
+					re, im, cRe, cIm);
+			undefined = templateCritical < 0;
+			double radius = undefined ? 0 : radius(re, im);
+			for (int i = 0; i < n; i++) {
+				if (i == template) {
+					criticalRe[i] = Arrays.copyOf(cRe, Math.max(0,
+							templateCritical));
+					criticalIm[i] = Arrays.copyOf(cIm, Math.max(0,
+							templateCritical));
+				} else {
+					criticalRe[i] = fixedCriticalRe[i];
+					criticalIm[i] = fixedCriticalIm[i];
+					radius = Math.max(radius, fixedRadius[i]);
+				}
+			}
+			radiusSquared = radius * radius;
+			if (undefined) {
+				levels = new Level[0];
+				return;
+			}
+
+			// level 0, from the critical values of every function. a step
+			// that isn't a finite number ends the orbits like an escape
+			List<Level> made = new ArrayList<Level>();
+			List<BigDecimal[]> frontier = new ArrayList<BigDecimal[]>();
+			int size = 0;
+			for (int i = 0; i < n; i++)
+				size += criticalRe[i].length * mValues[i];
+			Level level = new Level(size, degree);
+			boolean escaped = false;
+			for (int i = 0; i < n && !escaped; i++) {
+				for (int k = 0; k < criticalRe[i].length && !escaped; k++) {
+					double startRe = criticalRe[i][k];
+					double startIm = criticalIm[i][k];
+					if (Double.isNaN(startRe) || Double.isInfinite(startRe)
+							|| Double.isNaN(startIm)
+							|| Double.isInfinite(startIm)) {
+						escaped = true;
+						break;
+					}
+					BigDecimal[] z = { new BigDecimal(startRe),
+							new BigDecimal(startIm) };
+					for (int j = 0; j < mValues[i] && !escaped; j++) {
+						startRe = z[0].doubleValue();
+						startIm = z[1].doubleValue();
+						z = evaluate(i, z);
+						if (!store(level, i, startRe, startIm, z)) {
+							escaped = true;
+							break;
+						}
+						escaped = escapes(z);
+						frontier.add(z);
+					}
+				}
+			}
+			made.add(level);
+
+			// the later levels, until a point escapes
+			for (int l = 1; l < maxIterations && !escaped; l++) {
+				size = frontier.size();
+				if (size == 0 || (long) size * n > pointBudget)
+					break;
+				List<BigDecimal[]> next = new ArrayList<BigDecimal[]>(size
+						* n);
+				level = new Level(size * stepsPerPoint, degree);
+				for (int p = 0; p < size && !escaped; p++) {
+					for (int i = 0; i < n && !escaped; i++) {
+						BigDecimal[] z = frontier.get(p);
+						for (int j = 0; j < mValues[i] && !escaped; j++) {
+							double startRe = z[0].doubleValue();
+							double startIm = z[1].doubleValue();
+							z = evaluate(i, z);
+							escaped = !store(level, i, startRe, startIm, z);
+						}
+						escaped = escaped || escapes(z);
+						next.add(z);
+					}
+				}
+				made.add(level);
+				frontier = next;
+			}
+			levels = made.toArray(new Level[made.size()]);
+		}
+
+		/**
+		 * one step of a function with the digits of the reference
+		 *
+		 * @return the real and imaginary parts of the step
+		 */
+		private BigDecimal[] evaluate(int function, BigDecimal[] z) {
+			BigDecimal[] a = exactRe[function];
+			BigDecimal[] b = exactIm[function];
+			// Horner's method
+			BigDecimal vRe = a[a.length - 1];
+			BigDecimal vIm = b[b.length - 1];
+			for (int j = a.length - 2; j >= 0; j--) {
+				BigDecimal t = vRe.multiply(z[0], context).subtract(
+						vIm.multiply(z[1], context), context).add(a[j], context);
+				vIm = vRe.multiply(z[1], context).add(
+						vIm.multiply(z[0], context), context).add(b[j], context);
+				vRe = t;
+			}
+			if (function == template) {
+				vRe = vRe.add(parameterRe, context);
+				vIm = vIm.add(parameterIm, context);
+			}
+			return new BigDecimal[] { vRe, vIm };
+		}
+
+		private boolean escapes(BigDecimal[] z) {
+			double re = z[0].doubleValue();
+			double im = z[1].doubleValue();
+			// NaN counts as escaped too
+			return !(re * re + im * im <= radiusSquared);
+		}
+
+		/**
+		 * keep a step in double precision with the Taylor coefficients of its
+		 * function at the point it started from
+		 *
+		 * @return false if the step isn't a finite number
+		 */
+		private boolean store(Level level, int function, double sRe,
+				double sIm, BigDecimal[] z) {
+			double zRe = z[0].doubleValue();
+			double zIm = z[1].doubleValue();
+			if (Double.isNaN(zRe) || Double.isInfinite(zRe)
+					|| Double.isNaN(zIm) || Double.isInfinite(zIm))
+				return false;
+			int index = level.count++;
+			level.re[index] = zRe;
+			level.im[index] = zIm;
+
+			// shift the polynomial to the start by synthetic division, after
+			// pass j the coefficient j is the Taylor coefficient j
+			double[] a = coefficientsRe[function].clone();
+			double[] b = coefficientsIm[function].clone();
+			int d = a.length - 1;
+			for (int j = 0; j < d; j++)
+				for (int k = d - 1; k >= j; k--) {
+					double t = a[k] + a[k + 1] * sRe - b[k + 1] * sIm;
+					b[k] += a[k + 1] * sIm + b[k + 1] * sRe;
+					a[k] = t;
+				}
+			int offset = index * degree;
+			for (int j = 1; j <= d; j++) {
+				level.taylorRe[offset + j - 1] = a[j];
+				level.taylorIm[offset + j - 1] = b[j];
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * the steps of one level of a {@link Reference}
+	 */
+	private static class Level {
+		// the point made by each step
+		private final double[] re;
+		private final double[] im;
+		// the Taylor coefficients 1 to the degree of the function of each
+		// step at the point the step started from, so f(z + d) - f(z) is a
+		// polynomial in d that subtracts nothing of the size of z
+		private final double[] taylorRe;
+		private final double[] taylorIm;
+		// the number of steps made
+		private int count;
+
+		public Level(int steps, int degree) {
+			re = new double[steps];
+			im = new double[steps];
+			taylorRe = new double[steps * degree];
+			taylorIm = new double[steps * degree];
+		}
+	}
+
+	/**
+	 * the arrays used by one worker thread to compute pixels by their
+	 * difference from a {@link Reference}
+	 */
+	private class PerturbedTile {
+		private final Reference reference;
+		private double[] frontierRe = new double[16];
+		private double[] frontierIm = new double[16];
+		private double[] nextRe = new double[16];
+		private double[] nextIm = new double[16];
+		// the result of step
+		private double deltaRe;
+		private double deltaIm;
+
+		public PerturbedTile(Reference r) {
+			reference = r;
+		}
+
+		/**
+		 * @return the value of the pixel, or {@link #GLITCHED}
+		 */
+		public int compute(int row, int column) {
+			if (reference.undefined)
+				return UNDEFINED;
+			// the difference of the parameter from the reference's
+			double cRe = (column - reference.column) * pixelSize;
+			double cIm = -(row - reference.row) * pixelSize;
+
+			// the critical points don't depend on the parameter so every
+			// orbit starts with no difference
+			int n = mValues.length;
+			int size = 0;
+			Level level = reference.levels[0];
+			for (int i = 0; i < n; i++) {
+				for (int c = 0; c < reference.criticalRe[i].length; c++) {
+					double dRe = 0;
+					double dIm = 0;
+					for (int k = 0; k < mValues[i]; k++) {
+						if (size >= level.count)
+							return GLITCHED;
+						step(level, size, i, dRe, dIm, cRe, cIm);
+						dRe = deltaRe;
+						dIm = deltaIm;
+						int check = check(level.re[size], level.im[size], dRe,
+								dIm);
+						if (check != 0)
+							return (check > 0) ? 0 : GLITCHED;
+						ensureFrontier(size + 1);
+						frontierRe[size] = dRe;
+						frontierIm[size] = dIm;
+						size++;
+					}
+				}
+			}
+
+			for (int l = 1; l < maxIterations; l++) {
+				if (size == 0 || (long) size * n > pointBudget)
+					break;
+				if (l >= reference.levels.length)
+					return GLITCHED;
+				level = reference.levels[l];
+				ensureNext(size * n);
+				int next = 0;
+				for (int p = 0; p < size; p++) {
+					for (int i = 0; i < n; i++) {
+						double dRe = frontierRe[p];
+						double dIm = frontierIm[p];
+						int s = p * reference.stepsPerPoint
+								+ reference.firstStep[i];
+						for (int k = 0; k < mValues[i]; k++, s++) {
+							if (s >= level.count)
+								return GLITCHED;
+							step(level, s, i, dRe, dIm, cRe, cIm);
+							dRe = deltaRe;
+							dIm = deltaIm;
+						}
+						int check = check(level.re[s - 1], level.im[s - 1],
+								dRe, dIm);
+						if (check != 0)
+							return (check > 0) ? l : GLITCHED;
+						nextRe[next] = dRe;
+						nextIm[next] = dIm;
+						next++;
+					}
+				}
+
+				double[] swap = frontierRe;
+				frontierRe = nextRe;
+				nextRe = swap;
+				swap = frontierIm;
+				frontierIm = nextIm;
+				nextIm = swap;
+				size = next;
+			}
+			return maxIterations;
+		}
+
+		/**
+		 * @return 1 if the point escapes, -1 if it is glitched, otherwise 0
+		 */
+		private int check(double zRe, double zIm, double dRe, double dIm) {
+			double wRe = zRe + dRe;
+			double wIm = zIm + dIm;
+			double w = wRe * wRe + wIm * wIm;
+			// NaN counts as escaped too
+			if (!(w <= reference.radiusSquared))
+				return 1;
+			if (w < GLITCH_RATIO * GLITCH_RATIO * (zRe * zRe + zIm * zIm))
+				return -1;
+			return 0;
+		}
+
+		/**
+		 * one step of the difference: f(z + d) - f(z) from the Taylor
+		 * coefficients of the step, plus the difference of the parameter for
+		 * the function with the free coefficient. The result is put in
+		 * deltaRe and deltaIm.
+		 */
+		private void step(Level level, int index, int function, double dRe,
+				double dIm, double cRe, double cIm) {
+			double[] a = level.taylorRe;
+			double[] b = level.taylorIm;
+			int offset = index * reference.degree;
+			// Horner's method in d
+			double tRe = a[offset + reference.degree - 1];
+			double tIm = b[offset + reference.degree - 1];
+			for (int j = offset + reference.degree - 2; j >= offset; j--) {
+				double t = tRe * dRe - tIm * dIm + a[j];
+				tIm = tRe * dIm + tIm * dRe + b[j];
+				tRe = t;
+			}
+			deltaRe = tRe * dRe - tIm * dIm;
+			deltaIm = tRe * dIm + tIm * dRe;
+			if (function == template) {
+				deltaRe += cRe;
+				deltaIm += cIm;
+			}
+		}
+
+		private void ensureFrontier(int size) {
+			if (frontierRe.length < size) {
+				frontierRe = Arrays.copyOf(frontierRe, size * 2);
+				frontierIm = Arrays.copyOf(frontierIm, size * 2);
+			}
+		}
+
+		private void ensureNext(int size) {
+			if (nextRe.length < size) {
+				nextRe = new double[size];
+				nextIm = new double[size];
+			}
+		}
+	}
+
+	/**
+	 * the arrays used by one worker thread, made once per tile
+	 */
+	private class Tile {
+		private final double[] re;
+		private final double[] im;
+		private final double[] criticalRe = new double[2];
+		private final double[] criticalIm = new double[2];
+		private double[] frontierRe = new double[16];
+		private double[] frontierIm = new double[16];
+		private double[] nextRe = new double[16];
+		private double[] nextIm = new double[16];
+
+		public Tile() {
+			re = coefficientsRe[template].clone();
+			im = coefficientsIm[template].clone();
+		}
+
+		/**
+		 * @return the value of the pixel with the free coefficient at
+		 *         (pRe, pIm)
+		 */
+		public int compute(double pRe, double pIm) {
+			// set up the template function for this parameter
+			System.arraycopy(coefficientsRe[template], 0, re, 0, re.length);
+			System.arraycopy(coefficientsIm[template], 0, im, 0, im.length);
+			re[freePower] += pRe;
+			im[freePower] += pIm;
+			if (degree(re, im) < 2)
+				return UNDEFINED;
+			int templateCritical = criticalPoints(re, im, criticalRe,
+					criticalIm);
+			if (templateCritical < 0)
+				return UNDEFINED;
+
+			double radius = radius(re, im);
+			for (int i = 0; i < mValues.length; i++)
+				if (i != template)
+					radius = Math.max(radius, fixedRadius[i]);
+			double radiusSquared = radius * radius;
+
+			// start with the critical values of every function
+			int size = 0;
+			for (int i = 0; i < mValues.length; i++) {
+				int count = (i == template) ? templateCritical
+						: fixedCriticalRe[i].length;
+				for (int c = 0; c < count; c++) {
+					double zRe = (i == template) ? criticalRe[c]
+							: fixedCriticalRe[i][c];
+					double zIm = (i == template) ? criticalIm[c]
+							: fixedCriticalIm[i][c];
+					for (int k = 0; k < mValues[i]; k++) {
+						double[] a = coefficients(i, true);
+						double[] b = coefficients(i, false);
+						// Horner's method
+						double vRe = a[a.length - 1];
+						double vIm = b[b.length - 1];
+						for (int j = a.length - 2; j >= 0; j--) {
+							double t = vRe * zRe - vIm * zIm + a[j];
+							vIm = vRe * zIm + vIm * zRe + b[j];
+							vRe = t;
+						}
+						zRe = vRe;
+						zIm = vIm;
+						if (!(zRe * zRe + zIm * zIm <= radiusSquared))
+							return 0;
+						ensureFrontier(size + 1);
+						frontierRe[size] = zRe;
+						frontierIm[size] = zIm;
+						size++;
+					}
+				}
+			}
+
+			// follow the levels until a point escapes
+			int n = mValues.length;
+			for (int level = 1; level < maxIterations; level++) {
+				if (size == 0 || (long) size * n > pointBudget)
+					break;
+				ensureNext(size * n);
+				int next = 0;
+				for (int p = 0; p < size; p++) {
+					for (int i = 0; i < n; i++) {
+						double[] a = coefficients(i, true);
+						double[] b = coefficients(i, false);
+						double zRe = frontierRe[p];
+						double zIm = frontierIm[p];
+						for (int k = 0; k < mValues[i]; k++) {
+							double vRe = a[a.length - 1];
+							double vIm = b[b.length - 1];
+							for (int j = a.length - 2; j >= 0; j--) {
+								double t = vRe * zRe - vIm * zIm + a[j];
+								vIm = vRe * zIm + vIm * zRe + b[j];
+								vRe = t;
+							}
+							zRe = vRe;
+							zIm = vIm;
+						}
+						// NaN counts as escaped too
+						if (!(zRe * zRe + zIm * zIm <= radiusSquared))
+							return level;
+						nextRe[next] = zRe;
+						nextIm[next] = zIm;
+						next++;
+					}
+				}
+
+				double[] swap = frontierRe;
+				frontierRe = nextRe;
+				nextRe = swap;
+				swap = frontierIm;
+				frontierIm = nextIm;
+				nextIm = swap;
+				size = next;
+			}
+			return maxIterations;
+		}
+
+		private double[] coefficients(int function, boolean real) {
+			if (function == template)
+				return real ? re : im;
+			return real ? coefficientsRe[function] : coefficientsIm[function];
+		}
+
+		private void ensureFrontier(int size) {
+			if (frontierRe.length < size) {
+				frontierRe = Arrays.copyOf(frontierRe, size * 2);
+				frontierIm = Arrays.copyOf(frontierIm, size * 2);
+			}
+		}
+
+		private void ensureNext(int size) {
+			if (nextRe.length < size) {
+				nextRe = new double[size];
+				nextIm = new double[size];
+			}
+		}
+	}
+
+	/**
+	 * @return the power of the highest nonzero coefficient
+	 */
+	private static int degree(double[] re, double[] im) {
+		for (int d = re.length - 1; d > 0; d--)
+			if (re[d] != 0 || im[d] != 0)
+				return d;
+		return 0;
+	}
+
+	/**
+	 * find the finite critical points of a polynomial. The derivative is
+	 * solved directly for degrees 2 and 3, higher degrees are only supported
+	 * when every term between the leading and constant terms is 0 so that the
+	 * only critical point is 0.
+	 *
+	 * @return the number of critical points put in the arrays (at most 2) or
+	 *         -1 if they can't be found
+	 */
+	private static int criticalPoints(double[] re, double[] im, double[] outRe,
+			double[] outIm) {
+		int d = degree(re, im);
+		if (d < 2)
+			return 0;
+		if (d == 2) {
+			// -c1 / 2c2
+			divide(-re[1], -im[1], 2 * re[2], 2 * im[2], outRe, outIm, 0);
+			return 1;
+		}
+		if (d == 3) {
+			// roots of 3c3 z^2 + 2c2 z + c1
+			double aRe = 3 * re[3], aIm = 3 * im[3];
+			double bRe = 2 * re[2], bIm = 2 * im[2];
+			double cRe = re[1], cIm = im[1];
+			double discRe = bRe * bRe - bIm * bIm - 4 * (aRe * cRe - aIm * cIm);
+			double discIm = 2 * bRe * bIm - 4 * (aRe * cIm + aIm * cRe);
+			// principal square root of the discriminant
+			double modulus = Math.hypot(discRe, discIm);
+			double sRe = Math.sqrt((modulus + discRe) / 2);
+			double sIm = Math.copySign(Math.sqrt((modulus - discRe) / 2),
+					discIm);
+			divide(-bRe + sRe, -bIm + sIm, 2 * aRe, 2 * aIm, outRe, outIm, 0);
+			divide(-bRe - sRe, -bIm - sIm, 2 * aRe, 2 * aIm, outRe, outIm, 1);
+			return 2;
+		}
+		for (int k = 1; k < d; k++)
+			if (re[k] != 0 || im[k] != 0)
+				return -1;
+		outRe[0] = 0;
+		outIm[0] = 0;
+		return 1;
+	}
+
+	/**
+	 * @return the escape radius used for a pixel whose function with the
+	 *         free coefficient has the coefficients re + i im. Every pixel
+	 *         uses the {@link #viewRadius} when there is one so that the
+	 *         direct and perturbed maps and the pixels of different
+	 *         reference points escape at the same levels.
+	 */
+	private double radius(double[] re, double[] im) {
+		return Double.isInfinite(viewRadius) ? escapeRadius(re, im)
+				: viewRadius;
+	}
+
+	/**
+	 * @return a radius outside of which every point at least doubles its
+	 *         distance from 0 under the polynomial, so its orbit escapes
+	 */
+	private static double escapeRadius(double[] re, double[] im) {
+		int d = degree(re, im);
+		double leading = Math.hypot(re[d], im[d]);
+		double sum = 0;
+		for (int k = 0; k < d; k++)
+			sum += Math.hypot(re[k], im[k]);
+		return escapeRadius(d, leading, sum);
+	}
+
+	/**
+	 * @return the escape radius of a polynomial of degree d with the given
+	 *         size of the leading coefficient and sum of the sizes of the
+	 *         others. It only grows with the sum and as the leading
+	 *         coefficient shrinks.
+	 */
+	private static double escapeRadius(int d, double leading, double sum) {
+		double radius = Math.max(2, 2 * (1 + sum) / leading);
+		return Math.max(radius, Math.pow(4 / leading, 1.0 / (d - 1)));
+	}
+
+	/**
+	 * an escape radius for every parameter of a rectangle: the escape radius
+	 * with the largest sizes the other coefficients can have and the
+	 * smallest size the leading one can have. A radius larger than a
+	 * polynomial's own escape radius still works for it.
+	 *
+	 * @param re
+	 *            the real parts of the coefficients without the free one
+	 * @param im
+	 *            the imaginary parts of the coefficients without the free one
+	 * @param free
+	 *            the power of the free coefficient
+	 * @return the radius, or infinity if the leading coefficient can be 0 in
+	 *         the rectangle
+	 */
+	private static double viewRadius(double[] re, double[] im, int free,
+			double left, double right, double bottom, double top) {
+		int d = re.length - 1;
+		double[] smallest = new double[d + 1];
+		double[] largest = new double[d + 1];
+		for (int k = 0; k <= d; k++) {
+			double size = Math.hypot(re[k], im[k]);
+			smallest[k] = size;
+			largest[k] = size;
+		}
+		// the free coefficient adds the parameter to the fixed part of its
+		// power, the rectangle shifted by the fixed part holds the sums
+		double r0 = re[free] + left;
+		double r1 = re[free] + right;
+		double i0 = im[free] + bottom;
+		double i1 = im[free] + top;
+		largest[free] = Math.hypot(Math.max(Math.abs(r0), Math.abs(r1)), Math
+				.max(Math.abs(i0), Math.abs(i1)));
+		smallest[free] = Math.hypot((r0 <= 0 && r1 >= 0) ? 0 : Math.min(Math
+				.abs(r0), Math.abs(r1)), (i0 <= 0 && i1 >= 0) ? 0 : Math.min(
+				Math.abs(i0), Math.abs(i1)));
+
+		while (d > 0 && largest[d] == 0)
+			d--;
+		if (d < 2 || !(smallest[d] > 0))
+			return Double.POSITIVE_INFINITY;
+		double sum = 0;
+		for (int k = 0; k < d; k++)
+			sum += largest[k];
+		return escapeRadius(d, smallest[d], sum);
+	}
+
+	/**
+	 * divide a by b and put the result at the index of the arrays
+	 */
+	private static void divide(double aRe, double aIm, double bRe, double bIm,
+			double[] outRe, double[] outIm, int index) {
+		double denominator = bRe * bRe + bIm * bIm;
+		outRe[index] = (aRe * bRe + aIm * bIm) / denominator;
+		outIm[index] = (aIm * bRe - aRe * bIm) / denominator;
+	}
+}
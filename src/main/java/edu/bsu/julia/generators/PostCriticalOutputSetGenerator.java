@@ -0,0 +1,347 @@
+package edu.bsu.julia.generators;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JFrame;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.gui.DialogErrorSink;
+import edu.bsu.julia.gui.ErrorSink;
+import edu.bsu.julia.gui.JuliaError;
+import edu.bsu.julia.input.InputFunction;
+
+/**
+ * An {@link OutputSetGenerator} for post critical sets. Starting from the
+ * critical values (see {@link InputFunction#getCriticalValues()}), each level
+ * applies every {@link InputFunction} to the new points of the level before
+ * it. The points of a level are evaluated in parallel on the
+ * {@link WorkerPool}.
+ *
+ * <p>
+ * Every point is compared to the points already found (within a small
+ * tolerance) and only points that haven't been seen before are expanded in
+ * the next level. Once an orbit becomes periodic or preperiodic it stops
+ * growing, so the set keeps only one copy of each point. If a level adds no
+ * new points the whole post critical set has been found and it is finite.
+ * </p>
+ */
+public class PostCriticalOutputSetGenerator extends OutputSetGenerator {
+	/**
+	 * the default distance under which two points are considered the same
+	 */
+	public static final double DEFAULT_TOLERANCE = 1e-9;
+
+	// number of points evaluated by a worker thread at a time
+	private static final int CHUNK_SIZE = 1024;
+
+	private final ErrorSink errorSink;
+	private final int levels;
+	private final Complex[] seedList;
+	private final InputFunction[] inputFunctions;
+	private final double tolerance;
+	private volatile Boolean finite;
+
+	/**
+	 * constructor for {@link PostCriticalOutputSetGenerator} that starts from
+	 * the critical values of the functions, using the
+	 * {@link #DEFAULT_TOLERANCE}. The critical values are computed on the
+	 * worker threads when the generator runs.
+	 *
+	 * @param parent
+	 *            the {@link JFrame} this generator is executed from
+	 * @param t
+	 *            the t value of the post critical set, the number of levels
+	 *            including the critical values
+	 * @param inFunc
+	 *            an array of {@link InputFunction}
+	 */
+	public PostCriticalOutputSetGenerator(JFrame parent, int t,
+			InputFunction[] inFunc) {
+		this(parent, t, null, inFunc, DEFAULT_TOLERANCE);
+	}
+
+	/**
+	 * constructor for {@link PostCriticalOutputSetGenerator} using the
+	 * {@link #DEFAULT_TOLERANCE}
+	 *
+	 * @param parent
+	 *            the {@link JFrame} this generator is executed from
+	 * @param t
+	 *            the t value of the post critical set, the number of levels
+	 *            including the critical values
+	 * @param seeds
+	 *            the critical values
+	 * @param inFunc
+	 *            an array of {@link InputFunction}
+	 */
+	public PostCriticalOutputSetGenerator(JFrame parent, int t,
+			Complex[] seeds, InputFunction[] inFunc) {
+		this(parent, t, seeds, inFunc, DEFAULT_TOLERANCE);
+	}
+
+	/**
+	 * constructor for {@link PostCriticalOutputSetGenerator}
+	 *
+	 * @param parent
+	 *            the {@link JFrame} this generator is executed from
+	 * @param t
+	 *            the t value of the post critical set, the number of levels
+	 *            including the critical values
+	 * @param seeds
+	 *            the critical values, or null to compute them from the
+	 *            functions
+	 * @param inFunc
+	 *            an array of {@link InputFunction}
+	 * @param tol
+	 *            the distance under which two points are considered the same
+	 */
+	public PostCriticalOutputSetGenerator(JFrame parent, int t,
+			Complex[] seeds, InputFunction[] inFunc, double tol) {
+		this(new DialogErrorSink(parent), t, seeds, inFunc, tol);
+	}
+
+	/**
+	 * constructor for {@link PostCriticalOutputSetGenerator}
+	 *
+	 * @param sink
+	 *            the {@link ErrorSink} to report errors to
+	 * @param t
+	 *            the t value of the post critical set, the number of levels
+	 *            including the critical values
+	 * @param seeds
+	 *            the critical values, or null to compute them from the
+	 *            functions
+	 * @param inFunc
+	 *            an array of {@link InputFunction}
+	 * @param tol
+	 *            the distance under which two points are considered the same
+	 */
+	public PostCriticalOutputSetGenerator(ErrorSink sink, int t,
+			Complex[] seeds, InputFunction[] inFunc, double tol) {
+		errorSink = sink;
+		levels = t;
+		seedList = seeds;
+		inputFunctions = inFunc;
+		tolerance = tol;
+	}
+
+	/**
+	 * @return true if the post critical set was found to be finite, false if
+	 *         new points were still being found at the last level, or null if
+	 *         the generator hasn't finished
+	 */
+	public Boolean isFinite() {
+		return finite;
+	}
+
+	/**
+	 * @see OutputSetGenerator#generate()
+	 */
+	protected Complex[] generate() {
+		try {
+			// check that there are input functions
+			if (inputFunctions.length == 0) {
+				return null;
+			}
+
+			Complex[] seeds = (seedList != null) ? seedList
+					: criticalValues();
+			PointSet found = new PointSet(tolerance);
+			List<Complex> outputSet = new ArrayList<Complex>();
+
+			// how many new points a level has depends on how many are found
+			// again, so the progress counts levels
+			setTotalWork(levels);
+
+			// the first level is the critical values themselves
+			List<Complex> frontier = new ArrayList<Complex>();
+			for (Complex seed : seeds) {
+				if (found.add(seed)) {
+					outputSet.add(seed);
+					frontier.add(seed);
+				}
+			}
+			advance(1);
+
+			for (int level = 1; level < levels && !frontier.isEmpty(); level++) {
+				if (isCancelled())
+					return null;
+
+				// apply every function to every new point of the last level
+				stats.recordFrontier(frontier.size());
+				final Complex[] current = frontier.toArray(new Complex[] {});
+				final Complex[] images = new Complex[current.length
+						* inputFunctions.length];
+				WorkerPool.forEachChunk(current.length, CHUNK_SIZE,
+						new WorkerPool.ChunkTask() {
+							@Override
+							public void run(int start, int end) {
+								GeneratorStats.Clock clock = new GeneratorStats.Clock();
+								for (int i = start; i < end; i++) {
+									if (isCancelled())
+										break;
+									int index = i * inputFunctions.length;
+									for (InputFunction function : inputFunctions) {
+										clock.start();
+										images[index++] = function
+												.evaluateForwards(current[i]);
+										clock.stop();
+									}
+								}
+								stats.add(clock);
+							}
+						});
+
+				// keep only the points that haven't been seen before. these
+				// are the only ones that need to be expanded in the next level
+				frontier = new ArrayList<Complex>();
+				for (Complex point : images) {
+					if (point != null && found.add(point)) {
+						outputSet.add(point);
+						frontier.add(point);
+					}
+				}
+				stats.setPoints(outputSet.size());
+				advance(1);
+			}
+
+			finite = frontier.isEmpty();
+			return outputSet.toArray(new Complex[] {});
+		} catch (OutOfMemoryError e) {
+			errorSink.reportError(JuliaError.OUT_OF_MEMORY);
+			return null;
+		} catch (ArithmeticException e) {
+			errorSink.reportError(JuliaError.DIV_BY_ZERO);
+			return null;
+		}
+	}
+
+	/**
+	 * compute the critical values of all the functions, one function per
+	 * worker thread
+	 */
+	private Complex[] criticalValues() {
+		final Complex[][] values = new Complex[inputFunctions.length][];
+		WorkerPool.forEachChunk(inputFunctions.length, 1,
+				new WorkerPool.ChunkTask() {
+					@Override
+					public void run(int start, int end) {
+						for (int i = start; i < end; i++)
+							values[i] = inputFunctions[i].getCriticalValues();
+					}
+				});
+
+		List<Complex> result = new ArrayList<Complex>();
+		for (Complex[] functionValues : values)
+			for (Complex value : functionValues)
+				result.add(value);
+		return result.toArray(new Complex[] {});
+	}
+
+	/**
+	 * a set of points where two points closer than the tolerance are the same.
+	 * Points are hashed into a grid of cells the size of the tolerance so only
+	 * the neighboring cells need to be checked for a match.
+	 */
+	private static class PointSet {
+		private final double tolerance;
+		// past this the cell index of a coordinate wouldn't fit in a long
+		// with room for its neighbours, and the doubles next to each other
+		// are further apart than the tolerance
+		private final double limit;
+		private final Map<Cell, List<Complex>> cells = new HashMap<Cell, List<Complex>>();
+		private boolean hasNaN = false;
+		private boolean hasInfinite = false;
+
+		public PointSet(double tol) {
+			tolerance = tol;
+			limit = Math.scalb(tol, 53);
+		}
+
+		/**
+		 * @return true if the point was added, false if an equal point is
+		 *         already in the set
+		 */
+		public boolean add(Complex point) {
+			// all NaN and infinite points are treated as one point each
+			if (point.isNaN()) {
+				if (hasNaN)
+					return false;
+				hasNaN = true;
+				return true;
+			}
+			if (point.isInfinite()) {
+				if (hasInfinite)
+					return false;
+				hasInfinite = true;
+				return true;
+			}
+
+			long x = index(point.getReal());
+			long y = index(point.getImaginary());
+			for (long i = x - 1; i <= x + 1; i++) {
+				for (long j = y - 1; j <= y + 1; j++) {
+					List<Complex> list = cells.get(new Cell(i, j));
+					if (list == null)
+						continue;
+					for (Complex other : list)
+						if (point.subtract(other).abs() <= tolerance)
+							return false;
+				}
+			}
+
+			Cell cell = new Cell(x, y);
+			List<Complex> list = cells.get(cell);
+			if (list == null) {
+				list = new ArrayList<Complex>(1);
+				cells.put(cell, list);
+			}
+			list.add(point);
+			return true;
+		}
+
+		/**
+		 * @return the index of the cell holding a coordinate
+		 */
+		private long index(double coordinate) {
+			if (Math.abs(coordinate) < limit)
+				return (long) Math.floor(coordinate / tolerance);
+			// only equal coordinates can be within the tolerance this far
+			// out. The bits of the value are far past the indices of the
+			// cells near zero, so every value gets a cell of its own
+			long bits = Double.doubleToLongBits(Math.abs(coordinate));
+			return coordinate < 0 ? -bits : bits;
+		}
+	}
+
+	/**
+	 * the grid coordinates of a {@link PointSet} cell
+	 */
+	private static class Cell {
+		private final long x;
+		private final long y;
+
+		public Cell(long x, long y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Cell))
+				return false;
+			Cell other = (Cell) obj;
+			return x == other.x && y == other.y;
+		}
+
+		@Override
+		public int hashCode() {
+			long h = x * 31 + y;
+			return (int) (h ^ (h >>> 32));
+		}
+	}
+}
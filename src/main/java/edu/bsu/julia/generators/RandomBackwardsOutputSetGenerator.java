@@ -1,13 +1,14 @@
 package edu.bsu.julia.generators;
 
-import java.util.Random;
-
 import javax.swing.JFrame;
 
 import org.apache.commons.math.complex.Complex;
 
-import edu.bsu.julia.gui.JuliaError;
+import edu.bsu.julia.gui.DialogErrorSink;
+import edu.bsu.julia.gui.ErrorSink;
 import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.precision.DDComplex;
+import edu.bsu.julia.precision.ExtendedPrecision;
 
 /**
  * An {@link OutputSetGenerator} that generates points of a julia set by
@@ -15,15 +16,7 @@ import edu.bsu.julia.input.InputFunction;
  * 
  * @author Ben Dean
  */
-public class RandomBackwardsOutputSetGenerator extends OutputSetGenerator {
-	private static final Random RAND = new Random();
-
-	private final JFrame parentFrame;
-	private final int iterations;
-	private final int skips;
-	private final Complex seed;
-	private final InputFunction[] inputFunctions;
-
+public class RandomBackwardsOutputSetGenerator extends RandomOutputSetGenerator {
 	/**
 	 * constructor for {@link RandomBackwardsOutputSetGenerator}
 	 * 
@@ -40,55 +33,75 @@ public class RandomBackwardsOutputSetGenerator extends OutputSetGenerator {
 	 */
 	public RandomBackwardsOutputSetGenerator(JFrame parent, int iter, int sk,
 			Complex sd, InputFunction[] inFunc) {
-		parentFrame = parent;
-		iterations = iter;
-		skips = sk;
-		seed = sd;
-		inputFunctions = inFunc;
+		this(new DialogErrorSink(parent), iter, sk, sd, inFunc);
 	}
 
 	/**
-	 * @see OutputSetGenerator#doInBackground()
+	 * constructor for {@link RandomBackwardsOutputSetGenerator}
+	 * 
+	 * @param sink
+	 *            the {@link ErrorSink} to report errors to
+	 * @param iter
+	 *            the number of iterations as an int
+	 * @param sk
+	 *            the number of skips as an int
+	 * @param sd
+	 *            the {@link Complex} seed
+	 * @param inFunc
+	 *            an array of {@link InputFunction}
 	 */
-	public Complex[] doInBackground() {
-		try {
-			// check that there are input functions
-			if (inputFunctions.length == 0) {
-				return null;
-			}
-
-			Complex currentPoint = seed;
-			Complex[] outputSet = new Complex[iterations];
-			int progress = 0;
-			int maxProgress = iterations + skips;
+	public RandomBackwardsOutputSetGenerator(ErrorSink sink, int iter, int sk,
+			Complex sd, InputFunction[] inFunc) {
+		this(sink, iter, sk, sd, inFunc, null, null, false);
+	}
 
-			// iterate skips + iterations number of times
-			for (int k = 0; k < iterations + skips; k++) {
-				// find the next iteration of the current point
-				InputFunction function = inputFunctions[RAND
-						.nextInt(inputFunctions.length)];
-				currentPoint = function.evaluateBackwardsRandom(currentPoint);
-				if (currentPoint == null) {
-					JuliaError.ZERO_DETERMINANT.showDialog(parentFrame);
-					return null;
-				}
+	/**
+	 * constructor for {@link RandomBackwardsOutputSetGenerator} that starts one orbit from
+	 * every seed of a {@link WarmStart} instead of from the seed and can stop
+	 * early
+	 * 
+	 * @param sink
+	 *            the {@link ErrorSink} to report errors to
+	 * @param iter
+	 *            the number of iterations as an int, the most points made
+	 * @param sk
+	 *            the number of skips as an int, used when there is no warm
+	 *            start
+	 * @param sd
+	 *            the {@link Complex} seed, used when there is no warm start
+	 * @param inFunc
+	 *            an array of {@link InputFunction}
+	 * @param warm
+	 *            the {@link WarmStart} or null
+	 * @param monitor
+	 *            the {@link CoverageMonitor} that decides when to stop or null
+	 * @param ext
+	 *            true to follow the orbits in extended precision, the
+	 *            functions must be supported by {@link ExtendedPrecision}
+	 */
+	public RandomBackwardsOutputSetGenerator(ErrorSink sink, int iter, int sk,
+			Complex sd, InputFunction[] inFunc, WarmStart warm,
+			CoverageMonitor monitor, boolean ext) {
+		super(sink, iter, sk, sd, inFunc, warm, monitor, ext);
+	}
 
-				// after the skips have been used up, add the current point
-				if (k >= skips) {
-					outputSet[k - skips] = currentPoint;
-				}
-				progress = k;
-				setProgress(Math.min((int) ((progress * 100f) / maxProgress),
-						100));
-			}
+	/**
+	 * @see RandomOutputSetGenerator#step(InputFunction, Complex)
+	 */
+	@Override
+	protected Complex step(InputFunction function, Complex point) {
+		return function.evaluateBackwardsRandom(point);
+	}
 
-			return outputSet;
-		} catch (OutOfMemoryError e) {
-			JuliaError.OUT_OF_MEMORY.showDialog(parentFrame);
-			return null;
-		} catch (ArithmeticException e) {
-			JuliaError.DIV_BY_ZERO.showDialog(parentFrame);
+	/**
+	 * @see RandomOutputSetGenerator#stepExtended(InputFunction, DDComplex)
+	 */
+	@Override
+	protected DDComplex stepExtended(InputFunction function, DDComplex point) {
+		Complex approximation = function.evaluateBackwardsRandom(point
+				.toComplex());
+		if (approximation == null)
 			return null;
-		}
+		return ExtendedPrecision.refineInverse(function, point, approximation);
 	}
 }
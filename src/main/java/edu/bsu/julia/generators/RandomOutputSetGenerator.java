@@ -0,0 +1,258 @@
+package edu.bsu.julia.generators;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.gui.ErrorSink;
+import edu.bsu.julia.gui.JuliaError;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.precision.DDComplex;
+import edu.bsu.julia.precision.ExtendedPrecision;
+
+/**
+ * the random method shared by {@link RandomBackwardsOutputSetGenerator} and
+ * {@link RandomForwardsOutputSetGenerator}: follow an orbit that applies a
+ * randomly chosen input function at every step, throw away the first points
+ * (the skips) and keep the rest. With a {@link WarmStart} one orbit is
+ * followed from every seed on the {@link WorkerPool}. With a
+ * {@link CoverageMonitor} the points are made one window at a time and the
+ * generator stops before the number of iterations once the set has
+ * converged. In extended precision every orbit is followed in double-double
+ * precision and the low parts of the points are kept in
+ * {@link #getResiduals()}.
+ */
+public abstract class RandomOutputSetGenerator extends OutputSetGenerator {
+	// the number of steps between progress updates
+	private static final int PROGRESS_STEPS = 1024;
+
+	protected final ErrorSink errorSink;
+	protected final int iterations;
+	protected final int skips;
+	protected final Complex seed;
+	protected final InputFunction[] inputFunctions;
+	private final WarmStart warmStart;
+	private final CoverageMonitor coverage;
+	private final boolean extended;
+	private double[] residuals;
+
+	/**
+	 * constructor for {@link RandomOutputSetGenerator}
+	 *
+	 * @param sink
+	 *            the {@link ErrorSink} to report errors to
+	 * @param iter
+	 *            the number of iterations as an int, the most points made
+	 * @param sk
+	 *            the number of skips as an int, used when there is no warm
+	 *            start
+	 * @param sd
+	 *            the {@link Complex} seed, used when there is no warm start
+	 * @param inFunc
+	 *            an array of {@link InputFunction}
+	 * @param warm
+	 *            the {@link WarmStart} or null
+	 * @param monitor
+	 *            the {@link CoverageMonitor} that decides when to stop or null
+	 *            to make every point
+	 * @param ext
+	 *            true to follow the orbits in extended precision, the
+	 *            functions must be supported by {@link ExtendedPrecision}
+	 */
+	protected RandomOutputSetGenerator(ErrorSink sink, int iter, int sk,
+			Complex sd, InputFunction[] inFunc, WarmStart warm,
+			CoverageMonitor monitor, boolean ext) {
+		errorSink = sink;
+		iterations = iter;
+		skips = sk;
+		seed = sd;
+		inputFunctions = inFunc;
+		warmStart = warm;
+		coverage = monitor;
+		extended = ext;
+	}
+
+	/**
+	 * take one step of an orbit
+	 *
+	 * @param function
+	 *            the randomly chosen function
+	 * @param point
+	 *            the current point of the orbit
+	 * @return the next point of the orbit or null if it can't be found
+	 */
+	protected abstract Complex step(InputFunction function, Complex point);
+
+	/**
+	 * take one step of an orbit in extended precision
+	 *
+	 * @param function
+	 *            the randomly chosen function
+	 * @param point
+	 *            the current point of the orbit
+	 * @return the next point of the orbit or null if it can't be found
+	 */
+	protected abstract DDComplex stepExtended(InputFunction function,
+			DDComplex point);
+
+	/**
+	 * @return the {@link CoverageMonitor} or null if every point is made
+	 */
+	public CoverageMonitor getCoverage() {
+		return coverage;
+	}
+
+	/**
+	 * @return the low parts of the points made in extended precision, the
+	 *         real and imaginary low part of each point in turn, or null if
+	 *         they were made in double precision or aren't done
+	 */
+	public double[] getResiduals() {
+		return residuals;
+	}
+
+	/**
+	 * @see OutputSetGenerator#generate()
+	 */
+	protected Complex[] generate() {
+		try {
+			// check that there are input functions
+			if (inputFunctions.length == 0) {
+				return null;
+			}
+
+			final Complex[] orbits = (warmStart != null) ? warmStart.getSeeds()
+					.clone() : new Complex[] { seed };
+			final int orbitSkips = (warmStart != null) ? warmStart.getSkips()
+					: skips;
+			final Complex[] outputSet = new Complex[iterations];
+			final DDComplex[] extendedOrbits = extended ? new DDComplex[orbits.length]
+					: null;
+			final double[] lows = extended ? new double[2 * iterations] : null;
+			for (int i = 0; extended && i < orbits.length; i++)
+				extendedOrbits[i] = DDComplex.valueOf(orbits[i]);
+			setTotalWork(iterations + (long) orbits.length * orbitSkips);
+			final AtomicBoolean failed = new AtomicBoolean();
+			int window = (coverage != null) ? coverage.getWindow() : iterations;
+
+			int filled = 0;
+			while (filled < iterations) {
+				if (isCancelled())
+					return null;
+				final int first = filled;
+				final int count = Math.min(window, iterations - filled);
+				final int windowSkips = (first == 0) ? orbitSkips : 0;
+				WorkerPool.ChunkTask task = new WorkerPool.ChunkTask() {
+					@Override
+					public void run(int start, int end) {
+						Random random = new Random();
+						GeneratorStats.Clock clock = new GeneratorStats.Clock();
+						for (int orbit = start; orbit < end
+								&& !isCancelled(); orbit++) {
+							if (!runOrbit(random, clock, orbits,
+									extendedOrbits, orbit, outputSet, lows,
+									first, count, windowSkips)) {
+								failed.set(true);
+								break;
+							}
+						}
+						stats.add(clock);
+					}
+				};
+				if (orbits.length == 1)
+					task.run(0, 1);
+				else
+					WorkerPool.forEachChunk(orbits.length, 1, task);
+
+				if (isCancelled())
+					return null;
+				if (failed.get()) {
+					errorSink.reportError(JuliaError.ZERO_DETERMINANT);
+					return null;
+				}
+				filled += count;
+				if (coverage != null
+						&& coverage.addPoints(outputSet, first, filled))
+					break;
+			}
+
+			if (filled < iterations) {
+				if (extended)
+					residuals = Arrays.copyOf(lows, 2 * filled);
+				return Arrays.copyOf(outputSet, filled);
+			}
+			residuals = lows;
+			return outputSet;
+		} catch (OutOfMemoryError e) {
+			errorSink.reportError(JuliaError.OUT_OF_MEMORY);
+			return null;
+		} catch (ArithmeticException e) {
+			errorSink.reportError(JuliaError.DIV_BY_ZERO);
+			return null;
+		}
+	}
+
+	/**
+	 * continue one orbit, filling its share of a window of points. The
+	 * extended orbits and the low parts are null in double precision. The
+	 * orbit stops early if the generator is cancelled, so a deleted set
+	 * doesn't keep the threads of the {@link WorkerPool} from other work.
+	 *
+	 * @return false if a step failed
+	 */
+	private boolean runOrbit(Random random, GeneratorStats.Clock clock,
+			Complex[] orbits, DDComplex[] extendedOrbits, int orbit,
+			Complex[] outputSet, double[] lows, int first, int count,
+			int orbitSkips) {
+		// split the window evenly among the orbits
+		int base = count / orbits.length;
+		int extra = count % orbits.length;
+		int index = first + orbit * base + Math.min(orbit, extra);
+		int points = base + ((orbit < extra) ? 1 : 0);
+
+		Complex currentPoint = orbits[orbit];
+		DDComplex currentExtended = (extendedOrbits != null) ? extendedOrbits[orbit]
+				: null;
+		int steps = points + orbitSkips;
+		int kept = 0;
+		for (int k = 0; k < steps; k++) {
+			InputFunction function = inputFunctions[random
+					.nextInt(inputFunctions.length)];
+			clock.start();
+			if (currentExtended != null) {
+				currentExtended = stepExtended(function, currentExtended);
+				currentPoint = (currentExtended == null) ? null
+						: currentExtended.toComplex();
+			} else {
+				currentPoint = step(function, currentPoint);
+			}
+			clock.stop();
+			if (currentPoint == null)
+				return false;
+
+			// after the skips have been used up, add the current point
+			if (k >= orbitSkips) {
+				int i = index + k - orbitSkips;
+				outputSet[i] = currentPoint;
+				if (currentExtended != null) {
+					lows[2 * i] = currentExtended.getReal().getLow();
+					lows[2 * i + 1] = currentExtended.getImaginary().getLow();
+				}
+				kept++;
+			}
+			if ((k + 1) % PROGRESS_STEPS == 0 || k == steps - 1) {
+				stats.addPoints(kept);
+				kept = 0;
+				advance((k % PROGRESS_STEPS) + 1);
+				if (isCancelled())
+					return true;
+			}
+		}
+		orbits[orbit] = currentPoint;
+		if (extendedOrbits != null)
+			extendedOrbits[orbit] = currentExtended;
+		return true;
+	}
+}
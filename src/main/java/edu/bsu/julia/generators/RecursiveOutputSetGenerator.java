@@ -1,12 +1,16 @@
 package edu.bsu.julia.generators;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JFrame;
 
 import org.apache.commons.math.complex.Complex;
+import edu.bsu.julia.gui.DialogErrorSink;
+import edu.bsu.julia.gui.ErrorSink;
 import edu.bsu.julia.gui.JuliaError;
 import edu.bsu.julia.input.InputFunction;
 import edu.bsu.julia.output.OutputSet;
@@ -38,8 +42,11 @@ public class RecursiveOutputSetGenerator extends OutputSetGenerator {
 		}
 	}
 
-	private final JFrame parentFrame;
-	private final List<Complex> seedList;
+	// number of seed points evaluated by a worker thread at a time
+	private static final int CHUNK_SIZE = 4096;
+
+	private final ErrorSink errorSink;
+	private final OutputSet[] sourceSets;
 	private final InputFunction inputFunction;
 	private final Type type;
 
@@ -58,71 +65,200 @@ public class RecursiveOutputSetGenerator extends OutputSetGenerator {
 	 */
 	public RecursiveOutputSetGenerator(JFrame parent, InputFunction inFunc,
 			OutputSet[] outSets, Type t) {
-		parentFrame = parent;
+		this(new DialogErrorSink(parent), inFunc, outSets, t);
+	}
+
+	/**
+	 * constructor for {@link RecursiveOutputSetGenerator}
+	 * 
+	 * @param sink
+	 *            the {@link ErrorSink} to report errors to
+	 * @param inFunc
+	 *            an {@link InputFunction} to apply to all the points
+	 * @param outSets
+	 *            an array of {@link OutputSet} to use as seed points
+	 * @param t
+	 *            {@link RecursiveOutputSetGenerator.Type} to determine full or
+	 *            random method
+	 */
+	public RecursiveOutputSetGenerator(ErrorSink sink, InputFunction inFunc,
+			OutputSet[] outSets, Type t) {
+		errorSink = sink;
 		inputFunction = inFunc;
 		type = t;
-
-		// build a list of starting points from the output sets
-		seedList = new ArrayList<Complex>();
-		for (OutputSet set : outSets) {
-			for (Complex point : set.getPoints(true))
-				seedList.add(point);
-		}
+		sourceSets = outSets;
 	}
 
 	/**
-	 * @see OutputSetGenerator#doInBackground()
+	 * apply the function to the points of the source sets. The points are read
+	 * straight from the arrays of the source sets and split into chunks that
+	 * are evaluated on all the threads of the {@link WorkerPool}. The output
+	 * array is sized for the same number of points from every seed, so each
+	 * chunk writes its results directly into its own part of it. A seed that
+	 * gives a different number of roots leaves its part empty and keeps its
+	 * roots aside, and insertIrregular splices them in at its place
+	 * afterwards.
+	 * 
+	 * @see OutputSetGenerator#generate()
 	 */
-	public Complex[] doInBackground() {
+	protected Complex[] generate() {
 		try {
-			List<Complex> outputSet = new ArrayList<Complex>();
-
-			// estimate the maximum progress
-			int progress = 0;
-			int maxProgress;
-			Complex[] arr = inputFunction
-					.evaluateBackwardsFull(Complex.ZERO);
-			if (arr != null)
-				maxProgress = seedList.size() * arr.length;
-			else
-				maxProgress = seedList.size();
-
-			// apply the function to each point in the seedList
-			for (Complex point : seedList) {
-				Complex[] tempResult;
-				// create a temp array using full or random method
-				if (type == Type.FULL) {
-					tempResult = inputFunction.evaluateBackwardsFull(point);
-					if (tempResult == null) {
-						JuliaError.ZERO_DETERMINANT.showDialog(parentFrame);
-						return null;
-					}
-				} else {
-					Complex temp = inputFunction
-							.evaluateBackwardsRandom(point);
-					if (temp == null) {
-						JuliaError.ZERO_DETERMINANT.showDialog(parentFrame);
-						return null;
-					}
-					tempResult = new Complex[] { temp };
+			// get the points of the source sets, waiting for any that are
+			// still being generated or read from a file
+			final Complex[][] sources = new Complex[sourceSets.length][];
+			final int[] offsets = new int[sourceSets.length + 1];
+			long seedCount = 0;
+			for (int i = 0; i < sourceSets.length; i++) {
+				sources[i] = sourceSets[i].getPoints(true);
+				offsets[i] = (int) seedCount;
+				seedCount += sources[i].length;
+				if (seedCount > Integer.MAX_VALUE) {
+					errorSink.reportError(JuliaError.OUT_OF_MEMORY);
+					return null;
 				}
+			}
+			offsets[sourceSets.length] = (int) seedCount;
 
-				// add all the points from the temp list to the output set
-				for (Complex pt : tempResult) {
-					outputSet.add(pt);
+			// every seed gives one point for the random method and the full
+			// branching factor of the function for the full method
+			final int branches;
+			if (type == Type.FULL) {
+				long count = inputFunction.getBranchCount();
+				if (count * seedCount > Integer.MAX_VALUE - 8) {
+					errorSink.reportError(JuliaError.OUT_OF_MEMORY);
+					return null;
 				}
-				progress = outputSet.size();
-				setProgress(Math.min((int) ((progress * 100f) / maxProgress),
-						100));
+				branches = (int) count;
+			} else {
+				branches = 1;
 			}
 
-			return outputSet.toArray(new Complex[] {});
+			final int total = (int) seedCount;
+			final Complex[] outputSet = new Complex[total * branches];
+			final AtomicBoolean zeroDeterminant = new AtomicBoolean(false);
+			// the roots of seeds that didn't give the branching factor,
+			// by the index of the seed
+			final Map<Integer, Complex[]> irregular = new ConcurrentHashMap<Integer, Complex[]>();
+			setTotalWork(total);
+
+			WorkerPool.forEachChunk(total, CHUNK_SIZE,
+					new WorkerPool.ChunkTask() {
+						@Override
+						public void run(int start, int end) {
+							GeneratorStats.Clock clock = new GeneratorStats.Clock();
+							try {
+								evaluate(start, end, clock);
+							} finally {
+								stats.add(clock);
+							}
+						}
+
+						private void evaluate(int start, int end,
+								GeneratorStats.Clock clock) {
+							// find the source array holding the first seed
+							int source = 0;
+							while (offsets[source + 1] <= start)
+								source++;
+
+							for (int i = start; i < end; i++) {
+								if (isCancelled() || zeroDeterminant.get())
+									return;
+								while (offsets[source + 1] <= i)
+									source++;
+								Complex point = sources[source][i
+										- offsets[source]];
+
+								int index = i * branches;
+								if (type == Type.FULL) {
+									clock.start();
+									Complex[] tempResult = inputFunction
+											.evaluateBackwardsFull(point);
+									clock.stop();
+									if (tempResult == null) {
+										zeroDeterminant.set(true);
+										return;
+									}
+									if (tempResult.length == branches)
+										System.arraycopy(tempResult, 0,
+												outputSet, index, branches);
+									else
+										irregular.put(i, tempResult);
+								} else {
+									clock.start();
+									Complex temp = inputFunction
+											.evaluateBackwardsRandom(point);
+									clock.stop();
+									if (temp == null) {
+										zeroDeterminant.set(true);
+										return;
+									}
+									outputSet[index] = temp;
+								}
+							}
+
+							stats.addPoints((long) (end - start) * branches);
+							advance(end - start);
+						}
+					});
+
+			if (isCancelled())
+				return null;
+			if (zeroDeterminant.get()) {
+				errorSink.reportError(JuliaError.ZERO_DETERMINANT);
+				return null;
+			}
+
+			// some seeds (like NaN or infinity) give a different number of
+			// points than the branching factor
+			if (!irregular.isEmpty())
+				return insertIrregular(outputSet, branches, irregular);
+			return outputSet;
 		} catch (OutOfMemoryError e) {
-			JuliaError.OUT_OF_MEMORY.showDialog(parentFrame);
+			errorSink.reportError(JuliaError.OUT_OF_MEMORY);
 			return null;
 		} catch (ArithmeticException e) {
-			JuliaError.DIV_BY_ZERO.showDialog(parentFrame);
+			errorSink.reportError(JuliaError.DIV_BY_ZERO);
+			return null;
+		}
+	}
+
+	/**
+	 * @param points
+	 *            the points of every seed, with the branching factor of
+	 *            points for each one
+	 * @param branches
+	 *            the branching factor
+	 * @param irregular
+	 *            the points of the seeds that gave a different number, by
+	 *            the index of the seed
+	 * @return the points of every seed in order, each with as many points
+	 *         as it actually gave
+	 */
+	private Complex[] insertIrregular(Complex[] points, int branches,
+			Map<Integer, Complex[]> irregular) {
+		long size = points.length;
+		for (Complex[] roots : irregular.values())
+			size += roots.length - branches;
+		if (size > Integer.MAX_VALUE - 8) {
+			errorSink.reportError(JuliaError.OUT_OF_MEMORY);
 			return null;
 		}
+		Integer[] seeds = irregular.keySet().toArray(new Integer[0]);
+		Arrays.sort(seeds);
+		Complex[] result = new Complex[(int) size];
+		int from = 0;
+		int to = 0;
+		for (Integer seed : seeds) {
+			// the regular seeds before this one, then its own points
+			int regular = seed * branches - from;
+			System.arraycopy(points, from, result, to, regular);
+			to += regular;
+			Complex[] roots = irregular.get(seed);
+			System.arraycopy(roots, 0, result, to, roots.length);
+			to += roots.length;
+			from = (seed + 1) * branches;
+		}
+		System.arraycopy(points, from, result, to, points.length - from);
+		return result;
 	}
 }
@@ -0,0 +1,170 @@
+package edu.bsu.julia.generators;
+
+import java.util.List;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.output.OutputSet;
+
+/**
+ * seeds for the random generators taken from the points of a set that is
+ * already close to the one being generated, like an {@link OutputSet} of the
+ * same functions with slightly different coefficients. Each seed starts its
+ * own orbit and since the seeds are already near the set each orbit only
+ * needs a few skips, so the orbits are run in parallel on the
+ * {@link WorkerPool}.
+ */
+public class WarmStart {
+	/**
+	 * the number of orbits started by {@link #fromPoints(Complex[])}
+	 */
+	public static final int DEFAULT_ORBITS = 64;
+
+	/**
+	 * the skips of each orbit used by {@link #fromPoints(Complex[])}
+	 */
+	public static final int DEFAULT_SKIPS = 10;
+
+	private final Complex[] seeds;
+	private final int skips;
+
+	/**
+	 * constructor for {@link WarmStart}
+	 *
+	 * @param s
+	 *            the seed of each orbit
+	 * @param sk
+	 *            the skips of each orbit
+	 * @throws IllegalArgumentException
+	 *             if there are no seeds
+	 */
+	public WarmStart(Complex[] s, int sk) throws IllegalArgumentException {
+		if (s.length == 0)
+			throw new IllegalArgumentException("a warm start needs a seed");
+		seeds = s;
+		skips = Math.max(0, sk);
+	}
+
+	/**
+	 * @return a {@link WarmStart} with {@link #DEFAULT_ORBITS} seeds and
+	 *         {@link #DEFAULT_SKIPS} skips or null if there are no finite
+	 *         points
+	 */
+	public static WarmStart fromPoints(Complex[] points) {
+		return fromPoints(points, DEFAULT_ORBITS, DEFAULT_SKIPS);
+	}
+
+	/**
+	 * take evenly spaced seeds from the points. consecutive points of a random
+	 * orbit are spread over the set so this samples the whole set.
+	 *
+	 * @param points
+	 *            the points of the old set
+	 * @param orbits
+	 *            the largest number of seeds
+	 * @param sk
+	 *            the skips of each orbit
+	 * @return a new {@link WarmStart} or null if there are no finite points
+	 */
+	public static WarmStart fromPoints(Complex[] points, int orbits, int sk) {
+		if (points == null)
+			return null;
+		int finite = 0;
+		for (Complex point : points)
+			if (isFinite(point))
+				finite++;
+		if (finite == 0)
+			return null;
+
+		Complex[] seeds = new Complex[Math.min(Math.max(orbits, 1), finite)];
+		double step = (double) finite / seeds.length;
+		int index = 0;
+		int count = 0;
+		for (Complex point : points) {
+			if (!isFinite(point))
+				continue;
+			if (index < seeds.length && count == (int) (index * step))
+				seeds[index++] = point;
+			count++;
+		}
+		return new WarmStart(seeds, sk);
+	}
+
+	/**
+	 * find the loaded set closest to the one being generated and take the
+	 * seeds from its points. a set is close if it has the same type and the
+	 * same kinds of functions in the same order, the closest one has the
+	 * smallest total difference between the coefficients.
+	 *
+	 * @param sets
+	 *            the sets to look in, like the sets of the session
+	 * @param type
+	 *            the type of the new set, only random types are warm started
+	 * @param functions
+	 *            the functions of the new set
+	 * @param sk
+	 *            the skips of the new set, the warm start never uses more
+	 * @return a new {@link WarmStart} or null if there is no close set
+	 */
+	public static WarmStart fromSimilarSet(List<OutputSet> sets,
+			OutputSet.Type type, InputFunction[] functions, int sk) {
+		switch (type) {
+		case RANDOM_JULIA:
+		case IND_RANDOM_JULIA:
+		case RANDOM_ATTR:
+		case IND_RANDOM_ATTR:
+			break;
+		default:
+			return null;
+		}
+
+		OutputSet closest = null;
+		double closestDistance = Double.POSITIVE_INFINITY;
+		for (OutputSet set : sets) {
+			if (set.getType() != type || !set.isLoaded())
+				continue;
+			double distance = distance(set.getInputFunctions(), functions);
+			if (distance < closestDistance) {
+				closest = set;
+				closestDistance = distance;
+			}
+		}
+		if (closest == null)
+			return null;
+		return fromPoints(closest.getPoints(), DEFAULT_ORBITS, Math.min(sk,
+				DEFAULT_SKIPS));
+	}
+
+	/**
+	 * @return the sum of the differences of the coefficients or infinity if
+	 *         the functions aren't the same kinds
+	 */
+	private static double distance(InputFunction[] a, InputFunction[] b) {
+		if (a.length != b.length)
+			return Double.POSITIVE_INFINITY;
+		double distance = 0;
+		for (int i = 0; i < a.length; i++) {
+			if (a[i].getClass() != b[i].getClass() || a[i].getM() != b[i].getM()
+					|| a[i].getDegree() != b[i].getDegree())
+				return Double.POSITIVE_INFINITY;
+			Complex[] ca = a[i].getCoefficients();
+			Complex[] cb = b[i].getCoefficients();
+			for (int j = 0; j < ca.length; j++)
+				distance += ca[j].subtract(cb[j]).abs();
+		}
+		return distance;
+	}
+
+	private static boolean isFinite(Complex point) {
+		return point != null && !point.isNaN() && !point.isInfinite();
+	}
+
+	public Complex[] getSeeds() {
+		return seeds;
+	}
+
+	public int getSkips() {
+		return skips;
+	}
+}
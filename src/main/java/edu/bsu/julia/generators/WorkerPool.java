@@ -0,0 +1,104 @@
+package edu.bsu.julia.generators;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * a pool of worker threads shared by the {@link OutputSetGenerator}s that split
+ * their work across all the processors. The threads are daemon threads so the
+ * pool never keeps the program from exiting.
+ */
+public final class WorkerPool {
+	/**
+	 * the work done on one chunk of a range of indices
+	 */
+	public interface ChunkTask {
+		/**
+		 * @param start
+		 *            the first index of the chunk
+		 * @param end
+		 *            one past the last index of the chunk
+		 */
+		public void run(int start, int end);
+	}
+
+	private static ForkJoinPool pool;
+
+	/**
+	 * private constructor so that this class can only be used staticly
+	 */
+	private WorkerPool() {
+
+	}
+
+	/**
+	 * @return the shared {@link ForkJoinPool}
+	 */
+	public static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+					new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+						@Override
+						public ForkJoinWorkerThread newThread(ForkJoinPool p) {
+							ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory
+									.newThread(p);
+							thread.setDaemon(true);
+							thread.setName("julia-worker-"
+									+ thread.getPoolIndex());
+							return thread;
+						}
+					}, null, false);
+		}
+		return pool;
+	}
+
+	/**
+	 * split the indices 0 to size into chunks and run the task on every chunk
+	 * using all the threads of the pool. This blocks until every chunk is done.
+	 * Any {@link RuntimeException} or {@link Error} thrown by the task is
+	 * thrown again by this method.
+	 *
+	 * @param size
+	 *            the number of indices
+	 * @param chunkSize
+	 *            the largest number of indices given to the task at once
+	 * @param task
+	 *            the {@link ChunkTask} to run
+	 */
+	public static void forEachChunk(int size, int chunkSize, ChunkTask task) {
+		if (size <= 0)
+			return;
+		getPool().invoke(new ChunkAction(task, 0, size, Math.max(1, chunkSize)));
+	}
+
+	/**
+	 * recursively splits a range in half until it is no larger than the chunk
+	 * size
+	 */
+	private static class ChunkAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final ChunkTask task;
+		private final int start;
+		private final int end;
+		private final int chunkSize;
+
+		public ChunkAction(ChunkTask t, int s, int e, int c) {
+			task = t;
+			start = s;
+			end = e;
+			chunkSize = c;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= chunkSize) {
+				task.run(start, end);
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new ChunkAction(task, start, middle, chunkSize),
+						new ChunkAction(task, middle, end, chunkSize));
+			}
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package edu.bsu.julia.gui;
+
+import java.awt.Frame;
+
+/**
+ * an {@link ErrorSink} that shows each error in a dialog window
+ * 
+ */
+public class DialogErrorSink implements ErrorSink {
+	private final Frame parentFrame;
+
+	/**
+	 * constructor for {@link DialogErrorSink}
+	 * 
+	 * @param frame
+	 *            the parent Frame in which to show the dialog windows, may be
+	 *            null
+	 */
+	public DialogErrorSink(Frame frame) {
+		parentFrame = frame;
+	}
+
+	public void reportError(JuliaError error) {
+		error.showDialog(parentFrame);
+	}
+}
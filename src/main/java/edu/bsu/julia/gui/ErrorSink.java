@@ -0,0 +1,17 @@
+package edu.bsu.julia.gui;
+
+/**
+ * something that reports {@link JuliaError}s to the user. In the GUI the
+ * errors are shown in dialog windows (see {@link DialogErrorSink}), when Julia
+ * runs without a display they are written to the console.
+ * 
+ */
+public interface ErrorSink {
+	/**
+	 * report an error
+	 * 
+	 * @param error
+	 *            the {@link JuliaError} that occurred
+	 */
+	public void reportError(JuliaError error);
+}
@@ -1,5 +1,8 @@
 package edu.bsu.julia.gui;
 
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
@@ -10,33 +13,85 @@ import java.awt.event.MouseWheelListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.swing.DefaultListModel;
 import javax.swing.JList;
+import javax.swing.Timer;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 
+import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GLAutoDrawable;
 import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.glu.GLU;
+import com.jogamp.opengl.util.awt.TextRenderer;
 import org.apache.commons.math.complex.Complex;
 import edu.bsu.julia.Julia;
 import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.precision.DoubleDouble;
 
 public class GLListener implements GLEventListener, ListSelectionListener,
 		PropertyChangeListener, MouseWheelListener, KeyListener,
 		MouseMotionListener, MouseListener {
 
 	public final double ZOOM_CONSTANT = 1.25;
+	// the fraction of the view added on each side of the cached points
+	private static final double CACHE_MARGIN = 0.25;
+	// how far the view can zoom from the cached points before they are drawn
+	// again, as a ratio of the size of their pixels to the screen's
+	private static final double CACHE_ZOOM = 2;
+	// milliseconds without panning or zooming before the interaction ends
+	private static final int SETTLE_DELAY = 250;
+	// milliseconds at rest before the cached points are drawn again
+	private static final int REFRESH_DELAY = 500;
+	// the bytes sent for a point by glVertex2d
+	private static final int VERTEX_BYTES = 16;
+	// the height of a line of the statistics overlay in pixels
+	private static final int OVERLAY_LINE = 15;
+	// the size of the view relative to its coordinates below which the
+	// points are drawn relative to the view, since OpenGL may transform
+	// vertices in single precision
+	private static final double RELATIVE_LIMIT = 1e-4;
 	private Julia parentFrame;
 	private OutputSet[] sets;
 	private double x, y, width, height, paneWidth, paneHeight, dragX, dragY;
+	// the low parts of the view's corner, so it can be panned and zoomed past
+	// the precision of a double to look at sets made in extended precision
+	private double xLow, yLow;
 	private boolean enabled, unsized, dragInProgress;
 	private boolean axisEnabled;
 	private PropertyChangeSupport support = new PropertyChangeSupport(this);
 	private boolean grilEnabled;
 
+	// while the view is being panned or zoomed the points are drawn from an
+	// offscreen framebuffer holding them for a region a little larger than
+	// the view, which only needs a textured quad each frame. once the view
+	// settles the points are drawn directly again and the framebuffer is
+	// drawn again for the new view
+	private boolean interacting;
+	private boolean cacheStale = true;
+	private boolean refreshCache;
+	// set if the framebuffer can't be made, the points are always drawn
+	private boolean cacheFailed;
+	private int[] cacheFramebuffer;
+	private int[] cacheTexture;
+	private int cacheWidth, cacheHeight;
+	// {x, y, width, height} of the cached region, the same and the low parts
+	// of the corner of the view it was drawn for, and the corner of the
+	// region in full
+	private double[] cacheRegion;
+	private double[] cacheView;
+	private DoubleDouble cacheLeft, cacheBottom;
+	private final Timer settleTimer;
+	private final Timer refreshTimer;
+
+	private final RenderStats stats = new RenderStats();
+	private TextRenderer overlay;
+
 	public GLListener(Julia f) {
 		parentFrame = f;
 		parentFrame.addListener(this);
@@ -45,25 +100,258 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 		dragInProgress = false;
 		grilEnabled = false;
 		enabled = true;
+
+		settleTimer = new Timer(SETTLE_DELAY, new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				interacting = false;
+				parentFrame.repaint();
+			}
+		});
+		settleTimer.setRepeats(false);
+		refreshTimer = new Timer(REFRESH_DELAY, new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				refreshCache = true;
+				parentFrame.repaint();
+			}
+		});
+		refreshTimer.setRepeats(false);
 	}
 
 	public void display(GLAutoDrawable drawable) {
+		long frameStart = System.nanoTime();
 		GL2 gl = drawable.getGL().getGL2();
 		GLU glu = new GLU();
+		boolean cacheable = !cacheFailed && gl.hasBasicFBOSupport();
+		long uploadNanos = 0;
+		if (cacheable && (refreshCache || (interacting && !cacheCovers()))) {
+			long start = System.nanoTime();
+			renderCache(gl, drawable);
+			uploadNanos = System.nanoTime() - start;
+			refreshCache = false;
+		}
+
 		gl.glClear(GL2.GL_COLOR_BUFFER_BIT);
 		gl.glMatrixMode(GL2.GL_PROJECTION);
 		gl.glLoadIdentity();
 		glu.gluOrtho2D(x, x + width, y, y + height);
+		long start = System.nanoTime();
 		axisEnabled = parentFrame.getAxisTrigger();
 		if (axisEnabled) {
 			drawAxes(gl);
 		}
+		long axesNanos = System.nanoTime() - start;
+		start = System.nanoTime();
 		grilEnabled = parentFrame.getGrilTrigger();
 		if (grilEnabled) {
 			drawGril(gl);
 		}
-		drawFunctions(gl);
+		long gridNanos = System.nanoTime() - start;
+		start = System.nanoTime();
+		boolean fromCache = interacting && cacheCovers();
+		if (fromCache)
+			drawCache(gl);
+		else
+			drawFunctions(gl, getLeft(), getBottom(), width, height);
+		long pointsNanos = System.nanoTime() - start;
 		gl.glFlush();
+		stats.recordFrame(System.nanoTime() - frameStart, axesNanos,
+				gridNanos, uploadNanos, pointsNanos, fromCache);
+		if (parentFrame.getStatsTrigger())
+			drawOverlay(drawable);
+
+		// draw the cache again for the view once it has been still a while
+		if (cacheable && !interacting && !cacheMatchesView())
+			refreshTimer.restart();
+	}
+
+	/**
+	 * write the statistics in the top left corner of the graph
+	 */
+	private void drawOverlay(GLAutoDrawable drawable) {
+		if (overlay == null)
+			overlay = new TextRenderer(new Font(Font.MONOSPACED, Font.PLAIN,
+					12));
+		int surfaceHeight = drawable.getSurfaceHeight();
+		overlay.beginRendering(drawable.getSurfaceWidth(), surfaceHeight);
+		overlay.setColor(0.8f, 0.0f, 0.0f, 1.0f);
+		List<String> lines = stats.overlayLines();
+		for (int i = 0; i < lines.size(); i++)
+			overlay.draw(lines.get(i), 5, surfaceHeight - OVERLAY_LINE
+					* (i + 1));
+		overlay.endRendering();
+	}
+
+	/**
+	 * @return the frame times and point counts of this graph
+	 */
+	public RenderStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * start or continue an interaction, the view is drawn from the cache
+	 * until it has been still for {@link #SETTLE_DELAY}
+	 */
+	private void interact() {
+		interacting = true;
+		refreshTimer.stop();
+		settleTimer.restart();
+	}
+
+	/**
+	 * @return true if the cache holds the current points for a region
+	 *         around the view at about the view's size of pixel
+	 */
+	private boolean cacheCovers() {
+		if (cacheStale || cacheRegion == null)
+			return false;
+		double[] r = cacheRegion;
+		double left = getLeft().subtract(cacheLeft).doubleValue();
+		double bottom = getBottom().subtract(cacheBottom).doubleValue();
+		if (left < 0 || bottom < 0 || left + width > r[2]
+				|| bottom + height > r[3])
+			return false;
+		double texel = r[2] / cacheWidth;
+		double pixel = width / paneWidth;
+		return texel <= pixel * CACHE_ZOOM && texel >= pixel / CACHE_ZOOM;
+	}
+
+	/**
+	 * @return true if the cache was drawn for the current view
+	 */
+	private boolean cacheMatchesView() {
+		return !cacheStale && cacheView != null && cacheView[0] == x
+				&& cacheView[1] == y && cacheView[2] == width
+				&& cacheView[3] == height && cacheView[4] == xLow
+				&& cacheView[5] == yLow;
+	}
+
+	/**
+	 * draw the points into the offscreen framebuffer for a region around the
+	 * view
+	 */
+	private void renderCache(GL2 gl, GLAutoDrawable drawable) {
+		int[] maxSize = new int[1];
+		gl.glGetIntegerv(GL.GL_MAX_TEXTURE_SIZE, maxSize, 0);
+		int w = Math.min(maxSize[0], (int) Math.ceil(paneWidth
+				* (1 + 2 * CACHE_MARGIN)));
+		int h = Math.min(maxSize[0], (int) Math.ceil(paneHeight
+				* (1 + 2 * CACHE_MARGIN)));
+		if (w <= 0 || h <= 0)
+			return;
+		if (cacheFramebuffer == null || w != cacheWidth || h != cacheHeight) {
+			deleteCache(gl);
+			cacheTexture = new int[1];
+			gl.glGenTextures(1, cacheTexture, 0);
+			gl.glBindTexture(GL.GL_TEXTURE_2D, cacheTexture[0]);
+			gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER,
+					GL.GL_LINEAR);
+			gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER,
+					GL.GL_LINEAR);
+			gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_S,
+					GL.GL_CLAMP_TO_EDGE);
+			gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_T,
+					GL.GL_CLAMP_TO_EDGE);
+			gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_RGBA, w, h, 0,
+					GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, null);
+			gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+
+			cacheFramebuffer = new int[1];
+			gl.glGenFramebuffers(1, cacheFramebuffer, 0);
+			gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, cacheFramebuffer[0]);
+			gl.glFramebufferTexture2D(GL.GL_FRAMEBUFFER,
+					GL.GL_COLOR_ATTACHMENT0, GL.GL_TEXTURE_2D,
+					cacheTexture[0], 0);
+			int status = gl.glCheckFramebufferStatus(GL.GL_FRAMEBUFFER);
+			gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, drawable.getContext()
+					.getDefaultDrawFramebuffer());
+			cacheWidth = w;
+			cacheHeight = h;
+			if (status != GL.GL_FRAMEBUFFER_COMPLETE) {
+				deleteCache(gl);
+				cacheFailed = true;
+				return;
+			}
+			stats.setCacheBytes(4L * w * h);
+		}
+
+		// the region has the shape of the framebuffer with the view in the
+		// middle
+		double regionWidth = width * w / paneWidth;
+		double regionHeight = height * h / paneHeight;
+		cacheLeft = getLeft().add(width / 2 - regionWidth / 2);
+		cacheBottom = getBottom().add(height / 2 - regionHeight / 2);
+		cacheRegion = new double[] { cacheLeft.doubleValue(),
+				cacheBottom.doubleValue(), regionWidth, regionHeight };
+		cacheView = new double[] { x, y, width, height, xLow, yLow };
+
+		GLU glu = new GLU();
+		gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, cacheFramebuffer[0]);
+		gl.glViewport(0, 0, w, h);
+		// transparent so the axes and grid drawn under the points show
+		gl.glClearColor(1.0f, 1.0f, 1.0f, 0.0f);
+		gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+		gl.glMatrixMode(GL2.GL_PROJECTION);
+		gl.glLoadIdentity();
+		glu.gluOrtho2D(cacheRegion[0], cacheRegion[0] + regionWidth,
+				cacheRegion[1], cacheRegion[1] + regionHeight);
+		drawFunctions(gl, cacheLeft, cacheBottom, regionWidth, regionHeight);
+		gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, drawable.getContext()
+				.getDefaultDrawFramebuffer());
+		gl.glViewport(0, 0, drawable.getSurfaceWidth(), drawable
+				.getSurfaceHeight());
+		gl.glClearColor(1.0f, 1.0f, 1.0f, 1.0f);
+		cacheStale = false;
+	}
+
+	/**
+	 * draw the cached points as a quad over their region. The quad is placed
+	 * relative to the view so it lines up at any depth of zoom.
+	 */
+	private void drawCache(GL2 gl) {
+		double left = cacheLeft.subtract(getLeft()).doubleValue() / width;
+		double bottom = cacheBottom.subtract(getBottom()).doubleValue()
+				/ height;
+		double right = left + cacheRegion[2] / width;
+		double top = bottom + cacheRegion[3] / height;
+		gl.glMatrixMode(GL2.GL_PROJECTION);
+		gl.glPushMatrix();
+		gl.glLoadIdentity();
+		new GLU().gluOrtho2D(0, 1, 0, 1);
+		gl.glEnable(GL.GL_TEXTURE_2D);
+		gl.glBindTexture(GL.GL_TEXTURE_2D, cacheTexture[0]);
+		gl.glTexEnvi(GL2.GL_TEXTURE_ENV, GL2.GL_TEXTURE_ENV_MODE,
+				GL2.GL_REPLACE);
+		gl.glEnable(GL.GL_BLEND);
+		gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+		gl.glBegin(GL2.GL_QUADS);
+		gl.glTexCoord2f(0, 0);
+		gl.glVertex2d(left, bottom);
+		gl.glTexCoord2f(1, 0);
+		gl.glVertex2d(right, bottom);
+		gl.glTexCoord2f(1, 1);
+		gl.glVertex2d(right, top);
+		gl.glTexCoord2f(0, 1);
+		gl.glVertex2d(left, top);
+		gl.glEnd();
+		gl.glDisable(GL.GL_BLEND);
+		gl.glBindTexture(GL.GL_TEXTURE_2D, 0);
+		gl.glDisable(GL.GL_TEXTURE_2D);
+		gl.glPopMatrix();
+	}
+
+	private void deleteCache(GL2 gl) {
+		if (cacheFramebuffer != null)
+			gl.glDeleteFramebuffers(1, cacheFramebuffer, 0);
+		if (cacheTexture != null)
+			gl.glDeleteTextures(1, cacheTexture, 0);
+		cacheFramebuffer = null;
+		cacheTexture = null;
+		cacheRegion = null;
+		cacheView = null;
+		cacheLeft = null;
+		cacheBottom = null;
+		stats.setCacheBytes(0);
 	}
 
 	public void displayChanged(GLAutoDrawable arg0, boolean arg1, boolean arg2) {
@@ -72,9 +360,18 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 	public void init(GLAutoDrawable drawable) {
 		GL2 gl = drawable.getGL().getGL2();
 		gl.glClearColor(1.0f, 1.0f, 1.0f, 1.0f);
+		stats.register();
 	}
 
 	public void dispose(GLAutoDrawable drawable) {
+		settleTimer.stop();
+		refreshTimer.stop();
+		deleteCache(drawable.getGL().getGL2());
+		if (overlay != null) {
+			overlay.dispose();
+			overlay = null;
+		}
+		stats.unregister();
 	}
 
 	public void reshape(GLAutoDrawable arg0, int xPane, int yPane,
@@ -83,16 +380,17 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 				.getWidth();
 		int newPaneHeight = parentFrame.getTabbedPane().getActivePane()
 				.getHeight();
-		setX(x + width / 2);
-		setY(y + height / 2);
+		double oldWidth = width;
+		double oldHeight = height;
 
 		setHeight((height * newPaneHeight) / paneHeight);
 		setWidth((width * newPaneWidth) / paneWidth);
 		setPaneHeight(newPaneHeight);
 		setPaneWidth(newPaneWidth);
+		cacheStale = true;
 
-		setX(x - width / 2);
-		setY(y - height / 2);
+		// keep the centre of the view where it was
+		moveBy((oldWidth - width) / 2, (oldHeight - height) / 2);
 		parentFrame.repaint();
 	}
 
@@ -186,11 +484,39 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 		gl.glEnd();
 	}
 
-	private void drawFunctions(GL2 gl) {
+	/**
+	 * draw the points of the selected sets. When the region is small next to
+	 * its coordinates the points are drawn relative to its corner, with the
+	 * low parts of sets made in extended precision, so they land on the
+	 * right pixels however far the view is zoomed in.
+	 *
+	 * @param left
+	 *            the left of the region being drawn
+	 * @param bottom
+	 *            the bottom of the region being drawn
+	 * @param w
+	 *            the width of the region
+	 * @param h
+	 *            the height of the region
+	 */
+	private void drawFunctions(GL2 gl, DoubleDouble left, DoubleDouble bottom,
+			double w, double h) {
 		if (sets == null)
 			return;
+		double magnitude = Math.max(Math.abs(left.doubleValue()), Math
+				.abs(bottom.doubleValue()));
+		boolean relative = Math.min(w, h) < magnitude * RELATIVE_LIMIT;
+		if (relative) {
+			gl.glMatrixMode(GL2.GL_PROJECTION);
+			gl.glPushMatrix();
+			gl.glLoadIdentity();
+			new GLU().gluOrtho2D(0, 1, 0, 1);
+		}
 		int dSize = parentFrame.getDotSize();
 		gl.glPointSize(dSize);
+		long count = 0;
+		long inView = 0;
+		Map<String, Long> bytes = new LinkedHashMap<String, Long>();
 		for (int i = 0; i < sets.length; i++) {
 			OutputSet set = sets[i];
 			if (set != null && set.isLoaded()) {
@@ -198,13 +524,44 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 				set.getColor().getColorComponents(colorArray);
 				gl.glColor3f(colorArray[0], colorArray[1], colorArray[2]);
 
+				long setCount = 0;
+				Complex[] points = set.getPoints();
+				double[] residuals = relative ? set.getResiduals() : null;
 				gl.glBegin(GL2.GL_POINTS);
-				for (Complex point : set.getPoints())
-					if (point != null)
-						gl.glVertex2d(point.getReal(), point.getImaginary());
+				for (int j = 0; j < points.length; j++) {
+					Complex point = points[j];
+					if (point == null)
+						continue;
+					double re = point.getReal();
+					double im = point.getImaginary();
+					if (relative) {
+						// the difference of the high parts is exact this
+						// close to the corner
+						re = ((re - left.getHigh()) - left.getLow()) / w;
+						im = ((im - bottom.getHigh()) - bottom.getLow()) / h;
+						if (residuals != null) {
+							re += residuals[2 * j] / w;
+							im += residuals[2 * j + 1] / h;
+						}
+						gl.glVertex2d(re, im);
+						if (re >= 0 && re <= 1 && im >= 0 && im <= 1)
+							inView++;
+					} else {
+						gl.glVertex2d(re, im);
+						if (re >= x && re <= x + width && im >= y
+								&& im <= y + height)
+							inView++;
+					}
+					setCount++;
+				}
 				gl.glEnd();
+				count += setCount;
+				bytes.put("o" + set.getSubscript(), setCount * VERTEX_BYTES);
 			}
 		}
+		stats.recordPoints(count, inView, bytes);
+		if (relative)
+			gl.glPopMatrix();
 	}
 
 	public void addListener(PropertyChangeListener l) {
@@ -221,6 +578,7 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 
 	public void setX(double xValue) {
 		x = xValue;
+		xLow = 0;
 		support.firePropertyChange("x", null, x);
 	}
 
@@ -230,9 +588,37 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 
 	public void setY(double yValue) {
 		y = yValue;
+		yLow = 0;
 		support.firePropertyChange("y", null, y);
 	}
 
+	/**
+	 * @return the left of the view in full precision
+	 */
+	public DoubleDouble getLeft() {
+		return DoubleDouble.valueOf(x, xLow);
+	}
+
+	/**
+	 * @return the bottom of the view in full precision
+	 */
+	public DoubleDouble getBottom() {
+		return DoubleDouble.valueOf(y, yLow);
+	}
+
+	/**
+	 * move the corner of the view by an amount, keeping the low parts of its
+	 * coordinates
+	 */
+	private void moveBy(double dx, double dy) {
+		DoubleDouble left = getLeft().add(dx);
+		DoubleDouble bottom = getBottom().add(dy);
+		setX(left.getHigh());
+		xLow = left.getLow();
+		setY(bottom.getHigh());
+		yLow = bottom.getLow();
+	}
+
 	public double getHeight() {
 		return height;
 	}
@@ -288,22 +674,20 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 	}
 
 	public void zoomIn() {
-		x = x + width / 2;
-		y = y + height / 2;
+		double oldWidth = width;
+		double oldHeight = height;
 		setWidth(width / ZOOM_CONSTANT);
 		setHeight(height / ZOOM_CONSTANT);
-		setX(x - width / 2);
-		setY(y - height / 2);
+		moveBy((oldWidth - width) / 2, (oldHeight - height) / 2);
 		parentFrame.repaint();
 	}
 
 	public void zoomOut() {
-		x = x + width / 2;
-		y = y + height / 2;
+		double oldWidth = width;
+		double oldHeight = height;
 		setWidth(width * ZOOM_CONSTANT);
 		setHeight(height * ZOOM_CONSTANT);
-		setX(x - width / 2);
-		setY(y - height / 2);
+		moveBy((oldWidth - width) / 2, (oldHeight - height) / 2);
 		parentFrame.repaint();
 	}
 
@@ -340,6 +724,8 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 		if (!enabled)
 			return;
 		int direction = event.getWheelRotation();
+		if (direction != 0)
+			interact();
 		// + is scrolling towards the user
 		// - is scrolling away from the user
 		if (direction < 0) {
@@ -361,6 +747,8 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 			sets[i] = set;
 			set.addListener(this);
 		}
+		parentFrame.getCurrentSession().getMemoryManager().setViewed(sets);
+		cacheStale = true;
 		support.firePropertyChange("sets", null, sets);
 		parentFrame.repaint();
 	}
@@ -368,10 +756,17 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 	public void propertyChange(PropertyChangeEvent event) {
 		String name = event.getPropertyName();
 		if (name.equals("Color")) {
+			cacheStale = true;
 			parentFrame.repaint();
 			support.firePropertyChange("sets", null, sets);
 		} else if (name.equals("dotSize")) {
+			cacheStale = true;
+			parentFrame.repaint();
+		} else if (name.equals("statsTrigger")) {
 			parentFrame.repaint();
+		} else if (name.equals("reselect")) {
+			// a set's points were loaded
+			cacheStale = true;
 		}
 	}
 
@@ -382,26 +777,30 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 		case KeyEvent.VK_DOWN:
 		case KeyEvent.VK_KP_DOWN:
 		case KeyEvent.VK_D:
+			interact();
 			yMove = height / 10;
-			setY(y - yMove);
+			moveBy(0, -yMove);
 			break;
 		case KeyEvent.VK_RIGHT:
 		case KeyEvent.VK_KP_RIGHT:
 		case KeyEvent.VK_R:
+			interact();
 			xMove = width / 10;
-			setX(x + xMove);
+			moveBy(xMove, 0);
 			break;
 		case KeyEvent.VK_LEFT:
 		case KeyEvent.VK_KP_LEFT:
 		case KeyEvent.VK_L:
+			interact();
 			xMove = width / 10;
-			setX(x - xMove);
+			moveBy(-xMove, 0);
 			break;
 		case KeyEvent.VK_UP:
 		case KeyEvent.VK_KP_UP:
 		case KeyEvent.VK_U:
+			interact();
 			yMove = height / 10;
-			setY(y + yMove);
+			moveBy(0, yMove);
 		}
 		parentFrame.repaint();
 	}
@@ -415,10 +814,15 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 	public void mouseDragged(MouseEvent e) {
 		if (!dragInProgress)
 			return;
-		double newX = (e.getX() * width / paneWidth) + x;
-		double newY = ((paneHeight - e.getY()) * height / paneHeight) + y;
-		setX(x - newX + dragX);
-		setY(y - newY + dragY);
+		interact();
+		// the drag is followed in pixels so the view moves by a small
+		// difference even when its coordinates are large
+		double newX = e.getX();
+		double newY = paneHeight - e.getY();
+		moveBy((dragX - newX) * width / paneWidth, (dragY - newY) * height
+				/ paneHeight);
+		dragX = newX;
+		dragY = newY;
 		parentFrame.repaint();
 	}
 
@@ -427,10 +831,9 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 
 	public void mouseClicked(MouseEvent e) {
 		if (e.getClickCount() == 2) {
-			double newX = (e.getX() * width / paneWidth) + x;
-			double newY = ((paneHeight - e.getY()) * height / paneHeight) + y;
-			setX(newX - width / 2);
-			setY(newY - height / 2);
+			double newX = e.getX() * width / paneWidth;
+			double newY = (paneHeight - e.getY()) * height / paneHeight;
+			moveBy(newX - width / 2, newY - height / 2);
 			parentFrame.repaint();
 		}
 	}
@@ -442,8 +845,8 @@ public class GLListener implements GLEventListener, ListSelectionListener,
 	}
 
 	public void mousePressed(MouseEvent e) {
-		dragX = (e.getX() * width / paneWidth) + x;
-		dragY = ((paneHeight - e.getY()) * height / paneHeight) + y;
+		dragX = e.getX();
+		dragY = paneHeight - e.getY();
 		dragInProgress = true;
 	}
 
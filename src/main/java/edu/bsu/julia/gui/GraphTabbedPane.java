@@ -1,5 +1,7 @@
 package edu.bsu.julia.gui;
 
+import java.awt.Component;
+
 import javax.swing.JTabbedPane;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -31,13 +33,47 @@ public class GraphTabbedPane extends JTabbedPane implements ChangeListener {
 		return activePane;
 	}
 
+	/**
+	 * select the graph tab of the active pane
+	 */
+	public void showActivePane() {
+		setSelectedComponent(activePane);
+	}
+
+	/**
+	 * @return the number of tabs with a {@link GraphScrollPane}
+	 */
+	public int getGraphTabCount() {
+		int count = 0;
+		for (int i = 0; i < getTabCount(); i++)
+			if (getComponentAt(i) instanceof GraphScrollPane)
+				count++;
+		return count;
+	}
+
 	public void stateChanged(ChangeEvent event) {
 		if (activePane != null)
 			activePane.getGLListener().disable();
+
+		// other tabs (like parameter space maps) have no GLListener. the last
+		// graph stays the active pane so the graph actions still have one
+		Component selected = getSelectedComponent();
+		if (!(selected instanceof GraphScrollPane)) {
+			if (indexOfComponent(activePane) < 0)
+				for (int i = 0; i < getTabCount(); i++)
+					if (getComponentAt(i) instanceof GraphScrollPane) {
+						parentFrame.removeKeyListener(activePane
+								.getGLListener());
+						activePane = (GraphScrollPane) getComponentAt(i);
+						parentFrame.addKeyListener(activePane.getGLListener());
+						break;
+					}
+			return;
+		}
+
 		if (parentFrame.getKeyListeners().length > 0)
 			parentFrame.removeKeyListener(activePane.getGLListener());
-		activePane = (GraphScrollPane) getComponentAt(getModel()
-				.getSelectedIndex());
+		activePane = (GraphScrollPane) selected;
 		activePane.getGLListener().enable();
 		parentFrame.addKeyListener(activePane.getGLListener());
 		if (activePane.getGLListener().isUnsized()) {
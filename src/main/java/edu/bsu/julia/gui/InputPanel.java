@@ -37,6 +37,7 @@ import edu.bsu.julia.gui.actions.CreateCompositeIndAction;
 import edu.bsu.julia.gui.actions.DeleteInputAction;
 import edu.bsu.julia.gui.actions.DeleteSelectedAction;
 import edu.bsu.julia.gui.actions.EditFunctionAction;
+import edu.bsu.julia.gui.actions.ParameterSpaceAction;
 import edu.bsu.julia.gui.actions.PostCriticalAction;
 import edu.bsu.julia.input.InputFunction;
 import edu.bsu.julia.session.Session;
@@ -87,6 +88,8 @@ public class InputPanel extends JPanel implements PropertyChangeListener {
 				popup
 						.add(new CopyFunctionAction(parentFrame, listModel,
 								index));
+				popup.add(new ParameterSpaceAction(parentFrame, listModel,
+						index));
 				popup.addSeparator();
 				popup
 						.add(new DeleteSelectedAction(parentFrame,
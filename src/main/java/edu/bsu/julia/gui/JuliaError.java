@@ -53,6 +53,9 @@ public enum JuliaError {
 	T_INTEGER_ERROR("T values must be positive " + "\ninteger values.",
 			"Number Format Error"),
 
+	PARAMETER_ERROR("A function of this type cannot\n"
+			+ "have that coefficient.", "Illegal Coefficient Error"),
+
 	OUT_OF_MEMORY("Julia is running out of memory.\n"
 			+ "Delete any unneeded output sets and try again.",
 			"Out Of Memory Error");
@@ -73,6 +76,20 @@ public enum JuliaError {
 		this.title = title;
 	}
 
+	/**
+	 * @return the String error message
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @return the String error title
+	 */
+	public String getTitle() {
+		return title;
+	}
+
 	/**
 	 * show the error message dialog window
 	 * 
@@ -1,6 +1,7 @@
 package edu.bsu.julia.gui;
 
 import java.awt.Checkbox;
+import java.awt.Choice;
 import java.awt.FlowLayout;
 import java.awt.Point;
 import java.awt.event.ActionEvent;
@@ -11,9 +12,12 @@ import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JSlider;
+import javax.swing.JTextField;
 import javax.swing.SwingConstants;
 
 import edu.bsu.julia.Julia;
+import edu.bsu.julia.output.OutputSetCache;
+import edu.bsu.julia.precision.ExtendedPrecision;
 
 public class OptionsDialog extends JDialog implements ActionListener {
 
@@ -22,6 +26,16 @@ public class OptionsDialog extends JDialog implements ActionListener {
 			10, 0);
 	private Checkbox axisTriggerCheckBox = new Checkbox("On/Off", true);
 	private Checkbox grilTriggerCheckBox = new Checkbox("On/Off", false);
+	private Checkbox warmStartCheckBox = new Checkbox("On/Off", true);
+	private Checkbox convergenceCheckBox = new Checkbox("On/Off", false);
+	private Checkbox statsCheckBox = new Checkbox("On/Off", false);
+	private Checkbox compressCheckBox = new Checkbox("On/Off", true);
+	private Checkbox diskCacheCheckBox = new Checkbox("On/Off", false);
+	private JTextField diskCacheField = new JTextField(5);
+	private JTextField toleranceField = new JTextField(5);
+	private Choice precisionChoice = new Choice();
+
+	private static final long MEGABYTE = 1024 * 1024;
 
 	// for serializable interface: do not use
 	public static final long serialVersionUID = 0;
@@ -62,6 +76,63 @@ public class OptionsDialog extends JDialog implements ActionListener {
 		grilTriggerCheckBox.setSize(1, 1);
 		grilTriggerCheckBox.setState(parentFrame.getGrilTrigger());
 		add(grilTriggerCheckBox);
+		// Warm start checkBox label
+		JLabel warmStartCheckboxLabel = new JLabel(
+				"Start random sets from similar sets", JLabel.LEFT);
+		add(warmStartCheckboxLabel);
+		// Warm start checkBox
+		warmStartCheckBox.setSize(1, 1);
+		warmStartCheckBox.setState(parentFrame.getWarmStartTrigger());
+		add(warmStartCheckBox);
+		// Convergence checkBox label
+		JLabel convergenceCheckboxLabel = new JLabel(
+				"Stop random sets when they stop filling in", JLabel.LEFT);
+		add(convergenceCheckboxLabel);
+		// Convergence checkBox
+		convergenceCheckBox.setSize(1, 1);
+		convergenceCheckBox.setState(parentFrame.getConvergenceTrigger());
+		add(convergenceCheckBox);
+		// Tolerance field, shown as a percent
+		add(new JLabel("New cells tolerance (%)", JLabel.LEFT));
+		toleranceField.setText(String.valueOf(parentFrame
+				.getConvergenceTolerance() * 100));
+		add(toleranceField);
+		// Frame statistics checkBox label
+		JLabel statsCheckboxLabel = new JLabel(
+				"Show frame statistics on the graph", JLabel.LEFT);
+		add(statsCheckboxLabel);
+		// Frame statistics checkBox
+		statsCheckBox.setSize(1, 1);
+		statsCheckBox.setState(parentFrame.getStatsTrigger());
+		add(statsCheckBox);
+		// Compress checkBox label
+		JLabel compressCheckboxLabel = new JLabel(
+				"Compress points in saved sessions", JLabel.LEFT);
+		add(compressCheckboxLabel);
+		// Compress checkBox
+		compressCheckBox.setSize(1, 1);
+		compressCheckBox.setState(parentFrame.getCompressTrigger());
+		add(compressCheckBox);
+		// Disk cache checkBox label
+		JLabel diskCacheCheckboxLabel = new JLabel(
+				"Keep generated sets on disk", JLabel.LEFT);
+		add(diskCacheCheckboxLabel);
+		// Disk cache checkBox
+		OutputSetCache cache = OutputSetCache.getInstance();
+		diskCacheCheckBox.setSize(1, 1);
+		diskCacheCheckBox.setState(cache.isDiskEnabled());
+		add(diskCacheCheckBox);
+		// Disk cache size field, shown in megabytes
+		add(new JLabel("Disk cache size (MB)", JLabel.LEFT));
+		diskCacheField.setText(String.valueOf(cache.getMaxDiskBytes()
+				/ MEGABYTE));
+		add(diskCacheField);
+		// Precision choice
+		add(new JLabel("Precision for deep zooms", JLabel.LEFT));
+		for (ExtendedPrecision.Mode mode : ExtendedPrecision.Mode.values())
+			precisionChoice.add(mode.description());
+		precisionChoice.select(parentFrame.getPrecisionMode().ordinal());
+		add(precisionChoice);
 
 		// Ok Button
 		JButton okButton = new JButton("Ok");
@@ -78,10 +149,10 @@ public class OptionsDialog extends JDialog implements ActionListener {
 		});
 		add(cancelButton);
 		// size and location
-		setSize(230, 230);
+		setSize(260, 400);
 		Point p = getLocation();
-		p.x = p.x - 110;
-		p.y = p.y - 125;
+		p.x = p.x - 130;
+		p.y = p.y - 170;
 		setLocation(p);
 		setVisible(true);
 	}
@@ -91,12 +162,29 @@ public class OptionsDialog extends JDialog implements ActionListener {
 		boolean a = true;
 		boolean g = false;
 		try {
+			double tolerance = Double.parseDouble(toleranceField.getText()) / 100;
+			if (tolerance < 0 || Double.isNaN(tolerance))
+				throw new NumberFormatException();
+			long diskCacheSize = Long.parseLong(diskCacheField.getText()
+					.trim());
+			if (diskCacheSize < 0 || diskCacheSize > Long.MAX_VALUE / MEGABYTE)
+				throw new NumberFormatException();
 			v = dotSizeslider.getValue();
 			parentFrame.setDotSize(v);
 			a = axisTriggerCheckBox.getState();
 			parentFrame.setAxisTrigger(a);
 			g = grilTriggerCheckBox.getState();
 			parentFrame.setGrilTrigger(g);
+			parentFrame.setWarmStartTrigger(warmStartCheckBox.getState());
+			parentFrame.setConvergenceTolerance(tolerance);
+			parentFrame.setConvergenceTrigger(convergenceCheckBox.getState());
+			parentFrame.setStatsTrigger(statsCheckBox.getState());
+			parentFrame.setCompressTrigger(compressCheckBox.getState());
+			OutputSetCache cache = OutputSetCache.getInstance();
+			cache.setMaxDiskBytes(diskCacheSize * MEGABYTE);
+			cache.setDiskEnabled(diskCacheCheckBox.getState());
+			parentFrame.setPrecisionMode(ExtendedPrecision.Mode.values()[precisionChoice
+					.getSelectedIndex()]);
 			setVisible(false);
 			dispose();
 			return;
@@ -24,6 +24,7 @@ import edu.bsu.julia.gui.actions.CancelOutputAction;
 import edu.bsu.julia.gui.actions.ChangeColorAction;
 import edu.bsu.julia.gui.actions.DeleteOutputAction;
 import edu.bsu.julia.gui.actions.DeleteSelectedAction;
+import edu.bsu.julia.gui.actions.DimensionAction;
 import edu.bsu.julia.gui.actions.ForwardImageAction;
 import edu.bsu.julia.gui.actions.InverseAction;
 import edu.bsu.julia.gui.actions.PropertiesAction;
@@ -74,6 +75,8 @@ public class OutputPanel extends JPanel implements PropertyChangeListener {
 				popup.add(new SaveSetAction(parentFrame, set));
 				popup.addSeparator();
 				popup.add(new PropertiesAction(parentFrame, set));
+				if (set.isLoaded())
+					popup.add(new DimensionAction(parentFrame, set));
 				popup.addSeparator();
 				popup.add(new DeleteSelectedAction(parentFrame,
 						Julia.OUTPUTTYPE));
@@ -1,24 +1,46 @@
 package edu.bsu.julia.gui;
 
+import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 
 import javax.swing.JDialog;
 import javax.swing.JFrame;
+import javax.swing.SwingWorker;
 
 import com.jogamp.opengl.*;
 import com.jogamp.opengl.awt.GLJPanel;
 import com.jogamp.opengl.glu.GLU;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureCoords;
+import com.jogamp.opengl.util.texture.awt.AWTTextureIO;
 import org.apache.commons.math.complex.Complex;
 import edu.bsu.julia.Julia;
 import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.OutputSetRenderer;
 
+/**
+ * the overview window, a view five times larger than the graph with a box
+ * around the part the graph shows. The points are not drawn every frame:
+ * they are drawn once into an image of a part of the plane around the
+ * overview by an {@link OutputSetRenderer} in the background, and each frame
+ * only draws that image as a texture. The image is drawn again when the sets
+ * change or the overview moves out of it or zooms far enough that its pixels
+ * no longer match the overview's.
+ */
 public class OverviewListener implements GLEventListener,
         PropertyChangeListener, MouseListener, MouseMotionListener {
+    // the cached image covers this many overviews along each side
+    private static final int CACHE_SCALE = 3;
+    // how far the size of a pixel of the image can be from the size of a
+    // pixel of the overview before it is drawn again
+    private static final double CACHE_ZOOM = 2;
+
     private Julia parentFrame;
     private double x, y, width, height, boxX, boxY, boxWidth, boxHeight,
             paneHeight, paneWidth, boxPHeight, boxPWidth, dragX, dragY;
@@ -26,6 +48,14 @@ public class OverviewListener implements GLEventListener,
     private JDialog frame;
     private GLListener list;
     private boolean dragInProgress;
+    private Texture texture;
+    // {x, y, width, height} of the part of the plane the texture covers
+    private double[] textureRegion;
+    // a finished image waiting to be made into the texture
+    private BufferedImage image;
+    private double[] imageRegion;
+    private SwingWorker<BufferedImage, Void> cacheRenderer;
+    private boolean cacheStale = true;
 
     public OverviewListener(Julia f) {
         parentFrame = f;
@@ -69,11 +99,46 @@ public class OverviewListener implements GLEventListener,
     public void display(GLAutoDrawable drawable) {
         GL2 gl = drawable.getGL().getGL2();
         GLU glu = new GLU();
+        if (image != null) {
+            if (texture != null)
+                texture.destroy(gl);
+            texture = AWTTextureIO.newTexture(gl.getGLProfile(), image, false);
+            texture.setTexParameteri(gl, GL2.GL_TEXTURE_MIN_FILTER,
+                    GL2.GL_NEAREST);
+            texture.setTexParameteri(gl, GL2.GL_TEXTURE_MAG_FILTER,
+                    GL2.GL_NEAREST);
+            textureRegion = imageRegion;
+            image = null;
+        }
+
         gl.glClear(GL2.GL_COLOR_BUFFER_BIT);
         gl.glMatrixMode(GL2.GL_PROJECTION);
         gl.glLoadIdentity();
         glu.gluOrtho2D(x, x + width, y, y + height);
 
+        if (texture != null) {
+            TextureCoords coords = texture.getImageTexCoords();
+            double left = textureRegion[0];
+            double bottom = textureRegion[1];
+            double right = left + textureRegion[2];
+            double top = bottom + textureRegion[3];
+            texture.enable(gl);
+            texture.bind(gl);
+            gl.glTexEnvi(GL2.GL_TEXTURE_ENV, GL2.GL_TEXTURE_ENV_MODE,
+                    GL2.GL_REPLACE);
+            gl.glBegin(GL2.GL_QUADS);
+            gl.glTexCoord2f(coords.left(), coords.bottom());
+            gl.glVertex2d(left, bottom);
+            gl.glTexCoord2f(coords.right(), coords.bottom());
+            gl.glVertex2d(right, bottom);
+            gl.glTexCoord2f(coords.right(), coords.top());
+            gl.glVertex2d(right, top);
+            gl.glTexCoord2f(coords.left(), coords.top());
+            gl.glVertex2d(left, top);
+            gl.glEnd();
+            texture.disable(gl);
+        }
+
         gl.glColor3i(0, 0, 0);
         gl.glBegin(GL2.GL_LINES);
         gl.glVertex2d(x, 0);
@@ -89,24 +154,84 @@ public class OverviewListener implements GLEventListener,
         gl.glVertex2d(boxX, boxY + boxHeight);
         gl.glEnd();
 
-        if (sets == null)
+        gl.glFlush();
+        updateCache();
+    }
+
+    /**
+     * start drawing the image again in the background if it doesn't fit the
+     * overview anymore
+     */
+    private void updateCache() {
+        if (cacheRenderer != null || (!cacheStale && cacheFits()))
             return;
-        gl.glPointSize(1);
-        for (int i = 0; i < sets.length; i++) {
-            if (sets[i] != null) {
-                OutputSet set = sets[i];
-                float[] cArray = new float[3];
-                set.getColor().getColorComponents(cArray);
-                gl.glColor3f(cArray[0], cArray[1], cArray[2]);
-                Complex[] points = set.getPoints();
-                gl.glBegin(GL2.GL_POINTS);
-                for (int j = 0; j < points.length; j++)
-                    gl.glVertex2d(points[j].getReal(), points[j].getImaginary());
-                gl.glEnd();
-            }
+        // a pane that hasn't been laid out has nothing to draw, it is drawn
+        // again when its size changes. also false for NaN
+        if (!(paneWidth >= 1 && paneHeight >= 1))
+            return;
+        cacheStale = false;
+
+        // the region around the overview, in the same shape as the image
+        final int imageWidth = (int) paneWidth * CACHE_SCALE;
+        final int imageHeight = (int) paneHeight * CACHE_SCALE;
+        final double[] region = { x - width * (CACHE_SCALE - 1) / 2,
+                y - height * (CACHE_SCALE - 1) / 2, width * CACHE_SCALE,
+                height * CACHE_SCALE };
+        double scale = Math.min(imageWidth / region[2], imageHeight / region[3]);
+        final double[] covered = { region[0] + region[2] / 2 - imageWidth
+                / scale / 2, region[1] + region[3] / 2 - imageHeight / scale / 2,
+                imageWidth / scale, imageHeight / scale };
+
+        final Complex[][] points = new Complex[(sets == null) ? 0
+                : sets.length][];
+        final Color[] colors = new Color[points.length];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = (sets[i] == null) ? new Complex[] {} : sets[i]
+                    .getPoints();
+            colors[i] = (sets[i] == null) ? Color.WHITE : sets[i].getColor();
         }
 
-        gl.glFlush();
+        cacheRenderer = new SwingWorker<BufferedImage, Void>() {
+            @Override
+            protected BufferedImage doInBackground() {
+                OutputSetRenderer renderer = new OutputSetRenderer(imageWidth,
+                        imageHeight);
+                renderer.setAxesEnabled(false);
+                renderer.setView(region[0], region[1], region[2], region[3]);
+                return renderer.render(points, colors);
+            }
+
+            @Override
+            protected void done() {
+                cacheRenderer = null;
+                try {
+                    image = get();
+                    imageRegion = covered;
+                } catch (Exception e) {
+                    // keep the old image, it is only a preview. don't draw
+                    // again or the failed image would be tried forever
+                    return;
+                }
+                frame.repaint();
+            }
+        };
+        cacheRenderer.execute();
+    }
+
+    /**
+     * @return true if the texture covers the overview at about the same
+     *         size of pixel
+     */
+    private boolean cacheFits() {
+        if (textureRegion == null)
+            return false;
+        double[] r = textureRegion;
+        if (x < r[0] || y < r[1] || x + width > r[0] + r[2]
+                || y + height > r[1] + r[3])
+            return false;
+        double texel = r[2] / texture.getImageWidth();
+        double pixel = width / paneWidth;
+        return texel <= pixel * CACHE_ZOOM && texel >= pixel / CACHE_ZOOM;
     }
 
     public void displayChanged(GLAutoDrawable arg0, boolean arg1, boolean arg2) {
@@ -147,6 +272,7 @@ public class OverviewListener implements GLEventListener,
             frame.repaint();
         } else if (name.equals("sets")) {
             sets = (OutputSet[]) e.getNewValue();
+            cacheStale = true;
             frame.repaint();
         } else if (name.equals("paneHeight")) {
             boxPHeight = (Double) e.getNewValue();
@@ -218,6 +344,11 @@ public class OverviewListener implements GLEventListener,
     }
 
     public void dispose(GLAutoDrawable drawable) {
+        if (texture != null) {
+            texture.destroy(drawable.getGL());
+            texture = null;
+            textureRegion = null;
+        }
     }
 
 }
@@ -0,0 +1,345 @@
+package edu.bsu.julia.gui;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JPanel;
+import javax.swing.SwingWorker;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.Julia;
+import edu.bsu.julia.generators.GeneratorFactory;
+import edu.bsu.julia.generators.OutputSetGenerator;
+import edu.bsu.julia.generators.ParameterSpaceGenerator;
+import edu.bsu.julia.generators.WarmStart;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.OutputSetCache;
+import edu.bsu.julia.precision.ExtendedPrecision;
+import edu.bsu.julia.session.Session;
+
+/**
+ * a tab of the {@link GraphTabbedPane} showing the parameter plane of one
+ * coefficient of a family of polynomials. each pixel is colored by how fast
+ * the critical orbits of the semigroup escape when the coefficient has that
+ * value: black if they stay bounded. the mouse wheel zooms, dragging moves the
+ * map and clicking a pixel creates the output set of that parameter. The
+ * center is kept exactly so that maps of the constant term can be zoomed past
+ * the precision of a double, where they are computed by perturbation.
+ */
+public class ParameterSpacePane extends JPanel {
+	// the width and height of the part of the plane shown at first
+	private static final double DEFAULT_SPAN = 4;
+	private static final double ZOOM_FACTOR = 1.25;
+
+	private final Julia parentFrame;
+	private final InputFunction[] functions;
+	private final int template;
+	private final int coefficient;
+	private final int maxIterations;
+
+	// the parameter at the center of the panel and the size of a pixel
+	private BigDecimal centerX = BigDecimal.ZERO;
+	private BigDecimal centerY = BigDecimal.ZERO;
+	private double pixelSize = -1;
+
+	private BufferedImage image;
+	private ParameterSpaceGenerator generator;
+
+	// where a drag started and how far it has moved
+	private int pressX;
+	private int pressY;
+	private int dragX;
+	private int dragY;
+	private boolean dragging;
+
+	// for serializable interface: do not use
+	public static final long serialVersionUID = 0;
+
+	/**
+	 * constructor for {@link ParameterSpacePane}
+	 *
+	 * @param f
+	 *            the main frame
+	 * @param family
+	 *            the functions of the semigroup
+	 * @param t
+	 *            the index in family of the function with the free coefficient
+	 * @param c
+	 *            the index of the free coefficient
+	 * @param iterations
+	 *            the largest escape level to look for
+	 * @throws IllegalArgumentException
+	 *             if the family isn't supported by
+	 *             {@link ParameterSpaceGenerator}
+	 */
+	public ParameterSpacePane(Julia f, InputFunction[] family, int t, int c,
+			int iterations) throws IllegalArgumentException {
+		String problem = ParameterSpaceGenerator.checkSupported(family, t, c);
+		if (problem != null)
+			throw new IllegalArgumentException(problem);
+		parentFrame = f;
+		functions = family;
+		template = t;
+		coefficient = c;
+		maxIterations = iterations;
+
+		setName("Parameter space of " + family[t] + ". Click to create "
+				+ "an output set.");
+		setBackground(Color.WHITE);
+		addMouseListener(parentFrame.getStatusBar());
+		addMouseMotionListener(parentFrame.getStatusBar());
+
+		MouseAdapter mouse = new MouseAdapter() {
+			public void mousePressed(MouseEvent e) {
+				pressX = e.getX();
+				pressY = e.getY();
+				dragX = 0;
+				dragY = 0;
+			}
+
+			public void mouseDragged(MouseEvent e) {
+				dragging = true;
+				dragX = e.getX() - pressX;
+				dragY = e.getY() - pressY;
+				repaint();
+			}
+
+			public void mouseReleased(MouseEvent e) {
+				if (!dragging)
+					return;
+				dragging = false;
+				moveCenter(-dragX * pixelSize, dragY * pixelSize);
+				dragX = 0;
+				dragY = 0;
+				render();
+			}
+
+			public void mouseClicked(MouseEvent e) {
+				if (e.getButton() == MouseEvent.BUTTON1)
+					createOutputSet(getParameter(e.getX(), e.getY()));
+			}
+
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				// keep the parameter under the mouse in place
+				double oldSize = pixelSize;
+				pixelSize *= Math.pow(ZOOM_FACTOR, e.getWheelRotation());
+				moveCenter((e.getX() - getWidth() / 2.0)
+						* (oldSize - pixelSize), -(e.getY() - getHeight() / 2.0)
+						* (oldSize - pixelSize));
+				render();
+			}
+		};
+		addMouseListener(mouse);
+		addMouseMotionListener(mouse);
+		addMouseWheelListener(mouse);
+
+		addComponentListener(new ComponentAdapter() {
+			public void componentResized(ComponentEvent e) {
+				render();
+			}
+		});
+	}
+
+	/**
+	 * @return the value of the free coefficient at a point of the panel
+	 */
+	public Complex getParameter(int x, int y) {
+		return new Complex(centerX.add(
+				new BigDecimal((x - getWidth() / 2.0) * pixelSize))
+				.doubleValue(), centerY.add(
+				new BigDecimal(-(y - getHeight() / 2.0) * pixelSize))
+				.doubleValue());
+	}
+
+	/**
+	 * move the center by an amount, keeping every digit of its coordinates
+	 */
+	private void moveCenter(double dx, double dy) {
+		// a zoom with no pixel size yet or a drag past the edge of the
+		// doubles has nothing to add
+		if (Double.isNaN(dx) || Double.isInfinite(dx) || Double.isNaN(dy)
+				|| Double.isInfinite(dy))
+			return;
+		centerX = centerX.add(new BigDecimal(dx));
+		centerY = centerY.add(new BigDecimal(dy));
+	}
+
+	/**
+	 * @return true if the map should be computed by perturbation: if the
+	 *         family supports it and the precision option asks for it, or
+	 *         is automatic and a pixel is too small for a double
+	 */
+	private boolean usePerturbation(int w, int h) {
+		ExtendedPrecision.Mode mode = parentFrame.getPrecisionMode();
+		if (mode == ExtendedPrecision.Mode.DOUBLE
+				|| !ParameterSpaceGenerator.supportsPerturbation(functions,
+						template, coefficient))
+			return false;
+		if (mode == ExtendedPrecision.Mode.EXTENDED)
+			return true;
+		return ExtendedPrecision.isNeeded(centerX.doubleValue() - w / 2.0
+				* pixelSize, centerY.doubleValue() - h / 2.0 * pixelSize, w
+				* pixelSize, h * pixelSize, w);
+	}
+
+	/**
+	 * start drawing the map for the current view, any drawing still running is
+	 * canceled
+	 */
+	public void render() {
+		int w = getWidth();
+		int h = getHeight();
+		if (w <= 0 || h <= 0)
+			return;
+		if (pixelSize <= 0)
+			pixelSize = DEFAULT_SPAN / Math.min(w, h);
+
+		if (generator != null)
+			generator.cancel(true);
+
+		BigDecimal left = centerX.add(new BigDecimal(-w / 2.0 * pixelSize));
+		BigDecimal top = centerY.add(new BigDecimal(h / 2.0 * pixelSize));
+		final ParameterSpaceGenerator current = new ParameterSpaceGenerator(
+				functions, template, coefficient, left, top, pixelSize, w, h,
+				maxIterations, ParameterSpaceGenerator.DEFAULT_POINT_BUDGET,
+				usePerturbation(w, h));
+		current.addPropertyChangeListener(new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent event) {
+				if (!"state".equals(event.getPropertyName())
+						|| event.getNewValue() != SwingWorker.StateValue.DONE
+						|| current != generator || current.isCancelled())
+					return;
+				try {
+					image = toImage(current.get(), current.getWidth(), current
+							.getHeight());
+				} catch (InterruptedException e) {
+					return;
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof OutOfMemoryError)
+						JuliaError.OUT_OF_MEMORY.showDialog(parentFrame);
+					return;
+				}
+				repaint();
+			}
+		});
+		generator = current;
+		current.execute();
+	}
+
+	/**
+	 * stop drawing the map, used when the tab is removed
+	 */
+	public void cancel() {
+		if (generator != null)
+			generator.cancel(true);
+	}
+
+	/**
+	 * @return an image with black for bounded parameters, light gray for
+	 *         parameters that couldn't be followed or resolved and white to
+	 *         blue for the escape level
+	 */
+	private BufferedImage toImage(int[] levels, int w, int h) {
+		BufferedImage result = new BufferedImage(w, h,
+				BufferedImage.TYPE_INT_RGB);
+		double scale = Math.log(maxIterations + 1);
+		int[] palette = new int[maxIterations + 1];
+		for (int i = 0; i < maxIterations; i++) {
+			float s = (float) (Math.log(i + 1) / scale);
+			palette[i] = new Color(1 - s, 1 - s, 1 - s / 2).getRGB();
+		}
+		palette[maxIterations] = Color.BLACK.getRGB();
+		int undefined = Color.LIGHT_GRAY.getRGB();
+
+		int[] row = new int[w];
+		for (int j = 0; j < h; j++) {
+			for (int i = 0; i < w; i++) {
+				int level = levels[j * w + i];
+				boolean unknown = level == ParameterSpaceGenerator.UNDEFINED
+						|| level == ParameterSpaceGenerator.UNRESOLVED;
+				row[i] = unknown ? undefined : palette[Math.min(level,
+						maxIterations)];
+			}
+			result.setRGB(0, j, w, 1, row, 0, w);
+		}
+		return result;
+	}
+
+	/**
+	 * add the function with the given parameter to the session and create an
+	 * output set of the family with it, using the method and type chosen in
+	 * the {@link InputPanel}
+	 */
+	private void createOutputSet(Complex parameter) {
+		InputFunction function = functions[template];
+		Complex[] coefficients = function.getCoefficients().clone();
+		coefficients[coefficient] = parameter;
+		InputFunction fn;
+		try {
+			fn = function.newInstance(function.getM(), coefficients);
+		} catch (IllegalArgumentException e) {
+			JuliaError.PARAMETER_ERROR.showDialog(parentFrame);
+			return;
+		}
+
+		final Session session = parentFrame.getCurrentSession();
+		session.addInputFunction(fn);
+		InputFunction[] inFunc = functions.clone();
+		inFunc[template] = fn;
+
+		// create a listener in case the output set creation is canceled
+		ActionListener listener = new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				OutputSet set = (OutputSet) e.getSource();
+				session.deleteOutputSet(set);
+			}
+		};
+
+		InputPanel inputPanel = parentFrame.getInputPanel();
+		String command = (inputPanel.getMethodGroup().getSelection()
+				.getActionCommand() + "_" + inputPanel.getTypeGroup()
+				.getSelection().getActionCommand()).toUpperCase();
+		OutputSet.Type type = OutputSet.Type.valueOf(command);
+		OutputSet.Info info = OutputSet.Info.sessionToInfo(session);
+
+		OutputSetGenerator outputGenerator = OutputSetCache.getInstance()
+				.find(OutputSetCache.createKey(type, info, inFunc, null, null));
+		if (outputGenerator == null) {
+			WarmStart warm = null;
+			if (parentFrame.getWarmStartTrigger())
+				warm = WarmStart.fromSimilarSet(session.getOutputSets(), type,
+						inFunc, info.skips());
+			outputGenerator = GeneratorFactory.createGenerator(
+					new DialogErrorSink(parentFrame), type, info, inFunc, warm,
+					parentFrame.createCoverageMonitor());
+		}
+
+		// show a graph so the new set is drawn when it's selected
+		parentFrame.getTabbedPane().showActivePane();
+		parentFrame.getOutputSetList().clearSelection();
+		session.addOutputSet(new OutputSet(info, inFunc, type,
+				outputGenerator, listener));
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		super.paintComponent(g);
+		if (image != null)
+			g.drawImage(image, dragX, dragY, null);
+	}
+}
@@ -0,0 +1,198 @@
+package edu.bsu.julia.gui;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * the frame times and point counts of one graph, filled in by its
+ * {@link GLListener} every frame. They can be shown over the graph and are
+ * registered with the platform MBean server while the graph is showing.
+ */
+public class RenderStats implements RenderStatsMXBean {
+	// the weight of the newest frame in the average
+	private static final double AVERAGE_WEIGHT = 0.1;
+	private static final double NANOS_PER_MILLI = 1e6;
+	// the number of graphs made, to give each a name
+	private static int graphs = 0;
+
+	private final String name;
+	private ObjectName objectName;
+	private long frames;
+	private double lastFrame;
+	private double averageFrame;
+	private double maxFrame;
+	private double axes;
+	private double grid;
+	private double upload;
+	private double points;
+	private long submitted;
+	private long visible;
+	private boolean cached;
+	private long cacheBytes;
+	private Map<String, Long> setBytes = new LinkedHashMap<String, Long>();
+
+	public RenderStats() {
+		synchronized (RenderStats.class) {
+			graphs++;
+			name = "graph" + graphs;
+		}
+	}
+
+	/**
+	 * record a frame, the times are in nanoseconds
+	 */
+	public synchronized void recordFrame(long frameNanos, long axesNanos,
+			long gridNanos, long uploadNanos, long pointsNanos,
+			boolean fromCache) {
+		lastFrame = frameNanos / NANOS_PER_MILLI;
+		averageFrame = (frames == 0) ? lastFrame : averageFrame
+				+ AVERAGE_WEIGHT * (lastFrame - averageFrame);
+		maxFrame = Math.max(maxFrame, lastFrame);
+		axes = axesNanos / NANOS_PER_MILLI;
+		grid = gridNanos / NANOS_PER_MILLI;
+		upload = uploadNanos / NANOS_PER_MILLI;
+		points = pointsNanos / NANOS_PER_MILLI;
+		cached = fromCache;
+		if (fromCache)
+			submitted = 0;
+		frames++;
+	}
+
+	/**
+	 * record the points sent in a frame that drew them
+	 *
+	 * @param count
+	 *            the number of points sent
+	 * @param inView
+	 *            the number of those inside the view
+	 * @param bytes
+	 *            the bytes of vertex data sent for each set by name
+	 */
+	public synchronized void recordPoints(long count, long inView,
+			Map<String, Long> bytes) {
+		submitted = count;
+		visible = inView;
+		setBytes = bytes;
+	}
+
+	public synchronized void setCacheBytes(long bytes) {
+		cacheBytes = bytes;
+	}
+
+	/**
+	 * register with the platform MBean server as
+	 * edu.bsu.julia:type=RenderStats,name=graphN. Failing to register only
+	 * loses the JMX view so it is reported and ignored.
+	 */
+	public synchronized void register() {
+		if (objectName != null)
+			return;
+		try {
+			ObjectName n = new ObjectName("edu.bsu.julia:type=RenderStats,name="
+					+ name);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (!server.isRegistered(n))
+				server.registerMBean(this, n);
+			objectName = n;
+		} catch (JMException e) {
+			System.err.println("RenderStats.register(): " + e.getMessage());
+		}
+	}
+
+	public synchronized void unregister() {
+		if (objectName == null)
+			return;
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(
+					objectName);
+		} catch (JMException e) {
+			System.err.println("RenderStats.unregister(): " + e.getMessage());
+		}
+		objectName = null;
+	}
+
+	public synchronized long getFrameCount() {
+		return frames;
+	}
+
+	public synchronized double getLastFrameMillis() {
+		return lastFrame;
+	}
+
+	public synchronized double getAverageFrameMillis() {
+		return averageFrame;
+	}
+
+	public synchronized double getMaxFrameMillis() {
+		return maxFrame;
+	}
+
+	public synchronized double getAxesMillis() {
+		return axes;
+	}
+
+	public synchronized double getGridMillis() {
+		return grid;
+	}
+
+	public synchronized double getUploadMillis() {
+		return upload;
+	}
+
+	public synchronized double getPointsMillis() {
+		return points;
+	}
+
+	public synchronized long getPointsSubmitted() {
+		return submitted;
+	}
+
+	public synchronized long getPointsVisible() {
+		return visible;
+	}
+
+	public synchronized boolean isLastFrameCached() {
+		return cached;
+	}
+
+	public synchronized long getCacheBytes() {
+		return cacheBytes;
+	}
+
+	public synchronized Map<String, Long> getSetVertexBytes() {
+		return Collections.unmodifiableMap(setBytes);
+	}
+
+	public synchronized void reset() {
+		frames = 0;
+		maxFrame = 0;
+	}
+
+	/**
+	 * @return the lines of the overlay drawn over the graph
+	 */
+	public synchronized List<String> overlayLines() {
+		List<String> lines = new ArrayList<String>();
+		lines.add(String.format("frame %.1f ms (avg %.1f, max %.1f)",
+				lastFrame, averageFrame, maxFrame));
+		lines.add(String.format("axes %.1f  grid %.1f  cache %.1f  "
+				+ "points %.1f ms", axes, grid, upload, points));
+		lines.add(cached ? String.format("drawn from cache, %d visible",
+				visible) : String.format("%d points sent, %d visible",
+				submitted, visible));
+		lines.add(String.format("cache framebuffer %.1f MB",
+				cacheBytes / 1048576.0));
+		for (Map.Entry<String, Long> entry : setBytes.entrySet())
+			lines.add(String.format("%s: %.1f MB of vertices", entry.getKey(),
+					entry.getValue() / 1048576.0));
+		return lines;
+	}
+}
@@ -0,0 +1,85 @@
+package edu.bsu.julia.gui;
+
+import java.util.Map;
+
+/**
+ * the management interface of {@link RenderStats}, so the frame times of a
+ * graph can be read with JConsole or any other JMX client. The times are the
+ * time spent sending the work to OpenGL, the driver may finish it later.
+ */
+public interface RenderStatsMXBean {
+	/**
+	 * @return the number of frames drawn
+	 */
+	public long getFrameCount();
+
+	/**
+	 * @return the time of the last frame in milliseconds
+	 */
+	public double getLastFrameMillis();
+
+	/**
+	 * @return a moving average of the frame time in milliseconds
+	 */
+	public double getAverageFrameMillis();
+
+	/**
+	 * @return the longest frame since the last reset in milliseconds
+	 */
+	public double getMaxFrameMillis();
+
+	/**
+	 * @return the time of the last frame spent drawing the axes
+	 */
+	public double getAxesMillis();
+
+	/**
+	 * @return the time of the last frame spent drawing the grid
+	 */
+	public double getGridMillis();
+
+	/**
+	 * @return the time of the last frame spent drawing the points into the
+	 *         cached framebuffer, 0 if it wasn't drawn
+	 */
+	public double getUploadMillis();
+
+	/**
+	 * @return the time of the last frame spent drawing the points or the
+	 *         cached quad
+	 */
+	public double getPointsMillis();
+
+	/**
+	 * @return the number of points sent to OpenGL in the last frame, 0 if it
+	 *         was drawn from the cache
+	 */
+	public long getPointsSubmitted();
+
+	/**
+	 * @return the number of points inside the view the last time the points
+	 *         were sent
+	 */
+	public long getPointsVisible();
+
+	/**
+	 * @return true if the last frame was drawn from the cached framebuffer
+	 */
+	public boolean isLastFrameCached();
+
+	/**
+	 * @return the bytes of GPU memory held by the cached framebuffer
+	 */
+	public long getCacheBytes();
+
+	/**
+	 * @return the bytes of vertex data sent for each set the last time the
+	 *         points were sent, by the name of the set
+	 */
+	public Map<String, Long> getSetVertexBytes();
+
+	/**
+	 * start the counts and the longest frame over
+	 */
+	public void reset();
+}
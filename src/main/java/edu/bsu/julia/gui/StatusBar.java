@@ -3,11 +3,14 @@ package edu.bsu.julia.gui;
 import com.jogamp.opengl.awt.GLJPanel;
 
 import java.awt.BorderLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
+import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -17,6 +20,13 @@ import javax.swing.JMenu;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.JToggleButton;
+import javax.swing.Timer;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.analysis.PickedPoint;
+import edu.bsu.julia.generators.GeneratorMetrics;
+import edu.bsu.julia.generators.GeneratorStats;
 
 public class StatusBar extends JPanel implements MouseListener,
 		MouseMotionListener, MouseWheelListener {
@@ -24,6 +34,14 @@ public class StatusBar extends JPanel implements MouseListener,
 	private JLabel helpLabel = new JLabel();
 	private String defaultString = "Hover over an object to see a description.";
 	private JLabel coordinateLabel = new JLabel();
+	private JLabel throughputLabel = new JLabel("", JLabel.CENTER);
+	// milliseconds between updates of the generator throughput
+	private static final int THROUGHPUT_DELAY = 1000;
+	// how close in pixels the mouse must be to a point to show it
+	private static final int PICK_DISTANCE = 5;
+	// the point picked by the last click on the graph, shown while the mouse
+	// isn't over another point
+	private String clickedPoint;
 	// for serializable interface: do not use
 	public static final long serialVersionUID = 0;
 
@@ -34,6 +52,39 @@ public class StatusBar extends JPanel implements MouseListener,
 		add(helpLabel, BorderLayout.WEST);
 		coordinateLabel.setText("x: 0, y: 0");
 		add(coordinateLabel, BorderLayout.EAST);
+		add(throughputLabel, BorderLayout.CENTER);
+
+		// show the throughput of the generators while any are running
+		Timer throughputTimer = new Timer(THROUGHPUT_DELAY,
+				new ActionListener() {
+					@Override
+					public void actionPerformed(ActionEvent e) {
+						GeneratorMetrics metrics = GeneratorMetrics
+								.getInstance();
+						List<GeneratorStats> running = metrics.getRunning();
+						if (running.isEmpty()) {
+							throughputLabel.setText("");
+							return;
+						}
+						// the time left is the time of the slowest set
+						double left = -1;
+						String leftText = null;
+						for (GeneratorStats stats : running) {
+							if (stats.getSecondsLeft() > left) {
+								left = stats.getSecondsLeft();
+								leftText = stats.describeTimeLeft();
+							}
+						}
+						String text = String.format(
+								"generating %d set%s: %,.0f points/s",
+								running.size(), (running.size() == 1) ? ""
+										: "s", metrics
+										.getRunningPointsPerSecond());
+						throughputLabel.setText((leftText == null) ? text
+								: text + ", " + leftText);
+					}
+				});
+		throughputTimer.start();
 	}
 
 	public void mouseMoved(MouseEvent e) {
@@ -48,10 +99,43 @@ public class StatusBar extends JPanel implements MouseListener,
 					+ list.getY();
 
 			coordinateLabel.setText("x: " + xd + ", y: " + yd);
+
+			// show the point under the mouse, if there is one
+			double pickDistance = PICK_DISTANCE * list.getWidth()
+					/ panel.getWidth();
+			PickedPoint picked = PickedPoint.pick(list.getSets(), xd, yd,
+					pickDistance);
+			if (picked != null)
+				helpLabel.setText(picked.toString());
+			else
+				helpLabel.setText((clickedPoint != null) ? clickedPoint
+						: panel.getName());
+		} else if (e.getSource() instanceof ParameterSpacePane) {
+			ParameterSpacePane pane = (ParameterSpacePane) e.getSource();
+			Complex c = pane.getParameter(e.getX(), e.getY());
+			coordinateLabel.setText("c: " + c.getReal() + " + "
+					+ c.getImaginary() + "i");
 		}
 	}
 
 	public void mouseClicked(MouseEvent e) {
+		if (e.getSource() instanceof GraphScrollPane) {
+			// a click shows the nearest point however far away it is
+			GraphScrollPane panel = (GraphScrollPane) e.getSource();
+			GLListener list = panel.getGLListener();
+			double xd = (e.getX() * list.getWidth() / panel.getWidth())
+					+ list.getX();
+			double yd = ((panel.getHeight() - e.getY()) * list.getHeight() / panel
+					.getHeight())
+					+ list.getY();
+
+			PickedPoint picked = PickedPoint.pick(list.getSets(), xd, yd,
+					Double.POSITIVE_INFINITY);
+			if (picked != null) {
+				clickedPoint = "Nearest: " + picked;
+				helpLabel.setText(clickedPoint);
+			}
+		}
 	}
 
 	public void mouseEntered(MouseEvent e) {
@@ -64,6 +148,8 @@ public class StatusBar extends JPanel implements MouseListener,
 				edu.bsu.julia.gui.GraphScrollPane.class.getName())) {
 			GLJPanel graph = (GLJPanel) component;
 			helpLabel.setText(graph.getName());
+		} else if (component instanceof ParameterSpacePane) {
+			helpLabel.setText(((ParameterSpacePane) component).getName());
 		} else if (component.getClass().getName().equals(
 				JToggleButton.class.getName())) {
 			JToggleButton jToggleButton = (JToggleButton) component;
@@ -94,6 +180,7 @@ public class StatusBar extends JPanel implements MouseListener,
 	}
 
 	public void mouseExited(MouseEvent e) {
+		clickedPoint = null;
 		helpLabel.setText(defaultString);
 		coordinateLabel.setText("x: 0, y: 0");
 	}
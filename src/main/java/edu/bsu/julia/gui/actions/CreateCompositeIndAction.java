@@ -8,16 +8,15 @@ import java.util.List;
 import javax.swing.AbstractAction;
 import javax.swing.ButtonGroup;
 
-import org.apache.commons.math.complex.Complex;
-
 import edu.bsu.julia.Julia;
-import edu.bsu.julia.generators.FullBackwardsOutputSetGenerator;
-import edu.bsu.julia.generators.FullForwardsOutputSetGenerator;
-import edu.bsu.julia.generators.RandomBackwardsOutputSetGenerator;
-import edu.bsu.julia.generators.RandomForwardsOutputSetGenerator;
+import edu.bsu.julia.generators.GeneratorFactory;
+import edu.bsu.julia.generators.OutputSetGenerator;
+import edu.bsu.julia.generators.WarmStart;
+import edu.bsu.julia.gui.DialogErrorSink;
 import edu.bsu.julia.gui.InputPanel;
 import edu.bsu.julia.input.InputFunction;
 import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.OutputSetCache;
 import edu.bsu.julia.session.Session;
 
 public class CreateCompositeIndAction extends AbstractAction {
@@ -127,79 +126,16 @@ public class CreateCompositeIndAction extends AbstractAction {
 		OutputSet.Info info = OutputSet.Info.sessionToInfo(session);
 		switch (type) {
 		case RANDOM_JULIA:
-			if (mode == Mode.COMPOSITE || mode == Mode.BOTH)
-				newSets.add(new OutputSet(info, inFunc, type,
-						new RandomBackwardsOutputSetGenerator(parentFrame,
-								session.getIterations(), session.getSkips(),
-								session.getSeedValue(), inFunc), listener));
-			if (mode == Mode.INDIVIDUAL || mode == Mode.BOTH)
-				for (InputFunction function : inFunc) {
-					InputFunction[] inArray = new InputFunction[] { function };
-					newSets.add(new OutputSet(info, inArray, OutputSet.Type
-							.valueOf("IND_" + command),
-							new RandomBackwardsOutputSetGenerator(parentFrame,
-									session.getIterations(),
-									session.getSkips(), session.getSeedValue(),
-									inArray), listener));
-				}
-			break;
 		case FULL_JULIA:
-			if (mode == Mode.COMPOSITE || mode == Mode.BOTH)
-				newSets.add(new OutputSet(info, inFunc, type,
-						new FullBackwardsOutputSetGenerator(parentFrame,
-								session.getIterations(),
-								session.getSeedValue(), inFunc), listener));
-			if (mode == Mode.INDIVIDUAL || mode == Mode.BOTH)
-				for (InputFunction function : inFunc) {
-					InputFunction[] inArray = new InputFunction[] { function };
-					newSets
-							.add(new OutputSet(info, inArray, OutputSet.Type
-									.valueOf("IND_" + command),
-									new FullBackwardsOutputSetGenerator(
-											parentFrame, session
-													.getIterations(), session
-													.getSeedValue(), inArray),
-									listener));
-				}
-			break;
 		case RANDOM_ATTR:
-			if (mode == Mode.COMPOSITE || mode == Mode.BOTH)
-				newSets.add(new OutputSet(info, inFunc, type,
-						new RandomForwardsOutputSetGenerator(parentFrame,
-								session.getIterations(), session.getSkips(),
-								session.getSeedValue(), inFunc), listener));
-			if (mode == Mode.INDIVIDUAL || mode == Mode.BOTH)
-				for (InputFunction function : inFunc) {
-					InputFunction[] inArray = new InputFunction[] { function };
-					newSets.add(new OutputSet(info, inArray, OutputSet.Type
-							.valueOf("IND_" + command),
-							new RandomForwardsOutputSetGenerator(parentFrame,
-									session.getIterations(),
-									session.getSkips(), session.getSeedValue(),
-									inArray), listener));
-				}
-			break;
 		case FULL_ATTR:
-			Complex[] seedList = new Complex[] { session
-					.getSeedValue() };
 			if (mode == Mode.COMPOSITE || mode == Mode.BOTH)
-				newSets.add(new OutputSet(info, inFunc, type,
-						new FullForwardsOutputSetGenerator(parentFrame, session
-								.getIterations(), seedList, inFunc,
-								FullForwardsOutputSetGenerator.Mode.DEFAULT),
-						listener));
+				newSets.add(createSet(info, inFunc, type, listener));
 			if (mode == Mode.INDIVIDUAL || mode == Mode.BOTH)
 				for (InputFunction function : inFunc) {
 					InputFunction[] inArray = new InputFunction[] { function };
-					OutputSet set = new OutputSet(
-							info,
-							inArray,
-							OutputSet.Type.valueOf("IND_" + command),
-							new FullForwardsOutputSetGenerator(parentFrame,
-									session.getIterations(), seedList, inArray,
-									FullForwardsOutputSetGenerator.Mode.DEFAULT),
-							listener);
-					newSets.add(set);
+					newSets.add(createSet(info, inArray,
+							OutputSet.Type.valueOf("IND_" + command), listener));
 				}
 			break;
 		default:
@@ -211,4 +147,33 @@ public class CreateCompositeIndAction extends AbstractAction {
 			session.addOutputSet(set);
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * create an {@link OutputSet} of the given type. the points are taken from
+	 * the {@link OutputSetCache} if the same set was generated before,
+	 * otherwise a new generator is started, warm started from a similar set
+	 * of the session and stopped when it converges if those options are on.
+	 */
+	private OutputSet createSet(OutputSet.Info info,
+			InputFunction[] functions, OutputSet.Type type,
+			ActionListener listener) {
+		// the cache only holds double precision points
+		boolean extended = type.isRandom()
+				&& parentFrame.useExtendedPrecision(functions);
+		OutputSetGenerator generator = extended ? null : OutputSetCache
+				.getInstance().find(
+						OutputSetCache.createKey(type, info, functions, null,
+								null));
+		if (generator == null) {
+			// start from the points of a similar set if there is one
+			WarmStart warm = null;
+			if (parentFrame.getWarmStartTrigger())
+				warm = WarmStart.fromSimilarSet(parentFrame.getCurrentSession()
+						.getOutputSets(), type, functions, info.skips());
+			generator = GeneratorFactory.createGenerator(new DialogErrorSink(
+					parentFrame), type, info, functions, warm, parentFrame
+					.createCoverageMonitor(), extended);
+		}
+		return new OutputSet(info, functions, type, generator, listener);
+	}
+}
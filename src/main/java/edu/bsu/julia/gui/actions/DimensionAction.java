@@ -0,0 +1,72 @@
+package edu.bsu.julia.gui.actions;
+
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import javax.swing.JTextArea;
+import javax.swing.SwingWorker;
+
+import edu.bsu.julia.Julia;
+import edu.bsu.julia.analysis.BoxCountingDimension;
+import edu.bsu.julia.gui.JuliaError;
+import edu.bsu.julia.output.OutputSet;
+
+/**
+ * estimates the box-counting dimension of an {@link OutputSet} in the
+ * background and shows the estimate with the box count of every level
+ */
+public class DimensionAction extends AbstractAction {
+
+	private Julia parentFrame;
+	private OutputSet set;
+	// for serializable interface: do not use
+	public static final long serialVersionUID = 0;
+
+	public DimensionAction(Julia f, OutputSet s) {
+		super("Box-Counting Dimension");
+		putValue("SHORT_DESCRIPTION", "Box-Counting Dimension");
+		putValue("LONG_DESCRIPTION", "Estimate the box-counting dimension "
+				+ "of the chosen set.");
+		parentFrame = f;
+		set = s;
+	}
+
+	public void actionPerformed(ActionEvent arg0) {
+		new SwingWorker<BoxCountingDimension, Void>() {
+			@Override
+			protected BoxCountingDimension doInBackground() {
+				return BoxCountingDimension.estimate(set.getPoints(true));
+			}
+
+			@Override
+			protected void done() {
+				BoxCountingDimension estimate;
+				try {
+					estimate = get();
+				} catch (InterruptedException e) {
+					return;
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof OutOfMemoryError)
+						JuliaError.OUT_OF_MEMORY.showDialog(parentFrame);
+					else
+						JOptionPane.showMessageDialog(parentFrame, e.getCause()
+								.getMessage(), "Box-Counting Dimension",
+								JOptionPane.ERROR_MESSAGE);
+					return;
+				}
+
+				JTextArea table = new JTextArea(set + "\n" + estimate
+						+ "\n\n" + estimate.table());
+				table.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+				table.setEditable(false);
+				JOptionPane.showMessageDialog(parentFrame, table,
+						"Box-Counting Dimension",
+						JOptionPane.INFORMATION_MESSAGE);
+			}
+		}.execute();
+	}
+
+}
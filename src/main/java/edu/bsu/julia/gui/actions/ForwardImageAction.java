@@ -12,6 +12,7 @@ import edu.bsu.julia.generators.FullForwardsOutputSetGenerator;
 import edu.bsu.julia.generators.OutputSetGenerator;
 import edu.bsu.julia.input.InputFunction;
 import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.OutputSetCache;
 import edu.bsu.julia.output.RecursiveOutputSet;
 import edu.bsu.julia.session.Session;
 
@@ -90,9 +91,14 @@ public class ForwardImageAction extends AbstractAction {
 		for (InputFunction function : inFunc) {
 			InputFunction[] inArray = new InputFunction[] { function };
 
-			OutputSetGenerator generator = new FullForwardsOutputSetGenerator(
-					parentFrame, points.length, points, inArray,
-					FullForwardsOutputSetGenerator.Mode.DEFAULT);
+			// use the cached points if this image was generated before
+			OutputSetGenerator generator = OutputSetCache.getInstance().find(
+					OutputSetCache.createKey(OutputSet.Type.FORWARD_IMAGE,
+							info, inArray, outFunc, null));
+			if (generator == null)
+				generator = new FullForwardsOutputSetGenerator(parentFrame,
+						points.length, points, inArray,
+						FullForwardsOutputSetGenerator.Mode.DEFAULT);
 			OutputSet outputSet = new RecursiveOutputSet(info, inArray,
 					outFunc, OutputSet.Type.FORWARD_IMAGE, generator, listener);
 
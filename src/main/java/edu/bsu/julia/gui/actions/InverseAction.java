@@ -14,6 +14,7 @@ import edu.bsu.julia.generators.RecursiveOutputSetGenerator;
 import edu.bsu.julia.gui.InputPanel;
 import edu.bsu.julia.input.InputFunction;
 import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.OutputSetCache;
 import edu.bsu.julia.output.RecursiveOutputSet;
 import edu.bsu.julia.session.Session;
 
@@ -83,14 +84,20 @@ public class InverseAction extends AbstractAction {
 		// create and add the Output Functions
 		String command = methodGroup.getSelection().getActionCommand()
 				.toUpperCase();
+		RecursiveOutputSetGenerator.Type type = RecursiveOutputSetGenerator.Type
+				.valueOf(command);
 		for (InputFunction function : inFunc) {
-			OutputSetGenerator generator = new RecursiveOutputSetGenerator(
-					parentFrame, function, outFunc,
-					RecursiveOutputSetGenerator.Type.valueOf(command));
-			OutputSet outputSet = new RecursiveOutputSet(info,
-					new InputFunction[] { function }, outFunc,
-					RecursiveOutputSetGenerator.Type.valueOf(command)
-							.outputType(), generator, listener);
+			InputFunction[] inArray = new InputFunction[] { function };
+
+			// use the cached points if this image was generated before
+			OutputSetGenerator generator = OutputSetCache.getInstance().find(
+					OutputSetCache.createKey(type.outputType(), info, inArray,
+							outFunc, null));
+			if (generator == null)
+				generator = new RecursiveOutputSetGenerator(parentFrame,
+						function, outFunc, type);
+			OutputSet outputSet = new RecursiveOutputSet(info, inArray,
+					outFunc, type.outputType(), generator, listener);
 			session.addOutputSet(outputSet);
 		}
 	}
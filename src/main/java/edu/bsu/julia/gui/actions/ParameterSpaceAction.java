@@ -0,0 +1,187 @@
+package edu.bsu.julia.gui.actions;
+
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.AbstractAction;
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JTextField;
+
+import edu.bsu.julia.Julia;
+import edu.bsu.julia.generators.ParameterSpaceGenerator;
+import edu.bsu.julia.gui.GUIUtil;
+import edu.bsu.julia.gui.GraphTabbedPane;
+import edu.bsu.julia.gui.JuliaError;
+import edu.bsu.julia.gui.ParameterSpacePane;
+import edu.bsu.julia.gui.TextFieldFocusListener;
+import edu.bsu.julia.input.InputFunction;
+
+/**
+ * opens a {@link ParameterSpacePane} for one coefficient of the chosen
+ * function. the other selected functions stay fixed and make up the rest of
+ * the semigroup.
+ */
+public class ParameterSpaceAction extends AbstractAction {
+	private static final int DEFAULT_ITERATIONS = 100;
+
+	private Julia parentFrame;
+	private DefaultListModel<?> listModel;
+	private int index;
+	// for serializable interface: do not use
+	public static final long serialVersionUID = 0;
+
+	public ParameterSpaceAction(Julia f, DefaultListModel<?> model, int i) {
+		super("Parameter Space");
+		putValue("SHORT_DESCRIPTION", "Parameter Space");
+		putValue("LONG_DESCRIPTION", "Map the parameter plane of a "
+				+ "coefficient of the chosen function.");
+		parentFrame = f;
+		listModel = model;
+		index = i;
+	}
+
+	public void actionPerformed(ActionEvent arg0) {
+		if (index < 0 || index >= listModel.size())
+			return;
+		InputFunction function = (InputFunction) listModel.get(index);
+
+		// the family is the selected functions with the chosen one in it
+		List<InputFunction> family = new ArrayList<InputFunction>(Arrays
+				.asList(parentFrame.getInputPanel().getSelectedFunctions()));
+		if (!family.contains(function))
+			family.add(function);
+		InputFunction[] inFunc = family.toArray(new InputFunction[family
+				.size()]);
+		int t = family.indexOf(function);
+
+		// the coefficients that are terms of the polynomial
+		int[] powers = function.getPolynomialPowers();
+		List<String> names = new ArrayList<String>();
+		List<Integer> indices = new ArrayList<Integer>();
+		if (powers != null)
+			for (int j = 0; j < powers.length; j++)
+				if (powers[j] >= 0) {
+					names.add(String.valueOf((char) ('a' + j)));
+					indices.add(j);
+				}
+
+		String problem = indices.isEmpty() ? function + " is not a polynomial"
+				: ParameterSpaceGenerator.checkSupported(inFunc, t, indices
+						.get(0));
+		if (problem != null) {
+			JOptionPane.showMessageDialog(parentFrame,
+					"A parameter space cannot be drawn:\n" + problem);
+			return;
+		}
+
+		new ParameterSpaceDialog(inFunc, t, names, indices);
+	}
+
+	/**
+	 * asks for the coefficient to vary and the number of iterations
+	 */
+	private final class ParameterSpaceDialog extends JDialog implements
+			ActionListener {
+		private final InputFunction[] inFunc;
+		private final int template;
+		private final List<Integer> indices;
+		private final JComboBox<String> coefficientBox;
+		private final JTextField iterationsField = new JTextField(5);
+
+		// for serializable interface: do not use
+		public static final long serialVersionUID = 0;
+
+		public ParameterSpaceDialog(InputFunction[] functions, int t,
+				List<String> names, List<Integer> coefficients) {
+			super(parentFrame, "Parameter Space", false);
+			inFunc = functions;
+			template = t;
+			indices = coefficients;
+
+			setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+			setLayout(new FlowLayout());
+
+			add(new JLabel("Coefficient:  "));
+			coefficientBox = new JComboBox<String>(names.toArray(new String[names
+					.size()]));
+			add(coefficientBox);
+
+			add(new JLabel("Iterations:  "));
+			iterationsField.setText(String.valueOf(DEFAULT_ITERATIONS));
+			iterationsField.addFocusListener(new TextFieldFocusListener(
+					iterationsField, parentFrame));
+			add(iterationsField);
+
+			JButton finishButton = new JButton("Finish");
+			finishButton.addActionListener(this);
+			add(finishButton);
+
+			JButton cancelButton = new JButton("Cancel");
+			cancelButton.addActionListener(new ActionListener() {
+				public void actionPerformed(ActionEvent event) {
+					setVisible(false);
+					dispose();
+				}
+			});
+			add(cancelButton);
+
+			setSize(300, 160);
+			setLocationRelativeTo(parentFrame);
+			setVisible(true);
+		}
+
+		/**
+		 * the action to perform when the user clicks the "Finish" button
+		 */
+		public void actionPerformed(ActionEvent event) {
+			if (iterationsField.getText().equals("")) {
+				JuliaError.EMPTY_FIELD.showDialog(parentFrame);
+				return;
+			}
+
+			int iterations;
+			try {
+				iterations = Integer.parseInt(GUIUtil
+						.removeCommas(iterationsField.getText()));
+			} catch (NumberFormatException e) {
+				iterations = 0;
+			}
+			if (iterations <= 0) {
+				JOptionPane.showMessageDialog(parentFrame, "Iterations must "
+						+ "be a positive\ninteger number.",
+						"Number Format Error", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+
+			int coefficient = indices.get(coefficientBox.getSelectedIndex());
+			String problem = ParameterSpaceGenerator.checkSupported(inFunc,
+					template, coefficient);
+			if (problem != null) {
+				JOptionPane.showMessageDialog(parentFrame,
+						"A parameter space cannot be drawn:\n" + problem);
+				return;
+			}
+
+			ParameterSpacePane pane = new ParameterSpacePane(parentFrame,
+					inFunc, template, coefficient, iterations);
+			GraphTabbedPane tabbedPane = parentFrame.getTabbedPane();
+			GraphTabbedPane.tabNumber++;
+			tabbedPane.addTab("Parameter Space " + GraphTabbedPane.tabNumber,
+					pane);
+			tabbedPane.setSelectedComponent(pane);
+
+			// close the dialog window
+			setVisible(false);
+			dispose();
+		}
+	}
+}
@@ -3,8 +3,6 @@ package edu.bsu.julia.gui.actions;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.swing.AbstractAction;
 import javax.swing.JButton;
@@ -16,17 +14,15 @@ import javax.swing.JTextField;
 import org.apache.commons.math.complex.Complex;
 
 import edu.bsu.julia.Julia;
-import edu.bsu.julia.generators.FullForwardsOutputSetGenerator;
-import edu.bsu.julia.generators.FullForwardsOutputSetGenerator.Mode;
+import edu.bsu.julia.generators.OutputSetGenerator;
+import edu.bsu.julia.generators.PostCriticalOutputSetGenerator;
 import edu.bsu.julia.gui.GUIUtil;
 import edu.bsu.julia.gui.InputPanel;
 import edu.bsu.julia.gui.JuliaError;
 import edu.bsu.julia.gui.TextFieldFocusListener;
-import edu.bsu.julia.input.CubicInputFunction;
 import edu.bsu.julia.input.InputFunction;
-import edu.bsu.julia.input.BinomialInputFunction;
-import edu.bsu.julia.input.QuadraticInputFunction;
 import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.OutputSetCache;
 import edu.bsu.julia.output.PostCriticalOutputSet;
 import edu.bsu.julia.session.Session;
 
@@ -160,41 +156,32 @@ public class PostCriticalAction extends AbstractAction {
 			InputPanel inputPanel = parentFrame.getInputPanel();
 			InputFunction[] inFunc = inputPanel.getSelectedFunctions();
 
-			// find the critical points to use as seeds
-			List<Complex> seedList = new ArrayList<Complex>();
-			Complex negOne = new Complex(-1, 0);
-			Complex two = new Complex(2, 0);
-			Complex zero = new Complex(0, 0);
-			for (InputFunction function : inFunc) {
-				Complex seed;
-				if (function instanceof CubicInputFunction) {
-					seed = zero;
-				} else if (function instanceof QuadraticInputFunction) {
-					Complex[] coefficients = function.getCoefficients();
-					seed = (coefficients[1].multiply(negOne)).divide(coefficients[0].multiply(two));
-				} else if (function instanceof BinomialInputFunction) {						/* HERE! */
-					seed = zero;
-				} else
-					continue;
-
-				for (int seedi = 0; seedi < function.getM(); seedi++) {
-					seed = function.evaluateFunction(seed);
-					seedList.add(seed);
-				}
-			}
+			// the critical values are computed by the generator, here just
+			// check that at least one function has critical points
+			boolean hasCriticalPoints = false;
+			for (InputFunction function : inFunc)
+				if (function.getM() > 0
+						&& function.getCriticalPoints().length > 0)
+					hasCriticalPoints = true;
 
 			// see if any critical points were found
-			if (seedList.size() == 0) {
+			if (!hasCriticalPoints) {
 				JOptionPane.showMessageDialog(parentFrame,
 						"No critical Points exist");
 			} else {
+				// use the cached points if this set was generated before
+				OutputSetGenerator generator = OutputSetCache.getInstance()
+						.find(OutputSetCache.createKey(
+								OutputSet.Type.POST_CRITICAL, info, inFunc,
+								null, tValue));
+				if (generator == null)
+					generator = new PostCriticalOutputSetGenerator(parentFrame,
+							tValue, inFunc);
+
 				// create the output function and add it to the session
 				session.addOutputSet(new PostCriticalOutputSet(info, inFunc,
-						OutputSet.Type.POST_CRITICAL, tValue,
-						new FullForwardsOutputSetGenerator(parentFrame,
-								tValue - 1, seedList
-										.toArray(new Complex[] {}),
-								inFunc, Mode.POST_CRITICAL), listener));
+						OutputSet.Type.POST_CRITICAL, tValue, generator,
+						listener));
 			}
 
 			// close the dialog window
@@ -1,12 +1,27 @@
 package edu.bsu.julia.gui.actions;
 
+import java.awt.BorderLayout;
+import java.awt.Font;
 import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.AbstractAction;
+import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
 import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTextArea;
+import javax.swing.SwingWorker;
 
 import edu.bsu.julia.Julia;
+import edu.bsu.julia.analysis.SetDistance;
+import edu.bsu.julia.gui.JuliaError;
 import edu.bsu.julia.output.OutputSet;
 
 public class PropertiesAction extends AbstractAction {
@@ -27,8 +42,82 @@ public class PropertiesAction extends AbstractAction {
 	}
 
 	public void actionPerformed(ActionEvent arg0) {
-		JOptionPane.showMessageDialog(parentFrame, set.propertiesComponents(),
-				"Properties", JOptionPane.INFORMATION_MESSAGE);
+		JComponent[] properties = set.propertiesComponents();
+		JComponent compare = comparePanel();
+		if (compare != null) {
+			JComponent[] all = new JComponent[properties.length + 1];
+			System.arraycopy(properties, 0, all, 0, properties.length);
+			all[properties.length] = compare;
+			properties = all;
+		}
+		JOptionPane.showMessageDialog(parentFrame, properties, "Properties",
+				JOptionPane.INFORMATION_MESSAGE);
+	}
+
+	/**
+	 * a panel to measure the distance between the set and another loaded set
+	 *
+	 * @return the panel or null if there is nothing to compare
+	 */
+	private JComponent comparePanel() {
+		if (!set.isLoaded())
+			return null;
+		List<OutputSet> others = new ArrayList<OutputSet>();
+		for (OutputSet other : parentFrame.getCurrentSession().getOutputSets())
+			if (other != set && other.isLoaded())
+				others.add(other);
+		if (others.isEmpty())
+			return null;
+
+		final JComboBox<OutputSet> choice = new JComboBox<OutputSet>(others
+				.toArray(new OutputSet[others.size()]));
+		final JButton button = new JButton("Compare");
+		final JTextArea results = new JTextArea(4, 40);
+		results.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+		results.setEditable(false);
+
+		button.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				final OutputSet other = (OutputSet) choice.getSelectedItem();
+				button.setEnabled(false);
+				results.setText("Comparing with " + other + "...");
+				new SwingWorker<SetDistance, Void>() {
+					@Override
+					protected SetDistance doInBackground() {
+						return SetDistance.compare(set.getPoints(true), other
+								.getPoints(true));
+					}
+
+					@Override
+					protected void done() {
+						button.setEnabled(true);
+						try {
+							SetDistance distance = get();
+							results.setText("1st: " + set + "\n2nd: " + other
+									+ "\n" + distance + "\n\n"
+									+ distance.table());
+						} catch (InterruptedException ex) {
+							results.setText("");
+						} catch (ExecutionException ex) {
+							if (ex.getCause() instanceof OutOfMemoryError) {
+								results.setText("");
+								JuliaError.OUT_OF_MEMORY.showDialog(parentFrame);
+							} else
+								results.setText(ex.getCause().getMessage());
+						}
+					}
+				}.execute();
+			}
+		});
+
+		JPanel top = new JPanel(new BorderLayout(5, 0));
+		top.add(choice, BorderLayout.CENTER);
+		top.add(button, BorderLayout.EAST);
+		JPanel panel = new JPanel(new BorderLayout(0, 5));
+		panel.setBorder(BorderFactory.createTitledBorder("Distance to Another Set"));
+		panel.add(top, BorderLayout.NORTH);
+		panel.add(results, BorderLayout.CENTER);
+		return panel;
 	}
 
 }
@@ -7,7 +7,9 @@ import javax.swing.ImageIcon;
 import javax.swing.event.ChangeEvent;
 
 import edu.bsu.julia.Julia;
+import edu.bsu.julia.gui.GraphScrollPane;
 import edu.bsu.julia.gui.GraphTabbedPane;
+import edu.bsu.julia.gui.ParameterSpacePane;
 
 public class RemoveTabAction extends AbstractAction {
 
@@ -26,7 +28,12 @@ public class RemoveTabAction extends AbstractAction {
 
 	public void actionPerformed(ActionEvent event) {
 		GraphTabbedPane pane = parentFrame.getTabbedPane();
-		if (pane.getTabCount() > 1) {
+		// always keep at least one graph
+		boolean isGraph = pane.getSelectedComponent() instanceof GraphScrollPane;
+		if (pane.getTabCount() > 1
+				&& (!isGraph || pane.getGraphTabCount() > 1)) {
+			if (pane.getSelectedComponent() instanceof ParameterSpacePane)
+				((ParameterSpacePane) pane.getSelectedComponent()).cancel();
 			pane.removeTabAt(pane.getSelectedIndex());
 			pane.stateChanged(new ChangeEvent(pane));
 		}
@@ -91,6 +91,7 @@ public class SaveSessionAction extends AbstractAction {
 		// create an exporter to save the file
 		final SessionFileExporter exporter = new SessionFileExporter(file);
 		parentFrame.getCurrentSession().export(exporter);
+		exporter.setCompressPoints(parentFrame.getCompressTrigger());
 		exporter.addPropertyChangeListener(new PropertyChangeListener() {
 			@Override
 			public void propertyChange(PropertyChangeEvent evt) {
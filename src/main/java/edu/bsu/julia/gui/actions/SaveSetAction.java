@@ -2,8 +2,6 @@ package edu.bsu.julia.gui.actions;
 
 import java.awt.event.ActionEvent;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 
 import javax.swing.AbstractAction;
@@ -13,6 +11,7 @@ import javax.swing.filechooser.FileFilter;
 
 import edu.bsu.julia.Julia;
 import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.PointFileCodec;
 
 public class SaveSetAction extends AbstractAction {
 
@@ -64,15 +63,7 @@ public class SaveSetAction extends AbstractAction {
 			File datFile = set.getFiles()[1];
 
 			try {
-				FileInputStream in = new FileInputStream(datFile);
-				FileOutputStream out = new FileOutputStream(file);
-				byte[] buf = new byte[1024];
-				int len = 0;
-				while ((len = in.read(buf)) != -1) {
-					out.write(buf, 0, len);
-				}
-				in.close();
-				out.close();
+				PointFileCodec.copy(datFile, file);
 				return;
 			} catch (IOException e) {
 				e.printStackTrace();
@@ -144,6 +144,56 @@ public class BinomialInputFunction extends InputFunction {
 		return result.toArray(new Complex[] {});
 	}
 
+	/**
+	 * the only critical point of az^b + c in the plane is 0 when |b| is at
+	 * least 2. when b is 1 or -1 the function is one to one and has none.
+	 */
+	@Override
+	public Complex[] getCriticalPoints() {
+		if (Math.abs(bValue) < 2)
+			return new Complex[] {};
+		return new Complex[] { Complex.ZERO };
+	}
+
+	/**
+	 * when b is negative 0 is a pole and infinity is also a critical point.
+	 * The orbit of 0 goes to infinity and then to c, so the finite critical
+	 * values are c and its images.
+	 * 
+	 * @see InputFunction#getCriticalValues()
+	 */
+	@Override
+	public Complex[] getCriticalValues() {
+		if (bValue > -2)
+			return super.getCriticalValues();
+
+		Complex[] values = new Complex[getM()];
+		Complex value = cValue;
+		for (int i = 0; i < values.length; i++) {
+			values[i] = value;
+			value = evaluateFunction(value);
+		}
+		return values;
+	}
+
+	/**
+	 * only a polynomial when the exponent is positive. the exponent itself
+	 * isn't a term.
+	 * 
+	 * @see InputFunction#getPolynomialPowers()
+	 */
+	@Override
+	public int[] getPolynomialPowers() {
+		if (bValue < 0)
+			return null;
+		return new int[] { bValue, -1, 0 };
+	}
+
+	@Override
+	public int getDegree() {
+		return Math.abs(bValue);
+	}
+
 	public String toString() {
 		return "f" + getSubscript() + "(z) = "
 				+ ComplexNumberUtils.complexToString(aValue) + "z^ " + bValue
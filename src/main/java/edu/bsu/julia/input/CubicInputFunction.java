@@ -112,6 +112,24 @@ public class CubicInputFunction extends InputFunction {
 		return finalResults;
 	}
 
+	/**
+	 * the only critical point of az^3 + b is 0
+	 */
+	@Override
+	public Complex[] getCriticalPoints() {
+		return new Complex[] { Complex.ZERO };
+	}
+
+	@Override
+	public int[] getPolynomialPowers() {
+		return new int[] { 3, 0 };
+	}
+
+	@Override
+	public int getDegree() {
+		return 3;
+	}
+
 	public String toString() {
 		Complex a = coefficientArray[0];
 		Complex b = coefficientArray[1];
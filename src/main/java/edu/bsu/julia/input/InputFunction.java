@@ -5,6 +5,8 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -155,6 +157,138 @@ public abstract class InputFunction {
 
 	public abstract Complex evaluateFunction(Complex seed);
 
+	/**
+	 * @return the critical points of one application of the function (the
+	 *         points in the plane where its derivative is zero). Subclasses
+	 *         with critical points must override this, by default there are
+	 *         none.
+	 */
+	public Complex[] getCriticalPoints() {
+		return new Complex[] {};
+	}
+
+	/**
+	 * The critical values of the function composed with itself m times. These
+	 * are the images of the critical points of one application under the
+	 * first m iterates of the function, f(c), f(f(c)), ... , f^m(c). They are
+	 * used as the starting points of a post critical set.
+	 * 
+	 * @return an array of the critical values, empty if the function has no
+	 *         critical points
+	 * @throws ArithmeticException
+	 *             if division by zero occurs.
+	 */
+	public Complex[] getCriticalValues() {
+		List<Complex> values = new ArrayList<Complex>();
+		for (Complex point : getCriticalPoints()) {
+			Complex value = point;
+			for (int i = 0; i < m; i++) {
+				value = evaluateFunction(value);
+				values.add(value);
+			}
+		}
+		return values.toArray(new Complex[] {});
+	}
+
+	/**
+	 * @return the number of inverse values of one application of the function
+	 *         (the degree of the function). Subclasses with more than one
+	 *         inverse value must override this.
+	 */
+	public int getDegree() {
+		return 1;
+	}
+
+	/**
+	 * @return the number of values returned by
+	 *         {@link #evaluateBackwardsFull(Complex)} for one seed, the degree
+	 *         raised to the m power
+	 */
+	public long getBranchCount() {
+		long count = 1;
+		for (int i = 0; i < m && count <= Integer.MAX_VALUE; i++)
+			count *= getDegree();
+		return count;
+	}
+
+	/**
+	 * @return the power of z that each coefficient multiplies if this function
+	 *         is a polynomial, in the same order as {@link #getCoefficients()}.
+	 *         Coefficients that aren't a term of the polynomial (like the
+	 *         exponent of a binomial function) have a power of -1. Returns
+	 *         null if this function isn't a polynomial.
+	 */
+	public int[] getPolynomialPowers() {
+		return null;
+	}
+
+	/**
+	 * create a function of the same type as this one with different
+	 * coefficients
+	 * 
+	 * @param mValue
+	 *            the m value of the new function
+	 * @param coefficients
+	 *            the coefficients of the new function, in the same order as
+	 *            {@link #getCoefficients()}
+	 * @return a new {@link InputFunction}
+	 * @throws IllegalArgumentException
+	 *             if the coefficients aren't valid for this type
+	 */
+	public InputFunction newInstance(int mValue, Complex[] coefficients)
+			throws IllegalArgumentException {
+		return newInstance(getClass(), mValue, coefficients);
+	}
+
+	/**
+	 * create an {@link InputFunction} with the public constructor of the class
+	 * that takes the m value and one argument per coefficient. int arguments
+	 * (like the exponent of a binomial function) are taken from the real part
+	 * of the coefficient.
+	 * 
+	 * @param type
+	 *            the class of the function
+	 * @param mValue
+	 *            the m value of the new function
+	 * @param coefficients
+	 *            the coefficients of the new function
+	 * @return a new {@link InputFunction}
+	 * @throws IllegalArgumentException
+	 *             if the class has no such constructor or the coefficients
+	 *             aren't valid for it
+	 */
+	public static InputFunction newInstance(
+			Class<? extends InputFunction> type, int mValue,
+			Complex[] coefficients) throws IllegalArgumentException {
+		for (Constructor<?> c : type.getConstructors()) {
+			Class<?>[] types = c.getParameterTypes();
+			if (types.length != coefficients.length + 1 || types[0] != int.class)
+				continue;
+
+			Object[] args = new Object[types.length];
+			args[0] = mValue;
+			for (int i = 1; i < args.length; i++) {
+				if (types[i] == int.class)
+					args[i] = (int) Math.round(coefficients[i - 1].getReal());
+				else
+					args[i] = coefficients[i - 1];
+			}
+
+			try {
+				return (InputFunction) c.newInstance(args);
+			} catch (InvocationTargetException e) {
+				// the constructor rejected the coefficients
+				if (e.getCause() instanceof IllegalArgumentException)
+					throw (IllegalArgumentException) e.getCause();
+				throw new IllegalArgumentException(e.getCause());
+			} catch (Exception e) {
+				throw new IllegalArgumentException(e);
+			}
+		}
+		throw new IllegalArgumentException("wrong number of coefficients for "
+				+ type.getName());
+	}
+
 	/**
 	 * @return A string representation of the function as it should appear in
 	 *         the input function list (left hand side of the program). This
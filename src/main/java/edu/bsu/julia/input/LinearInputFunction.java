@@ -85,6 +85,11 @@ public class LinearInputFunction extends InputFunction {
 		return result;
 	}
 
+	@Override
+	public int[] getPolynomialPowers() {
+		return new int[] { 1, 0 };
+	}
+
 	public String toString() {
 		Complex a = coefficientArray[0];
 		Complex b = coefficientArray[1];
@@ -141,6 +141,26 @@ public class QuadraticInputFunction extends InputFunction {
 		return finalResults;
 	}
 
+	/**
+	 * the only critical point of az^2 + bz + c is -b/2a
+	 */
+	@Override
+	public Complex[] getCriticalPoints() {
+		Complex a = coefficientArray[0];
+		Complex b = coefficientArray[1];
+		return new Complex[] { b.multiply(NEG_ONE).divide(a.multiply(TWO)) };
+	}
+
+	@Override
+	public int[] getPolynomialPowers() {
+		return new int[] { 2, 1, 0 };
+	}
+
+	@Override
+	public int getDegree() {
+		return 2;
+	}
+
 	public String toString() {
 		Complex a = coefficientArray[0];
 		Complex b = coefficientArray[1];
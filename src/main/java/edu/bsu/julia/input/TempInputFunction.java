@@ -160,6 +160,22 @@ public class TempInputFunction extends InputFunction {
 		return result.toArray(new Complex[] {});
 	}
 
+	/**
+	 * the critical points of az^b + c/z^b in the plane are the 2b roots of
+	 * z^2b = c/a. The poles 0 and infinity are also critical when b is at
+	 * least 2 but both map to infinity.
+	 */
+	@Override
+	public Complex[] getCriticalPoints() {
+		return cValue.divide(aValue).nthRoot(2 * bValue).toArray(
+				new Complex[] {});
+	}
+
+	@Override
+	public int getDegree() {
+		return 2 * bValue;
+	}
+
 	public String toString() {
 		return "f" + getSubscript() + "(z) = "
 				+ ComplexNumberUtils.complexToString(aValue) + "z^ " + bValue
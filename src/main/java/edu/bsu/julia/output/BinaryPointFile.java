@@ -0,0 +1,165 @@
+package edu.bsu.julia.output;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import org.apache.commons.math.complex.Complex;
+
+/**
+ * utility class to read and write the points of an {@link OutputSet} in a
+ * compact binary format. The file starts with a small header (a magic number,
+ * a free-form header string and the number of points) followed by the real
+ * and imaginary parts of every point as 8 byte doubles.
+ *
+ * <p>
+ * Unlike the text .dat files this format stores the exact double values and
+ * can be read without any parsing.
+ * </p>
+ */
+public final class BinaryPointFile {
+	private static final int MAGIC = 0x4A505453; // "JPTS"
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * private constructor so that this class can only be used staticly
+	 */
+	private BinaryPointFile() {
+
+	}
+
+	/**
+	 * write the points to a file
+	 *
+	 * @param file
+	 *            the {@link File} to write
+	 * @param header
+	 *            a {@link String} stored in the file header, may be empty
+	 * @param points
+	 *            the array of {@link Complex} to write
+	 * @throws IOException
+	 *             if the file could not be written
+	 */
+	public static void write(File file, String header, Complex[] points)
+			throws IOException {
+		byte[] headerBytes = header.getBytes(UTF8);
+		FileOutputStream stream = new FileOutputStream(file);
+		FileChannel channel = stream.getChannel();
+		try {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			buffer.putInt(MAGIC);
+			buffer.putInt(headerBytes.length);
+			buffer.put(headerBytes);
+			buffer.putLong(points.length);
+
+			for (Complex point : points) {
+				if (buffer.remaining() < 16) {
+					drain(buffer, channel);
+				}
+				buffer.putDouble(point.getReal());
+				buffer.putDouble(point.getImaginary());
+			}
+			drain(buffer, channel);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * read only the header {@link String} of a file
+	 *
+	 * @param file
+	 *            the {@link File} to read
+	 * @return the header {@link String}
+	 * @throws IOException
+	 *             if the file is not a binary point file
+	 */
+	public static String readHeader(File file) throws IOException {
+		FileInputStream stream = new FileInputStream(file);
+		try {
+			return readHeader(stream.getChannel(), ByteBuffer
+					.allocate(BUFFER_SIZE));
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * read all the points from a file
+	 *
+	 * @param file
+	 *            the {@link File} to read
+	 * @return an array of {@link Complex}
+	 * @throws IOException
+	 *             if the file is not a binary point file or is truncated
+	 */
+	public static Complex[] read(File file) throws IOException {
+		FileInputStream stream = new FileInputStream(file);
+		FileChannel channel = stream.getChannel();
+		try {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			readHeader(channel, buffer);
+			fill(buffer, channel, 8);
+			long count = buffer.getLong();
+			if (count < 0 || count > Integer.MAX_VALUE)
+				throw new IOException("invalid point count: " + count);
+
+			Complex[] points = new Complex[(int) count];
+			for (int i = 0; i < points.length; i++) {
+				fill(buffer, channel, 16);
+				points[i] = new Complex(buffer.getDouble(), buffer.getDouble());
+			}
+			return points;
+		} finally {
+			stream.close();
+		}
+	}
+
+	private static String readHeader(FileChannel channel, ByteBuffer buffer)
+			throws IOException {
+		buffer.clear();
+		buffer.limit(0);
+		fill(buffer, channel, 8);
+		if (buffer.getInt() != MAGIC)
+			throw new IOException("not a binary point file");
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.capacity())
+			throw new IOException("invalid header length: " + length);
+		fill(buffer, channel, length);
+		byte[] headerBytes = new byte[length];
+		buffer.get(headerBytes);
+		return new String(headerBytes, UTF8);
+	}
+
+	/**
+	 * make sure the buffer has at least the given number of bytes remaining,
+	 * reading more from the channel if needed
+	 */
+	private static void fill(ByteBuffer buffer, FileChannel channel, int bytes)
+			throws IOException {
+		if (buffer.remaining() >= bytes)
+			return;
+		buffer.compact();
+		while (buffer.position() < bytes) {
+			if (channel.read(buffer) == -1)
+				throw new IOException("unexpected end of file");
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * write everything in the buffer to the channel and clear it
+	 */
+	private static void drain(ByteBuffer buffer, FileChannel channel)
+			throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+}
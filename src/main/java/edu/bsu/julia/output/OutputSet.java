@@ -9,13 +9,11 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -31,7 +29,11 @@ import org.apache.commons.math.complex.Complex;
 
 import edu.bsu.julia.ComplexNumberUtils;
 import edu.bsu.julia.Julia;
+import edu.bsu.julia.analysis.PointTree;
+import edu.bsu.julia.generators.CoverageMonitor;
+import edu.bsu.julia.generators.GeneratorStats;
 import edu.bsu.julia.generators.OutputSetGenerator;
+import edu.bsu.julia.generators.RandomOutputSetGenerator;
 import edu.bsu.julia.input.InputFunction;
 import edu.bsu.julia.session.Session;
 
@@ -72,6 +74,42 @@ public class OutputSet {
 		public String description() {
 			return description;
 		}
+
+		/**
+		 * @return true if sets of this type are made with a random method and
+		 *         will be different each time they are generated
+		 */
+		public boolean isRandom() {
+			switch (this) {
+			case RANDOM_JULIA:
+			case RANDOM_ATTR:
+			case RANDOM_INVERSE_IMAGE:
+			case IND_RANDOM_JULIA:
+			case IND_RANDOM_ATTR:
+				return true;
+			default:
+				return false;
+			}
+		}
+
+		/**
+		 * @return true if the points of sets of this type are found by
+		 *         applying inverses of the input functions, so every point is
+		 *         on one branch of an inverse
+		 */
+		public boolean isBackwards() {
+			switch (this) {
+			case FULL_JULIA:
+			case RANDOM_JULIA:
+			case RANDOM_INVERSE_IMAGE:
+			case FULL_INVERSE_IMAGE:
+			case IND_FULL_JULIA:
+			case IND_RANDOM_JULIA:
+				return true;
+			default:
+				return false;
+			}
+		}
 	}
 
 	/**
@@ -115,8 +153,15 @@ public class OutputSet {
 	protected final Type functionType;
 	protected final InputFunction[] inputFunctions;
 	private Complex[] points;
+	// the low parts of points made in extended precision
+	private double[] residuals;
+	private boolean extended;
 	private OutputSetGenerator generator;
 	protected File pointsFile;
+	// the exact high and low parts of the points of a set made in extended
+	// precision, read back instead of the points file whose text only has
+	// six digits. null for sets made in double precision
+	private volatile File exactFile;
 
 	private Color c;
 	private final static Color[] colorSet = { Color.BLACK, Color.BLUE,
@@ -127,6 +172,8 @@ public class OutputSet {
 	private final JProgressBar bar = new JProgressBar(0, 100);
 	private SwingWorker<File, Void> tempFileWriter;
 	private SwingWorker<Complex[], Void> tempFileReader;
+	private PointTree index;
+	private SwingWorker<PointTree, Void> indexBuilder;
 	protected final long creationTime;
 
 	public OutputSet(Info info, InputFunction[] i, Type type,
@@ -146,7 +193,11 @@ public class OutputSet {
 			@Override
 			public void propertyChange(PropertyChangeEvent evt) {
 				if ("progress".equals(evt.getPropertyName())) {
-					bar.setValue((Integer) evt.getNewValue());
+					int percent = (Integer) evt.getNewValue();
+					String left = generator.getStats().describeTimeLeft();
+					bar.setValue(percent);
+					bar.setString((left == null || percent == 100) ? null
+							: percent + "%, " + left);
 					support.firePropertyChange("repaint", null, null);
 				} else if ("state".equals(evt.getPropertyName())
 						&& (StateValue) evt.getNewValue() == StateValue.DONE) {
@@ -161,7 +212,16 @@ public class OutputSet {
 						listener.actionPerformed(new ActionEvent(
 								OutputSet.this, 0, "delete output set"));
 					} else {
+						if (generator instanceof RandomOutputSetGenerator)
+							residuals = ((RandomOutputSetGenerator) generator)
+									.getResiduals();
+						extended = residuals != null;
+						// the cache only holds double precision points
+						if (residuals == null)
+							OutputSetCache.getInstance().put(getCacheKey(),
+									points);
 						writePointsTempFile();
+						buildIndex();
 						support.firePropertyChange("reselect", null, null);
 					}
 				}
@@ -207,6 +267,32 @@ public class OutputSet {
 		support.firePropertyChange("Color", null, newColor);
 	}
 
+	/**
+	 * @return the {@link CoverageMonitor} of a random set that was stopped
+	 *         when it converged, or null
+	 */
+	public CoverageMonitor getCoverage() {
+		if (generator instanceof RandomOutputSetGenerator)
+			return ((RandomOutputSetGenerator) generator).getCoverage();
+		return null;
+	}
+
+	/**
+	 * @return the measurements of the generator that made the points
+	 */
+	public GeneratorStats getGeneratorStats() {
+		return generator.getStats();
+	}
+
+	/**
+	 * @return the low parts of the points if the set was made in extended
+	 *         precision, the real and imaginary low part of each point of
+	 *         {@link #getPoints()} in turn, otherwise null
+	 */
+	public double[] getResiduals() {
+		return residuals;
+	}
+
 	public InputFunction[] getInputFunctions() {
 		return inputFunctions;
 	}
@@ -236,8 +322,10 @@ public class OutputSet {
 
 		// we don't have the points, should we wait for them or not
 		if (shouldWait) {
-			// if the generator isn't done, wait on it to finish
-			if (!generator.isDone()) {
+			// if the generator isn't done, wait on it to finish. if it is done
+			// but there's no temp file yet the points haven't been stored, so
+			// take them from the generator too
+			if (!generator.isDone() || pointsFile == null) {
 				try {
 					Complex[] results = generator.get();
 					if (results != null)
@@ -358,35 +446,93 @@ public class OutputSet {
 		return points != null;
 	}
 
+	/**
+	 * @return true if the points have been written to a temp file, after this
+	 *         {@link #getFiles()} won't have to wait
+	 */
+	public boolean hasPointsFile() {
+		return pointsFile != null;
+	}
+
 	public Component getLoadingComponent() {
 		bar.setStringPainted(true);
 		return bar;
 	}
 
 	public void unload() {
-		if (pointsFile == null)
+		// points in extended precision can only be read back exactly
+		if (pointsFile == null || (extended && exactFile == null))
 			return;
 		points = null;
+		residuals = null;
+		index = null;
+	}
+
+	/**
+	 * @return the {@link PointTree} of the points for finding the point
+	 *         nearest to a place, or null if the set isn't loaded or the tree
+	 *         is still being built. The indices it returns are indices of
+	 *         {@link #getPoints()}.
+	 */
+	public PointTree getIndex() {
+		return index;
+	}
+
+	private void buildIndex() {
+		if (index != null || indexBuilder != null || points == null)
+			return;
+
+		final Complex[] indexed = points;
+		indexBuilder = new SwingWorker<PointTree, Void>() {
+			@Override
+			protected PointTree doInBackground() {
+				return new PointTree(indexed);
+			}
+		};
+
+		indexBuilder.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				if ("state".equals(evt.getPropertyName())
+						&& (StateValue) evt.getNewValue() == StateValue.DONE) {
+					// the set may have been unloaded while the tree was built.
+					// without a tree picking just finds nothing, so errors
+					// like running out of memory are left quiet
+					try {
+						if (points == indexed)
+							index = indexBuilder.get();
+					} catch (Exception e) {
+					}
+					indexBuilder = null;
+					if (index == null && points != null && points != indexed)
+						buildIndex();
+				}
+			}
+		});
+		indexBuilder.execute();
 	}
 
 	private void writePointsTempFile() {
 		if (pointsFile != null || tempFileWriter != null || points == null)
 			return;
 
+		final Complex[] written = points;
+		final double[] low = residuals;
 		tempFileWriter = new SwingWorker<File, Void>() {
 			public File doInBackground() {
 				try {
 					// create a new temp file and open it.
 					File file = File.createTempFile("output", ".dat");
 					file.deleteOnExit();
-
-					PrintStream out = new PrintStream(
-							new FileOutputStream(file));
-
-					for (Complex p : points)
-						out.println(ComplexNumberUtils.exportString(p));
-
-					out.close();
+					PointFileCodec.write(written, file);
+					if (low != null) {
+						// without it the set just stays loaded
+						try {
+							exactFile = writeExactFile(written, low);
+						} catch (IOException e) {
+							e.printStackTrace();
+						}
+					}
 					return file;
 				} catch (IOException e) {
 					e.printStackTrace();
@@ -405,6 +551,9 @@ public class OutputSet {
 					} catch (Exception e) {
 					}
 					tempFileWriter = null;
+					if (pointsFile != null)
+						support.firePropertyChange("pointsFile", null,
+								pointsFile);
 				}
 			}
 		});
@@ -415,24 +564,15 @@ public class OutputSet {
 		if (tempFileReader != null || points != null || pointsFile == null)
 			return;
 
+		// the low parts read with the points of an extended set
+		final double[][] low = new double[1][];
 		tempFileReader = new SwingWorker<Complex[], Void>() {
 			@Override
 			protected Complex[] doInBackground() throws Exception {
-				List<Complex> tempPoints = new ArrayList<Complex>();
-
 				try {
-					// open the temp file
-					Scanner in = new Scanner(new FileInputStream(pointsFile));
-
-					// try to read all the points
-					while (in.hasNextLine()) {
-						String line = in.nextLine();
-						tempPoints.add(ComplexNumberUtils.parseComplexNumber(line));
-					}
-					in.close();
-
-					// create an array
-					return tempPoints.toArray(new Complex[] {});
+					if (exactFile != null)
+						return readExactFile(exactFile, low);
+					return PointFileCodec.read(pointsFile);
 				} catch (IOException e) {
 					return null;
 				}
@@ -449,9 +589,12 @@ public class OutputSet {
 					} catch (Exception e) {
 						points = null;
 					}
+					residuals = (points != null) ? low[0] : null;
 
-					if (points != null)
+					if (points != null) {
 						support.firePropertyChange("reselect", null, null);
+						buildIndex();
+					}
 					tempFileReader = null;
 				}
 			}
@@ -460,6 +603,49 @@ public class OutputSet {
 		tempFileReader.execute();
 	}
 
+	/**
+	 * write the high parts of the points followed by their low parts, each
+	 * pair of low parts as one point, to a {@link BinaryPointFile}. Null
+	 * points are written as NaN.
+	 */
+	private static File writeExactFile(Complex[] high, double[] low)
+			throws IOException {
+		Complex nothing = new Complex(Double.NaN, Double.NaN);
+		Complex[] parts = new Complex[high.length * 2];
+		for (int i = 0; i < high.length; i++) {
+			parts[i] = (high[i] == null) ? nothing : high[i];
+			parts[high.length + i] = new Complex(low[2 * i], low[2 * i + 1]);
+		}
+		File file = File.createTempFile("output", ".pts");
+		file.deleteOnExit();
+		BinaryPointFile.write(file, "extended", parts);
+		return file;
+	}
+
+	/**
+	 * read the points and residuals written by
+	 * {@link #writeExactFile(Complex[], double[])}
+	 *
+	 * @param low
+	 *            the residuals are put in the first element
+	 * @return the points
+	 */
+	private static Complex[] readExactFile(File file, double[][] low)
+			throws IOException {
+		Complex[] parts = BinaryPointFile.read(file);
+		int count = parts.length / 2;
+		Complex[] high = new Complex[count];
+		low[0] = new double[count * 2];
+		for (int i = 0; i < count; i++) {
+			Complex point = parts[i];
+			high[i] = (Double.isNaN(point.getReal()) && Double.isNaN(point
+					.getImaginary())) ? null : point;
+			low[0][2 * i] = parts[count + i].getReal();
+			low[0][2 * i + 1] = parts[count + i].getImaginary();
+		}
+		return high;
+	}
+
 	/**
 	 * called when an {@link OutputSet} is deleted from the session
 	 */
@@ -512,6 +698,15 @@ public class OutputSet {
 		return creationTime;
 	}
 
+	/**
+	 * @return the key of this {@link OutputSet} in the {@link OutputSetCache}
+	 *         or null if this set can't be cached
+	 */
+	public String getCacheKey() {
+		return OutputSetCache.createKey(functionType, iterations, skips, seed,
+				inputFunctions, null, null);
+	}
+
 	/**
 	 * create a string to represent this function's history
 	 * 
@@ -555,6 +750,11 @@ public class OutputSet {
 		if (points != null)
 			panel.add(new JLabel("Actual number of points in the set:   "
 					+ points.length));
+		CoverageMonitor coverage = getCoverage();
+		if (coverage != null)
+			panel.add(new JLabel("Coverage:  " + coverage));
+		panel.add(new JLabel("Precision:  "
+				+ (extended ? "double-double" : "double")));
 
 		JList list = new JList(inputFunctions);
 		list.setVisibleRowCount(6);
@@ -0,0 +1,409 @@
+package edu.bsu.julia.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.generators.CachedOutputSetGenerator;
+import edu.bsu.julia.generators.DummyOutputSetGenerator;
+import edu.bsu.julia.generators.OutputSetGenerator;
+import edu.bsu.julia.input.InputFunction;
+
+/**
+ * a content addressed cache for the points of {@link OutputSet}s. The key of
+ * an entry is built from everything that determines the points of a set: the
+ * {@link OutputSet.Type}, the iterations, skips and seed, the class, m value
+ * and coefficients of every {@link InputFunction}, the keys of any source
+ * {@link OutputSet}s and the version of the generators that made it. Sets made with a random method are never cached since
+ * generating them again is expected to produce a different sample.
+ *
+ * <p>
+ * The cache has two tiers. The memory tier keeps soft references to the most
+ * recently used point arrays (least recently used entries are evicted once
+ * the point limit is reached). The disk tier is off until it is turned on
+ * with {@link #setDiskEnabled(boolean)}. It stores every cached set in the
+ * {@link BinaryPointFile} format in the julia-cache directory of the system
+ * temp directory so entries survive the memory tier and program restarts,
+ * up to {@link #setMaxDiskBytes(long)}.
+ * </p>
+ */
+public class OutputSetCache {
+	private static final String CACHE_DIRECTORY = "julia-cache";
+	private static final String FILE_EXTENSION = ".pts";
+	private static final long DEFAULT_MEMORY_POINTS = 20000000L;
+	private static final long DEFAULT_DISK_BYTES = 2L * 1024 * 1024 * 1024;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	// part of every key. Raise it whenever a generator makes different points
+	// for the same parameters or the file format changes, so the entries on
+	// disk from older versions are never found again
+	private static final int VERSION = 2;
+
+	private static OutputSetCache instance;
+
+	private final LinkedHashMap<String, SoftReference<Complex[]>> memory = new LinkedHashMap<String, SoftReference<Complex[]>>(
+			16, 0.75f, true);
+	private final File directory;
+	private final ExecutorService diskWriter;
+	private long memoryPoints = 0;
+	private long maxMemoryPoints = DEFAULT_MEMORY_POINTS;
+	private volatile long maxDiskBytes = DEFAULT_DISK_BYTES;
+	private volatile boolean diskEnabled = false;
+
+	/**
+	 * @return the {@link OutputSetCache} shared by the whole program
+	 */
+	public static synchronized OutputSetCache getInstance() {
+		if (instance == null)
+			instance = new OutputSetCache(new File(System
+					.getProperty("java.io.tmpdir"), CACHE_DIRECTORY));
+		return instance;
+	}
+
+	/**
+	 * constructor for {@link OutputSetCache}
+	 *
+	 * @param dir
+	 *            the directory to use for the disk tier
+	 */
+	public OutputSetCache(File dir) {
+		directory = dir;
+		diskWriter = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "julia-cache-writer");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * create the cache key for an {@link OutputSet}
+	 *
+	 * @param type
+	 *            the {@link OutputSet.Type} of the set
+	 * @param info
+	 *            the {@link OutputSet.Info} used to create the set
+	 * @param functions
+	 *            the array of {@link InputFunction} used to create the set
+	 * @param sources
+	 *            the source {@link OutputSet}s of a {@link RecursiveOutputSet}
+	 *            or null
+	 * @param tValue
+	 *            the t value of a {@link PostCriticalOutputSet} or null
+	 * @return the key, or null if a set with these parameters can't be cached
+	 */
+	public static String createKey(OutputSet.Type type, OutputSet.Info info,
+			InputFunction[] functions, OutputSet[] sources, Integer tValue) {
+		return createKey(type, info.iterations(), info.skips(), info.seed(),
+				functions, sources, tValue);
+	}
+
+	/**
+	 * @see #createKey(OutputSet.Type, OutputSet.Info, InputFunction[],
+	 *      OutputSet[], Integer)
+	 */
+	static String createKey(OutputSet.Type type, Integer iterations,
+			Integer skips, Complex seed, InputFunction[] functions,
+			OutputSet[] sources, Integer tValue) {
+		if (type == OutputSet.Type.BASIC || type.isRandom())
+			return null;
+		// post critical sets don't use the skips value
+		if (type == OutputSet.Type.POST_CRITICAL)
+			skips = null;
+
+		StringBuilder key = new StringBuilder();
+		key.append("version=").append(VERSION);
+		key.append(";type=").append(type.name());
+		key.append(";iterations=").append(iterations);
+		key.append(";skips=").append(skips);
+		key.append(";seed=");
+		appendComplex(key, seed);
+		key.append(";t=").append(tValue);
+
+		for (InputFunction function : functions) {
+			key.append(";function=").append(function.getClass().getName());
+			key.append(",m=").append(function.getM());
+			for (Complex coefficient : function.getCoefficients()) {
+				key.append(',');
+				appendComplex(key, coefficient);
+			}
+		}
+
+		if (sources != null) {
+			for (OutputSet source : sources) {
+				String sourceKey = source.getCacheKey();
+				if (sourceKey == null)
+					return null;
+				key.append(";source=[").append(sourceKey).append(']');
+			}
+		}
+		return key.toString();
+	}
+
+	private static void appendComplex(StringBuilder builder, Complex c) {
+		if (c == null) {
+			builder.append("null");
+		} else {
+			builder.append(Double.toString(c.getReal())).append(' ').append(
+					Double.toString(c.getImaginary()));
+		}
+	}
+
+	/**
+	 * look for a cached set
+	 *
+	 * @param key
+	 *            the key created by
+	 *            {@link #createKey(OutputSet.Type, OutputSet.Info, InputFunction[], OutputSet[], Integer)}
+	 *            , may be null
+	 * @return an {@link OutputSetGenerator} that provides the cached points or
+	 *         null if there is no cached set for the key
+	 */
+	public OutputSetGenerator find(String key) {
+		if (key == null)
+			return null;
+
+		Complex[] points = getFromMemory(key);
+		if (points != null)
+			return new DummyOutputSetGenerator(points);
+		if (!diskEnabled)
+			return null;
+
+		File file = fileForKey(key);
+		if (file.isFile()) {
+			try {
+				if (key.equals(BinaryPointFile.readHeader(file))) {
+					file.setLastModified(System.currentTimeMillis());
+					return new CachedOutputSetGenerator(this, key, file);
+				}
+			} catch (IOException e) {
+				file.delete();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * add the points of a set to the cache. The points are added to the memory
+	 * tier immediately and written to the disk tier on a background thread.
+	 *
+	 * @param key
+	 *            the key of the set, nothing is cached if this is null
+	 * @param points
+	 *            the array of {@link Complex} to cache. this array must not be
+	 *            modified after it is cached
+	 */
+	public void put(final String key, final Complex[] points) {
+		if (key == null || points == null || points.length == 0)
+			return;
+
+		putInMemory(key, points);
+		if (!diskEnabled)
+			return;
+
+		final File file = fileForKey(key);
+		if (file.isFile())
+			return;
+		diskWriter.execute(new Runnable() {
+			@Override
+			public void run() {
+				File temp = new File(file.getPath() + ".tmp");
+				try {
+					if (!directory.isDirectory() && !directory.mkdirs())
+						return;
+					BinaryPointFile.write(temp, key, points);
+					if (!temp.renameTo(file))
+						temp.delete();
+					trimDisk();
+				} catch (IOException e) {
+					temp.delete();
+				}
+			}
+		});
+	}
+
+	/**
+	 * called by {@link CachedOutputSetGenerator} when it read points from the
+	 * disk tier
+	 */
+	public void putInMemory(String key, Complex[] points) {
+		synchronized (memory) {
+			SoftReference<Complex[]> old = memory.put(key,
+					new SoftReference<Complex[]>(points));
+			Complex[] oldPoints = (old == null) ? null : old.get();
+			if (oldPoints != null)
+				memoryPoints -= oldPoints.length;
+			memoryPoints += points.length;
+			trimMemory();
+		}
+	}
+
+	private Complex[] getFromMemory(String key) {
+		synchronized (memory) {
+			SoftReference<Complex[]> ref = memory.get(key);
+			if (ref == null)
+				return null;
+			Complex[] points = ref.get();
+			if (points == null)
+				memory.remove(key);
+			return points;
+		}
+	}
+
+	/**
+	 * evict least recently used entries until the memory tier is under the
+	 * point limit. entries that were cleared by the garbage collector are
+	 * removed as well
+	 */
+	private void trimMemory() {
+		long total = 0;
+		Iterator<SoftReference<Complex[]>> it = memory.values().iterator();
+		while (it.hasNext()) {
+			Complex[] points = it.next().get();
+			if (points == null)
+				it.remove();
+			else
+				total += points.length;
+		}
+
+		it = memory.values().iterator();
+		while (total > maxMemoryPoints && memory.size() > 1 && it.hasNext()) {
+			Complex[] points = it.next().get();
+			if (points != null)
+				total -= points.length;
+			it.remove();
+		}
+		memoryPoints = total;
+	}
+
+	/**
+	 * delete the oldest cache files until the disk tier is under the size
+	 * limit
+	 */
+	private void trimDisk() {
+		File[] files = directory.listFiles();
+		if (files == null)
+			return;
+
+		long total = 0;
+		for (File f : files)
+			total += f.length();
+		if (total <= maxDiskBytes)
+			return;
+
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File a, File b) {
+				long diff = a.lastModified() - b.lastModified();
+				return (diff < 0) ? -1 : (diff > 0) ? 1 : 0;
+			}
+		});
+		for (int i = 0; i < files.length && total > maxDiskBytes; i++) {
+			long length = files[i].length();
+			if (files[i].delete())
+				total -= length;
+		}
+	}
+
+	private File fileForKey(String key) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] hash = digest.digest(key.getBytes(UTF8));
+			StringBuilder name = new StringBuilder();
+			for (byte b : hash)
+				name.append(String.format("%02x", b));
+			return new File(directory, name + FILE_EXTENSION);
+		} catch (NoSuchAlgorithmException e) {
+			return new File(directory, Integer.toHexString(key.hashCode())
+					+ FILE_EXTENSION);
+		}
+	}
+
+	/**
+	 * remove every entry from both tiers
+	 */
+	public void clear() {
+		synchronized (memory) {
+			memory.clear();
+			memoryPoints = 0;
+		}
+		File[] files = directory.listFiles();
+		if (files != null)
+			for (File f : files)
+				if (f.getName().endsWith(FILE_EXTENSION))
+					f.delete();
+	}
+
+	/**
+	 * @param points
+	 *            the maximum number of points held by the memory tier
+	 */
+	public void setMaxMemoryPoints(long points) {
+		synchronized (memory) {
+			maxMemoryPoints = points;
+			trimMemory();
+		}
+	}
+
+	/**
+	 * @param enabled
+	 *            true to keep cached sets on disk between runs. The files
+	 *            already on disk are kept when it is turned off.
+	 */
+	public void setDiskEnabled(boolean enabled) {
+		diskEnabled = enabled;
+	}
+
+	/**
+	 * @return true if cached sets are kept on disk
+	 */
+	public boolean isDiskEnabled() {
+		return diskEnabled;
+	}
+
+	/**
+	 * @param bytes
+	 *            the maximum size of the disk tier in bytes. The oldest
+	 *            files are deleted on the writer thread if it is over the new
+	 *            size.
+	 */
+	public void setMaxDiskBytes(long bytes) {
+		maxDiskBytes = bytes;
+		diskWriter.execute(new Runnable() {
+			@Override
+			public void run() {
+				trimDisk();
+			}
+		});
+	}
+
+	/**
+	 * @return the maximum size of the disk tier in bytes
+	 */
+	public long getMaxDiskBytes() {
+		return maxDiskBytes;
+	}
+
+	/**
+	 * @return the number of points currently held by the memory tier
+	 */
+	public long getMemoryPoints() {
+		synchronized (memory) {
+			return memoryPoints;
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package edu.bsu.julia.output;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math.complex.Complex;
+
+/**
+ * draws {@link OutputSet}s into a {@link BufferedImage} without OpenGL or a
+ * display, the same way the graph does: a white background, black axes and
+ * each set's points as square dots in the set's color. Used by the batch mode
+ * to write images on machines without a screen.
+ */
+public class OutputSetRenderer {
+	// fraction of the point bounds added around the points when fitting
+	private static final double MARGIN = 0.05;
+
+	private final int width;
+	private final int height;
+	private int dotSize = 1;
+	private boolean axes = true;
+	private double[] view;
+
+	/**
+	 * constructor for {@link OutputSetRenderer}
+	 *
+	 * @param w
+	 *            the width of the images in pixels
+	 * @param h
+	 *            the height of the images in pixels
+	 */
+	public OutputSetRenderer(int w, int h) {
+		if (w <= 0 || h <= 0)
+			throw new IllegalArgumentException("image size must be positive");
+		width = w;
+		height = h;
+	}
+
+	public void setDotSize(int size) {
+		dotSize = Math.max(1, size);
+	}
+
+	public void setAxesEnabled(boolean enabled) {
+		axes = enabled;
+	}
+
+	/**
+	 * set the part of the plane to draw. if no view is set the view is fit to
+	 * the points of the sets being drawn
+	 *
+	 * @param x
+	 *            the real value of the left edge
+	 * @param y
+	 *            the imaginary value of the bottom edge
+	 * @param w
+	 *            the width in the plane
+	 * @param h
+	 *            the height in the plane
+	 */
+	public void setView(double x, double y, double w, double h) {
+		view = new double[] { x, y, w, h };
+	}
+
+	/**
+	 * @return true if a view was set, false if the view is fit to the points
+	 */
+	public boolean hasView() {
+		return view != null;
+	}
+
+	/**
+	 * draw the sets
+	 *
+	 * @param sets
+	 *            the {@link OutputSet}s to draw, their points are waited for if
+	 *            they aren't loaded
+	 * @return a new {@link BufferedImage}
+	 */
+	public BufferedImage render(List<OutputSet> sets) {
+		Complex[][] points = new Complex[sets.size()][];
+		Color[] colors = new Color[sets.size()];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = sets.get(i).getPoints(true);
+			colors[i] = sets.get(i).getColor();
+		}
+		return render(points, colors);
+	}
+
+	/**
+	 * draw arrays of points that aren't in an {@link OutputSet}
+	 * 
+	 * @param points
+	 *            the arrays of points to draw, later arrays are drawn on top
+	 * @param colors
+	 *            the color of each array of points
+	 * @return a new {@link BufferedImage}
+	 */
+	public BufferedImage render(Complex[][] points, Color[] colors) {
+		double[] v = (view != null) ? view : fitView(points);
+		double scale = Math.min(width / v[2], height / v[3]);
+		// center the view if its aspect ratio is different from the image
+		double left = v[0] + v[2] / 2 - width / scale / 2;
+		double bottom = v[1] + v[3] / 2 - height / scale / 2;
+
+		BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_RGB);
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer())
+				.getData();
+		Arrays.fill(pixels, Color.WHITE.getRGB());
+
+		if (axes) {
+			int black = Color.BLACK.getRGB();
+			int column = (int) Math.floor((0 - left) * scale);
+			int row = height - 1 - (int) Math.floor((0 - bottom) * scale);
+			if (column >= 0 && column < width)
+				for (int j = 0; j < height; j++)
+					pixels[j * width + column] = black;
+			if (row >= 0 && row < height)
+				Arrays.fill(pixels, row * width, (row + 1) * width, black);
+		}
+
+		int offset = (dotSize - 1) / 2;
+		for (int i = 0; i < points.length; i++) {
+			int rgb = colors[i].getRGB();
+			for (Complex point : points[i]) {
+				if (point == null)
+					continue;
+				double re = point.getReal();
+				double im = point.getImaginary();
+				if (Double.isNaN(re) || Double.isNaN(im)
+						|| Double.isInfinite(re) || Double.isInfinite(im))
+					continue;
+
+				int column = (int) Math.floor((re - left) * scale) - offset;
+				int row = height - 1 - (int) Math.floor((im - bottom) * scale)
+						- offset;
+				for (int dy = 0; dy < dotSize; dy++) {
+					int r = row + dy;
+					if (r < 0 || r >= height)
+						continue;
+					for (int dx = 0; dx < dotSize; dx++) {
+						int c = column + dx;
+						if (c >= 0 && c < width)
+							pixels[r * width + c] = rgb;
+					}
+				}
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * @return a view {x, y, width, height} holding all the finite points with
+	 *         a margin around them
+	 */
+	private static double[] fitView(Complex[][] points) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (Complex[] set : points) {
+			for (Complex point : set) {
+				if (point == null || point.isNaN() || point.isInfinite())
+					continue;
+				minX = Math.min(minX, point.getReal());
+				maxX = Math.max(maxX, point.getReal());
+				minY = Math.min(minY, point.getImaginary());
+				maxY = Math.max(maxY, point.getImaginary());
+			}
+		}
+
+		// no points, use the default view of the graph
+		if (minX > maxX)
+			return new double[] { -2, -2, 4, 4 };
+
+		double w = Math.max(maxX - minX, 1e-12);
+		double h = Math.max(maxY - minY, 1e-12);
+		return new double[] { minX - w * MARGIN, minY - h * MARGIN,
+				w * (1 + 2 * MARGIN), h * (1 + 2 * MARGIN) };
+	}
+}
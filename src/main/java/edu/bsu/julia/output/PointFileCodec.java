@@ -0,0 +1,318 @@
+package edu.bsu.julia.output;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.ComplexNumberUtils;
+import edu.bsu.julia.generators.WorkerPool;
+
+/**
+ * reads and writes the text files of points used for the temp files of
+ * {@link OutputSet}s, saved sets and sessions: one point per line, the real
+ * and imaginary values separated by a space in the format of
+ * {@link ComplexNumberUtils#exportString(Complex)}. The numbers are formatted
+ * and parsed straight to and from bytes by
+ * {@link ComplexNumberUtils#formatDouble(double, byte[], int)} and
+ * {@link ComplexNumberUtils#parseDouble(ByteBuffer, int, int, double[])},
+ * anything out of the ordinary is parsed by
+ * {@link ComplexNumberUtils#parseComplexNumber(String)}. Large files are split on line boundaries
+ * and the parts are parsed or formatted on the {@link WorkerPool}.
+ */
+public final class PointFileCodec {
+	// the bytes of a file parsed by one task
+	private static final int PARSE_CHUNK = 1 << 20;
+	// the points formatted by one task, and the tasks written at once
+	private static final int FORMAT_CHUNK = 16384;
+	private static final int FORMAT_BATCH = 16;
+	private static final byte[] LINE_SEPARATOR = System.getProperty(
+			"line.separator").getBytes();
+	/**
+	 * private constructor so that this class can only be used staticly
+	 */
+	private PointFileCodec() {
+
+	}
+
+	/**
+	 * format a point as its real and imaginary values separated by a space
+	 *
+	 * @return the position after the text
+	 */
+	public static int formatPoint(Complex point, byte[] buffer, int position) {
+		position = ComplexNumberUtils.formatDouble(point.getReal(), buffer,
+				position);
+		buffer[position++] = ' ';
+		return ComplexNumberUtils.formatDouble(point.getImaginary(), buffer,
+				position);
+	}
+
+	/**
+	 * write points to a file, one per line. Points that are null are left
+	 * out.
+	 *
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public static void write(final Complex[] points, File file)
+			throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			write(points, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * copy a file of points as it is, like the temp file of an
+	 * {@link OutputSet} to a saved set. The channels move the bytes between
+	 * the files without copying them through the heap, in the kernel where
+	 * the system can.
+	 *
+	 * @throws IOException
+	 *             if a file can't be read or written
+	 */
+	public static void copy(File from, File to) throws IOException {
+		FileInputStream in = new FileInputStream(from);
+		try {
+			FileOutputStream out = new FileOutputStream(to);
+			try {
+				FileChannel source = in.getChannel();
+				FileChannel target = out.getChannel();
+				long size = source.size();
+				long position = 0;
+				// transferTo may move fewer bytes than asked for
+				while (position < size)
+					position += source.transferTo(position, size - position,
+							target);
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * write points to a stream, one per line, formatting them in parallel.
+	 * Points that are null are left out.
+	 *
+	 * @throws IOException
+	 *             if the stream can't be written
+	 */
+	public static void write(final Complex[] points, OutputStream out)
+			throws IOException {
+		int batch = FORMAT_CHUNK * FORMAT_BATCH;
+		for (int first = 0; first < points.length; first += batch) {
+			final int start = first;
+			final int end = Math.min(points.length, first + batch);
+			int chunks = (end - start + FORMAT_CHUNK - 1) / FORMAT_CHUNK;
+			final byte[][] text = new byte[chunks][];
+			final int[] lengths = new int[chunks];
+			WorkerPool.forEachChunk(chunks, 1, new WorkerPool.ChunkTask() {
+				@Override
+				public void run(int firstChunk, int endChunk) {
+					for (int c = firstChunk; c < endChunk; c++) {
+						int from = start + c * FORMAT_CHUNK;
+						int to = Math.min(end, from + FORMAT_CHUNK);
+						byte[] buffer = new byte[(to - from) * 32];
+						int position = 0;
+						int line = 2 * ComplexNumberUtils.MAX_DOUBLE_BYTES + 1
+								+ LINE_SEPARATOR.length;
+						for (int i = from; i < to; i++) {
+							if (points[i] == null)
+								continue;
+							if (position + line > buffer.length)
+								buffer = Arrays.copyOf(buffer, Math.max(
+										buffer.length * 2, position + line));
+							position = formatPoint(points[i], buffer, position);
+							System.arraycopy(LINE_SEPARATOR, 0, buffer,
+									position, LINE_SEPARATOR.length);
+							position += LINE_SEPARATOR.length;
+						}
+						text[c] = buffer;
+						lengths[c] = position;
+					}
+				}
+			});
+			for (int c = 0; c < chunks; c++)
+				out.write(text[c], 0, lengths[c]);
+		}
+	}
+
+	/**
+	 * read the points of a file, one per line like
+	 * {@link ComplexNumberUtils#parseComplexNumber(String)}
+	 *
+	 * @return the points with null for every line that isn't a point
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public static Complex[] read(File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException(file + " is too large to read");
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+				;// keep reading
+			buffer.flip();
+			return parse(buffer);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * parse the points in the text from the position to the limit of a
+	 * buffer, splitting it on line boundaries to parse the parts in parallel
+	 * if it is large. Lines end with \n, \r\n or \r like for
+	 * {@link java.util.Scanner#nextLine()}.
+	 *
+	 * @return the points with null for every line that isn't a point
+	 */
+	public static Complex[] parse(final ByteBuffer buffer) {
+		int start = buffer.position();
+		int end = buffer.limit();
+		int chunks = Math.max(1, (end - start + PARSE_CHUNK - 1) / PARSE_CHUNK);
+		final int[] bounds = new int[chunks + 1];
+		bounds[0] = start;
+		for (int c = 1; c < chunks; c++)
+			bounds[c] = Math.max(bounds[c - 1], lineStart(buffer, start + c
+					* PARSE_CHUNK, end));
+		bounds[chunks] = end;
+
+		final List<List<Complex>> parts = new ArrayList<List<Complex>>();
+		for (int c = 0; c < chunks; c++)
+			parts.add(null);
+		WorkerPool.forEachChunk(chunks, 1, new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int firstChunk, int endChunk) {
+				Parser parser = new Parser(buffer);
+				for (int c = firstChunk; c < endChunk; c++)
+					parts.set(c, parser.lines(bounds[c], bounds[c + 1]));
+			}
+		});
+
+		int count = 0;
+		for (List<Complex> part : parts)
+			count += part.size();
+		Complex[] points = new Complex[count];
+		count = 0;
+		for (List<Complex> part : parts)
+			for (Complex point : part)
+				points[count++] = point;
+		return points;
+	}
+
+	/**
+	 * @return the start of the first line at or after a position
+	 */
+	private static int lineStart(ByteBuffer buffer, int position, int end) {
+		if (position >= end)
+			return end;
+		byte before = buffer.get(position - 1);
+		if (before == '\n')
+			return position;
+		if (before == '\r')
+			return (buffer.get(position) == '\n') ? position + 1 : position;
+		while (position < end) {
+			byte b = buffer.get(position++);
+			if (b == '\n')
+				return position;
+			if (b == '\r')
+				return (position < end && buffer.get(position) == '\n') ? position + 1
+						: position;
+		}
+		return end;
+	}
+
+	/**
+	 * the state of parsing one part of a buffer
+	 */
+	private static class Parser {
+		private final ByteBuffer buffer;
+		// the value of the last number parsed
+		private final double[] value = new double[1];
+
+		public Parser(ByteBuffer b) {
+			buffer = b;
+		}
+
+		/**
+		 * @return the points of every line from start to end
+		 */
+		public List<Complex> lines(int start, int end) {
+			List<Complex> points = new ArrayList<Complex>();
+			int lineStart = start;
+			while (lineStart < end) {
+				int lineEnd = lineStart;
+				while (lineEnd < end) {
+					byte b = buffer.get(lineEnd);
+					if (b == '\n' || b == '\r')
+						break;
+					lineEnd++;
+				}
+				points.add(point(lineStart, lineEnd));
+				lineStart = lineEnd;
+				if (lineStart < end) {
+					if (buffer.get(lineStart) == '\r' && lineStart + 1 < end
+							&& buffer.get(lineStart + 1) == '\n')
+						lineStart += 2;
+					else
+						lineStart++;
+				}
+			}
+			return points;
+		}
+
+		/**
+		 * parse a line like "x y" or "{x, y}", anything else is given to
+		 * {@link ComplexNumberUtils#parseComplexNumber(String)}
+		 */
+		private Complex point(int start, int end) {
+			int p = start;
+			if (p < end && buffer.get(p) == '{')
+				p++;
+			p = ComplexNumberUtils.parseDouble(buffer, p, end, value);
+			if (p < 0)
+				return parseSlowly(start, end);
+			double real = value[0];
+			if (p < end && buffer.get(p) == ',')
+				p++;
+			if (p >= end || (buffer.get(p) != ' ' && buffer.get(p) != '\t'))
+				return parseSlowly(start, end);
+			p = ComplexNumberUtils.parseDouble(buffer, p + 1, end, value);
+			if (p < 0)
+				return parseSlowly(start, end);
+			double imaginary = value[0];
+			if (p < end && buffer.get(p) == '}')
+				p++;
+			for (; p < end; p++)
+				if (buffer.get(p) != ' ' && buffer.get(p) != '\t')
+					return parseSlowly(start, end);
+			return new Complex(real, imaginary);
+		}
+
+		private Complex parseSlowly(int start, int end) {
+			byte[] text = new byte[end - start];
+			for (int i = 0; i < text.length; i++)
+				text[i] = buffer.get(start + i);
+			return ComplexNumberUtils.parseComplexNumber(new String(text,
+					Charset.defaultCharset()));
+		}
+	}
+}
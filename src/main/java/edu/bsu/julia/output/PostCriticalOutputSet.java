@@ -8,6 +8,7 @@ import javax.swing.JComponent;
 import javax.swing.JLabel;
 
 import edu.bsu.julia.generators.OutputSetGenerator;
+import edu.bsu.julia.generators.PostCriticalOutputSetGenerator;
 import edu.bsu.julia.input.InputFunction;
 import edu.bsu.julia.session.Session;
 
@@ -19,6 +20,7 @@ import edu.bsu.julia.session.Session;
  */
 public class PostCriticalOutputSet extends OutputSet {
 	private final int tValue;
+	private final PostCriticalOutputSetGenerator postCriticalGenerator;
 
 	/**
 	 * constructor for {@link PostCriticalOutputSet}
@@ -39,6 +41,19 @@ public class PostCriticalOutputSet extends OutputSet {
 		super(info, i, type, gen, l);
 
 		tValue = t;
+		postCriticalGenerator = (gen instanceof PostCriticalOutputSetGenerator) ? (PostCriticalOutputSetGenerator) gen
+				: null;
+	}
+
+	/**
+	 * @return true if the post critical set was found to be finite, false if
+	 *         it was still growing at the t value, or null if this isn't
+	 *         known (the set is still being generated or was loaded from a
+	 *         file)
+	 */
+	public Boolean isFinite() {
+		return (postCriticalGenerator == null) ? null : postCriticalGenerator
+				.isFinite();
 	}
 
 	/**
@@ -62,6 +77,15 @@ public class PostCriticalOutputSet extends OutputSet {
 		}
 	}
 
+	/**
+	 * @see OutputSet#getCacheKey()
+	 */
+	@Override
+	public String getCacheKey() {
+		return OutputSetCache.createKey(functionType, iterations, skips, seed,
+				inputFunctions, null, tValue);
+	}
+
 	/**
 	 * @see OutputSet#historyInfo()
 	 * @return a {@link String} with the history information about this
@@ -78,6 +102,10 @@ public class PostCriticalOutputSet extends OutputSet {
 	public JComponent[] propertiesComponents() {
 		JComponent[] superComponents = super.propertiesComponents();
 		((Box) superComponents[0]).add(new JLabel("T value: " + tValue));
+		Boolean finite = isFinite();
+		if (finite != null)
+			((Box) superComponents[0]).add(new JLabel("Finite:  "
+					+ (finite ? "yes" : "not within t = " + tValue)));
 		return superComponents;
 	}
 
@@ -59,6 +59,15 @@ public class RecursiveOutputSet extends OutputSet {
 		}
 	}
 
+	/**
+	 * @see OutputSet#getCacheKey()
+	 */
+	@Override
+	public String getCacheKey() {
+		return OutputSetCache.createKey(functionType, iterations, skips, seed,
+				inputFunctions, outputSets, null);
+	}
+
 	/**
 	 * @see OutputSet#historyInfo()
 	 * @return a {@link String} with the history information about this
@@ -0,0 +1,122 @@
+package edu.bsu.julia.precision;
+
+import org.apache.commons.math.complex.Complex;
+
+/**
+ * a complex number with a {@link DoubleDouble} real and imaginary part, for
+ * following the points of a set past the precision of a double. Immutable
+ * like {@link Complex}.
+ */
+public final class DDComplex {
+	private final DoubleDouble real;
+	private final DoubleDouble imaginary;
+
+	public DDComplex(DoubleDouble re, DoubleDouble im) {
+		real = re;
+		imaginary = im;
+	}
+
+	/**
+	 * @return the {@link Complex} as a {@link DDComplex}
+	 */
+	public static DDComplex valueOf(Complex value) {
+		return new DDComplex(DoubleDouble.valueOf(value.getReal()),
+				DoubleDouble.valueOf(value.getImaginary()));
+	}
+
+	/**
+	 * @param value
+	 *            the high parts
+	 * @param realLow
+	 *            the low part of the real value
+	 * @param imaginaryLow
+	 *            the low part of the imaginary value
+	 * @return the sum of the parts as a {@link DDComplex}
+	 */
+	public static DDComplex valueOf(Complex value, double realLow,
+			double imaginaryLow) {
+		return new DDComplex(DoubleDouble.valueOf(value.getReal(), realLow),
+				DoubleDouble.valueOf(value.getImaginary(), imaginaryLow));
+	}
+
+	public DoubleDouble getReal() {
+		return real;
+	}
+
+	public DoubleDouble getImaginary() {
+		return imaginary;
+	}
+
+	/**
+	 * @return the nearest {@link Complex}
+	 */
+	public Complex toComplex() {
+		return new Complex(real.doubleValue(), imaginary.doubleValue());
+	}
+
+	public DDComplex add(DDComplex other) {
+		return new DDComplex(real.add(other.real), imaginary
+				.add(other.imaginary));
+	}
+
+	public DDComplex subtract(DDComplex other) {
+		return new DDComplex(real.subtract(other.real), imaginary
+				.subtract(other.imaginary));
+	}
+
+	public DDComplex multiply(DDComplex other) {
+		return new DDComplex(real.multiply(other.real).subtract(
+				imaginary.multiply(other.imaginary)), real.multiply(
+				other.imaginary).add(imaginary.multiply(other.real)));
+	}
+
+	/**
+	 * multiply by a {@link Complex}, like a coefficient of a function
+	 */
+	public DDComplex multiply(Complex other) {
+		double re = other.getReal();
+		double im = other.getImaginary();
+		return new DDComplex(real.multiply(re).subtract(
+				imaginary.multiply(im)), real.multiply(im).add(
+				imaginary.multiply(re)));
+	}
+
+	public DDComplex add(Complex other) {
+		return new DDComplex(real.add(other.getReal()), imaginary.add(other
+				.getImaginary()));
+	}
+
+	public DDComplex divide(DDComplex other) {
+		DoubleDouble denominator = other.real.multiply(other.real).add(
+				other.imaginary.multiply(other.imaginary));
+		DoubleDouble re = real.multiply(other.real).add(
+				imaginary.multiply(other.imaginary));
+		DoubleDouble im = imaginary.multiply(other.real).subtract(
+				real.multiply(other.imaginary));
+		return new DDComplex(re.divide(denominator), im.divide(denominator));
+	}
+
+	/**
+	 * @return this number raised to a power that isn't negative
+	 */
+	public DDComplex pow(int power) {
+		DDComplex result = new DDComplex(DoubleDouble.valueOf(1),
+				DoubleDouble.ZERO);
+		DDComplex square = this;
+		for (int p = power; p > 0; p >>= 1) {
+			if ((p & 1) != 0)
+				result = result.multiply(square);
+			if (p > 1)
+				square = square.multiply(square);
+		}
+		return result;
+	}
+
+	public boolean isNaN() {
+		return real.isNaN() || imaginary.isNaN();
+	}
+
+	public String toString() {
+		return "(" + real + ") + (" + imaginary + ")i";
+	}
+}
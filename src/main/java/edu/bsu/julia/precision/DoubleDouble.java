@@ -0,0 +1,133 @@
+package edu.bsu.julia.precision;
+
+/**
+ * a real number held as the unevaluated sum of two doubles, the high part and
+ * a low part smaller than half a unit in the last place of the high part.
+ * This gives about 32 significant digits using only double arithmetic, from
+ * the error-free sums and products of Dekker and Knuth. Like
+ * {@link org.apache.commons.math.complex.Complex} the objects are immutable.
+ */
+public final class DoubleDouble {
+	public static final DoubleDouble ZERO = new DoubleDouble(0, 0);
+
+	// 2^27 + 1, splits a double into two halves of 26 bits
+	private static final double SPLITTER = 134217729.0;
+
+	private final double high;
+	private final double low;
+
+	private DoubleDouble(double h, double l) {
+		high = h;
+		low = l;
+	}
+
+	/**
+	 * @return the double as a {@link DoubleDouble}
+	 */
+	public static DoubleDouble valueOf(double value) {
+		return new DoubleDouble(value, 0);
+	}
+
+	/**
+	 * @return the sum of a high and a low part, normalized
+	 */
+	public static DoubleDouble valueOf(double high, double low) {
+		double s = high + low;
+		return new DoubleDouble(s, low - (s - high));
+	}
+
+	public double getHigh() {
+		return high;
+	}
+
+	public double getLow() {
+		return low;
+	}
+
+	/**
+	 * @return the nearest double
+	 */
+	public double doubleValue() {
+		return high + low;
+	}
+
+	public DoubleDouble negate() {
+		return new DoubleDouble(-high, -low);
+	}
+
+	public DoubleDouble add(DoubleDouble other) {
+		// the sum of the high parts and of the low parts, each with its error
+		double s = high + other.high;
+		double v = s - high;
+		double se = (high - (s - v)) + (other.high - v);
+		double t = low + other.low;
+		double w = t - low;
+		double te = (low - (t - w)) + (other.low - w);
+		se += t;
+		double h = s + se;
+		se = se - (h - s);
+		se += te;
+		double r = h + se;
+		return new DoubleDouble(r, se - (r - h));
+	}
+
+	public DoubleDouble add(double other) {
+		double s = high + other;
+		double v = s - high;
+		double e = (high - (s - v)) + (other - v) + low;
+		double r = s + e;
+		return new DoubleDouble(r, e - (r - s));
+	}
+
+	public DoubleDouble subtract(DoubleDouble other) {
+		return add(other.negate());
+	}
+
+	public DoubleDouble multiply(DoubleDouble other) {
+		double p = high * other.high;
+		double e = productError(high, other.high, p);
+		e += high * other.low + low * other.high;
+		double r = p + e;
+		return new DoubleDouble(r, e - (r - p));
+	}
+
+	public DoubleDouble multiply(double other) {
+		double p = high * other;
+		double e = productError(high, other, p) + low * other;
+		double r = p + e;
+		return new DoubleDouble(r, e - (r - p));
+	}
+
+	public DoubleDouble divide(DoubleDouble other) {
+		// a first quotient, then correct it by the remainder
+		double q1 = high / other.high;
+		DoubleDouble remainder = subtract(other.multiply(q1));
+		double q2 = remainder.high / other.high;
+		remainder = remainder.subtract(other.multiply(q2));
+		double q3 = remainder.high / other.high;
+		return valueOf(q1, q2).add(q3);
+	}
+
+	/**
+	 * @return the exact error of the double product p = a * b, so that a * b
+	 *         = p + error
+	 */
+	private static double productError(double a, double b, double p) {
+		double t = SPLITTER * a;
+		double aHigh = t - (t - a);
+		double aLow = a - aHigh;
+		t = SPLITTER * b;
+		double bHigh = t - (t - b);
+		double bLow = b - bHigh;
+		return ((aHigh * bHigh - p) + aHigh * bLow + aLow * bHigh) + aLow
+				* bLow;
+	}
+
+	public boolean isNaN() {
+		return Double.isNaN(high) || Double.isNaN(low);
+	}
+
+	public String toString() {
+		return high + " + " + low;
+	}
+}
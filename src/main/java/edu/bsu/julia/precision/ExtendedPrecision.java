@@ -0,0 +1,170 @@
+package edu.bsu.julia.precision;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.input.InputFunction;
+
+/**
+ * utility class for generating the points of a set in double-double
+ * precision. The input functions still find their inverse values in double
+ * precision; each value is then corrected with Newton's method, using the
+ * function evaluated forwards in double-double precision, which doubles the
+ * number of correct digits with every step. This works for every function
+ * that is a polynomial (see {@link InputFunction#getPolynomialPowers()}).
+ */
+public final class ExtendedPrecision {
+	/**
+	 * when to generate sets in extended precision
+	 */
+	public static enum Mode {
+		DOUBLE("Double"), AUTOMATIC("Automatic"), EXTENDED("Double-double");
+
+		private final String description;
+
+		private Mode(String d) {
+			description = d;
+		}
+
+		public String description() {
+			return description;
+		}
+	}
+
+	// the corrections made to a value found in double precision. each one
+	// doubles its correct digits, two are enough for any value that started
+	// with more than 8
+	private static final int NEWTON_STEPS = 2;
+	// a correction larger than this, relative to the value, means the value
+	// is near a critical point where Newton's method can't be trusted
+	private static final double NEWTON_LIMIT = 1e-8;
+	// the size of a pixel relative to the coordinates below which double
+	// precision points are no longer accurate to a pixel. a double has 52
+	// bits, a few are left for the error that builds up along an orbit
+	private static final double DOUBLE_LIMIT = 1e-13;
+
+	/**
+	 * private constructor so that this class can only be used staticly
+	 */
+	private ExtendedPrecision() {
+
+	}
+
+	/**
+	 * @return true if every function can be evaluated in extended precision
+	 */
+	public static boolean isSupported(InputFunction[] functions) {
+		for (InputFunction function : functions)
+			if (function.getPolynomialPowers() == null)
+				return false;
+		return functions.length > 0;
+	}
+
+	/**
+	 * decide if a view is zoomed in far enough that double precision points
+	 * can't be placed to the pixel
+	 *
+	 * @param x
+	 *            the left of the view
+	 * @param y
+	 *            the bottom of the view
+	 * @param width
+	 *            the width of the view
+	 * @param height
+	 *            the height of the view
+	 * @param pixels
+	 *            the width of the view in pixels
+	 * @return true if the view needs extended precision
+	 */
+	public static boolean isNeeded(double x, double y, double width,
+			double height, double pixels) {
+		double magnitude = Math.max(Math.max(Math.abs(x), Math.abs(x + width)),
+				Math.max(Math.abs(y), Math.abs(y + height)));
+		return width / Math.max(1, pixels) < magnitude * DOUBLE_LIMIT;
+	}
+
+	/**
+	 * evaluate a polynomial function composed with itself m times
+	 *
+	 * @param function
+	 *            a function that {@link #isSupported(InputFunction[])}
+	 * @param seed
+	 *            the starting value
+	 * @return the value of the function in extended precision
+	 */
+	public static DDComplex evaluateForwards(InputFunction function,
+			DDComplex seed) {
+		int[] powers = function.getPolynomialPowers();
+		Complex[] coefficients = function.getCoefficients();
+		DDComplex w = seed;
+		for (int i = 0; i < function.getM(); i++) {
+			DDComplex result = DDComplex.valueOf(Complex.ZERO);
+			for (int j = 0; j < powers.length; j++)
+				if (powers[j] >= 0)
+					result = result.add(w.pow(powers[j]).multiply(
+							coefficients[j]));
+			w = result;
+		}
+		return w;
+	}
+
+	/**
+	 * the derivative of a polynomial function composed with itself m times,
+	 * in double precision which is all a Newton step needs
+	 */
+	private static Complex derivative(InputFunction function, Complex seed) {
+		int[] powers = function.getPolynomialPowers();
+		Complex[] coefficients = function.getCoefficients();
+		Complex w = seed;
+		Complex slope = Complex.ONE;
+		for (int i = 0; i < function.getM(); i++) {
+			Complex value = Complex.ZERO;
+			Complex d = Complex.ZERO;
+			for (int j = 0; j < powers.length; j++) {
+				if (powers[j] < 0)
+					continue;
+				value = value.add(coefficients[j].multiply(pow(w, powers[j])));
+				if (powers[j] > 0)
+					d = d.add(coefficients[j].multiply(pow(w, powers[j] - 1))
+							.multiply(powers[j]));
+			}
+			slope = slope.multiply(d);
+			w = value;
+		}
+		return slope;
+	}
+
+	private static Complex pow(Complex z, int power) {
+		Complex result = Complex.ONE;
+		for (int i = 0; i < power; i++)
+			result = result.multiply(z);
+		return result;
+	}
+
+	/**
+	 * correct an inverse value of a function found in double precision
+	 *
+	 * @param function
+	 *            a function that {@link #isSupported(InputFunction[])}
+	 * @param target
+	 *            the point the inverse value was found for, in extended
+	 *            precision
+	 * @param approximation
+	 *            the inverse value found in double precision
+	 * @return the inverse value in extended precision, or the approximation if
+	 *         it couldn't be corrected
+	 */
+	public static DDComplex refineInverse(InputFunction function,
+			DDComplex target, Complex approximation) {
+		DDComplex w = DDComplex.valueOf(approximation);
+		double limit = NEWTON_LIMIT * Math.max(1, approximation.abs());
+		for (int i = 0; i < NEWTON_STEPS; i++) {
+			Complex residual = evaluateForwards(function, w).subtract(target)
+					.toComplex();
+			Complex step = residual.divide(derivative(function, w.toComplex()));
+			if (step.isNaN() || step.isInfinite() || step.abs() > limit)
+				break;
+			w = w.subtract(DDComplex.valueOf(step));
+		}
+		return w;
+	}
+}
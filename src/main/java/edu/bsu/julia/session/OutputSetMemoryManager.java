@@ -0,0 +1,196 @@
+package edu.bsu.julia.session;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import edu.bsu.julia.output.OutputSet;
+
+/**
+ * keeps the points of the {@link OutputSet}s of a {@link Session} within a
+ * memory budget. The sets are kept in least recently viewed order and when the
+ * points held by all the sets go over the budget the least recently viewed
+ * sets are unloaded to their temp files. An unloaded set reads its points
+ * back in the next time it is drawn.
+ *
+ * <p>
+ * The budget is read from the julia.memory.budget system property in
+ * megabytes. If it isn't set half of the maximum heap size is used.
+ * </p>
+ */
+public class OutputSetMemoryManager implements PropertyChangeListener {
+	/**
+	 * approximate heap size of one {@link org.apache.commons.math.complex.Complex}
+	 * and the reference to it in the points array
+	 */
+	public static final long BYTES_PER_POINT = 48;
+	public static final String BUDGET_PROPERTY = "julia.memory.budget";
+
+	// least recently viewed sets first
+	private final LinkedList<OutputSet> sets = new LinkedList<OutputSet>();
+	private List<OutputSet> viewed = new LinkedList<OutputSet>();
+	private long budget;
+
+	/**
+	 * constructor for {@link OutputSetMemoryManager} using the budget from the
+	 * system properties
+	 */
+	public OutputSetMemoryManager() {
+		this(defaultBudget());
+	}
+
+	/**
+	 * constructor for {@link OutputSetMemoryManager}
+	 *
+	 * @param b
+	 *            the memory budget in bytes
+	 */
+	public OutputSetMemoryManager(long b) {
+		budget = b;
+	}
+
+	/**
+	 * @return the budget in bytes from the julia.memory.budget property or half
+	 *         the maximum heap size
+	 */
+	public static long defaultBudget() {
+		String value = System.getProperty(BUDGET_PROPERTY);
+		if (value != null) {
+			try {
+				long megabytes = Long.parseLong(value.trim());
+				if (megabytes > 0)
+					return megabytes * 1024 * 1024;
+			} catch (NumberFormatException e) {
+			}
+		}
+		return Runtime.getRuntime().maxMemory() / 2;
+	}
+
+	/**
+	 * start managing an {@link OutputSet}
+	 */
+	public synchronized void add(OutputSet set) {
+		if (indexOf(sets, set) >= 0)
+			return;
+		sets.addLast(set);
+		set.addListener(this);
+	}
+
+	/**
+	 * stop managing an {@link OutputSet}
+	 */
+	public synchronized void remove(OutputSet set) {
+		removeFrom(sets, set);
+		removeFrom(viewed, set);
+		set.removeListener(this);
+	}
+
+	/**
+	 * mark the {@link OutputSet}s as the sets being drawn. These are moved to
+	 * the end of the least recently viewed list and are never unloaded while
+	 * they are being viewed.
+	 *
+	 * @param viewedSets
+	 *            the sets that are being drawn
+	 */
+	public synchronized void setViewed(OutputSet[] viewedSets) {
+		viewed = new LinkedList<OutputSet>(Arrays.asList(viewedSets));
+		for (OutputSet set : viewedSets) {
+			if (removeFrom(sets, set))
+				sets.addLast(set);
+		}
+		enforceBudget();
+	}
+
+	/**
+	 * @return the approximate number of bytes used by the points of all the
+	 *         loaded {@link OutputSet}s
+	 */
+	public synchronized long getLoadedBytes() {
+		long total = 0;
+		for (OutputSet set : sets)
+			if (set.isLoaded())
+				total += set.getNumOfPoints() * BYTES_PER_POINT;
+		return total;
+	}
+
+	public synchronized long getBudget() {
+		return budget;
+	}
+
+	public synchronized void setBudget(long b) {
+		budget = b;
+		enforceBudget();
+	}
+
+	/**
+	 * unload least recently viewed sets until the loaded points fit in the
+	 * budget or there is nothing left that can be unloaded
+	 */
+	public synchronized void enforceBudget() {
+		long loaded = getLoadedBytes();
+		Iterator<OutputSet> it = sets.iterator();
+		while (loaded > budget && it.hasNext()) {
+			loaded -= unloadIfPossible(it.next());
+		}
+	}
+
+	/**
+	 * unload the least recently viewed set that can be unloaded
+	 *
+	 * @return true if a set was unloaded
+	 */
+	public synchronized boolean unloadLeastRecentlyViewed() {
+		for (OutputSet set : sets)
+			if (unloadIfPossible(set) > 0)
+				return true;
+		return false;
+	}
+
+	/**
+	 * @return the number of bytes freed
+	 */
+	private long unloadIfPossible(OutputSet set) {
+		if (!set.isLoaded() || indexOf(viewed, set) >= 0)
+			return 0;
+		long bytes = set.getNumOfPoints() * BYTES_PER_POINT;
+		set.unload();
+		return set.isLoaded() ? 0 : bytes;
+	}
+
+	/**
+	 * {@link OutputSet#equals(Object)} compares the contents of the sets so
+	 * the lists are searched by identity instead
+	 */
+	private static int indexOf(List<OutputSet> list, OutputSet set) {
+		int index = 0;
+		for (OutputSet s : list) {
+			if (s == set)
+				return index;
+			index++;
+		}
+		return -1;
+	}
+
+	private static boolean removeFrom(List<OutputSet> list, OutputSet set) {
+		int index = indexOf(list, set);
+		if (index < 0)
+			return false;
+		list.remove(index);
+		return true;
+	}
+
+	/**
+	 * listen for sets that loaded their points or finished writing their temp
+	 * file, either of which may let the budget be enforced
+	 */
+	@Override
+	public void propertyChange(PropertyChangeEvent evt) {
+		String name = evt.getPropertyName();
+		if ("reselect".equals(name) || "pointsFile".equals(name))
+			enforceBudget();
+	}
+}
@@ -0,0 +1,192 @@
+package edu.bsu.julia.session;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Vector;
+
+import javax.swing.SwingWorker;
+
+import org.apache.commons.math.complex.Complex;
+
+import edu.bsu.julia.ComplexNumberUtils;
+import edu.bsu.julia.input.InputFunction;
+import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.session.Session.Importer;
+
+/**
+ * a {@link Session.Importer} for plain text parameter files, used by the batch
+ * mode. A parameter file uses the same lines as the session.txt and in.*.txt
+ * files of a saved session:
+ *
+ * <pre>
+ * # comment
+ * min_points: 50000
+ * skips: 20
+ * seed: {1, 0}
+ * begin_input_function
+ *     class: QuadraticInputFunction
+ *     m: 1
+ *     coefficient: {1, 0}
+ *     coefficient: {0, 0}
+ *     coefficient: {-1, 0}
+ * end_input_function
+ * </pre>
+ *
+ * The class may be given without the edu.bsu.julia.input package.
+ */
+public class ParameterFileImporter extends SwingWorker<Boolean, Void>
+		implements Importer {
+	private static final String INPUT_PACKAGE = "edu.bsu.julia.input.";
+
+	private int iterations = 50000;
+	private int skips = 20;
+	private Complex seed = new Complex(1, 0);
+	private final Vector<InputFunction> inputFunctions = new Vector<InputFunction>();
+	private final File file;
+
+	public ParameterFileImporter(File f) {
+		file = f;
+	}
+
+	protected Boolean doInBackground() throws Exception {
+		Scanner in = new Scanner(new FileInputStream(file));
+		try {
+			while (in.hasNextLine()) {
+				String line = in.nextLine().trim();
+				if (line.length() == 0 || line.charAt(0) == '#')
+					continue;
+
+				String[] lineParts = splitLine(line);
+				if (lineParts[0].equalsIgnoreCase("min_points")) {
+					iterations = Integer.parseInt(lineParts[1]);
+				} else if (lineParts[0].equalsIgnoreCase("skips")) {
+					skips = Integer.parseInt(lineParts[1]);
+				} else if (lineParts[0].equalsIgnoreCase("seed")) {
+					seed = parseComplex(lineParts[1]);
+				} else if (lineParts[0]
+						.equalsIgnoreCase("begin_input_function")) {
+					inputFunctions.add(readInputFunction(in));
+				}
+			}
+		} finally {
+			in.close();
+		}
+
+		for (int i = 0; i < inputFunctions.size(); i++) {
+			inputFunctions.get(i).setSubscript(i + 1);
+		}
+		return true;
+	}
+
+	private InputFunction readInputFunction(Scanner in) throws IOException {
+		int m = 1;
+		List<Complex> coefficients = new ArrayList<Complex>();
+		String className = "";
+
+		while (in.hasNextLine()) {
+			String line = in.nextLine().trim();
+			if (line.length() == 0 || line.charAt(0) == '#')
+				continue;
+			if (line.equalsIgnoreCase("end_input_function"))
+				break;
+
+			String[] lineParts = splitLine(line);
+			if (lineParts[0].equalsIgnoreCase("class")) {
+				className = lineParts[1];
+			} else if (lineParts[0].equalsIgnoreCase("m")) {
+				m = Integer.parseInt(lineParts[1]);
+			} else if (lineParts[0].equalsIgnoreCase("coefficient")) {
+				coefficients.add(parseComplex(lineParts[1]));
+			}
+		}
+
+		if (className.indexOf('.') < 0)
+			className = INPUT_PACKAGE + className;
+		return createFunction(className, m, coefficients);
+	}
+
+	/**
+	 * create the function with
+	 * {@link InputFunction#newInstance(Class, int, Complex[])}
+	 */
+	private InputFunction createFunction(String className, int m,
+			List<Complex> coefficients) throws IOException {
+		try {
+			return InputFunction.newInstance(Class.forName(className)
+					.asSubclass(InputFunction.class), m, coefficients
+					.toArray(new Complex[] {}));
+		} catch (Exception e) {
+			throw new IOException("could not create " + className + ": "
+					+ e.getMessage());
+		}
+	}
+
+	private Complex parseComplex(String s) throws IOException {
+		Complex c = ComplexNumberUtils.parseComplexNumber(s);
+		if (c == null)
+			throw new IOException("not a complex number: " + s);
+		return c;
+	}
+
+	/**
+	 * split the line on the : character and trim the parts
+	 */
+	private String[] splitLine(String line) {
+		String[] lineParts = line.split(":");
+		for (int i = 0; i < lineParts.length; i++)
+			lineParts[i] = lineParts[i].trim();
+		return lineParts;
+	}
+
+	public Vector<InputFunction> provideInputFunctions() {
+		return inputFunctions;
+	}
+
+	public int provideInputSubscript() {
+		return inputFunctions.size();
+	}
+
+	public Integer provideIterations() {
+		return iterations;
+	}
+
+	public Vector<OutputSet> provideOutputSets() {
+		return new Vector<OutputSet>();
+	}
+
+	public int provideOutputSubscript() {
+		return 0;
+	}
+
+	public Complex provideSeedValue() {
+		return seed;
+	}
+
+	public Integer provideSkips() {
+		return skips;
+	}
+
+	public int[] provideSelectedInputIndices() {
+		int[] selected = new int[inputFunctions.size()];
+		for (int i = 0; i < selected.length; i++) {
+			selected[i] = i;
+		}
+		return selected;
+	}
+
+	public String provideSelectedMethod() {
+		return "full";
+	}
+
+	public int[] provideSelectedOutputIndices() {
+		return new int[] {};
+	}
+
+	public String provideSelectedType() {
+		return "julia";
+	}
+}
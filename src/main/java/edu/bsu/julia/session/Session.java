@@ -6,9 +6,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 
 import javax.swing.AbstractButton;
 import javax.swing.ButtonGroup;
@@ -100,7 +98,7 @@ public class Session {
 	private Complex seed;
 	private List<InputFunction> inputFunctions;
 	private List<OutputSet> outputSets;
-	private Queue<OutputSet> outputQueue;
+	private final OutputSetMemoryManager memoryManager = new OutputSetMemoryManager();
 	private int inputSubscript;
 	private int outputSubscript;
 	private boolean modified = false;
@@ -126,7 +124,8 @@ public class Session {
 		inputFunctions = new ArrayList<InputFunction>(importer
 				.provideInputFunctions());
 		outputSets = new ArrayList<OutputSet>(importer.provideOutputSets());
-		outputQueue = new LinkedList<OutputSet>(outputSets);
+		for (OutputSet set : outputSets)
+			memoryManager.add(set);
 		inputSubscript = importer.provideInputSubscript();
 		outputSubscript = importer.provideOutputSubscript();
 
@@ -237,7 +236,7 @@ public class Session {
 	public void addOutputSet(OutputSet set) {
 		markModified();
 		outputSets.add(set);
-		outputQueue.add(set);
+		memoryManager.add(set);
 		set.setSubscript(getNextOutSubscript());
 		support.firePropertyChange("addOutputSet", null, set);
 	}
@@ -245,7 +244,7 @@ public class Session {
 	public void deleteOutputSet(OutputSet set) {
 		markModified();
 		outputSets.remove(set);
-		outputQueue.remove(set);
+		memoryManager.remove(set);
 		set.delete();
 		support.firePropertyChange("deleteOutputSet", null, set);
 	}
@@ -254,11 +253,15 @@ public class Session {
 	 * method to unload an {@link OutputSet} to try and free some heap space
 	 */
 	public void freeHeapSpace() {
-		OutputSet set = outputQueue.poll();
-		if (set != null) {
-			set.unload();
-			outputQueue.add(set);
-		}
+		memoryManager.unloadLeastRecentlyViewed();
+	}
+
+	/**
+	 * @return the {@link OutputSetMemoryManager} that keeps the points of this
+	 *         session's {@link OutputSet}s within the memory budget
+	 */
+	public OutputSetMemoryManager getMemoryManager() {
+		return memoryManager;
 	}
 
 	public void addListener(PropertyChangeListener list) {
@@ -1,18 +1,13 @@
 package edu.bsu.julia.session;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import javax.swing.SwingWorker;
 
@@ -25,7 +20,8 @@ import edu.bsu.julia.session.Session.Exporter;
 
 public class SessionFileExporter extends SwingWorker<Boolean, Void> implements
 		Exporter {
-	private static final int BUFFER_SIZE = 2048;
+	private boolean compressPoints = true;
+	private boolean parallelCompression = true;
 	private List<InputFunction> inputFunctions;
 	private int iterations;
 	private List<OutputSet> outputSets;
@@ -77,16 +73,35 @@ public class SessionFileExporter extends SwingWorker<Boolean, Void> implements
 		type = t;
 	}
 
+	/**
+	 * @param c
+	 *            false to store the points of the sets in the zip file
+	 *            without compressing them, which makes a larger file much
+	 *            faster. The other entries are always compressed.
+	 */
+	public void setCompressPoints(boolean c) {
+		compressPoints = c;
+	}
+
+	/**
+	 * @param p
+	 *            true to compress the entries on all the processors, false
+	 *            to compress them on the thread saving the file. The zip file
+	 *            is the same either way.
+	 */
+	public void setParallelCompression(boolean p) {
+		parallelCompression = p;
+	}
+
 	protected Boolean doInBackground() throws Exception {
 		float maxProgress = 1 + inputFunctions.size() + outputSets.size();
 		float progress = 0;
 
 		// create a new zip file output stream
-		ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(
-				new FileOutputStream(file)));
+		ZipWriter out = new ZipWriter(file, parallelCompression);
 
 		// write the session info the zip
-		writeFileToZip(createSessionInfoFile(), "session.txt", out);
+		writeFileToZip(createSessionInfoFile(), "session.txt", out, true);
 		progress++;
 		setProgress((int) (progress / maxProgress * 100));
 
@@ -94,7 +109,7 @@ public class SessionFileExporter extends SwingWorker<Boolean, Void> implements
 			File temp = function.getFile();
 			String name = "in." + function.getInputID() + ".txt";
 			if (temp != null) {
-				writeFileToZip(temp, name, out);
+				writeFileToZip(temp, name, out, true);
 			}
 
 			progress++;
@@ -105,8 +120,8 @@ public class SessionFileExporter extends SwingWorker<Boolean, Void> implements
 			File[] temp = set.getFiles();
 			String name = "out." + set.getOutputID();
 			if (temp != null && temp.length == 2) {
-				writeFileToZip(temp[0], name + ".txt", out);
-				writeFileToZip(temp[1], name + ".dat", out);
+				writeFileToZip(temp[0], name + ".txt", out, true);
+				writeFileToZip(temp[1], name + ".dat", out, compressPoints);
 			}
 
 			progress++;
@@ -148,16 +163,10 @@ public class SessionFileExporter extends SwingWorker<Boolean, Void> implements
 	}
 
 	private void writeFileToZip(File file, String zipEntryName,
-			ZipOutputStream out) throws IOException {
-		byte data[] = new byte[BUFFER_SIZE];
-		InputStream in = new BufferedInputStream(new FileInputStream(file),
-				BUFFER_SIZE);
-		ZipEntry entry = new ZipEntry(zipEntryName);
-		out.putNextEntry(entry);
-		int count;
-		while ((count = in.read(data, 0, BUFFER_SIZE)) != -1) {
-			out.write(data, 0, count);
-		}
-		in.close();
+			ZipWriter out, boolean compress) throws IOException {
+		if (compress)
+			out.putDeflated(zipEntryName, file);
+		else
+			out.putStored(zipEntryName, file);
 	}
 }
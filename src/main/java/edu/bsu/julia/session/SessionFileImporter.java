@@ -30,6 +30,7 @@ import edu.bsu.julia.generators.DummyOutputSetGenerator;
 import edu.bsu.julia.generators.OutputSetGenerator;
 import edu.bsu.julia.input.InputFunction;
 import edu.bsu.julia.output.OutputSet;
+import edu.bsu.julia.output.PointFileCodec;
 import edu.bsu.julia.output.PostCriticalOutputSet;
 import edu.bsu.julia.output.RecursiveOutputSet;
 import edu.bsu.julia.session.Session.Importer;
@@ -143,21 +144,15 @@ public class SessionFileImporter extends SwingWorker<Boolean, Void> implements
 
 			Scanner infoScanner = new Scanner(new BufferedInputStream(
 					new FileInputStream(infoFile)));
-			Scanner dataScanner = new Scanner(new BufferedInputStream(
-					new FileInputStream(dataFile)));
-			readOutputSet(key, infoScanner, dataScanner);
+			readOutputSet(key, infoScanner, dataFile);
 			infoScanner.close();
-			dataScanner.close();
 		}
 
 		for (File dataFile : outputDataList) {
 			progress += 1;
 			setProgress((int) (progress / maxProgress * 100));
 
-			Scanner dataScanner = new Scanner(new BufferedInputStream(
-					new FileInputStream(dataFile)));
-			readBasicOutputSet(dataScanner);
-			dataScanner.close();
+			readBasicOutputSet(dataFile);
 		}
 
 		clearTempFiles();
@@ -265,7 +260,7 @@ public class SessionFileImporter extends SwingWorker<Boolean, Void> implements
 		}
 	}
 
-	private void readOutputSet(Long outputID, Scanner info, Scanner data)
+	private void readOutputSet(Long outputID, Scanner info, File data)
 			throws IOException, ClassNotFoundException,
 			IllegalArgumentException, InstantiationException,
 			IllegalAccessException, InvocationTargetException {
@@ -340,11 +335,8 @@ public class SessionFileImporter extends SwingWorker<Boolean, Void> implements
 					File dataFile = outputDataMap.get(key);
 					Scanner infoScanner = new Scanner(new BufferedInputStream(
 							new FileInputStream(infoFile)));
-					Scanner dataScanner = new Scanner(new BufferedInputStream(
-							new FileInputStream(dataFile)));
-					readOutputSet(key, infoScanner, dataScanner);
+					readOutputSet(key, infoScanner, dataFile);
 					infoScanner.close();
-					dataScanner.close();
 
 					outSets.add(outputSets.get(key));
 
@@ -357,9 +349,7 @@ public class SessionFileImporter extends SwingWorker<Boolean, Void> implements
 					// output function does not exist, the data file is a dummy
 					// file
 					File temp = File.createTempFile("dummy", ".tmp");
-					Scanner dataScanner = new Scanner(new FileInputStream(temp));
-					readOutputSet(key, info, dataScanner);
-					dataScanner.close();
+					readOutputSet(key, info, temp);
 					temp.delete();
 
 					outSets.add(outputSets.remove(key));
@@ -368,9 +358,7 @@ public class SessionFileImporter extends SwingWorker<Boolean, Void> implements
 		}
 
 		// read the points from the data file
-		while (data.hasNextLine()) {
-			points.add(ComplexNumberUtils.parseComplexNumber(data.nextLine()));
-		}
+		Collections.addAll(points, PointFileCodec.read(data));
 
 		// create setData with the iteration, skip, and seed values
 		final Integer iter = iterations;
@@ -419,12 +407,10 @@ public class SessionFileImporter extends SwingWorker<Boolean, Void> implements
 		outputSets.put(outputID, set);
 	}
 
-	private void readBasicOutputSet(Scanner data) {
+	private void readBasicOutputSet(File data) throws IOException {
 		// read the points from the data file
 		List<Complex> points = new ArrayList<Complex>();
-		while (data.hasNextLine()) {
-			points.add(ComplexNumberUtils.parseComplexNumber(data.nextLine()));
-		}
+		Collections.addAll(points, PointFileCodec.read(data));
 
 		// create null data for the basic set
 		OutputSet.Info info = new OutputSet.Info() {
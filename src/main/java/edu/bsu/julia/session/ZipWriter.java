@@ -0,0 +1,418 @@
+package edu.bsu.julia.session;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import edu.bsu.julia.generators.WorkerPool;
+
+/**
+ * writes zip files like {@link java.util.zip.ZipOutputStream}, but compresses
+ * the files put in it in parallel. Each file is split into blocks that are
+ * deflated on the {@link WorkerPool} at the same time, every block starting
+ * from the end of the block before it as a preset dictionary and ending on a
+ * byte boundary, so the blocks joined in order are the same deflate stream
+ * one {@link Deflater} would make. Any zip reader, like
+ * {@link java.util.zip.ZipInputStream}, can read the file. Sizes over 4 GB
+ * use the zip64 extensions.
+ */
+final class ZipWriter {
+	// the bytes deflated by one task, and the blocks read at once
+	private static final int BLOCK_SIZE = 1 << 20;
+	private static final int BLOCK_BATCH = 16;
+	// the largest window of a deflate stream, the dictionary of each block
+	private static final int DICTIONARY_SIZE = 32768;
+	private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+	private static final int MAX_ENTRIES = 0xFFFF;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	// the entry name is in UTF-8, and the data descriptor follows the data
+	private static final int FLAG_UTF8 = 0x800;
+	private static final int FLAG_DESCRIPTOR = 0x8;
+	private static final int VERSION = 20;
+	private static final int VERSION_ZIP64 = 45;
+	private static final int METHOD_STORED = 0;
+	private static final int METHOD_DEFLATED = 8;
+
+	/**
+	 * what the central directory needs to know about an entry
+	 */
+	private static class Entry {
+		byte[] name;
+		int flags;
+		int method;
+		long crc;
+		long compressedSize;
+		long size;
+		long offset;
+	}
+
+	private final OutputStream out;
+	private final List<Entry> entries = new ArrayList<Entry>();
+	private final boolean parallel;
+	private final int time;
+	private final int date;
+	// the last block of the batch before is kept at the front of the data
+	private final byte[] data = new byte[DICTIONARY_SIZE + BLOCK_SIZE
+			* BLOCK_BATCH];
+	private long written = 0;
+
+	/**
+	 * @param file
+	 *            the zip file to write
+	 * @param p
+	 *            true to deflate on the {@link WorkerPool}, false to deflate
+	 *            the blocks one at a time on the calling thread
+	 * @throws IOException
+	 *             if the file can't be created
+	 */
+	public ZipWriter(File file, boolean p) throws IOException {
+		out = new BufferedOutputStream(new FileOutputStream(file), BLOCK_SIZE);
+		parallel = p;
+
+		// every entry has the time the zip file was made, in MS-DOS format
+		Calendar now = Calendar.getInstance();
+		time = (now.get(Calendar.HOUR_OF_DAY) << 11)
+				| (now.get(Calendar.MINUTE) << 5)
+				| (now.get(Calendar.SECOND) >> 1);
+		date = (Math.max(0, now.get(Calendar.YEAR) - 1980) << 9)
+				| ((now.get(Calendar.MONTH) + 1) << 5)
+				| now.get(Calendar.DAY_OF_MONTH);
+	}
+
+	/**
+	 * add a file to the zip without compressing it
+	 *
+	 * @throws IOException
+	 *             if the file can't be read or the zip file written
+	 */
+	public void putStored(String name, File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			// a stored entry needs its size and checksum before its data
+			CRC32 crc = new CRC32();
+			long size = 0;
+			int count;
+			while ((count = read(channel, 0, data.length)) > 0) {
+				crc.update(data, 0, count);
+				size += count;
+			}
+			Entry entry = createEntry(name, METHOD_STORED, 0);
+			entry.crc = crc.getValue();
+			entry.size = size;
+			entry.compressedSize = size;
+			writeLocalHeader(entry);
+			channel.position(0);
+			while ((count = read(channel, 0, data.length)) > 0)
+				write(data, 0, count);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * add a file to the zip, deflating its blocks in parallel. The sizes and
+	 * checksum aren't known until the end, so they follow the data.
+	 *
+	 * @throws IOException
+	 *             if the file can't be read or the zip file written
+	 */
+	public void putDeflated(String name, File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			Entry entry = createEntry(name, METHOD_DEFLATED, FLAG_DESCRIPTOR);
+			writeLocalHeader(entry);
+			CRC32 crc = new CRC32();
+			long remaining = channel.size();
+			int dictionary = 0;
+			do {
+				int count = read(channel, DICTIONARY_SIZE, data.length
+						- DICTIONARY_SIZE);
+				remaining -= count;
+				// a file that changes while it is written ends where it ends
+				boolean last = count < data.length - DICTIONARY_SIZE
+						|| remaining <= 0;
+				crc.update(data, DICTIONARY_SIZE, count);
+				byte[][] blocks = deflate(count, dictionary, last);
+				for (byte[] block : blocks)
+					write(block, 0, block.length);
+				entry.size += count;
+
+				// keep the end of this batch for the first block of the next
+				dictionary = (int) Math.min(DICTIONARY_SIZE, dictionary
+						+ (long) count);
+				System.arraycopy(data, DICTIONARY_SIZE + count - dictionary,
+						data, DICTIONARY_SIZE - dictionary, dictionary);
+				if (last)
+					break;
+			} while (true);
+			entry.crc = crc.getValue();
+			entry.compressedSize = written - entry.offset
+					- localHeaderSize(entry);
+			writeDescriptor(entry);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * deflate the bytes read into the data, starting at
+	 * {@link #DICTIONARY_SIZE}
+	 *
+	 * @param count
+	 *            the number of bytes read
+	 * @param dictionary
+	 *            the number of bytes before them from the batch before
+	 * @param last
+	 *            true if these are the last bytes of the file
+	 * @return the deflated blocks, in order
+	 */
+	private byte[][] deflate(final int count, final int dictionary,
+			final boolean last) {
+		int blockCount = Math.max(1, (count + BLOCK_SIZE - 1) / BLOCK_SIZE);
+		final byte[][] blocks = new byte[blockCount][];
+		WorkerPool.ChunkTask task = new WorkerPool.ChunkTask() {
+			@Override
+			public void run(int firstBlock, int endBlock) {
+				for (int b = firstBlock; b < endBlock; b++) {
+					int start = DICTIONARY_SIZE + b * BLOCK_SIZE;
+					int length = Math.min(BLOCK_SIZE, count - b * BLOCK_SIZE);
+					int window = b == 0 ? dictionary : DICTIONARY_SIZE;
+					blocks[b] = deflateBlock(start, length, window, last
+							&& b == blocks.length - 1);
+				}
+			}
+		};
+		if (parallel)
+			WorkerPool.forEachChunk(blockCount, 1, task);
+		else
+			task.run(0, blockCount);
+		return blocks;
+	}
+
+	private byte[] deflateBlock(int start, int length, int window,
+			boolean last) {
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			if (window > 0)
+				deflater.setDictionary(data, start - window, window);
+			deflater.setInput(data, start, length);
+			ByteArrayOutputStream block = new ByteArrayOutputStream(
+					length / 2 + 64);
+			byte[] buffer = new byte[Math.max(4096, length / 4)];
+			if (last) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					int count = deflater.deflate(buffer);
+					block.write(buffer, 0, count);
+				}
+			} else {
+				// end on a byte boundary without ending the stream. A flush
+				// that fills the buffer may have more to give
+				int count;
+				do {
+					count = deflater.deflate(buffer, 0, buffer.length,
+							Deflater.SYNC_FLUSH);
+					block.write(buffer, 0, count);
+				} while (count == buffer.length);
+			}
+			return block.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * write the central directory and close the file
+	 *
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	public void close() throws IOException {
+		try {
+			long directoryOffset = written;
+			for (Entry entry : entries)
+				writeDirectoryEntry(entry);
+			long directorySize = written - directoryOffset;
+
+			if (entries.size() >= MAX_ENTRIES
+					|| directoryOffset >= ZIP64_LIMIT
+					|| directorySize >= ZIP64_LIMIT) {
+				long recordOffset = written;
+				// zip64 end of central directory record
+				writeInt(0x06064b50);
+				writeLong(44);
+				writeShort(VERSION_ZIP64);
+				writeShort(VERSION_ZIP64);
+				writeInt(0);
+				writeInt(0);
+				writeLong(entries.size());
+				writeLong(entries.size());
+				writeLong(directorySize);
+				writeLong(directoryOffset);
+				// zip64 end of central directory locator
+				writeInt(0x07064b50);
+				writeInt(0);
+				writeLong(recordOffset);
+				writeInt(1);
+			}
+
+			// end of central directory record
+			writeInt(0x06054b50);
+			writeShort(0);
+			writeShort(0);
+			writeShort(Math.min(MAX_ENTRIES, entries.size()));
+			writeShort(Math.min(MAX_ENTRIES, entries.size()));
+			writeInt(Math.min(ZIP64_LIMIT, directorySize));
+			writeInt(Math.min(ZIP64_LIMIT, directoryOffset));
+			writeShort(0);
+		} finally {
+			out.close();
+		}
+	}
+
+	private Entry createEntry(String name, int method, int flags) {
+		Entry entry = new Entry();
+		entry.name = name.getBytes(UTF8);
+		entry.method = method;
+		entry.flags = flags | FLAG_UTF8;
+		entry.offset = written;
+		entries.add(entry);
+		return entry;
+	}
+
+	private int localHeaderSize(Entry entry) {
+		return 30 + entry.name.length + (localZip64(entry) ? 20 : 0);
+	}
+
+	/**
+	 * @return true if the local header has to give the sizes as zip64. The
+	 *         sizes of a deflated entry are in the data descriptor instead.
+	 */
+	private boolean localZip64(Entry entry) {
+		return (entry.flags & FLAG_DESCRIPTOR) == 0
+				&& entry.size >= ZIP64_LIMIT;
+	}
+
+	private void writeLocalHeader(Entry entry) throws IOException {
+		boolean zip64 = localZip64(entry);
+		boolean descriptor = (entry.flags & FLAG_DESCRIPTOR) != 0;
+		writeInt(0x04034b50);
+		writeShort(zip64 ? VERSION_ZIP64 : VERSION);
+		writeShort(entry.flags);
+		writeShort(entry.method);
+		writeShort(time);
+		writeShort(date);
+		writeInt(descriptor ? 0 : entry.crc);
+		writeInt(descriptor ? 0 : zip64 ? ZIP64_LIMIT : entry.compressedSize);
+		writeInt(descriptor ? 0 : zip64 ? ZIP64_LIMIT : entry.size);
+		writeShort(entry.name.length);
+		writeShort(zip64 ? 20 : 0);
+		write(entry.name, 0, entry.name.length);
+		if (zip64) {
+			writeShort(0x0001);
+			writeShort(16);
+			writeLong(entry.size);
+			writeLong(entry.compressedSize);
+		}
+	}
+
+	private void writeDescriptor(Entry entry) throws IOException {
+		writeInt(0x08074b50);
+		writeInt(entry.crc);
+		// readers expect eight byte sizes once the sizes don't fit in four
+		if (entry.size > ZIP64_LIMIT || entry.compressedSize > ZIP64_LIMIT) {
+			writeLong(entry.compressedSize);
+			writeLong(entry.size);
+		} else {
+			writeInt(entry.compressedSize);
+			writeInt(entry.size);
+		}
+	}
+
+	private void writeDirectoryEntry(Entry entry) throws IOException {
+		// the zip64 extra field has only the values too large for the entry
+		boolean largeSize = entry.size >= ZIP64_LIMIT;
+		boolean largeCompressed = entry.compressedSize >= ZIP64_LIMIT;
+		boolean largeOffset = entry.offset >= ZIP64_LIMIT;
+		int extra = (largeSize ? 8 : 0) + (largeCompressed ? 8 : 0)
+				+ (largeOffset ? 8 : 0);
+		int version = extra > 0 ? VERSION_ZIP64 : VERSION;
+		writeInt(0x02014b50);
+		writeShort(version);
+		writeShort(version);
+		writeShort(entry.flags);
+		writeShort(entry.method);
+		writeShort(time);
+		writeShort(date);
+		writeInt(entry.crc);
+		writeInt(Math.min(ZIP64_LIMIT, entry.compressedSize));
+		writeInt(Math.min(ZIP64_LIMIT, entry.size));
+		writeShort(entry.name.length);
+		writeShort(extra > 0 ? extra + 4 : 0);
+		writeShort(0);
+		writeShort(0);
+		writeShort(0);
+		writeInt(0);
+		writeInt(Math.min(ZIP64_LIMIT, entry.offset));
+		write(entry.name, 0, entry.name.length);
+		if (extra > 0) {
+			writeShort(0x0001);
+			writeShort(extra);
+			if (largeSize)
+				writeLong(entry.size);
+			if (largeCompressed)
+				writeLong(entry.compressedSize);
+			if (largeOffset)
+				writeLong(entry.offset);
+		}
+	}
+
+	/**
+	 * fill part of the data from a channel
+	 *
+	 * @return the number of bytes read, 0 at the end of the channel
+	 */
+	private int read(FileChannel channel, int offset, int length)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+		while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+			;// keep reading
+		return buffer.position() - offset;
+	}
+
+	private void write(byte[] bytes, int offset, int length)
+			throws IOException {
+		out.write(bytes, offset, length);
+		written += length;
+	}
+
+	private void writeShort(int value) throws IOException {
+		out.write(value & 0xff);
+		out.write((value >>> 8) & 0xff);
+		written += 2;
+	}
+
+	private void writeInt(long value) throws IOException {
+		writeShort((int) (value & 0xffff));
+		writeShort((int) ((value >>> 16) & 0xffff));
+	}
+
+	private void writeLong(long value) throws IOException {
+		writeInt(value & 0xffffffffL);
+		writeInt(value >>> 32);
+	}
+}
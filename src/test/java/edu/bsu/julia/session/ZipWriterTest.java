@@ -0,0 +1,239 @@
+package edu.bsu.julia.session;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * checks that the zip files of {@link ZipWriter} read back the same with
+ * {@link ZipInputStream}, which follows the local headers and data
+ * descriptors, and {@link ZipFile}, which follows the central directory.
+ * The sizes are around the blocks and batches of blocks the entries are
+ * deflated in.
+ */
+public class ZipWriterTest {
+	// the block size and the blocks in a batch of ZipWriter
+	private static final int BLOCK = 1 << 20;
+	private static final int BATCH = 16 * BLOCK;
+	private static final int[] SIZES = { 0, 1, 1000, 32768, BLOCK - 1, BLOCK,
+			BLOCK + 1, 3 * BLOCK + 12345, BATCH - 1, BATCH, BATCH + 1,
+			2 * BATCH + 1 };
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void deflatedInParallel() throws IOException {
+		roundTrip(true, false);
+	}
+
+	@Test
+	public void deflatedSerially() throws IOException {
+		roundTrip(false, false);
+	}
+
+	@Test
+	public void stored() throws IOException {
+		roundTrip(true, true);
+	}
+
+	@Test
+	public void storedAndDeflatedTogether() throws IOException {
+		File text = write("text", points(3 * BLOCK + 7));
+		File random = write("random", random(BLOCK + 3));
+		File zip = folder.newFile("mixed.zip");
+		ZipWriter writer = new ZipWriter(zip, true);
+		writer.putDeflated("a/points.txt", text);
+		writer.putStored("a/points.dat", random);
+		writer.putDeflated("b/\u00e4.txt", random);
+		writer.putStored("empty", write("empty", new byte[0]));
+		writer.close();
+
+		List<String> names = new ArrayList<String>();
+		names.add("a/points.txt");
+		names.add("a/points.dat");
+		names.add("b/\u00e4.txt");
+		names.add("empty");
+		List<byte[]> contents = new ArrayList<byte[]>();
+		contents.add(read(text));
+		contents.add(read(random));
+		contents.add(read(random));
+		contents.add(new byte[0]);
+		check(zip, names, contents);
+	}
+
+	/**
+	 * more entries than the end of central directory record can count need
+	 * the zip64 end records
+	 */
+	@Test
+	public void zip64EntryCount() throws IOException {
+		File small = write("small", "0.5 -0.25\n".getBytes("UTF-8"));
+		File zip = folder.newFile("many.zip");
+		ZipWriter writer = new ZipWriter(zip, false);
+		int count = 0x10000 + 10;
+		for (int i = 0; i < count; i++) {
+			if (i % 2 == 0)
+				writer.putDeflated("entry" + i, small);
+			else
+				writer.putStored("entry" + i, small);
+		}
+		writer.close();
+
+		ZipFile file = new ZipFile(zip);
+		try {
+			assertEquals(count, file.size());
+			ZipEntry last = file.getEntry("entry" + (count - 1));
+			assertNotNull(last);
+			assertArrayEquals(read(small), read(file.getInputStream(last)));
+		} finally {
+			file.close();
+		}
+		ZipInputStream in = new ZipInputStream(new FileInputStream(zip));
+		try {
+			int entries = 0;
+			while (in.getNextEntry() != null) {
+				assertArrayEquals(read(small), read(in));
+				entries++;
+			}
+			assertEquals(count, entries);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * put one entry of every size, half of them compressible text and half
+	 * random bytes, and read them all back
+	 */
+	private void roundTrip(boolean parallel, boolean stored)
+			throws IOException {
+		File zip = folder.newFile((parallel ? "parallel" : "serial")
+				+ (stored ? "-stored" : "-deflated") + ".zip");
+		ZipWriter writer = new ZipWriter(zip, parallel);
+		List<String> names = new ArrayList<String>();
+		List<byte[]> contents = new ArrayList<byte[]>();
+		for (int i = 0; i < SIZES.length; i++) {
+			byte[] bytes = (i % 2 == 0) ? points(SIZES[i]) : random(SIZES[i]);
+			File file = write("entry" + i, bytes);
+			String name = "entry" + i + ".txt";
+			if (stored)
+				writer.putStored(name, file);
+			else
+				writer.putDeflated(name, file);
+			file.delete();
+			names.add(name);
+			contents.add(bytes);
+		}
+		writer.close();
+		check(zip, names, contents);
+	}
+
+	private void check(File zip, List<String> names, List<byte[]> contents)
+			throws IOException {
+		ZipInputStream in = new ZipInputStream(new FileInputStream(zip));
+		try {
+			for (int i = 0; i < names.size(); i++) {
+				ZipEntry entry = in.getNextEntry();
+				assertNotNull("missing " + names.get(i), entry);
+				assertEquals(names.get(i), entry.getName());
+				assertArrayEquals(names.get(i), contents.get(i), read(in));
+			}
+			assertNull(in.getNextEntry());
+		} finally {
+			in.close();
+		}
+
+		ZipFile file = new ZipFile(zip);
+		try {
+			Enumeration<? extends ZipEntry> entries = file.entries();
+			for (int i = 0; i < names.size(); i++) {
+				ZipEntry entry = entries.nextElement();
+				assertEquals(names.get(i), entry.getName());
+				assertEquals(contents.get(i).length, entry.getSize());
+				CRC32 crc = new CRC32();
+				crc.update(contents.get(i));
+				assertEquals(crc.getValue(), entry.getCrc());
+				assertArrayEquals(names.get(i), contents.get(i), read(file
+						.getInputStream(entry)));
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * @return lines of points like a point file, which deflate well
+	 */
+	private static byte[] points(int size) {
+		Random random = new Random(size);
+		ByteArrayOutputStream text = new ByteArrayOutputStream(size + 64);
+		while (text.size() < size) {
+			String line = String.format("%.5f %.5f%n",
+					random.nextGaussian(), random.nextGaussian());
+			byte[] bytes = line.getBytes();
+			text.write(bytes, 0, bytes.length);
+		}
+		byte[] result = new byte[size];
+		System.arraycopy(text.toByteArray(), 0, result, 0, size);
+		return result;
+	}
+
+	/**
+	 * @return random bytes, which don't deflate at all
+	 */
+	private static byte[] random(int size) {
+		byte[] bytes = new byte[size];
+		new Random(-size).nextBytes(bytes);
+		return bytes;
+	}
+
+	private File write(String name, byte[] bytes) throws IOException {
+		File file = folder.newFile(name);
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private static byte[] read(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return read(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static byte[] read(InputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[65536];
+		int count;
+		while ((count = in.read(buffer)) > 0)
+			bytes.write(buffer, 0, count);
+		return bytes.toByteArray();
+	}
+}